@@ -18,10 +18,25 @@ package org.springframework.batch.core.configuration.support;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.configuration.DuplicateJobException;
+import org.springframework.batch.core.configuration.JobFactory;
 import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -31,6 +46,8 @@ import org.springframework.context.Lifecycle;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.util.Assert;
 
 /**
@@ -38,6 +55,11 @@ import org.springframework.util.Assert;
  * loaded as an application context with the current context as its parent, and then all the jobs from the child context
  * are registered under their bean names. A {@link JobRegistry} is required.
  *
+ * With many job definitions the startup can be shortened in two ways. The contexts can be loaded in parallel by
+ * setting a {@link TaskExecutor}, and jobs that are known by name up front can be registered with
+ * {@link #setLazyJobs(Map)}, in which case their context is only loaded when one of them is first requested from the
+ * {@link JobRegistry}.
+ *
  * @author Lucas Ward
  * @author Dave Syer
  *
@@ -46,10 +68,20 @@ import org.springframework.util.Assert;
 public class AutomaticJobRegistrar implements Ordered, Lifecycle, ApplicationListener, ApplicationContextAware,
 		InitializingBean {
 
+	private static final Log logger = LogFactory.getLog(AutomaticJobRegistrar.class);
+
 	private Collection<ApplicationContextFactory> applicationContextFactories = new ArrayList<ApplicationContextFactory>();
 
 	private JobLoader jobLoader;
 
+	private JobRegistry jobRegistry;
+
+	private TaskExecutor taskExecutor;
+
+	private Map<ApplicationContextFactory, Set<String>> lazyJobs = new LinkedHashMap<ApplicationContextFactory, Set<String>>();
+
+	private Collection<LazyContext> lazyContexts = new ArrayList<LazyContext>();
+
 	private ApplicationContext applicationContext;
 
 	private volatile boolean running = false;
@@ -93,6 +125,49 @@ public class AutomaticJobRegistrar implements Ordered, Lifecycle, ApplicationLis
 		}
 	}
 
+	/**
+	 * Register jobs without loading their application context, which is loaded through the {@link JobLoader} only
+	 * when one of the jobs is first requested from the {@link JobRegistry}. The keys are the job names and the values
+	 * the factories for the contexts that contain them (several jobs can share one factory). A context loaded this
+	 * way must contain all the jobs that are mapped to its factory and should not register any jobs itself. A
+	 * {@link JobRegistry} is required to use this.
+	 *
+	 * @param lazyJobs the factories to use keyed by job name
+	 */
+	public void setLazyJobs(Map<String, ApplicationContextFactory> lazyJobs) {
+		for (Entry<String, ApplicationContextFactory> entry : lazyJobs.entrySet()) {
+			ApplicationContextFactory applicationContextFactory = entry.getValue();
+			if (!this.lazyJobs.containsKey(applicationContextFactory)) {
+				if (applicationContextFactory instanceof ApplicationContextAware) {
+					((ApplicationContextAware) applicationContextFactory).setApplicationContext(applicationContext);
+				}
+				this.lazyJobs.put(applicationContextFactory, new LinkedHashSet<String>());
+			}
+			this.lazyJobs.get(applicationContextFactory).add(entry.getKey());
+		}
+	}
+
+	/**
+	 * The job registry that the jobs from {@link #setLazyJobs(Map)} are registered with. It should be the same as the
+	 * one used by the {@link JobLoader}.
+	 *
+	 * @param jobRegistry the {@link JobRegistry} to set
+	 */
+	public void setJobRegistry(JobRegistry jobRegistry) {
+		this.jobRegistry = jobRegistry;
+	}
+
+	/**
+	 * The task executor used to load the application contexts on start up. The default is to load them one at a time
+	 * in the calling thread. With an asynchronous executor the {@link JobLoader} has to be thread safe (like the
+	 * {@link DefaultJobLoader}).
+	 *
+	 * @param taskExecutor the {@link TaskExecutor} to set
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
 	/**
 	 * The job loader that will be used to load and manage jobs.
 	 *
@@ -122,6 +197,7 @@ public class AutomaticJobRegistrar implements Ordered, Lifecycle, ApplicationLis
 	public void afterPropertiesSet() {
 
 		Assert.state(jobLoader != null, "A JobLoader must be provided");
+		Assert.state(lazyJobs.isEmpty() || jobRegistry != null, "A JobRegistry must be provided for lazy jobs");
 
 	}
 
@@ -152,6 +228,10 @@ public class AutomaticJobRegistrar implements Ordered, Lifecycle, ApplicationLis
 	@Override
 	public void stop() {
 		synchronized (this.lifecycleMonitor) {
+			for (LazyContext lazyContext : lazyContexts) {
+				lazyContext.unregister();
+			}
+			lazyContexts.clear();
 			jobLoader.clear();
 			running = false;
 		}
@@ -168,18 +248,79 @@ public class AutomaticJobRegistrar implements Ordered, Lifecycle, ApplicationLis
 			if (running) {
 				return;
 			}
-			for (ApplicationContextFactory factory : applicationContextFactories) {
+			if (taskExecutor == null) {
+				for (ApplicationContextFactory factory : applicationContextFactories) {
+					try {
+						jobLoader.load(factory);
+					}
+					catch (DuplicateJobException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}
+			else {
+				loadInParallel();
+			}
+			for (Entry<ApplicationContextFactory, Set<String>> entry : lazyJobs.entrySet()) {
+				LazyContext lazyContext = new LazyContext(entry.getKey(), entry.getValue());
 				try {
-					jobLoader.load(factory);
+					lazyContext.register();
 				}
 				catch (DuplicateJobException e) {
 					throw new IllegalStateException(e);
 				}
+				lazyContexts.add(lazyContext);
 			}
 			running = true;
 		}
 	}
 
+	private void loadInParallel() {
+		List<Future<Collection<Job>>> tasks = new ArrayList<Future<Collection<Job>>>();
+		for (final ApplicationContextFactory factory : applicationContextFactories) {
+			FutureTask<Collection<Job>> task = new FutureTask<Collection<Job>>(new Callable<Collection<Job>>() {
+				@Override
+				public Collection<Job> call() throws Exception {
+					return jobLoader.load(factory);
+				}
+			});
+			try {
+				taskExecutor.execute(task);
+			}
+			catch (TaskRejectedException e) {
+				// load it here instead
+				task.run();
+			}
+			tasks.add(task);
+		}
+		// Wait for all of them, so that no context is still loading when this
+		// fails
+		Throwable failure = null;
+		for (Future<Collection<Job>> task : tasks) {
+			try {
+				task.get();
+			}
+			catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while loading application contexts", e);
+			}
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw new IllegalStateException(failure);
+		}
+	}
+
 	/**
 	 * Check if this component has been started.
 	 *
@@ -193,4 +334,99 @@ public class AutomaticJobRegistrar implements Ordered, Lifecycle, ApplicationLis
 		}
 	}
 
+	/**
+	 * The jobs of one application context that has not been loaded yet. Each job is registered with a
+	 * {@link JobFactory} that loads the context when it is first asked for the job. The loaded jobs then replace the
+	 * placeholders in the registry, so later requests go straight to them. The context is loaded with
+	 * {@link JobLoader#reload(ApplicationContextFactory)}, which replaces each placeholder only once its job has been
+	 * created, so concurrent requests for the jobs find the placeholders (and wait for the load) rather than nothing.
+	 */
+	private class LazyContext {
+
+		private final ApplicationContextFactory factory;
+
+		private final Set<String> jobNames;
+
+		private boolean loaded = false;
+
+		public LazyContext(ApplicationContextFactory factory, Set<String> jobNames) {
+			this.factory = factory;
+			this.jobNames = jobNames;
+		}
+
+		public void register() throws DuplicateJobException {
+			for (String jobName : jobNames) {
+				register(jobName);
+			}
+		}
+
+		private void register(final String jobName) throws DuplicateJobException {
+			jobRegistry.register(new JobFactory() {
+				@Override
+				public Job createJob() {
+					return load(jobName);
+				}
+
+				@Override
+				public String getJobName() {
+					return jobName;
+				}
+			});
+		}
+
+		public synchronized void unregister() {
+			if (!loaded) {
+				for (String jobName : jobNames) {
+					jobRegistry.unregister(jobName);
+				}
+			}
+		}
+
+		private synchronized Job load(String jobName) {
+			if (!loaded) {
+				logger.debug("Loading application context for jobs: " + jobNames);
+				Collection<Job> jobs;
+				try {
+					jobs = jobLoader.reload(factory);
+				}
+				catch (RuntimeException e) {
+					// put the placeholders back so the next request tries again
+					reregister();
+					throw e;
+				}
+				loaded = true;
+				Set<String> missing = new LinkedHashSet<String>(jobNames);
+				for (Job job : jobs) {
+					missing.remove(job.getName());
+				}
+				for (String name : missing) {
+					jobRegistry.unregister(name);
+				}
+			}
+			try {
+				return jobRegistry.getJob(jobName);
+			}
+			catch (NoSuchJobException e) {
+				throw new IllegalStateException("Job [" + jobName + "] was not found in the application context "
+						+ "loaded for it by " + factory, e);
+			}
+		}
+
+		private void reregister() {
+			Collection<String> registered = jobRegistry.getJobNames();
+			for (String jobName : jobNames) {
+				if (registered.contains(jobName)) {
+					continue;
+				}
+				try {
+					register(jobName);
+				}
+				catch (DuplicateJobException e) {
+					// registered concurrently, nothing to put back
+				}
+			}
+		}
+
+	}
+
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.explore;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+
+/**
+ * Criteria for listing and counting {@link JobExecution} summaries through
+ * {@link JobExecutionFinder#findJobExecutions(JobExecutionFilter, int)}. All the
+ * criteria are optional and the ones that are set must all match.
+ *
+ * Pages are read with a keyset rather than an offset: to get the next page,
+ * set {@link #setBeforeExecutionId(Long) beforeExecutionId} to the id of the
+ * last execution of the previous one. This keeps every page as cheap as the
+ * first however far back the listing goes.
+ *
+ * @since 3.0
+ */
+public class JobExecutionFilter {
+
+	private String jobName;
+
+	private Collection<BatchStatus> statuses;
+
+	private Date createTimeFrom;
+
+	private Date createTimeTo;
+
+	private Long beforeExecutionId;
+
+	/**
+	 * @return the job name or null
+	 */
+	public String getJobName() {
+		return jobName;
+	}
+
+	/**
+	 * Public setter for the name of the job the executions belong to.
+	 *
+	 * @param jobName the job name to set
+	 */
+	public void setJobName(String jobName) {
+		this.jobName = jobName;
+	}
+
+	/**
+	 * @return the statuses or null
+	 */
+	public Collection<BatchStatus> getStatuses() {
+		return statuses;
+	}
+
+	/**
+	 * Public setter for the statuses of the executions. An execution matches
+	 * if it has any of them.
+	 *
+	 * @param statuses the statuses to set
+	 */
+	public void setStatuses(Collection<BatchStatus> statuses) {
+		this.statuses = statuses == null || statuses.isEmpty() ? null : EnumSet.copyOf(statuses);
+	}
+
+	/**
+	 * @return the earliest create time or null
+	 */
+	public Date getCreateTimeFrom() {
+		return createTimeFrom;
+	}
+
+	/**
+	 * Public setter for the earliest create time of the executions
+	 * (inclusive).
+	 *
+	 * @param createTimeFrom the create time to set
+	 */
+	public void setCreateTimeFrom(Date createTimeFrom) {
+		this.createTimeFrom = createTimeFrom;
+	}
+
+	/**
+	 * @return the latest create time or null
+	 */
+	public Date getCreateTimeTo() {
+		return createTimeTo;
+	}
+
+	/**
+	 * Public setter for the create time the executions have to be older than
+	 * (exclusive).
+	 *
+	 * @param createTimeTo the create time to set
+	 */
+	public void setCreateTimeTo(Date createTimeTo) {
+		this.createTimeTo = createTimeTo;
+	}
+
+	/**
+	 * @return the execution id to page from or null
+	 */
+	public Long getBeforeExecutionId() {
+		return beforeExecutionId;
+	}
+
+	/**
+	 * Public setter for the keyset of the page: only executions with a lower
+	 * id than this one match. Set it to the id of the last execution of a page
+	 * to get the next one.
+	 *
+	 * @param beforeExecutionId the execution id to set
+	 */
+	public void setBeforeExecutionId(Long beforeExecutionId) {
+		this.beforeExecutionId = beforeExecutionId;
+	}
+
+	/**
+	 * Check an execution against the criteria in memory.
+	 *
+	 * @param jobExecution a {@link JobExecution} with its job instance
+	 * @return true if the execution matches all the criteria that are set
+	 */
+	public boolean matches(JobExecution jobExecution) {
+		if (jobName != null
+				&& (jobExecution.getJobInstance() == null || !jobName.equals(jobExecution.getJobInstance().getJobName()))) {
+			return false;
+		}
+		if (statuses != null && !statuses.contains(jobExecution.getStatus())) {
+			return false;
+		}
+		Date createTime = jobExecution.getCreateTime();
+		if (createTimeFrom != null && createTime.before(createTimeFrom)) {
+			return false;
+		}
+		if (createTimeTo != null && !createTime.before(createTimeTo)) {
+			return false;
+		}
+		if (beforeExecutionId != null && jobExecution.getId() >= beforeExecutionId) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "JobExecutionFilter: [jobName=" + jobName + ", statuses=" + statuses + ", createTimeFrom="
+				+ createTimeFrom + ", createTimeTo=" + createTimeTo + ", beforeExecutionId=" + beforeExecutionId
+				+ "]";
+	}
+
+}
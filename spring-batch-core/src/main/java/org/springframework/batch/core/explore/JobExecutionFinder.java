@@ -0,0 +1,60 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.explore;
+
+import java.util.List;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Query for summaries of job executions matching a
+ * {@link JobExecutionFilter}. Kept apart from {@link JobExplorer} and the
+ * job execution DAO, so that their existing implementations do not have to
+ * support it.
+ *
+ * @since 3.0
+ */
+public interface JobExecutionFinder {
+
+	/**
+	 * Retrieve a page of job execution summaries, most recent first. A summary
+	 * carries the primitive properties of the execution and the id and name
+	 * of its {@link JobInstance}, but no {@link JobParameters},
+	 * {@link StepExecution} instances or {@link ExecutionContext}, so that a
+	 * whole page can be read with a single query. Use
+	 * {@link JobExplorer#getJobExecution(Long)} to hydrate one of them.
+	 *
+	 * @param filter the criteria the executions have to match
+	 * @param count the maximum number of executions to return, none if it is
+	 * not positive
+	 * @return the matching executions up to a maximum of count values
+	 */
+	List<JobExecution> findJobExecutions(JobExecutionFilter filter, int count);
+
+	/**
+	 * Query the repository for the number of job executions that match the
+	 * given criteria.
+	 *
+	 * @param filter the criteria the executions have to match
+	 * @return the number of matching executions
+	 */
+	int getJobExecutionCount(JobExecutionFilter filter);
+
+}
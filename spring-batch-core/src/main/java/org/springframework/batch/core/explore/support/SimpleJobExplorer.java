@@ -22,6 +22,8 @@ import java.util.Set;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExecutionFilter;
+import org.springframework.batch.core.explore.JobExecutionFinder;
 import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.batch.core.repository.dao.ExecutionContextDao;
@@ -30,7 +32,9 @@ import org.springframework.batch.core.repository.dao.JobInstanceDao;
 import org.springframework.batch.core.repository.dao.StepExecutionDao;
 
 /**
- * Implementation of {@link JobExplorer} using the injected DAOs.
+ * Implementation of {@link JobExplorer} using the injected DAOs. Execution
+ * summaries can be found by filter if the {@link JobExecutionDao} is also a
+ * {@link JobExecutionFinder}.
  *
  * @author Dave Syer
  * @author Lucas Ward
@@ -42,7 +46,7 @@ import org.springframework.batch.core.repository.dao.StepExecutionDao;
  * @see StepExecutionDao
  * @since 2.0
  */
-public class SimpleJobExplorer implements JobExplorer {
+public class SimpleJobExplorer implements JobExplorer, JobExecutionFinder {
 
 	private JobInstanceDao jobInstanceDao;
 
@@ -190,6 +194,38 @@ public class SimpleJobExplorer implements JobExplorer {
 		return jobInstanceDao.getJobInstanceCount(jobName);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.springframework.batch.core.explore.JobExecutionFinder#findJobExecutions(
+	 * org.springframework.batch.core.explore.JobExecutionFilter, int)
+	 */
+	@Override
+	public List<JobExecution> findJobExecutions(JobExecutionFilter filter, int count) {
+		return getJobExecutionFinder().findJobExecutions(filter, count);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.springframework.batch.core.explore.JobExecutionFinder#getJobExecutionCount(
+	 * org.springframework.batch.core.explore.JobExecutionFilter)
+	 */
+	@Override
+	public int getJobExecutionCount(JobExecutionFilter filter) {
+		return getJobExecutionFinder().getJobExecutionCount(filter);
+	}
+
+	private JobExecutionFinder getJobExecutionFinder() {
+		if (!(jobExecutionDao instanceof JobExecutionFinder)) {
+			throw new UnsupportedOperationException("The JobExecutionDao cannot find job executions by filter: "
+					+ jobExecutionDao);
+		}
+		return (JobExecutionFinder) jobExecutionDao;
+	}
+
 	/*
 	 * Find all dependencies for a JobExecution, including JobInstance (which
 	 * requires JobParameters) plus StepExecutions
@@ -30,6 +30,7 @@ import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.job.flow.FlowExecutionStatus;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.batch.core.job.flow.State;
+import org.springframework.batch.core.job.flow.support.GraphFlow;
 import org.springframework.batch.core.job.flow.support.SimpleFlow;
 import org.springframework.batch.core.job.flow.support.StateTransition;
 import org.springframework.batch.core.job.flow.support.state.DecisionState;
@@ -72,6 +73,8 @@ public class FlowBuilder<Q> {
 
 	private int splitCounter = 0;
 
+	private int graphCounter = 0;
+
 	private int endCounter = 0;
 
 	private Map<Object, State> states = new HashMap<Object, State>();
@@ -210,6 +213,18 @@ public class FlowBuilder<Q> {
 		return new SplitBuilder<Q>(this, executor);
 	}
 
+	/**
+	 * Start a group of steps that declare their dependencies on each other and
+	 * run as soon as those have completed. The group follows the current state
+	 * on successful completion, like {@link #next(Flow)}.
+	 *
+	 * @param executor a task executor to execute the steps
+	 * @return a builder to enable fluent chaining
+	 */
+	public GraphBuilder<Q> graph(TaskExecutor executor) {
+		return new GraphBuilder<Q>(this, executor);
+	}
+
 	/**
 	 * Start a transition to a new state if the exit status from the previous state matches the pattern given.
 	 * Successful completion normally results in an exit status equal to (or starting with by convention) "COMPLETED".
@@ -628,4 +643,79 @@ public class FlowBuilder<Q> {
 
 	}
 
+	/**
+	 * A builder for a {@link GraphFlow} of steps with dependencies.
+	 *
+	 * @param <Q> the result of the parent builder's build()
+	 */
+	public static class GraphBuilder<Q> {
+
+		private final FlowBuilder<Q> parent;
+
+		private final GraphFlow flow;
+
+		private final String prefix;
+
+		private final Map<Step, String> names = new HashMap<Step, String>();
+
+		/**
+		 * @param parent the parent builder
+		 * @param executor the task executor to use for the steps
+		 */
+		public GraphBuilder(FlowBuilder<Q> parent, TaskExecutor executor) {
+			this.parent = parent;
+			String name = "graph" + (parent.graphCounter++);
+			this.prefix = parent.prefix + name + ".";
+			this.flow = new GraphFlow(name);
+			if (executor != null) {
+				flow.setTaskExecutor(executor);
+			}
+		}
+
+		/**
+		 * Add a step that starts once all its dependencies have completed.
+		 *
+		 * @param step the step to add
+		 * @param dependencies steps already added to this graph
+		 * @return this to enable chaining
+		 */
+		public GraphBuilder<Q> add(Step step, Step... dependencies) {
+			if (names.containsKey(step)) {
+				throw new FlowBuilderException("Step [" + step.getName() + "] was already added to the graph");
+			}
+			List<String> list = new ArrayList<String>();
+			for (Step dependency : dependencies) {
+				String name = names.get(dependency);
+				if (name == null) {
+					throw new FlowBuilderException("Dependency [" + dependency.getName() + "] of step ["
+							+ step.getName() + "] must be added to the graph first");
+				}
+				list.add(name);
+			}
+			String name = prefix + step.getName();
+			names.put(step, name);
+			flow.addState(new StepState(name, step), list);
+			return this;
+		}
+
+		/**
+		 * Finish the graph and continue with the parent builder.
+		 *
+		 * @return the parent builder
+		 */
+		public FlowBuilder<Q> end() {
+			try {
+				flow.afterPropertiesSet();
+			}
+			catch (Exception e) {
+				throw new FlowBuilderException("Invalid graph of steps", e);
+			}
+			if (parent.currentState == null) {
+				return parent.start(flow);
+			}
+			return parent.next(flow);
+		}
+
+	}
+
 }
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.job.flow.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.FlowExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionException;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.FlowExecutor;
+import org.springframework.batch.core.job.flow.State;
+import org.springframework.batch.core.job.flow.support.state.FlowExecutionAggregator;
+import org.springframework.batch.core.job.flow.support.state.MaxValueFlowExecutionAggregator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * A {@link Flow} of states with dependencies between them instead of
+ * transitions. Each state is passed to the {@link TaskExecutor} as soon as all
+ * the states it depends on have completed, so independent branches of a large
+ * job run side by side without explicit splits, and a state never waits for
+ * anything it does not depend on.
+ *
+ * When a state ends with a status that is not COMPLETED (or an exception) no
+ * more states are started. The states already running are allowed to finish
+ * and the aggregated status of all the states that ran is returned. Steps are
+ * executed through the {@link FlowExecutor} as usual, so on a restart the steps
+ * that completed in a previous execution are not run again and the graph picks
+ * up where it left off.
+ *
+ * @since 3.0
+ */
+public class GraphFlow implements Flow, InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(GraphFlow.class);
+
+	private final String name;
+
+	private final Map<String, State> stateMap = new LinkedHashMap<String, State>();
+
+	private final Map<String, Set<String>> dependencies = new LinkedHashMap<String, Set<String>>();
+
+	private TaskExecutor taskExecutor = new SyncTaskExecutor();
+
+	private FlowExecutionAggregator aggregator = new MaxValueFlowExecutionAggregator();
+
+	private volatile Map<String, List<String>> dependents;
+
+	/**
+	 * Create a flow with the given name.
+	 *
+	 * @param name the name of the flow
+	 */
+	public GraphFlow(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Public setter for the task executor that runs the states. Defaults to a
+	 * {@link SyncTaskExecutor}, which runs them one at a time in an order that
+	 * respects the dependencies.
+	 *
+	 * @param taskExecutor the task executor to set
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Public setter for the aggregator of the state results. Defaults to a
+	 * {@link MaxValueFlowExecutionAggregator}.
+	 *
+	 * @param aggregator the aggregator to set
+	 */
+	public void setAggregator(FlowExecutionAggregator aggregator) {
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * Add a state to the graph.
+	 *
+	 * @param state the state to add
+	 * @param dependencies the names of the states that have to complete before
+	 * this one starts
+	 */
+	public void addState(State state, String... dependencies) {
+		addState(state, Arrays.asList(dependencies));
+	}
+
+	/**
+	 * Add a state to the graph.
+	 *
+	 * @param state the state to add
+	 * @param dependencies the names of the states that have to complete before
+	 * this one starts
+	 */
+	public void addState(State state, Collection<String> dependencies) {
+		stateMap.put(state.getName(), state);
+		this.dependencies.put(state.getName(), new LinkedHashSet<String>(dependencies));
+		this.dependents = null;
+	}
+
+	/**
+	 * Get the name for this flow.
+	 *
+	 * @see Flow#getName()
+	 */
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public State getState(String stateName) {
+		return stateMap.get(stateName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Collection<State> getStates() {
+		return new ArrayList<State>(stateMap.values());
+	}
+
+	/**
+	 * Check the dependencies and pre-populate data structures needed for
+	 * execution.
+	 *
+	 * @see InitializingBean#afterPropertiesSet()
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		initializeDependencies();
+	}
+
+	/**
+	 * @see Flow#start(FlowExecutor)
+	 */
+	@Override
+	public FlowExecution start(FlowExecutor executor) throws FlowExecutionException {
+		Map<String, List<String>> dependents = this.dependents;
+		if (dependents == null) {
+			dependents = initializeDependencies();
+		}
+
+		Map<String, Integer> waiting = new HashMap<String, Integer>();
+		BlockingQueue<StateResult> completed = new LinkedBlockingQueue<StateResult>();
+		List<FlowExecution> results = new ArrayList<FlowExecution>();
+		StateResult failure = null;
+		boolean blocked = false;
+		int running = 0;
+
+		for (Entry<String, Set<String>> entry : dependencies.entrySet()) {
+			waiting.put(entry.getKey(), entry.getValue().size());
+		}
+		for (Entry<String, Set<String>> entry : dependencies.entrySet()) {
+			if (entry.getValue().isEmpty()) {
+				if (hasStopped(completed)) {
+					break;
+				}
+				if (submit(entry.getKey(), executor, completed)) {
+					running++;
+				}
+				else {
+					failure = rejected(entry.getKey());
+					blocked = true;
+					break;
+				}
+			}
+		}
+
+		while (running > 0) {
+			StateResult result;
+			try {
+				result = completed.take();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new FlowExecutionException(String.format(
+						"Interrupted while waiting for the states of flow=%s", name), e);
+			}
+			running--;
+			if (result.error != null) {
+				if (failure == null) {
+					failure = result;
+				}
+				blocked = true;
+				continue;
+			}
+			results.add(new FlowExecution(result.stateName, result.status));
+			if (!result.status.getName().startsWith(FlowExecutionStatus.COMPLETED.getName())) {
+				logger.debug("Not starting any more states in flow=" + name + " after state=" + result.stateName
+						+ " ended with status=" + result.status);
+				blocked = true;
+			}
+			if (blocked) {
+				continue;
+			}
+			for (String dependent : dependents.get(result.stateName)) {
+				int count = waiting.get(dependent) - 1;
+				waiting.put(dependent, count);
+				if (count == 0) {
+					if (hasStopped(completed)) {
+						break;
+					}
+					if (submit(dependent, executor, completed)) {
+						running++;
+					}
+					else {
+						failure = rejected(dependent);
+						blocked = true;
+						break;
+					}
+				}
+			}
+		}
+
+		if (failure != null) {
+			executor.close(new FlowExecution(failure.stateName, FlowExecutionStatus.FAILED));
+			if (failure.error instanceof FlowExecutionException) {
+				throw (FlowExecutionException) failure.error;
+			}
+			if (failure.error instanceof Error) {
+				throw (Error) failure.error;
+			}
+			throw new FlowExecutionException(String.format("Ended flow=%s at state=%s with exception", name,
+					failure.stateName), failure.error);
+		}
+
+		FlowExecution result = new FlowExecution(name, aggregator.aggregate(results));
+		executor.close(result);
+		return result;
+	}
+
+	/**
+	 * The states that completed are not run again by a restart (unless they
+	 * allow it), so resuming is the same as starting over.
+	 *
+	 * @see Flow#resume(String, FlowExecutor)
+	 */
+	@Override
+	public FlowExecution resume(String stateName, FlowExecutor executor) throws FlowExecutionException {
+		if (!stateMap.containsKey(stateName)) {
+			throw new FlowExecutionException(String.format("No state found in flow=%s with name=%s", name,
+					stateName));
+		}
+		return start(executor);
+	}
+
+	private boolean submit(final String stateName, final FlowExecutor executor,
+			final BlockingQueue<StateResult> completed) {
+		final State state = stateMap.get(stateName);
+		try {
+			taskExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					FlowExecutionStatus status = FlowExecutionStatus.UNKNOWN;
+					Throwable error = null;
+					try {
+						logger.debug("Handling state=" + stateName);
+						status = state.handle(executor);
+						logger.debug("Completed state=" + stateName + " with status=" + status);
+					}
+					catch (Throwable e) {
+						error = e;
+					}
+					finally {
+						try {
+							// each state is a flow of its own as far as the
+							// executor is concerned
+							executor.close(new FlowExecution(stateName, status));
+						}
+						finally {
+							completed.add(new StateResult(stateName, status, error));
+						}
+					}
+				}
+			});
+		}
+		catch (TaskRejectedException e) {
+			return false;
+		}
+		return true;
+	}
+
+	/*
+	 * A state run synchronously by the task executor (or a fast one) may
+	 * already have failed before its result is taken from the queue.
+	 */
+	private boolean hasStopped(BlockingQueue<StateResult> completed) {
+		for (StateResult result : completed) {
+			if (result.error != null
+					|| !result.status.getName().startsWith(FlowExecutionStatus.COMPLETED.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private StateResult rejected(String stateName) {
+		return new StateResult(stateName, FlowExecutionStatus.FAILED, new FlowExecutionException(
+				"TaskExecutor rejected task for state=" + stateName + " in flow=" + name));
+	}
+
+	/**
+	 * Check that all the dependencies are states of this flow and that there
+	 * are no cycles, and index the states by the states they depend on.
+	 */
+	private synchronized Map<String, List<String>> initializeDependencies() {
+		if (stateMap.isEmpty()) {
+			throw new IllegalArgumentException("No states were found. You must specify at least one step in a flow.");
+		}
+
+		Map<String, List<String>> result = new HashMap<String, List<String>>();
+		Map<String, Integer> waiting = new HashMap<String, Integer>();
+		LinkedList<String> ready = new LinkedList<String>();
+		for (Entry<String, Set<String>> entry : dependencies.entrySet()) {
+			result.put(entry.getKey(), new ArrayList<String>());
+			waiting.put(entry.getKey(), entry.getValue().size());
+			if (entry.getValue().isEmpty()) {
+				ready.add(entry.getKey());
+			}
+		}
+		for (Entry<String, Set<String>> entry : dependencies.entrySet()) {
+			for (String dependency : entry.getValue()) {
+				if (!result.containsKey(dependency)) {
+					throw new IllegalArgumentException("Missing state [" + dependency + "] for dependency of ["
+							+ entry.getKey() + "]");
+				}
+				result.get(dependency).add(entry.getKey());
+			}
+		}
+
+		int visited = 0;
+		while (!ready.isEmpty()) {
+			String stateName = ready.removeFirst();
+			visited++;
+			for (String dependent : result.get(stateName)) {
+				int count = waiting.get(dependent) - 1;
+				waiting.put(dependent, count);
+				if (count == 0) {
+					ready.add(dependent);
+				}
+			}
+		}
+		if (visited < dependencies.size()) {
+			List<String> cycle = new ArrayList<String>();
+			for (Entry<String, Integer> entry : waiting.entrySet()) {
+				if (entry.getValue() > 0) {
+					cycle.add(entry.getKey());
+				}
+			}
+			Collections.sort(cycle);
+			throw new IllegalArgumentException("Cyclic dependencies between states " + cycle + " in flow=" + name);
+		}
+
+		for (Entry<String, List<String>> entry : result.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		dependents = result;
+		return result;
+	}
+
+	/**
+	 * The outcome of a state, passed back from the task executor.
+	 */
+	private static class StateResult {
+
+		private final String stateName;
+
+		private final FlowExecutionStatus status;
+
+		private final Throwable error;
+
+		public StateResult(String stateName, FlowExecutionStatus status, Throwable error) {
+			this.stateName = stateName;
+			this.status = status;
+			this.error = error;
+		}
+
+	}
+
+}
@@ -60,6 +60,8 @@ public class SimpleFlow implements Flow, InitializingBean {
 
 	private Map<String, State> stateMap = new HashMap<String, State>();
 
+	private Map<String, StateTransitionTable> transitionTables = new HashMap<String, StateTransitionTable>();
+
 	private List<StateTransition> stateTransitions = new ArrayList<StateTransition>();
 
 	private final String name;
@@ -155,7 +157,9 @@ public class SimpleFlow implements Flow, InitializingBean {
 			stateName = state.getName();
 
 			try {
-				logger.debug("Handling state="+stateName);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Handling state="+stateName);
+				}
 				status = state.handle(executor);
 				stepExecution = executor.getStepExecution();
 			}
@@ -169,7 +173,9 @@ public class SimpleFlow implements Flow, InitializingBean {
 						stateName), e);
 			}
 
-			logger.debug("Completed state="+stateName+" with status="+status);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Completed state="+stateName+" with status="+status);
+			}
 
 			state = nextState(stateName, status, stepExecution);
 		}
@@ -193,25 +199,22 @@ public class SimpleFlow implements Flow, InitializingBean {
 	 * @throws JobExecutionException
 	 */
 	protected State nextState(String stateName, FlowExecutionStatus status, StepExecution stepExecution) throws FlowExecutionException {
-		Set<StateTransition> set = transitionMap.get(stateName);
+		StateTransitionTable table = transitionTables.get(stateName);
 
-		if (set == null) {
+		if (table == null) {
 			throw new FlowExecutionException(String.format("No transitions found in flow=%s for state=%s", getName(),
 					stateName));
 		}
 
 		String next = null;
-		String exitCode = status.getName();
+		StateTransition stateTransition = table.find(status.getName());
 
-		for (StateTransition stateTransition : set) {
-			if (stateTransition.matches(exitCode) || (exitCode.equals("PENDING") && stateTransition.matches("STOPPED"))) {
-				if (stateTransition.isEnd()) {
-					// End of job
-					return null;
-				}
-				next = stateTransition.getNext();
-				break;
+		if (stateTransition != null) {
+			if (stateTransition.isEnd()) {
+				// End of job
+				return null;
 			}
+			next = stateTransition.getNext();
 		}
 
 		if (next == null) {
@@ -256,6 +259,7 @@ public class SimpleFlow implements Flow, InitializingBean {
 	private void initializeTransitions() {
 		startState = null;
 		transitionMap.clear();
+		transitionTables.clear();
 		stateMap.clear();
 		boolean hasEndStep = false;
 
@@ -308,6 +312,11 @@ public class SimpleFlow implements Flow, InitializingBean {
 					"No end state was found.  You must specify at least one transition with no next state.");
 		}
 
+		// compiled once so that loops do not match the patterns over and over
+		for (Map.Entry<String, Set<StateTransition>> entry : transitionMap.entrySet()) {
+			transitionTables.put(entry.getKey(), new StateTransitionTable(entry.getValue()));
+		}
+
 		startState = stateTransitions.get(0).getState();
 
 	}
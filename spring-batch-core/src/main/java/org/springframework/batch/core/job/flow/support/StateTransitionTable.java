@@ -0,0 +1,142 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.job.flow.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.batch.support.PatternMatcher;
+
+/**
+ * The transitions out of one state, compiled for repeated lookups by exit
+ * status. Plain patterns go into a hash table and wildcard patterns are
+ * reduced to prefix and suffix checks where possible. The answer is the same
+ * as trying {@link StateTransition#matches(String)} on each transition in
+ * order, with "PENDING" also matching the transitions for "STOPPED".
+ *
+ * @since 3.0
+ */
+class StateTransitionTable {
+
+	// upper limit on the distinct exit statuses remembered per state
+	private static final int MAX_CACHED_STATUSES = 256;
+
+	private static final Object NO_MATCH = new Object();
+
+	private final StateTransition[] transitions;
+
+	private final Map<String, Integer> exact = new HashMap<String, Integer>();
+
+	private final int[] wildcardIndexes;
+
+	private final Pattern[] wildcards;
+
+	private final ConcurrentMap<String, Object> cache = new ConcurrentHashMap<String, Object>();
+
+	/**
+	 * @param transitions the transitions in the order they should be tried
+	 */
+	public StateTransitionTable(Collection<StateTransition> transitions) {
+		this.transitions = transitions.toArray(new StateTransition[transitions.size()]);
+		List<Integer> indexes = new ArrayList<Integer>();
+		List<Pattern> patterns = new ArrayList<Pattern>();
+		for (int i = 0; i < this.transitions.length; i++) {
+			String pattern = this.transitions[i].getPattern();
+			if (pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0) {
+				if (!exact.containsKey(pattern)) {
+					exact.put(pattern, i);
+				}
+			}
+			else {
+				indexes.add(i);
+				patterns.add(new Pattern(pattern));
+			}
+		}
+		wildcardIndexes = new int[indexes.size()];
+		for (int i = 0; i < wildcardIndexes.length; i++) {
+			wildcardIndexes[i] = indexes.get(i);
+		}
+		wildcards = patterns.toArray(new Pattern[patterns.size()]);
+	}
+
+	/**
+	 * @param exitCode the exit status of the state
+	 * @return the first matching transition or null if there is none
+	 */
+	public StateTransition find(String exitCode) {
+		Object result = cache.get(exitCode);
+		if (result == null) {
+			int index = firstMatch(exitCode);
+			if (exitCode.equals("PENDING")) {
+				index = Math.min(index, firstMatch("STOPPED"));
+			}
+			result = index < transitions.length ? transitions[index] : NO_MATCH;
+			if (cache.size() < MAX_CACHED_STATUSES) {
+				cache.put(exitCode, result);
+			}
+		}
+		return result == NO_MATCH ? null : (StateTransition) result;
+	}
+
+	private int firstMatch(String status) {
+		Integer index = exact.get(status);
+		int best = index == null ? transitions.length : index;
+		for (int i = 0; i < wildcards.length && wildcardIndexes[i] < best; i++) {
+			if (wildcards[i].matches(status)) {
+				return wildcardIndexes[i];
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * A wildcard pattern reduced to the cheapest equivalent check.
+	 */
+	private static class Pattern {
+
+		private final String pattern;
+
+		private final String prefix;
+
+		private final String suffix;
+
+		private final boolean simple;
+
+		public Pattern(String pattern) {
+			this.pattern = pattern;
+			int star = pattern.indexOf('*');
+			// a single star and no single character wildcards
+			this.simple = pattern.indexOf('?') < 0 && star >= 0 && star == pattern.lastIndexOf('*');
+			this.prefix = simple ? pattern.substring(0, star) : null;
+			this.suffix = simple ? pattern.substring(star + 1) : null;
+		}
+
+		public boolean matches(String status) {
+			if (!simple) {
+				return PatternMatcher.match(pattern, status);
+			}
+			return status.length() >= prefix.length() + suffix.length() && status.startsWith(prefix)
+					&& status.endsWith(suffix);
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.launch;
+
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Exception indicating that a launch was turned away before a job execution
+ * was created, because there was no room to queue it or it waited too long.
+ * Callers can treat it as a signal to slow down and try again later.
+ *
+ * @since 3.0
+ */
+@SuppressWarnings("serial")
+public class JobLaunchRejectedException extends TaskRejectedException {
+
+	/**
+	 * Create a {@link JobLaunchRejectedException} with a message.
+	 *
+	 * @param msg the message to signal cause of failure
+	 */
+	public JobLaunchRejectedException(String msg) {
+		super(msg);
+	}
+
+	/**
+	 * Create a {@link JobLaunchRejectedException} with a message and a cause.
+	 *
+	 * @param msg the message to signal cause of failure
+	 * @param cause the cause of the failure
+	 */
+	public JobLaunchRejectedException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+
+}
@@ -16,8 +16,18 @@
 package org.springframework.batch.core.launch.support;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,6 +37,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -56,6 +76,8 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.util.Assert;
+import org.springframework.util.StopWatch;
+import org.springframework.util.StopWatch.TaskInfo;
 import org.springframework.util.StringUtils;
 
 /**
@@ -156,6 +178,34 @@ import org.springframework.util.StringUtils;
  * jobIdentifier as the bean id.
  * </p>
  *
+ * <p>
+ * Creating the application context usually takes much longer than a short job,
+ * so the time spent in each phase of the startup is logged, and the launcher
+ * can also be kept running between jobs. Started with
+ * <code>-daemon port tokenFile</code> it waits for launch requests on the
+ * given port of the loopback interface, and keeps the application context of
+ * each jobPath (including any {@link JobLocator} in it) open for the next
+ * request. Started with <code>-client port tokenFile</code> followed by the
+ * usual arguments it sends them to the daemon and exits with the exit code of
+ * the job. The daemon stops after the running jobs have ended when a client
+ * sends <code>-shutdown</code> instead of a job.
+ * </p>
+ *
+ * <p>
+ * The daemon writes a random token to the token file, readable only by its
+ * owner, and rejects requests that do not start with it. Other users of the
+ * machine can therefore not launch jobs through the port. At most
+ * {@link #setMaxRequests(int) maxRequests} requests are handled at the same
+ * time and as many wait for a thread; any more are rejected.
+ * </p>
+ *
+ * <code>
+ * java org.springframework.batch.core.launch.support.CommandLineJobRunner -daemon 9990 /home/batch/.launcher
+ * <br/>
+ * java org.springframework.batch.core.launch.support.CommandLineJobRunner -client 9990 /home/batch/.launcher testJob.xml
+ * testJob schedule.date=2008/01/24
+ * </code>
+ *
  * @author Dave Syer
  * @author Lucas Ward
  * @since 1.0
@@ -181,8 +231,29 @@ public class CommandLineJobRunner {
 
 	private JobRepository jobRepository;
 
+	private String errorMessage = "";
+
+	// Only set in daemon mode, where the contexts are kept open between jobs
+	private ConcurrentMap<String, Future<ConfigurableApplicationContext>> contexts;
+
+	private int maxRequests = 10;
+
+	// the time a client has to send its request in daemon mode
+	private static final int REQUEST_TIMEOUT = 10000;
+
 	private final static List<String> VALID_OPTS = Arrays.asList(new String [] {"-restart", "-next", "-stop", "-abandon"});
 
+	/**
+	 * The maximum number of launch requests handled at the same time in
+	 * daemon mode. As many more wait for one of them to end, and the rest are
+	 * rejected. Defaults to 10.
+	 *
+	 * @param maxRequests the maximum number of concurrent requests
+	 */
+	public void setMaxRequests(int maxRequests) {
+		this.maxRequests = maxRequests;
+	}
+
 	/**
 	 * Injection setter for the {@link JobLauncher}.
 	 *
@@ -282,16 +353,17 @@ public class CommandLineJobRunner {
 	int start(String jobPath, String jobIdentifier, String[] parameters, Set<String> opts) {
 
 		ConfigurableApplicationContext context = null;
+		StopWatch stopWatch = new StopWatch();
 
 		try {
-			try {
-				context = new ClassPathXmlApplicationContext(jobPath);
-			} catch (BeansException e) {
-				logger.info("No XML-based context named " + jobPath + ". Trying class-based configuration.");
-				context = new AnnotationConfigApplicationContext(Class.forName(jobPath));
-			}
+			stopWatch.start("context");
+			context = getContext(jobPath);
+			stopWatch.stop();
+			stopWatch.start("autowire");
 			context.getAutowireCapableBeanFactory().autowireBeanProperties(this,
 					AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE, false);
+			stopWatch.stop();
+			stopWatch.start("prepare");
 
 			Assert.state(launcher != null, "A JobLauncher must be provided.  Please add one to the configuration.");
 			if (opts.contains("-restart") || opts.contains("-next")) {
@@ -358,6 +430,8 @@ public class CommandLineJobRunner {
 				map.putAll(jobParameters.getParameters());
 				jobParameters = new JobParameters(map);
 			}
+			stopWatch.stop();
+			logStartup(jobIdentifier, stopWatch);
 
 			JobExecution jobExecution = launcher.run(job, jobParameters);
 			return exitCodeMapper.intValue(jobExecution.getExitStatus().getExitCode());
@@ -367,15 +441,375 @@ public class CommandLineJobRunner {
 			String message = "Job Terminated in error: " + e.getMessage();
 			logger.error(message, e);
 			CommandLineJobRunner.message = message;
+			this.errorMessage = message;
 			return exitCodeMapper.intValue(ExitStatus.FAILED.getExitCode());
 		}
 		finally {
-			if (context != null) {
+			if (context != null && contexts == null) {
 				context.close();
 			}
 		}
 	}
 
+	private ConfigurableApplicationContext getContext(final String jobPath) throws ClassNotFoundException {
+		if (contexts == null) {
+			return createContext(jobPath);
+		}
+		// Concurrent requests for the same jobPath wait for a single context,
+		// while contexts for other paths are created at the same time
+		FutureTask<ConfigurableApplicationContext> task = new FutureTask<ConfigurableApplicationContext>(
+				new Callable<ConfigurableApplicationContext>() {
+					@Override
+					public ConfigurableApplicationContext call() throws Exception {
+						return createContext(jobPath);
+					}
+				});
+		Future<ConfigurableApplicationContext> context = contexts.putIfAbsent(jobPath, task);
+		if (context == null) {
+			context = task;
+			task.run();
+		}
+		else {
+			logger.debug("Using cached context for " + jobPath);
+		}
+		try {
+			return context.get();
+		}
+		catch (ExecutionException e) {
+			// the next request tries again
+			contexts.remove(jobPath, context);
+			Throwable cause = e.getCause();
+			if (cause instanceof ClassNotFoundException) {
+				throw (ClassNotFoundException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Could not create the context for " + jobPath, cause);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the context for " + jobPath, e);
+		}
+	}
+
+	private ConfigurableApplicationContext createContext(String jobPath) throws ClassNotFoundException {
+		try {
+			return new ClassPathXmlApplicationContext(jobPath);
+		} catch (BeansException e) {
+			logger.info("No XML-based context named " + jobPath + ". Trying class-based configuration.");
+			return new AnnotationConfigApplicationContext(Class.forName(jobPath));
+		}
+	}
+
+	private void logStartup(String jobIdentifier, StopWatch stopWatch) {
+		if (logger.isInfoEnabled()) {
+			StringBuilder builder = new StringBuilder("Startup of job=" + jobIdentifier + " took "
+					+ stopWatch.getTotalTimeMillis() + "ms:");
+			for (TaskInfo task : stopWatch.getTaskInfo()) {
+				builder.append(" " + task.getTaskName() + "=" + task.getTimeMillis() + "ms");
+			}
+			logger.info(builder.toString());
+		}
+	}
+
+	/*
+	 * Accept launch requests on the given port of the loopback interface until
+	 * a client asks for a shutdown. The requests have to start with the token
+	 * written to the token file. Each request runs in a thread of a bounded
+	 * pool and the contexts are closed when all of them have ended.
+	 */
+	int serve(int port, File tokenFile) {
+		final String token;
+		try {
+			token = writeToken(tokenFile);
+		}
+		catch (IOException e) {
+			String message = "Could not write the token file " + tokenFile + ": " + e.getMessage();
+			logger.error(message, e);
+			CommandLineJobRunner.message = message;
+			return exitCodeMapper.intValue(ExitStatus.FAILED.getExitCode());
+		}
+		final ServerSocket server;
+		try {
+			server = new ServerSocket(port, 0, InetAddress.getByName(null));
+		}
+		catch (IOException e) {
+			tokenFile.delete();
+			String message = "Could not listen for launch requests on port " + port + ": " + e.getMessage();
+			logger.error(message, e);
+			CommandLineJobRunner.message = message;
+			return exitCodeMapper.intValue(ExitStatus.FAILED.getExitCode());
+		}
+		logger.info("Waiting for launch requests on port " + server.getLocalPort());
+
+		final ConcurrentMap<String, Future<ConfigurableApplicationContext>> contexts =
+				new ConcurrentHashMap<String, Future<ConfigurableApplicationContext>>();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(maxRequests, maxRequests, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(maxRequests));
+		try {
+			while (!server.isClosed()) {
+				final Socket socket;
+				try {
+					socket = server.accept();
+				}
+				catch (IOException e) {
+					if (!server.isClosed()) {
+						logger.warn("Could not accept launch request", e);
+					}
+					continue;
+				}
+				try {
+					executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							handle(socket, server, token, contexts);
+						}
+					});
+				}
+				catch (RejectedExecutionException e) {
+					logger.warn("Rejected a launch request: " + maxRequests + " requests are running and as many waiting");
+					reply(socket, 1, "Too many launch requests");
+				}
+			}
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted while waiting for running jobs, closing contexts anyway");
+		}
+		finally {
+			tokenFile.delete();
+			for (Future<ConfigurableApplicationContext> context : contexts.values()) {
+				try {
+					context.get().close();
+				}
+				catch (ExecutionException e) {
+					// not created, so nothing to close
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			contexts.clear();
+		}
+		logger.info("Stopped waiting for launch requests on port " + server.getLocalPort());
+		return exitCodeMapper.intValue(ExitStatus.COMPLETED.getExitCode());
+	}
+
+	/*
+	 * Write a new random token to a file only its owner can read. The file is
+	 * created and written in a new directory that is restricted to its owner
+	 * first, so that nobody else can open it before its own access is
+	 * restricted, and then renamed to the token file.
+	 */
+	private String writeToken(File tokenFile) throws IOException {
+		SecureRandom random = new SecureRandom();
+		String token = toHex(random, 16);
+		File directory = new File(tokenFile.getAbsoluteFile().getParentFile(), "." + tokenFile.getName() + "."
+				+ toHex(random, 8));
+		if (!directory.mkdir()) {
+			throw new IOException("The directory " + directory + " cannot be created");
+		}
+		File file = new File(directory, tokenFile.getName());
+		try {
+			restrictToOwner(directory);
+			if (!file.createNewFile()) {
+				throw new IOException("The file was created by someone else");
+			}
+			restrictToOwner(file);
+			Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			try {
+				writer.write(token + "\n");
+			}
+			finally {
+				writer.close();
+			}
+			if (tokenFile.exists() && !tokenFile.delete()) {
+				throw new IOException("The existing file cannot be deleted");
+			}
+			if (!file.renameTo(tokenFile)) {
+				throw new IOException("The file cannot be moved from " + directory);
+			}
+		}
+		finally {
+			file.delete();
+			directory.delete();
+		}
+		return token;
+	}
+
+	private String toHex(SecureRandom random, int length) {
+		byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b & 0xff));
+		}
+		return hex.toString();
+	}
+
+	private void restrictToOwner(File file) throws IOException {
+		boolean directory = file.isDirectory();
+		if (!(file.setReadable(false, false) && file.setReadable(true, true) && file.setWritable(false, false)
+				&& file.setWritable(true, true) && file.setExecutable(false, false) && file
+					.setExecutable(directory, true))) {
+			throw new IOException("The access to " + file + " cannot be restricted to its owner");
+		}
+	}
+
+	private String readToken(File tokenFile) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(tokenFile), "UTF-8"));
+		try {
+			String token = reader.readLine();
+			if (!StringUtils.hasText(token)) {
+				throw new IOException("The token file " + tokenFile + " is empty");
+			}
+			return token;
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	private void handle(Socket socket, ServerSocket server, String token,
+			ConcurrentMap<String, Future<ConfigurableApplicationContext>> contexts) {
+		try {
+			socket.setSoTimeout(REQUEST_TIMEOUT);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			String requestToken = reader.readLine();
+			if (requestToken == null
+					|| !MessageDigest.isEqual(token.getBytes("UTF-8"), requestToken.getBytes("UTF-8"))) {
+				logger.warn("Rejected a launch request without a valid token");
+				reply(socket, 1, "Invalid token");
+				return;
+			}
+			List<String> args = new ArrayList<String>();
+			String line = reader.readLine();
+			while (StringUtils.hasLength(line)) {
+				args.add(line);
+				line = reader.readLine();
+			}
+			socket.setSoTimeout(0);
+			logger.debug("Launch request: " + args);
+
+			int status;
+			String error;
+			if (args.equals(Collections.singletonList("-shutdown"))) {
+				logger.info("Shutdown requested");
+				status = exitCodeMapper.intValue(ExitStatus.COMPLETED.getExitCode());
+				error = "";
+				server.close();
+			}
+			else {
+				CommandLineJobRunner command = newRequestRunner(contexts);
+				Arguments arguments = new Arguments(args);
+				if (arguments.isValid()) {
+					status = command.start(arguments.jobPath, arguments.jobIdentifier, arguments.getParameters(),
+							arguments.opts);
+					error = command.errorMessage;
+				}
+				else {
+					status = 1;
+					error = Arguments.MISSING_ARGUMENTS;
+				}
+			}
+
+			reply(socket, status, error);
+		}
+		catch (IOException e) {
+			logger.warn("Could not handle launch request", e);
+			close(socket);
+		}
+	}
+
+	/*
+	 * A runner for one request, with the collaborators of this one, since
+	 * start() autowires the runner from the context of the request.
+	 */
+	private CommandLineJobRunner newRequestRunner(
+			ConcurrentMap<String, Future<ConfigurableApplicationContext>> contexts) {
+		CommandLineJobRunner command = new CommandLineJobRunner();
+		command.exitCodeMapper = exitCodeMapper;
+		command.launcher = launcher;
+		command.jobLocator = jobLocator;
+		command.jobParametersConverter = jobParametersConverter;
+		command.jobExplorer = jobExplorer;
+		command.jobRepository = jobRepository;
+		command.contexts = contexts;
+		return command;
+	}
+
+	private void reply(Socket socket, int status, String error) {
+		try {
+			Writer writer = new OutputStreamWriter(socket.getOutputStream(), "UTF-8");
+			writer.write(status + "\n" + error + "\n");
+			writer.flush();
+		}
+		catch (IOException e) {
+			logger.warn("Could not reply to launch request", e);
+		}
+		finally {
+			close(socket);
+		}
+	}
+
+	private void close(Socket socket) {
+		try {
+			socket.close();
+		}
+		catch (IOException e) {
+			logger.debug("Could not close socket", e);
+		}
+	}
+
+	/*
+	 * Send the arguments to a daemon listening on the given port, with the
+	 * token it wrote to the token file, and return the exit code it replies
+	 * with.
+	 */
+	int send(int port, File tokenFile, List<String> args) {
+		Socket socket = null;
+		try {
+			String token = readToken(tokenFile);
+			socket = new Socket(InetAddress.getByName(null), port);
+			Writer writer = new OutputStreamWriter(socket.getOutputStream(), "UTF-8");
+			writer.write(token + "\n");
+			for (String arg : args) {
+				writer.write(arg + "\n");
+			}
+			writer.write("\n");
+			writer.flush();
+
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			String status = reader.readLine();
+			if (status == null) {
+				throw new IOException("No reply to launch request");
+			}
+			String error = reader.readLine();
+			if (StringUtils.hasText(error)) {
+				logger.error(error);
+				CommandLineJobRunner.message = error;
+			}
+			return Integer.parseInt(status);
+		}
+		catch (IOException e) {
+			String message = "Could not send launch request to port " + port + ": " + e.getMessage();
+			logger.error(message, e);
+			CommandLineJobRunner.message = message;
+			return exitCodeMapper.intValue(ExitStatus.FAILED.getExitCode());
+		}
+		finally {
+			if (socket != null) {
+				close(socket);
+			}
+		}
+	}
+
 	/**
 	 * @param jobIdentifier a job execution id or job name
 	 * @param minStatus the highest status to exclude from the result
@@ -520,7 +954,9 @@ public class CommandLineJobRunner {
 	 * job.
 	 * </ul>
 	 * The options (<code>-restart, -next</code>) can occur anywhere in the
-	 * command line.
+	 * command line. Alternatively <code>-daemon port tokenFile</code> starts a
+	 * resident launcher and <code>-client port tokenFile</code> followed by the
+	 * arguments above sends them to it.
 	 * </p>
 	 */
 	public static void main(String[] args) throws Exception {
@@ -549,44 +985,91 @@ public class CommandLineJobRunner {
 			}
 		}
 
-		Set<String> opts = new HashSet<String>();
-		List<String> params = new ArrayList<String>();
+		boolean daemon = newargs.remove("-daemon");
+		boolean client = newargs.remove("-client");
+		if (daemon || client) {
+			Integer port = newargs.isEmpty() ? null : getPort(newargs.remove(0));
+			if (port == null || newargs.isEmpty()) {
+				String message = "A port number and a token file are required after -daemon or -client.";
+				logger.error(message);
+				CommandLineJobRunner.message = message;
+				command.exit(1);
+				return;
+			}
+			File tokenFile = new File(newargs.remove(0));
+			command.exit(daemon ? command.serve(port, tokenFile) : command.send(port, tokenFile, newargs));
+			return;
+		}
+
+		Arguments arguments = new Arguments(newargs);
 
-		int count = 0;
-		String jobPath = null;
-		String jobIdentifier = null;
+		if (!arguments.isValid()) {
+			logger.error(Arguments.MISSING_ARGUMENTS);
+			CommandLineJobRunner.message = Arguments.MISSING_ARGUMENTS;
+			command.exit(1);
+		}
 
-		for (String arg : newargs) {
-			if (VALID_OPTS.contains(arg)) {
-				opts.add(arg);
-			}
-			else {
-				switch (count) {
-				case 0:
-					jobPath = arg;
-					break;
-				case 1:
-					jobIdentifier = arg;
-					break;
-				default:
-					params.add(arg);
-					break;
+		int result = command.start(arguments.jobPath, arguments.jobIdentifier, arguments.getParameters(),
+				arguments.opts);
+		command.exit(result);
+	}
+
+	private static Integer getPort(String arg) {
+		try {
+			return Integer.valueOf(arg);
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The arguments of a launch, split into options, jobPath, jobIdentifier
+	 * and job parameters.
+	 */
+	private static class Arguments {
+
+		private static final String MISSING_ARGUMENTS = "At least 2 arguments are required: JobPath/JobClass and jobIdentifier.";
+
+		private final Set<String> opts = new HashSet<String>();
+
+		private final List<String> params = new ArrayList<String>();
+
+		private String jobPath;
+
+		private String jobIdentifier;
+
+		public Arguments(List<String> args) {
+			int count = 0;
+			for (String arg : args) {
+				if (VALID_OPTS.contains(arg)) {
+					opts.add(arg);
+				}
+				else {
+					switch (count) {
+					case 0:
+						jobPath = arg;
+						break;
+					case 1:
+						jobIdentifier = arg;
+						break;
+					default:
+						params.add(arg);
+						break;
+					}
+					count++;
 				}
-				count++;
 			}
 		}
 
-		if (jobPath == null || jobIdentifier == null) {
-			String message = "At least 2 arguments are required: JobPath/JobClass and jobIdentifier.";
-			logger.error(message);
-			CommandLineJobRunner.message = message;
-			command.exit(1);
+		public boolean isValid() {
+			return jobPath != null && jobIdentifier != null;
 		}
 
-		String[] parameters = params.toArray(new String[params.size()]);
+		public String[] getParameters() {
+			return params.toArray(new String[params.size()]);
+		}
 
-		int result = command.start(jobPath, jobIdentifier, parameters, opts);
-		command.exit(result);
 	}
 
 }
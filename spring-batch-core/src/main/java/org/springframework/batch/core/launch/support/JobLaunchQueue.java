@@ -0,0 +1,403 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.launch.support;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.launch.JobLaunchRejectedException;
+
+/**
+ * Admission control for job launches. A launch has to acquire a
+ * {@link Permit} before it is allowed to run, and the permit is released when
+ * the job ends. While the number of running jobs (overall or for the same job
+ * name) is at its limit, further launches wait in a bounded queue, highest
+ * priority first and in arrival order otherwise. A launch is rejected with a
+ * {@link JobLaunchRejectedException} if the queue is full or it waits longer
+ * than the timeout, so callers get a clear back-pressure signal instead of
+ * piling up work on the database and the CPU.
+ *
+ * The queue also keeps a few counters (queue depth, waiting times, rejected
+ * launches) that can be exported to a monitoring system.
+ *
+ * @since 3.0
+ *
+ * @see SimpleJobLauncher#setLaunchQueue(JobLaunchQueue)
+ */
+public class JobLaunchQueue {
+
+	private static final Log logger = LogFactory.getLog(JobLaunchQueue.class);
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition available = lock.newCondition();
+
+	private final TreeSet<Waiter> waiters = new TreeSet<Waiter>(new Comparator<Waiter>() {
+		@Override
+		public int compare(Waiter first, Waiter second) {
+			if (first.priority != second.priority) {
+				return first.priority > second.priority ? -1 : 1;
+			}
+			return first.sequence < second.sequence ? -1 : (first.sequence == second.sequence ? 0 : 1);
+		}
+	});
+
+	private final Map<String, Integer> runningByName = new HashMap<String, Integer>();
+
+	private int capacity = 100;
+
+	private int maxConcurrentLaunches = Integer.MAX_VALUE;
+
+	private Map<String, Integer> concurrencyLimits = new HashMap<String, Integer>();
+
+	private Map<String, Integer> priorities = new HashMap<String, Integer>();
+
+	private long timeout = 0;
+
+	private long sequence = 0;
+
+	private int running = 0;
+
+	private int maxQueueDepth = 0;
+
+	private long launchCount = 0;
+
+	private long rejectedCount = 0;
+
+	private long totalWaitTime = 0;
+
+	private long maxWaitTime = 0;
+
+	/**
+	 * Public setter for the number of launches that can wait for a free slot
+	 * at the same time. Further launches are rejected straight away. Zero
+	 * means that launches never wait. Defaults to 100.
+	 *
+	 * @param capacity the capacity to set
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Public setter for the number of jobs that can run at the same time.
+	 * Defaults to no limit.
+	 *
+	 * @param maxConcurrentLaunches the maximum number of running jobs
+	 */
+	public void setMaxConcurrentLaunches(int maxConcurrentLaunches) {
+		this.maxConcurrentLaunches = maxConcurrentLaunches;
+	}
+
+	/**
+	 * Public setter for the number of executions of the same job that can run
+	 * at the same time, keyed by job name. Jobs that are not in the map are
+	 * only subject to the overall limit.
+	 *
+	 * @param concurrencyLimits the limits per job name
+	 */
+	public void setConcurrencyLimits(Map<String, Integer> concurrencyLimits) {
+		this.concurrencyLimits = new HashMap<String, Integer>(concurrencyLimits);
+	}
+
+	/**
+	 * Public setter for the priorities of waiting launches, keyed by job name.
+	 * A launch with a higher value is let through before one with a lower
+	 * value. Jobs that are not in the map have priority zero.
+	 *
+	 * @param priorities the priorities per job name
+	 */
+	public void setPriorities(Map<String, Integer> priorities) {
+		this.priorities = new HashMap<String, Integer>(priorities);
+	}
+
+	/**
+	 * Public setter for the time in milliseconds that a launch waits in the
+	 * queue before it is rejected. Zero (the default) means it waits as long
+	 * as it takes.
+	 *
+	 * @param timeout the timeout to set
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Wait for a free slot to run the job with the given name.
+	 *
+	 * @param jobName the name of the job to launch
+	 * @return a permit that has to be released when the job has ended
+	 * @throws JobLaunchRejectedException if the queue is full, the launch
+	 * waited longer than the timeout or the thread was interrupted
+	 */
+	public Permit acquire(String jobName) throws JobLaunchRejectedException {
+		long start = System.nanoTime();
+		lock.lock();
+		try {
+			Integer priority = priorities.get(jobName);
+			Waiter waiter = new Waiter(jobName, priority == null ? 0 : priority, sequence++);
+			waiters.add(waiter);
+			if (firstRunnable() != waiter) {
+				if (waiters.size() > capacity) {
+					reject(waiter);
+					throw new JobLaunchRejectedException("Launch queue is full (capacity=" + capacity
+							+ "), rejected launch of job=" + jobName);
+				}
+				maxQueueDepth = Math.max(maxQueueDepth, waiters.size());
+				if (logger.isDebugEnabled()) {
+					logger.debug("Queued launch of job=" + jobName + ", queue depth=" + waiters.size());
+				}
+				long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+				while (firstRunnable() != waiter) {
+					try {
+						if (timeout > 0) {
+							long remaining = deadline - System.nanoTime();
+							if (remaining <= 0) {
+								reject(waiter);
+								throw new JobLaunchRejectedException("Timed out after " + timeout
+										+ " ms waiting to launch job=" + jobName);
+							}
+							available.awaitNanos(remaining);
+						}
+						else {
+							available.await();
+						}
+					}
+					catch (InterruptedException e) {
+						reject(waiter);
+						Thread.currentThread().interrupt();
+						throw new JobLaunchRejectedException("Interrupted while waiting to launch job=" + jobName, e);
+					}
+				}
+			}
+			waiters.remove(waiter);
+			running++;
+			runningByName.put(jobName, getRunningCount(jobName) + 1);
+			long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			launchCount++;
+			totalWaitTime += waited;
+			maxWaitTime = Math.max(maxWaitTime, waited);
+			// the next in line might be a different job that can run as well
+			available.signalAll();
+			return new Permit(jobName);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of launches waiting for a free slot
+	 */
+	public int getQueueDepth() {
+		lock.lock();
+		try {
+			return waiters.size();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the largest number of launches that were waiting at the same
+	 * time
+	 */
+	public int getMaxQueueDepth() {
+		lock.lock();
+		try {
+			return maxQueueDepth;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of jobs holding a permit
+	 */
+	public int getRunningCount() {
+		lock.lock();
+		try {
+			return running;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param jobName the name of a job
+	 * @return the number of executions of the job holding a permit
+	 */
+	public int getRunningCount(String jobName) {
+		lock.lock();
+		try {
+			Integer count = runningByName.get(jobName);
+			return count == null ? 0 : count;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of launches that were let through
+	 */
+	public long getLaunchCount() {
+		lock.lock();
+		try {
+			return launchCount;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of launches that were rejected
+	 */
+	public long getRejectedCount() {
+		lock.lock();
+		try {
+			return rejectedCount;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the longest time in milliseconds a launch waited before it was
+	 * let through
+	 */
+	public long getMaxWaitTime() {
+		lock.lock();
+		try {
+			return maxWaitTime;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the average time in milliseconds a launch waited before it was
+	 * let through
+	 */
+	public long getAverageWaitTime() {
+		lock.lock();
+		try {
+			return launchCount == 0 ? 0 : totalWaitTime / launchCount;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(String jobName) {
+		lock.lock();
+		try {
+			running--;
+			int count = getRunningCount(jobName) - 1;
+			if (count > 0) {
+				runningByName.put(jobName, count);
+			}
+			else {
+				runningByName.remove(jobName);
+			}
+			available.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void reject(Waiter waiter) {
+		waiters.remove(waiter);
+		rejectedCount++;
+		// a launch further down the queue may be next now
+		available.signalAll();
+	}
+
+	/**
+	 * The waiter that should go next, i.e. the first one in order of priority
+	 * that is not held back by a concurrency limit, or null if there is none.
+	 */
+	private Waiter firstRunnable() {
+		if (running >= maxConcurrentLaunches) {
+			return null;
+		}
+		for (Waiter waiter : waiters) {
+			Integer limit = concurrencyLimits.get(waiter.jobName);
+			if (limit == null || getRunningCount(waiter.jobName) < limit) {
+				return waiter;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The right to run one job execution, handed out by
+	 * {@link JobLaunchQueue#acquire(String)}.
+	 */
+	public class Permit {
+
+		private final String jobName;
+
+		private final AtomicBoolean released = new AtomicBoolean(false);
+
+		private Permit(String jobName) {
+			this.jobName = jobName;
+		}
+
+		/**
+		 * Give the slot back to the queue. Calling this more than once has no
+		 * further effect.
+		 */
+		public void release() {
+			if (released.compareAndSet(false, true)) {
+				JobLaunchQueue.this.release(jobName);
+			}
+		}
+
+	}
+
+	private static class Waiter {
+
+		private final String jobName;
+
+		private final int priority;
+
+		private final long sequence;
+
+		public Waiter(String jobName, int priority, long sequence) {
+			this.jobName = jobName;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+	}
+
+}
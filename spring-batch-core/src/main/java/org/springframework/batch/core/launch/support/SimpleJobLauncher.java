@@ -25,6 +25,7 @@ import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLaunchRejectedException;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
@@ -70,6 +71,8 @@ public class SimpleJobLauncher implements JobLauncher, InitializingBean {
 
 	private TaskExecutor taskExecutor;
 
+	private JobLaunchQueue launchQueue;
+
 	/**
 	 * Run the provided job with the given {@link JobParameters}. The
 	 * {@link JobParameters} will be used to determine if this is an execution
@@ -85,6 +88,8 @@ public class SimpleJobLauncher implements JobLauncher, InitializingBean {
 	 * @throws JobInstanceAlreadyCompleteException if this instance has already
 	 * completed successfully
 	 * @throws JobParametersInvalidException
+	 * @throws JobLaunchRejectedException if a launch queue is set and turns
+	 * the launch away
 	 */
 	@Override
 	public JobExecution run(final Job job, final JobParameters jobParameters)
@@ -122,8 +127,23 @@ public class SimpleJobLauncher implements JobLauncher, InitializingBean {
 		 * <i>and</i> fail a job execution for this instance between the last
 		 * assertion and the next method returning successfully.
 		 */
-		jobExecution = jobRepository.createJobExecution(job.getName(), jobParameters);
+		final JobLaunchQueue.Permit permit = launchQueue == null ? null : launchQueue.acquire(job.getName());
+		boolean launched = false;
+		try {
+			jobExecution = jobRepository.createJobExecution(job.getName(), jobParameters);
+			launched = launch(job, jobParameters, jobExecution, permit);
+		}
+		finally {
+			if (!launched && permit != null) {
+				permit.release();
+			}
+		}
+
+		return jobExecution;
+	}
 
+	private boolean launch(final Job job, final JobParameters jobParameters, final JobExecution jobExecution,
+			final JobLaunchQueue.Permit permit) {
 		try {
 			taskExecutor.execute(new Runnable() {
 
@@ -142,6 +162,11 @@ public class SimpleJobLauncher implements JobLauncher, InitializingBean {
 								+ "]", t);
 						rethrow(t);
 					}
+					finally {
+						if (permit != null) {
+							permit.release();
+						}
+					}
 				}
 
 				private void rethrow(Throwable t) {
@@ -161,9 +186,9 @@ public class SimpleJobLauncher implements JobLauncher, InitializingBean {
 				jobExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(e));
 			}
 			jobRepository.update(jobExecution);
+			return false;
 		}
-
-		return jobExecution;
+		return true;
 	}
 
 	/**
@@ -184,6 +209,19 @@ public class SimpleJobLauncher implements JobLauncher, InitializingBean {
 		this.taskExecutor = taskExecutor;
 	}
 
+	/**
+	 * Set the queue that launches have to pass before a {@link JobExecution}
+	 * is created. (Optional) Use this to bound the number of jobs that run at
+	 * the same time and to turn launches away with a
+	 * {@link JobLaunchRejectedException} when too many are waiting, instead of
+	 * leaving it all to the {@link TaskExecutor}.
+	 *
+	 * @param launchQueue the launch queue to set
+	 */
+	public void setLaunchQueue(JobLaunchQueue launchQueue) {
+		this.launchQueue = launchQueue;
+	}
+
 	/**
 	 * Ensure the required dependencies of a {@link JobRepository} have been
 	 * set.
@@ -34,6 +34,7 @@ import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.Ordered;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * {@link FactoryBean} implementation that builds a listener based on the
@@ -57,6 +58,15 @@ import org.springframework.util.Assert;
  * called. Also note that the same annotations cannot be applied to two separate
  * methods in a single class.
  *
+ * If the delegate implements every listener interface it has methods for, and
+ * no method is given by name or annotation, the delegate itself is returned,
+ * so the composite listeners call it through the interfaces without any
+ * reflection. Otherwise the listener is a generated subclass of
+ * {@link MethodInvokerListenerAdapter} that declares only those interfaces,
+ * whose callbacks call the methods resolved here without a proxy in between.
+ * Interfaces the adapter has no methods for, such as the JSR-352 listeners,
+ * and Spring versions without CGLIB get a proxy instead.
+ *
  * @author Lucas Ward
  * @author Dan Garrette
  * @since 2.0
@@ -65,6 +75,10 @@ import org.springframework.util.Assert;
 @SuppressWarnings("rawtypes")
 public abstract class AbstractListenerFactoryBean implements FactoryBean, InitializingBean {
 
+	// the repackaged CGLIB is only in Spring 3.2 and later
+	private static final boolean CGLIB_PRESENT = ClassUtils.isPresent("org.springframework.cglib.proxy.Enhancer",
+			AbstractListenerFactoryBean.class.getClassLoader());
+
 	private Object delegate;
 
 	private Map<String, String> metaDataMap;
@@ -145,6 +159,10 @@ public abstract class AbstractListenerFactoryBean implements FactoryBean, Initia
 			listenerInterfaces.add(Ordered.class);
 		}
 
+		if (isAdaptable(listenerInterfaces)) {
+			return MethodInvokerListenerAdapter.newInstance(listenerInterfaces, delegate, invokerMap);
+		}
+
 		// create a proxy listener for only the interfaces that have methods to
 		// be called
 		ProxyFactory proxyFactory = new ProxyFactory();
@@ -160,6 +178,18 @@ public abstract class AbstractListenerFactoryBean implements FactoryBean, Initia
 
 	}
 
+	private boolean isAdaptable(Set<Class<?>> listenerInterfaces) {
+		if (!CGLIB_PRESENT) {
+			return false;
+		}
+		for (Class<?> listenerInterface : listenerInterfaces) {
+			if (!MethodInvokerListenerAdapter.isAdaptable(listenerInterface)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	protected abstract ListenerMetaData getMetaDataFromPropertyName(String propertyName);
 
 	protected abstract ListenerMetaData[] getMetaDataValues();
@@ -47,6 +47,14 @@ public class CompositeItemProcessListener<T, S> implements ItemProcessListener<T
 		listeners.add(itemReaderListener);
 	}
 
+	/**
+	 * @return true if there are no registered listeners, so that callers can
+	 * skip the per item callbacks altogether
+	 */
+	boolean isEmpty() {
+		return listeners.isEmpty();
+	}
+
 	/**
 	 * Call the registered listeners in reverse order, respecting and
 	 * prioritising those that implement {@link Ordered}.
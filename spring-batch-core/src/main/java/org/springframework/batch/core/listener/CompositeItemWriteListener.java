@@ -48,6 +48,14 @@ public class CompositeItemWriteListener<S> implements ItemWriteListener<S> {
 		listeners.add(itemWriteListener);
 	}
 
+	/**
+	 * @return true if there are no registered listeners, so that callers can
+	 * skip the per item callbacks altogether
+	 */
+	boolean isEmpty() {
+		return listeners.isEmpty();
+	}
+
 	/**
 	 * Call the registered listeners in reverse order, respecting and
 	 * prioritising those that implement {@link Ordered}.
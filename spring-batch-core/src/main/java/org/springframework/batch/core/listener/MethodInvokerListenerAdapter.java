@@ -0,0 +1,299 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.listener;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.support.MethodInvoker;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.NoOp;
+import org.springframework.core.Ordered;
+
+/**
+ * Base class of the listeners created by {@link AbstractListenerFactoryBean}
+ * for methods given by name or annotation. It has a public method for each
+ * callback of the core listener interfaces, which calls the
+ * {@link MethodInvoker}s resolved for that callback when the listener was
+ * created. It implements none of the interfaces itself: the factory generates
+ * a subclass that declares only the interfaces the delegate has methods for,
+ * so a callback is a direct call to one of these methods instead of a trip
+ * through a proxy and a lookup by method name.
+ *
+ * @since 3.0
+ * @see AbstractListenerFactoryBean
+ */
+abstract class MethodInvokerListenerAdapter {
+
+	private static final MethodInvoker[] NONE = new MethodInvoker[0];
+
+	private final Object delegate;
+
+	private final Map<String, Set<MethodInvoker>> invokerMap;
+
+	private final MethodInvoker[] beforeStep;
+
+	private final MethodInvoker[] afterStep;
+
+	private final MethodInvoker[] beforeChunk;
+
+	private final MethodInvoker[] afterChunk;
+
+	private final MethodInvoker[] afterChunkError;
+
+	private final MethodInvoker[] beforeRead;
+
+	private final MethodInvoker[] afterRead;
+
+	private final MethodInvoker[] onReadError;
+
+	private final MethodInvoker[] beforeProcess;
+
+	private final MethodInvoker[] afterProcess;
+
+	private final MethodInvoker[] onProcessError;
+
+	private final MethodInvoker[] beforeWrite;
+
+	private final MethodInvoker[] afterWrite;
+
+	private final MethodInvoker[] onWriteError;
+
+	private final MethodInvoker[] onSkipInRead;
+
+	private final MethodInvoker[] onSkipInProcess;
+
+	private final MethodInvoker[] onSkipInWrite;
+
+	private final MethodInvoker[] beforeJob;
+
+	private final MethodInvoker[] afterJob;
+
+	/**
+	 * Create a listener that implements the given interfaces. The generated
+	 * class adds nothing to this one but the interfaces, and is cached for
+	 * each set of interfaces.
+	 *
+	 * @param listenerInterfaces the interfaces to implement, all of them
+	 * {@link #isAdaptable(Class) adaptable}
+	 * @param delegate the object the methods belong to
+	 * @param invokerMap the invokers by listener method name
+	 * @return a listener calling the invokers
+	 */
+	public static Object newInstance(Set<Class<?>> listenerInterfaces, Object delegate,
+			Map<String, Set<MethodInvoker>> invokerMap) {
+		Class<?>[] interfaces = listenerInterfaces.toArray(new Class<?>[listenerInterfaces.size()]);
+		// a stable order, so that the same set maps to the same cached class
+		Arrays.sort(interfaces, new Comparator<Class<?>>() {
+			@Override
+			public int compare(Class<?> first, Class<?> second) {
+				return first.getName().compareTo(second.getName());
+			}
+		});
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(MethodInvokerListenerAdapter.class);
+		enhancer.setInterfaces(interfaces);
+		enhancer.setCallback(NoOp.INSTANCE);
+		return enhancer.create(new Class<?>[] { Object.class, Map.class }, new Object[] { delegate, invokerMap });
+	}
+
+	/**
+	 * Check if every method of an interface is implemented by a method of this
+	 * class with the same signature.
+	 *
+	 * @param listenerInterface the interface to check
+	 * @return true if a subclass can declare the interface
+	 */
+	public static boolean isAdaptable(Class<?> listenerInterface) {
+		if (!listenerInterface.isInterface()) {
+			return false;
+		}
+		for (Method method : listenerInterface.getMethods()) {
+			try {
+				Method implementation = MethodInvokerListenerAdapter.class.getMethod(method.getName(),
+						method.getParameterTypes());
+				if (!implementation.getReturnType().equals(method.getReturnType())) {
+					return false;
+				}
+			}
+			catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param delegate the object the methods belong to
+	 * @param invokerMap the invokers by listener method name
+	 */
+	protected MethodInvokerListenerAdapter(Object delegate, Map<String, Set<MethodInvoker>> invokerMap) {
+		this.delegate = delegate;
+		this.invokerMap = invokerMap;
+		beforeStep = getInvokers("beforeStep");
+		afterStep = getInvokers("afterStep");
+		beforeChunk = getInvokers("beforeChunk");
+		afterChunk = getInvokers("afterChunk");
+		afterChunkError = getInvokers("afterChunkError");
+		beforeRead = getInvokers("beforeRead");
+		afterRead = getInvokers("afterRead");
+		onReadError = getInvokers("onReadError");
+		beforeProcess = getInvokers("beforeProcess");
+		afterProcess = getInvokers("afterProcess");
+		onProcessError = getInvokers("onProcessError");
+		beforeWrite = getInvokers("beforeWrite");
+		afterWrite = getInvokers("afterWrite");
+		onWriteError = getInvokers("onWriteError");
+		onSkipInRead = getInvokers("onSkipInRead");
+		onSkipInProcess = getInvokers("onSkipInProcess");
+		onSkipInWrite = getInvokers("onSkipInWrite");
+		beforeJob = getInvokers("beforeJob");
+		afterJob = getInvokers("afterJob");
+	}
+
+	public void beforeStep(StepExecution stepExecution) {
+		invoke(beforeStep, stepExecution);
+	}
+
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		ExitStatus status = null;
+		for (MethodInvoker invoker : afterStep) {
+			Object result = invoker.invokeMethod(stepExecution);
+			if (result instanceof ExitStatus) {
+				status = status == null ? (ExitStatus) result : status.and((ExitStatus) result);
+			}
+		}
+		return status;
+	}
+
+	public void beforeChunk(ChunkContext context) {
+		invoke(beforeChunk, context);
+	}
+
+	public void afterChunk(ChunkContext context) {
+		invoke(afterChunk, context);
+	}
+
+	public void afterChunkError(ChunkContext context) {
+		invoke(afterChunkError, context);
+	}
+
+	public void beforeRead() {
+		for (MethodInvoker invoker : beforeRead) {
+			invoker.invokeMethod();
+		}
+	}
+
+	public void afterRead(Object item) {
+		invoke(afterRead, item);
+	}
+
+	public void onReadError(Exception ex) {
+		invoke(onReadError, ex);
+	}
+
+	public void beforeProcess(Object item) {
+		invoke(beforeProcess, item);
+	}
+
+	public void afterProcess(Object item, Object result) {
+		invoke(afterProcess, item, result);
+	}
+
+	public void onProcessError(Object item, Exception e) {
+		invoke(onProcessError, item, e);
+	}
+
+	public void beforeWrite(List<?> items) {
+		invoke(beforeWrite, items);
+	}
+
+	public void afterWrite(List<?> items) {
+		invoke(afterWrite, items);
+	}
+
+	public void onWriteError(Exception exception, List<?> items) {
+		invoke(onWriteError, exception, items);
+	}
+
+	public void onSkipInRead(Throwable t) {
+		invoke(onSkipInRead, t);
+	}
+
+	public void onSkipInProcess(Object item, Throwable t) {
+		invoke(onSkipInProcess, item, t);
+	}
+
+	public void onSkipInWrite(Object item, Throwable t) {
+		invoke(onSkipInWrite, item, t);
+	}
+
+	public void beforeJob(JobExecution jobExecution) {
+		invoke(beforeJob, jobExecution);
+	}
+
+	public void afterJob(JobExecution jobExecution) {
+		invoke(afterJob, jobExecution);
+	}
+
+	/**
+	 * Only declared as {@link Ordered} if the delegate is.
+	 *
+	 * @return the order of the delegate
+	 */
+	public int getOrder() {
+		return ((Ordered) delegate).getOrder();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof MethodInvokerListenerAdapter)) {
+			return false;
+		}
+		MethodInvokerListenerAdapter other = (MethodInvokerListenerAdapter) obj;
+		return getClass().equals(other.getClass()) && invokerMap.equals(other.invokerMap);
+	}
+
+	@Override
+	public int hashCode() {
+		return invokerMap.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Listener methods of " + delegate;
+	}
+
+	private MethodInvoker[] getInvokers(String methodName) {
+		Set<MethodInvoker> invokers = invokerMap.get(methodName);
+		return invokers == null ? NONE : invokers.toArray(new MethodInvoker[invokers.size()]);
+	}
+
+	private void invoke(MethodInvoker[] invokers, Object... args) {
+		for (MethodInvoker invoker : invokers) {
+			invoker.invokeMethod(args);
+		}
+	}
+
+}
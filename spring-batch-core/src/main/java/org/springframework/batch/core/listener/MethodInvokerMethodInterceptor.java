@@ -15,7 +15,9 @@
  */
 package org.springframework.batch.core.listener;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.aopalliance.intercept.MethodInterceptor;
@@ -40,6 +42,11 @@ import org.springframework.batch.support.MethodInvoker;
 public class MethodInvokerMethodInterceptor implements MethodInterceptor {
 
 	private final Map<String, Set<MethodInvoker>> invokerMap;
+
+	// resolved once, so that dispatching a callback does not create an
+	// iterator over the invoker sets
+	private final Map<String, MethodInvoker[]> invokers;
+
 	private final boolean ordered;
 
 	public MethodInvokerMethodInterceptor(Map<String, Set<MethodInvoker>> invokerMap) {
@@ -49,6 +56,10 @@ public class MethodInvokerMethodInterceptor implements MethodInterceptor {
 	public MethodInvokerMethodInterceptor(Map<String, Set<MethodInvoker>> invokerMap, boolean ordered) {
 		this.ordered = ordered;
 		this.invokerMap = invokerMap;
+		this.invokers = new HashMap<String, MethodInvoker[]>();
+		for (Entry<String, Set<MethodInvoker>> entry : invokerMap.entrySet()) {
+			invokers.put(entry.getKey(), entry.getValue().toArray(new MethodInvoker[entry.getValue().size()]));
+		}
 	}
 
 	@Override
@@ -59,14 +70,15 @@ public class MethodInvokerMethodInterceptor implements MethodInterceptor {
 			return invocation.proceed();
 		}
 
-		Set<MethodInvoker> invokers = invokerMap.get(methodName);
+		MethodInvoker[] invokers = this.invokers.get(methodName);
 
 		if (invokers == null) {
 			return null;
 		}
+		Object[] arguments = invocation.getArguments();
 		ExitStatus status = null;
 		for (MethodInvoker invoker : invokers) {
-			Object retVal = invoker.invokeMethod(invocation.getArguments());
+			Object retVal = invoker.invokeMethod(arguments);
 			if (retVal instanceof ExitStatus) {
 				if (status != null) {
 					status = status.and((ExitStatus) retVal);
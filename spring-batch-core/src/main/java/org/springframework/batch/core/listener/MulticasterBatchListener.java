@@ -129,6 +129,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void afterProcess(T item, S result) {
+		if (itemProcessListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemProcessListener.afterProcess(item, result);
 		}
@@ -143,6 +146,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void beforeProcess(T item) {
+		if (itemProcessListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemProcessListener.beforeProcess(item);
 		}
@@ -159,6 +165,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void onProcessError(T item, Exception ex) {
+		if (itemProcessListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemProcessListener.onProcessError(item, ex);
 		}
@@ -228,6 +237,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void afterRead(T item) {
+		if (itemReadListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemReadListener.afterRead(item);
 		}
@@ -242,6 +254,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void beforeRead() {
+		if (itemReadListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemReadListener.beforeRead();
 		}
@@ -256,6 +271,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void onReadError(Exception ex) {
+		if (itemReadListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemReadListener.onReadError(ex);
 		}
@@ -270,6 +288,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void afterWrite(List<? extends S> items) {
+		if (itemWriteListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemWriteListener.afterWrite(items);
 		}
@@ -284,6 +305,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void beforeWrite(List<? extends S> items) {
+		if (itemWriteListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemWriteListener.beforeWrite(items);
 		}
@@ -299,6 +323,9 @@ ItemProcessListener<T, S>, ItemWriteListener<S>, SkipListener<T, S>, RetryReadLi
 	 */
 	@Override
 	public void onWriteError(Exception ex, List<? extends S> items) {
+		if (itemWriteListener.isEmpty()) {
+			return;
+		}
 		try {
 			itemWriteListener.onWriteError(ex, items);
 		}
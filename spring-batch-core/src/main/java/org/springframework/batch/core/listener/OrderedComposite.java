@@ -39,7 +39,11 @@ class OrderedComposite<S> {
 	@SuppressWarnings("unchecked")
 	private Comparator<? super S> comparator = new AnnotationAwareOrderComparator();
 
-	private List<S> list = new ArrayList<S>();
+	// immutable snapshots, replaced on registration so that iterating
+	// (once per item for the item level listeners) does not copy
+	private volatile List<S> list = Collections.emptyList();
+
+	private volatile List<S> reversed = Collections.emptyList();
 
 	/**
 	 * Public setter for the listeners.
@@ -50,8 +54,9 @@ class OrderedComposite<S> {
 		unordered.clear();
 		ordered.clear();
 		for (S s : items) {
-			add(s);
+			addItem(s);
 		}
+		refresh();
 	}
 
 	/**
@@ -60,6 +65,18 @@ class OrderedComposite<S> {
 	 * @param item
 	 */
 	public void add(S item) {
+		addItem(item);
+		refresh();
+	}
+
+	/**
+	 * @return true if no items are registered
+	 */
+	public boolean isEmpty() {
+		return list.isEmpty();
+	}
+
+	private void addItem(S item) {
 		if (item instanceof Ordered) {
 			if (!ordered.contains(item)) {
 				ordered.add(item);
@@ -73,10 +90,17 @@ class OrderedComposite<S> {
 		else if (!unordered.contains(item)) {
 			unordered.add(item);
 		}
+	}
+
+	private void refresh() {
 		Collections.sort(ordered, comparator);
-		list.clear();
-		list.addAll(ordered);
-		list.addAll(unordered);
+		List<S> result = new ArrayList<S>(ordered.size() + unordered.size());
+		result.addAll(ordered);
+		result.addAll(unordered);
+		List<S> reverse = new ArrayList<S>(result);
+		Collections.reverse(reverse);
+		list = Collections.unmodifiableList(result);
+		reversed = Collections.unmodifiableList(reverse);
 	}
 
 	/**
@@ -85,7 +109,7 @@ class OrderedComposite<S> {
 	 * @return an iterator over the list of items
 	 */
 	public Iterator<S> iterator() {
-		return new ArrayList<S>(list).iterator();
+		return list.iterator();
 	}
 
 	/**
@@ -94,9 +118,7 @@ class OrderedComposite<S> {
 	 * @return an iterator over the list of items
 	 */
 	public Iterator<S> reverse() {
-		ArrayList<S> result = new ArrayList<S>(list);
-		Collections.reverse(result);
-		return result.iterator();
+		return reversed.iterator();
 	}
 
 }
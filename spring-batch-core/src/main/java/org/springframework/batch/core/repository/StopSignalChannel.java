@@ -0,0 +1,67 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.repository;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Carries stop requests to the {@link JobExecution}s running in this process,
+ * so that a {@link JobRepository} can check for them at every chunk boundary
+ * without a round trip to the database. The repository registers an execution
+ * the first time one of its steps is updated, signals a stop when the
+ * execution is updated with status STOPPING and unregisters it when it ends.
+ *
+ * @since 3.0
+ *
+ * @see JobRepository#update(StepExecution)
+ */
+public interface StopSignalChannel {
+
+	/**
+	 * Start listening for stop requests for a running execution. Does nothing
+	 * if the execution is already registered.
+	 *
+	 * @param jobExecution a running {@link JobExecution}
+	 * @return true if the execution was not registered before
+	 */
+	boolean register(JobExecution jobExecution);
+
+	/**
+	 * Stop listening for stop requests for an execution that has ended.
+	 *
+	 * @param jobExecution a {@link JobExecution}
+	 */
+	void unregister(JobExecution jobExecution);
+
+	/**
+	 * Signal a stop request for an execution. Executions that are not
+	 * registered in this process are ignored.
+	 *
+	 * @param jobExecution a {@link JobExecution}
+	 */
+	void stop(JobExecution jobExecution);
+
+	/**
+	 * Check if a stop was signalled for an execution. This is called for every
+	 * chunk, so it has to be cheap.
+	 *
+	 * @param jobExecution a {@link JobExecution}
+	 * @return true if the execution has been asked to stop
+	 */
+	boolean isStopRequested(JobExecution jobExecution);
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.repository.dao;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link DataFieldMaxValueIncrementer} that hands out ids in blocks, so that
+ * the sequence behind it is only hit once per block. Each value
+ * <code>n</code> taken from the delegate reserves the ids from <code>n</code>
+ * to <code>n + blockSize - 1</code>, so the sequence itself has to advance by
+ * at least the block size, e.g. with <code>INCREMENT BY</code>. Then the
+ * blocks of different processes never overlap, even if they use smaller block
+ * sizes or take single values from the same sequence.
+ *
+ * The incrementer takes two values before it hands out the first id, and
+ * fails if any two successive values are closer than the block size. Ids are
+ * no longer consecutive, and the ids left in a block when the process ends
+ * are never used.
+ *
+ * @since 3.0
+ */
+public class BlockDataFieldMaxValueIncrementer implements DataFieldMaxValueIncrementer {
+
+	private final DataFieldMaxValueIncrementer delegate;
+
+	private final int blockSize;
+
+	private Long last;
+
+	private long next = 0;
+
+	private long limit = 0;
+
+	/**
+	 * @param delegate the incrementer that values are taken from, advancing
+	 * by at least the block size
+	 * @param blockSize the number of ids reserved by each value of the
+	 * delegate
+	 */
+	public BlockDataFieldMaxValueIncrementer(DataFieldMaxValueIncrementer delegate, int blockSize) {
+		Assert.notNull(delegate, "The delegate incrementer must not be null");
+		Assert.isTrue(blockSize > 0, "The block size must be greater than zero");
+		this.delegate = delegate;
+		this.blockSize = blockSize;
+	}
+
+	@Override
+	public synchronized long nextLongValue() throws DataAccessException {
+		if (next == limit) {
+			if (last == null) {
+				// check the step of the sequence before any id is used
+				last = delegate.nextLongValue();
+			}
+			long start = delegate.nextLongValue();
+			// values from other processes may come in between, or even
+			// before, but are still a multiple of the step apart
+			Assert.state(Math.abs(start - last) >= blockSize, "The values of the delegate incrementer are only "
+					+ Math.abs(start - last) + " apart, so they cannot start blocks of " + blockSize
+					+ " ids: the sequence has to advance by at least the block size");
+			last = start;
+			next = start;
+			limit = start + blockSize;
+		}
+		return next++;
+	}
+
+	@Override
+	public int nextIntValue() throws DataAccessException {
+		return (int) nextLongValue();
+	}
+
+	@Override
+	public String nextStringValue() throws DataAccessException {
+		return String.valueOf(nextLongValue());
+	}
+
+}
@@ -16,10 +16,12 @@
 
 package org.springframework.batch.core.repository.dao;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -36,10 +38,15 @@ import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.JobParameter.ParameterType;
 import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.explore.JobExecutionFilter;
+import org.springframework.batch.core.explore.JobExecutionFinder;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.simple.ParameterizedRowMapper;
 import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
 import org.springframework.util.Assert;
@@ -58,7 +65,8 @@ import org.springframework.util.Assert;
  * @author Robert Kasanicky
  * @author Michael Minella
  */
-public class JdbcJobExecutionDao extends AbstractJdbcBatchMetadataDao implements JobExecutionDao, InitializingBean {
+public class JdbcJobExecutionDao extends AbstractJdbcBatchMetadataDao implements JobExecutionDao, JobExecutionFinder,
+		InitializingBean {
 
 	private static final Log logger = LogFactory.getLog(JdbcJobExecutionDao.class);
 
@@ -84,6 +92,11 @@ public class JdbcJobExecutionDao extends AbstractJdbcBatchMetadataDao implements
 	private static final String GET_RUNNING_EXECUTIONS = "SELECT E.JOB_EXECUTION_ID, E.START_TIME, E.END_TIME, E.STATUS, E.EXIT_CODE, E.EXIT_MESSAGE, E.CREATE_TIME, E.LAST_UPDATED, E.VERSION, "
 			+ "E.JOB_INSTANCE_ID, E.JOB_CONFIGURATION_LOCATION from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and I.JOB_NAME=? and E.END_TIME is NULL order by E.JOB_EXECUTION_ID desc";
 
+	private static final String FIND_EXECUTION_SUMMARIES = "SELECT E.JOB_EXECUTION_ID, E.START_TIME, E.END_TIME, E.STATUS, E.EXIT_CODE, E.EXIT_MESSAGE, E.CREATE_TIME, E.LAST_UPDATED, E.VERSION, "
+			+ "E.JOB_CONFIGURATION_LOCATION, E.JOB_INSTANCE_ID, I.JOB_NAME from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID";
+
+	private static final String COUNT_EXECUTIONS = "SELECT COUNT(*) from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID";
+
 	private static final String CURRENT_VERSION_JOB_EXECUTION = "SELECT VERSION FROM %PREFIX%JOB_EXECUTION WHERE JOB_EXECUTION_ID=?";
 
 	private static final String FIND_PARAMS_FROM_ID = "SELECT JOB_EXECUTION_ID, KEY_NAME, TYPE_CD, "
@@ -307,32 +320,119 @@ public class JdbcJobExecutionDao extends AbstractJdbcBatchMetadataDao implements
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @seeorg.springframework.batch.core.explore.JobExecutionFinder#
+	 * findJobExecutions(org.springframework.batch.core.explore.JobExecutionFilter, int)
+	 */
+	@Override
+	public List<JobExecution> findJobExecutions(JobExecutionFilter filter, final int count) {
+		if (count <= 0) {
+			return new ArrayList<JobExecution>();
+		}
+		final List<Object> args = new ArrayList<Object>();
+		String sql = getQuery(FIND_EXECUTION_SUMMARIES) + getFilterClause(filter, args)
+				+ " order by E.JOB_EXECUTION_ID desc";
+		PreparedStatementSetter setter = new PreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps) throws SQLException {
+				// stop the driver from fetching more than a page of rows
+				ps.setMaxRows(count);
+				for (int i = 0; i < args.size(); i++) {
+					StatementCreatorUtils.setParameterValue(ps, i + 1, SqlTypeValue.TYPE_UNKNOWN, args.get(i));
+				}
+			}
+		};
+		return getJdbcTemplate().query(sql, setter, new ParameterizedRowMapper<JobExecution>() {
+			@Override
+			public JobExecution mapRow(ResultSet rs, int rowNum) throws SQLException {
+				JobInstance jobInstance = new JobInstance(rs.getLong(11), rs.getString(12));
+				JobExecution jobExecution = new JobExecution(jobInstance, rs.getLong(1), new JobParameters(),
+						rs.getString(10));
+				mapProperties(jobExecution, rs);
+				return jobExecution;
+			}
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @seeorg.springframework.batch.core.explore.JobExecutionFinder#
+	 * getJobExecutionCount(org.springframework.batch.core.explore.JobExecutionFilter)
+	 */
+	@Override
+	public int getJobExecutionCount(JobExecutionFilter filter) {
+		List<Object> args = new ArrayList<Object>();
+		String sql = getQuery(COUNT_EXECUTIONS) + getFilterClause(filter, args);
+		return getJdbcTemplate().queryForInt(sql, args.toArray());
+	}
+
+	/**
+	 * Convenience method that builds the where clause for the criteria that
+	 * are set in the filter, and collects the arguments for it.
+	 */
+	private String getFilterClause(JobExecutionFilter filter, List<Object> args) {
+		StringBuilder clause = new StringBuilder();
+		if (filter.getJobName() != null) {
+			clause.append(" and I.JOB_NAME = ?");
+			args.add(filter.getJobName());
+		}
+		if (filter.getStatuses() != null) {
+			clause.append(" and E.STATUS in (");
+			String separator = "";
+			for (BatchStatus status : filter.getStatuses()) {
+				clause.append(separator).append("?");
+				separator = ", ";
+				args.add(status.toString());
+			}
+			clause.append(")");
+		}
+		if (filter.getCreateTimeFrom() != null) {
+			clause.append(" and E.CREATE_TIME >= ?");
+			args.add(new Timestamp(filter.getCreateTimeFrom().getTime()));
+		}
+		if (filter.getCreateTimeTo() != null) {
+			clause.append(" and E.CREATE_TIME < ?");
+			args.add(new Timestamp(filter.getCreateTimeTo().getTime()));
+		}
+		if (filter.getBeforeExecutionId() != null) {
+			clause.append(" and E.JOB_EXECUTION_ID < ?");
+			args.add(filter.getBeforeExecutionId());
+		}
+		return clause.toString();
+	}
+
 	/**
 	 * Convenience method that inserts all parameters from the provided
-	 * JobParameters.
+	 * JobParameters in a single batch.
 	 *
 	 */
 	private void insertJobParameters(Long executionId, JobParameters jobParameters) {
 
+		List<Object[]> batchArgs = new ArrayList<Object[]>();
 		for (Entry<String, JobParameter> entry : jobParameters.getParameters()
 				.entrySet()) {
 			JobParameter jobParameter = entry.getValue();
-			insertParameter(executionId, jobParameter.getType(), entry.getKey(),
-					jobParameter.getValue(), jobParameter.isIdentifying());
+			batchArgs.add(getParameterArgs(executionId, jobParameter.getType(), entry.getKey(),
+					jobParameter.getValue(), jobParameter.isIdentifying()));
+		}
+		if (!batchArgs.isEmpty()) {
+			getJdbcTemplate().batchUpdate(getQuery(CREATE_JOB_PARAMETERS), batchArgs, new int[] { Types.BIGINT,
+					Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT, Types.DOUBLE,
+					Types.CHAR });
 		}
 	}
 
 	/**
-	 * Convenience method that inserts an individual records into the
-	 * JobParameters table.
+	 * Convenience method that builds the arguments for an individual record
+	 * in the JobParameters table.
 	 */
-	private void insertParameter(Long executionId, ParameterType type, String key,
+	private Object[] getParameterArgs(Long executionId, ParameterType type, String key,
 			Object value, boolean identifying) {
 
 		Object[] args = new Object[0];
-		int[] argTypes = new int[] { Types.BIGINT, Types.VARCHAR,
-				Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT,
-				Types.DOUBLE, Types.CHAR };
 
 		String identifyingFlag = identifying? "Y":"N";
 
@@ -349,7 +449,7 @@ public class JdbcJobExecutionDao extends AbstractJdbcBatchMetadataDao implements
 			args = new Object[] { executionId, key, type, "", value, 0L, 0D, identifyingFlag};
 		}
 
-		getJdbcTemplate().update(getQuery(CREATE_JOB_PARAMETERS), args, argTypes);
+		return args;
 	}
 
 	/**
@@ -419,15 +519,23 @@ public class JdbcJobExecutionDao extends AbstractJdbcBatchMetadataDao implements
 				jobExecution = new JobExecution(jobInstance, id, jobParameters, jobConfigurationLocation);
 			}
 
-			jobExecution.setStartTime(rs.getTimestamp(2));
-			jobExecution.setEndTime(rs.getTimestamp(3));
-			jobExecution.setStatus(BatchStatus.valueOf(rs.getString(4)));
-			jobExecution.setExitStatus(new ExitStatus(rs.getString(5), rs.getString(6)));
-			jobExecution.setCreateTime(rs.getTimestamp(7));
-			jobExecution.setLastUpdated(rs.getTimestamp(8));
-			jobExecution.setVersion(rs.getInt(9));
+			mapProperties(jobExecution, rs);
 			return jobExecution;
 		}
 
 	}
+
+	/**
+	 * Map the primitive properties of a {@link JobExecution} from the columns
+	 * that all the queries here have in common.
+	 */
+	private static void mapProperties(JobExecution jobExecution, ResultSet rs) throws SQLException {
+		jobExecution.setStartTime(rs.getTimestamp(2));
+		jobExecution.setEndTime(rs.getTimestamp(3));
+		jobExecution.setStatus(BatchStatus.valueOf(rs.getString(4)));
+		jobExecution.setExitStatus(new ExitStatus(rs.getString(5), rs.getString(6)));
+		jobExecution.setCreateTime(rs.getTimestamp(7));
+		jobExecution.setLastUpdated(rs.getTimestamp(8));
+		jobExecution.setVersion(rs.getInt(9));
+	}
 }
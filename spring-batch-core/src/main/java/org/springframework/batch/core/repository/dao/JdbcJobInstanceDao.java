@@ -16,6 +16,7 @@
 
 package org.springframework.batch.core.repository.dao;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -31,6 +32,7 @@ import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.simple.ParameterizedRowMapper;
 import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
@@ -197,7 +199,7 @@ JobInstanceDao, InitializingBean {
 	 */
 	@Override
 	@SuppressWarnings("rawtypes")
-	public List<JobInstance> getJobInstances(String jobName, final int start,
+	public List<JobInstance> getJobInstances(final String jobName, final int start,
 			final int count) {
 
 		ResultSetExtractor extractor = new ResultSetExtractor() {
@@ -221,9 +223,18 @@ JobInstanceDao, InitializingBean {
 
 		};
 
+		PreparedStatementSetter setter = new PreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps) throws SQLException {
+				// the rows after the page are never read, so don't fetch them
+				ps.setMaxRows((int) Math.max(1, Math.min((long) start + count, Integer.MAX_VALUE)));
+				ps.setString(1, jobName);
+			}
+		};
+
 		@SuppressWarnings("unchecked")
 		List<JobInstance> result = (List<JobInstance>) getJdbcTemplate().query(getQuery(FIND_LAST_JOBS_BY_NAME),
-				new Object[] { jobName }, extractor);
+				setter, extractor);
 
 		return result;
 	}
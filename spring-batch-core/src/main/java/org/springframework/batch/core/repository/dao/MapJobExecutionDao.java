@@ -28,6 +28,9 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.explore.JobExecutionFilter;
+import org.springframework.batch.core.explore.JobExecutionFinder;
 import org.springframework.batch.support.SerializationUtils;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.util.Assert;
@@ -35,7 +38,7 @@ import org.springframework.util.Assert;
 /**
  * In-memory implementation of {@link JobExecutionDao}.
  */
-public class MapJobExecutionDao implements JobExecutionDao {
+public class MapJobExecutionDao implements JobExecutionDao, JobExecutionFinder {
 
 	// JDK6 Make this into a ConcurrentSkipListMap: adds and removes tend to be very near the front or back
 	private final ConcurrentMap<Long, JobExecution> executionsById = new ConcurrentHashMap<Long, JobExecution>();
@@ -152,6 +155,59 @@ public class MapJobExecutionDao implements JobExecutionDao {
 		return copy(executionsById.get(executionId));
 	}
 
+	@Override
+	public List<JobExecution> findJobExecutions(JobExecutionFilter filter, int count) {
+		if (count <= 0) {
+			return new ArrayList<JobExecution>();
+		}
+		List<JobExecution> executions = new ArrayList<JobExecution>();
+		for (JobExecution exec : executionsById.values()) {
+			if (filter.matches(exec)) {
+				executions.add(exec);
+			}
+		}
+		Collections.sort(executions, new Comparator<JobExecution>() {
+			@Override
+			public int compare(JobExecution e1, JobExecution e2) {
+				return e2.getId().compareTo(e1.getId());
+			}
+		});
+		List<JobExecution> result = new ArrayList<JobExecution>();
+		for (JobExecution exec : executions.subList(0, Math.min(count, executions.size()))) {
+			result.add(summarize(exec));
+		}
+		return result;
+	}
+
+	@Override
+	public int getJobExecutionCount(JobExecutionFilter filter) {
+		int count = 0;
+		for (JobExecution exec : executionsById.values()) {
+			if (filter.matches(exec)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Same fields as in the JDBC summaries, so that neither the parameters nor
+	 * the step executions are copied.
+	 */
+	private static JobExecution summarize(JobExecution original) {
+		JobInstance jobInstance = new JobInstance(original.getJobId(), original.getJobInstance().getJobName());
+		JobExecution summary = new JobExecution(jobInstance, original.getId(), new JobParameters(),
+				original.getJobConfigurationName());
+		summary.setStartTime(original.getStartTime());
+		summary.setEndTime(original.getEndTime());
+		summary.setStatus(original.getStatus());
+		summary.setExitStatus(original.getExitStatus());
+		summary.setCreateTime(original.getCreateTime());
+		summary.setLastUpdated(original.getLastUpdated());
+		summary.setVersion(original.getVersion());
+		return summary;
+	}
+
 	@Override
 	public void synchronizeStatus(JobExecution jobExecution) {
 		JobExecution saved = getJobExecution(jobExecution.getId());
@@ -22,6 +22,7 @@ import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
 import org.springframework.aop.support.NameMatchMethodPointcut;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.StopSignalChannel;
 import org.springframework.batch.core.repository.dao.ExecutionContextDao;
 import org.springframework.batch.core.repository.dao.JobExecutionDao;
 import org.springframework.batch.core.repository.dao.JobInstanceDao;
@@ -57,6 +58,8 @@ public abstract class AbstractJobRepositoryFactoryBean implements FactoryBean, I
 
 	private boolean validateTransactionState = true;
 
+	private StopSignalChannel stopSignalChannel;
+
 	/**
 	 * Default value for isolation level in create* method.
 	 */
@@ -110,6 +113,19 @@ public abstract class AbstractJobRepositoryFactoryBean implements FactoryBean, I
 		this.validateTransactionState = validateTransactionState;
 	}
 
+	/**
+	 * Public setter for the {@link StopSignalChannel} that the repository
+	 * checks for stop requests at chunk boundaries, instead of reading the
+	 * status of the job execution from the database every time.
+	 *
+	 * @param stopSignalChannel the channel to set
+	 *
+	 * @see SimpleJobRepository#setStopSignalChannel(StopSignalChannel)
+	 */
+	public void setStopSignalChannel(StopSignalChannel stopSignalChannel) {
+		this.stopSignalChannel = stopSignalChannel;
+	}
+
 	/**
 	 * public setter for the isolation level to be used for the transaction when
 	 * job execution entities are initially created. The default is
@@ -192,8 +208,10 @@ public abstract class AbstractJobRepositoryFactoryBean implements FactoryBean, I
 	}
 
 	private Object getTarget() throws Exception {
-		return new SimpleJobRepository(createJobInstanceDao(), createJobExecutionDao(), createStepExecutionDao(),
-				createExecutionContextDao());
+		SimpleJobRepository jobRepository = new SimpleJobRepository(createJobInstanceDao(), createJobExecutionDao(),
+				createStepExecutionDao(), createExecutionContextDao());
+		jobRepository.setStopSignalChannel(stopSignalChannel);
+		return jobRepository;
 	}
 
 	@Override
@@ -26,6 +26,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.core.repository.ExecutionContextSerializer;
 import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
+import org.springframework.batch.core.repository.dao.BlockDataFieldMaxValueIncrementer;
 import org.springframework.batch.core.repository.dao.ExecutionContextDao;
 import org.springframework.batch.core.repository.dao.JdbcExecutionContextDao;
 import org.springframework.batch.core.repository.dao.JdbcJobExecutionDao;
@@ -42,6 +43,9 @@ import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.incrementer.AbstractColumnMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.MySQLMaxValueIncrementer;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.jdbc.support.lob.OracleLobHandler;
 import org.springframework.util.Assert;
@@ -78,6 +82,8 @@ public class JobRepositoryFactoryBean extends AbstractJobRepositoryFactoryBean i
 
 	private ExecutionContextSerializer serializer;
 
+	private int idBlockSize = 1;
+
 	/**
 	 * A custom implementation of the {@link ExecutionContextSerializer}.
 	 * The default, if not injected, is the {@link XStreamExecutionContextStringSerializer}.
@@ -147,10 +153,33 @@ public class JobRepositoryFactoryBean extends AbstractJobRepositoryFactoryBean i
 		this.incrementerFactory = incrementerFactory;
 	}
 
+	/**
+	 * Public setter for the number of ids reserved with each call to the
+	 * sequences that generate the primary keys, which saves a database round
+	 * trip for most new instances and executions (e.g. for the executions of
+	 * a partitioned step). The sequences have to be created with (at least)
+	 * this value as their increment, and are then read through a
+	 * {@link BlockDataFieldMaxValueIncrementer}. Processes sharing the tables
+	 * can use different values as long as no value exceeds the increment of
+	 * the sequences.
+	 *
+	 * Of the databases that use tables instead of sequences, only MySQL
+	 * benefits: its table is advanced by the block size in one update. The
+	 * identity tables of HSQL, Derby, SQL Server and Sybase need an insert
+	 * for every id whatever the block size, so it is ignored for them.
+	 * Defaults to 1.
+	 *
+	 * @param idBlockSize the number of ids to reserve at once
+	 */
+	public void setIdBlockSize(int idBlockSize) {
+		this.idBlockSize = idBlockSize;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 
 		Assert.notNull(dataSource, "DataSource must not be null.");
+		Assert.isTrue(idBlockSize > 0, "The idBlockSize must be greater than zero.");
 
 		jdbcTemplate = new JdbcTemplate(dataSource);
 
@@ -181,11 +210,29 @@ public class JobRepositoryFactoryBean extends AbstractJobRepositoryFactoryBean i
 		super.afterPropertiesSet();
 	}
 
+	private DataFieldMaxValueIncrementer getIncrementer(String incrementerName) {
+		DataFieldMaxValueIncrementer incrementer = incrementerFactory.getIncrementer(databaseType, incrementerName);
+		if (idBlockSize > 1) {
+			if (incrementer instanceof MySQLMaxValueIncrementer) {
+				// the table is advanced by the whole block at once
+				((MySQLMaxValueIncrementer) incrementer).setCacheSize(idBlockSize);
+			}
+			else if (incrementer instanceof AbstractColumnMaxValueIncrementer) {
+				logger.debug("Ignoring the idBlockSize for " + incrementerName
+						+ ": an identity table needs an insert for each id");
+			}
+			else {
+				incrementer = new BlockDataFieldMaxValueIncrementer(incrementer, idBlockSize);
+			}
+		}
+		return incrementer;
+	}
+
 	@Override
 	protected JobInstanceDao createJobInstanceDao() throws Exception {
 		JdbcJobInstanceDao dao = new JdbcJobInstanceDao();
 		dao.setJdbcTemplate(jdbcTemplate);
-		dao.setJobIncrementer(incrementerFactory.getIncrementer(databaseType, tablePrefix + "JOB_SEQ"));
+		dao.setJobIncrementer(getIncrementer(tablePrefix + "JOB_SEQ"));
 		dao.setTablePrefix(tablePrefix);
 		dao.afterPropertiesSet();
 		return dao;
@@ -195,8 +242,7 @@ public class JobRepositoryFactoryBean extends AbstractJobRepositoryFactoryBean i
 	protected JobExecutionDao createJobExecutionDao() throws Exception {
 		JdbcJobExecutionDao dao = new JdbcJobExecutionDao();
 		dao.setJdbcTemplate(jdbcTemplate);
-		dao.setJobExecutionIncrementer(incrementerFactory.getIncrementer(databaseType, tablePrefix
-				+ "JOB_EXECUTION_SEQ"));
+		dao.setJobExecutionIncrementer(getIncrementer(tablePrefix + "JOB_EXECUTION_SEQ"));
 		dao.setTablePrefix(tablePrefix);
 		dao.setClobTypeToUse(determineClobTypeToUse(this.databaseType));
 		dao.setExitMessageLength(maxVarCharLength);
@@ -208,8 +254,7 @@ public class JobRepositoryFactoryBean extends AbstractJobRepositoryFactoryBean i
 	protected StepExecutionDao createStepExecutionDao() throws Exception {
 		JdbcStepExecutionDao dao = new JdbcStepExecutionDao();
 		dao.setJdbcTemplate(jdbcTemplate);
-		dao.setStepExecutionIncrementer(incrementerFactory.getIncrementer(databaseType, tablePrefix
-				+ "STEP_EXECUTION_SEQ"));
+		dao.setStepExecutionIncrementer(getIncrementer(tablePrefix + "STEP_EXECUTION_SEQ"));
 		dao.setTablePrefix(tablePrefix);
 		dao.setClobTypeToUse(determineClobTypeToUse(this.databaseType));
 		dao.setExitMessageLength(maxVarCharLength);
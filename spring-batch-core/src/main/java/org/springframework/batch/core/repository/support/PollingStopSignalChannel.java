@@ -0,0 +1,204 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.repository.support;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExecutionFilter;
+import org.springframework.batch.core.explore.JobExecutionFinder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.poller.DirectPoller;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.util.Assert;
+
+/**
+ * {@link SimpleStopSignalChannel} that also picks up stop requests made from
+ * other processes. While executions are registered, a single background
+ * thread asks the {@link JobExplorer} for executions with status STOPPING
+ * once every {@link #setMaxLatency(long) maxLatency} milliseconds and signals
+ * the ones that run here. That is one query per interval for the whole
+ * process, however many steps and partitions are running, instead of one per
+ * chunk and thread. The thread ends when no executions are registered.
+ *
+ * @since 3.0
+ */
+public class PollingStopSignalChannel extends SimpleStopSignalChannel implements InitializingBean, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(PollingStopSignalChannel.class);
+
+	private final AtomicBoolean polling = new AtomicBoolean(false);
+
+	private JobExplorer jobExplorer;
+
+	private long maxLatency = 5000;
+
+	private TaskExecutor taskExecutor;
+
+	private volatile boolean destroyed = false;
+
+	/**
+	 * Public setter for the {@link JobExplorer} used to find stopped
+	 * executions. It has to read from the same tables as the job repository
+	 * and also be a {@link JobExecutionFinder}, like the default
+	 * {@link org.springframework.batch.core.explore.support.SimpleJobExplorer}.
+	 *
+	 * @param jobExplorer the {@link JobExplorer} to set
+	 */
+	public void setJobExplorer(JobExplorer jobExplorer) {
+		this.jobExplorer = jobExplorer;
+	}
+
+	/**
+	 * Public setter for the time in milliseconds between two queries, i.e.
+	 * the longest time it takes for a stop requested elsewhere to be seen
+	 * here. Defaults to 5000.
+	 *
+	 * @param maxLatency the interval to set
+	 */
+	public void setMaxLatency(long maxLatency) {
+		this.maxLatency = maxLatency;
+	}
+
+	/**
+	 * Public setter for the {@link TaskExecutor} that runs the polling
+	 * thread. Defaults to a {@link SimpleAsyncTaskExecutor} with daemon
+	 * threads.
+	 *
+	 * @param taskExecutor the task executor to set
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(jobExplorer, "A JobExplorer must be provided");
+		Assert.isInstanceOf(JobExecutionFinder.class, jobExplorer,
+				"The JobExplorer must be able to find job executions by filter");
+		Assert.isTrue(maxLatency > 0, "The maximum latency must be greater than zero");
+		if (taskExecutor == null) {
+			SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stop-signal-");
+			executor.setDaemon(true);
+			taskExecutor = executor;
+		}
+	}
+
+	/**
+	 * Stop the polling thread at the end of its current interval.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		destroyed = true;
+	}
+
+	@Override
+	public boolean register(JobExecution jobExecution) {
+		boolean registered = super.register(jobExecution);
+		if (registered && !destroyed && polling.compareAndSet(false, true)) {
+			startPolling();
+		}
+		return registered;
+	}
+
+	private void startPolling() {
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					new DirectPoller<Boolean>(maxLatency).poll(new Callable<Boolean>() {
+						@Override
+						public Boolean call() throws Exception {
+							// a non-null result ends the polling
+							return poll() ? null : Boolean.TRUE;
+						}
+					}).get();
+				}
+				catch (InterruptedException e) {
+					polling.set(false);
+					Thread.currentThread().interrupt();
+				}
+				catch (Exception e) {
+					polling.set(false);
+					logger.error("Polling for stopped job executions failed", e);
+				}
+			}
+		};
+		try {
+			taskExecutor.execute(task);
+		}
+		catch (TaskRejectedException e) {
+			polling.set(false);
+			logger.error("Could not start polling for stopped job executions", e);
+		}
+	}
+
+	/**
+	 * Signal the registered executions that were stopped elsewhere.
+	 *
+	 * @return true if the polling should go on
+	 */
+	private boolean poll() {
+		if (!destroyed && hasRegisteredExecutions()) {
+			Map<Long, Date> executions = getUnsignalledExecutions();
+			if (!executions.isEmpty()) {
+				try {
+					for (JobExecution jobExecution : ((JobExecutionFinder) jobExplorer).findJobExecutions(
+							getFilter(executions), Integer.MAX_VALUE)) {
+						if (executions.containsKey(jobExecution.getId())) {
+							signal(jobExecution.getId());
+						}
+					}
+				}
+				catch (DataAccessException e) {
+					logger.warn("Could not check for stopped job executions", e);
+				}
+			}
+			removeIdleExecutions();
+			return true;
+		}
+		polling.set(false);
+		// an execution might have been registered since the check above
+		return !destroyed && hasRegisteredExecutions() && polling.compareAndSet(false, true);
+	}
+
+	/**
+	 * Only executions created after the oldest one running here can be of
+	 * interest, which keeps old executions that never finished out of the
+	 * result.
+	 */
+	private JobExecutionFilter getFilter(Map<Long, Date> executions) {
+		JobExecutionFilter filter = new JobExecutionFilter();
+		filter.setStatuses(Collections.singleton(BatchStatus.STOPPING));
+		if (!executions.containsValue(null)) {
+			filter.setCreateTimeFrom(Collections.min(executions.values()));
+		}
+		return filter;
+	}
+
+}
@@ -32,6 +32,7 @@ import org.springframework.batch.core.repository.JobExecutionAlreadyRunningExcep
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.core.repository.StopSignalChannel;
 import org.springframework.batch.core.repository.dao.ExecutionContextDao;
 import org.springframework.batch.core.repository.dao.JobExecutionDao;
 import org.springframework.batch.core.repository.dao.JobInstanceDao;
@@ -69,6 +70,8 @@ public class SimpleJobRepository implements JobRepository {
 
 	private ExecutionContextDao ecDao;
 
+	private StopSignalChannel stopSignalChannel;
+
 	/**
 	 * Provide default constructor with low visibility in case user wants to use
 	 * use aop:proxy-target-class="true" for AOP interceptor.
@@ -85,6 +88,17 @@ public class SimpleJobRepository implements JobRepository {
 		this.ecDao = ecDao;
 	}
 
+	/**
+	 * Public setter for the {@link StopSignalChannel} that is checked for stop
+	 * requests when a {@link StepExecution} is updated. Without one the status
+	 * of the job execution is read from the database on every update.
+	 *
+	 * @param stopSignalChannel the channel to set
+	 */
+	public void setStopSignalChannel(StopSignalChannel stopSignalChannel) {
+		this.stopSignalChannel = stopSignalChannel;
+	}
+
 	@Override
 	public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
 		return jobInstanceDao.getJobInstance(jobName, jobParameters) != null;
@@ -158,6 +172,15 @@ public class SimpleJobRepository implements JobRepository {
 
 		jobExecution.setLastUpdated(new Date(System.currentTimeMillis()));
 		jobExecutionDao.updateJobExecution(jobExecution);
+
+		if (stopSignalChannel != null) {
+			if (!jobExecution.isRunning()) {
+				stopSignalChannel.unregister(jobExecution);
+			}
+			else if (jobExecution.isStopping()) {
+				stopSignalChannel.stop(jobExecution);
+			}
+		}
 	}
 
 	@Override
@@ -264,13 +287,18 @@ public class SimpleJobRepository implements JobRepository {
 	 * Check to determine whether or not the JobExecution that is the parent of
 	 * the provided StepExecution has been interrupted. If, after synchronizing
 	 * the status with the database, the status has been updated to STOPPING,
-	 * then the job has been interrupted.
+	 * then the job has been interrupted. With a {@link StopSignalChannel} the
+	 * status is only synchronized the first time the execution is seen and
+	 * after a stop has been signalled.
 	 *
 	 * @param stepExecution
 	 */
 	private void checkForInterruption(StepExecution stepExecution) {
 		JobExecution jobExecution = stepExecution.getJobExecution();
-		jobExecutionDao.synchronizeStatus(jobExecution);
+		if (stopSignalChannel == null || stopSignalChannel.register(jobExecution)
+				|| (!jobExecution.isStopping() && stopSignalChannel.isStopRequested(jobExecution))) {
+			jobExecutionDao.synchronizeStatus(jobExecution);
+		}
 		if (jobExecution.isStopping()) {
 			logger.info("Parent JobExecution is stopped, so passing message on to StepExecution");
 			stepExecution.setTerminateOnly();
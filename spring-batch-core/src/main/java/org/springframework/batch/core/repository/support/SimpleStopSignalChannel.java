@@ -0,0 +1,180 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.repository.support;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.repository.StopSignalChannel;
+
+/**
+ * In-memory {@link StopSignalChannel} for stop requests made in the same
+ * process, e.g. through a
+ * {@link org.springframework.batch.core.launch.JobOperator} that shares the
+ * {@link org.springframework.batch.core.repository.JobRepository} with the
+ * running jobs. Checking for a stop is a map lookup and a volatile read.
+ *
+ * Stops requested from another process are not seen. Use a
+ * {@link PollingStopSignalChannel} for those.
+ *
+ * An execution is unregistered when it ends. One that ends in another
+ * process, e.g. a partition run by a remote worker, is forgotten once it has
+ * not been checked for a stop for the {@link #setIdleTimeout(long) idle
+ * timeout}.
+ *
+ * @since 3.0
+ */
+public class SimpleStopSignalChannel implements StopSignalChannel {
+
+	private static final Log logger = LogFactory.getLog(SimpleStopSignalChannel.class);
+
+	private final ConcurrentMap<Long, Signal> signals = new ConcurrentHashMap<Long, Signal>();
+
+	private final AtomicLong lastIdleCheck = new AtomicLong(System.currentTimeMillis());
+
+	private long idleTimeout = 600000;
+
+	/**
+	 * Public setter for the time in milliseconds after which an execution that
+	 * has not been checked for a stop is forgotten. This only matters for
+	 * executions that end in another process, e.g. partitions run by remote
+	 * workers, which are removed between one and two timeouts after their
+	 * last check. Defaults to 10 minutes.
+	 *
+	 * @param idleTimeout the timeout to set
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	@Override
+	public boolean register(JobExecution jobExecution) {
+		removeIdleExecutions();
+		Long id = jobExecution.getId();
+		if (signals.containsKey(id)) {
+			return false;
+		}
+		return signals.putIfAbsent(id, new Signal(jobExecution.getCreateTime())) == null;
+	}
+
+	@Override
+	public void unregister(JobExecution jobExecution) {
+		signals.remove(jobExecution.getId());
+	}
+
+	@Override
+	public void stop(JobExecution jobExecution) {
+		signal(jobExecution.getId());
+	}
+
+	@Override
+	public boolean isStopRequested(JobExecution jobExecution) {
+		Signal signal = signals.get(jobExecution.getId());
+		if (signal == null) {
+			return false;
+		}
+		if (!signal.checked) {
+			signal.checked = true;
+		}
+		return signal.stopped;
+	}
+
+	/**
+	 * Flag a registered execution as stopped.
+	 *
+	 * @param jobExecutionId the id of a {@link JobExecution}
+	 */
+	protected void signal(Long jobExecutionId) {
+		Signal signal = signals.get(jobExecutionId);
+		if (signal == null) {
+			logger.debug("Ignoring stop signal for job execution not running here: id=" + jobExecutionId);
+			return;
+		}
+		if (!signal.stopped) {
+			logger.info("Stop signalled for job execution: id=" + jobExecutionId);
+			signal.stopped = true;
+		}
+	}
+
+	/**
+	 * @return true if there is at least one registered execution
+	 */
+	protected boolean hasRegisteredExecutions() {
+		return !signals.isEmpty();
+	}
+
+	/**
+	 * Unregister the executions that have not been checked for a stop since
+	 * the previous removal, e.g. because they ended in another process. Does
+	 * nothing until the idle timeout has passed since then, so it is cheap to
+	 * call often. An execution that is checked again later is registered
+	 * again.
+	 */
+	protected void removeIdleExecutions() {
+		long now = System.currentTimeMillis();
+		long last = lastIdleCheck.get();
+		if (now - last < idleTimeout || !lastIdleCheck.compareAndSet(last, now)) {
+			return;
+		}
+		for (Entry<Long, Signal> entry : signals.entrySet()) {
+			Signal signal = entry.getValue();
+			if (signal.checked) {
+				signal.checked = false;
+			}
+			else {
+				logger.debug("Removing idle job execution: id=" + entry.getKey());
+				signals.remove(entry.getKey(), signal);
+			}
+		}
+	}
+
+	/**
+	 * @return the ids and create times of the registered executions that have
+	 * not been asked to stop yet
+	 */
+	protected Map<Long, Date> getUnsignalledExecutions() {
+		Map<Long, Date> result = new HashMap<Long, Date>();
+		for (Entry<Long, Signal> entry : signals.entrySet()) {
+			if (!entry.getValue().stopped) {
+				result.put(entry.getKey(), entry.getValue().createTime);
+			}
+		}
+		return result;
+	}
+
+	private static class Signal {
+
+		private final Date createTime;
+
+		private volatile boolean stopped = false;
+
+		private volatile boolean checked = true;
+
+		public Signal(Date createTime) {
+			this.createTime = createTime;
+		}
+
+	}
+
+}
@@ -15,8 +15,15 @@
  */
 package org.springframework.batch.core.scope;
 
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.aop.scope.ScopedProxyUtils;
 import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
@@ -28,6 +35,7 @@ import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.core.Ordered;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringValueResolver;
 
 /**
@@ -46,6 +54,12 @@ public abstract class BatchScopeSupport implements Scope, BeanFactoryPostProcess
 
 	private int order = Ordered.LOWEST_PRECEDENCE;
 
+	/**
+	 * Getters of the context properties used in late binding expressions,
+	 * resolved once instead of for every scoped bean that is created.
+	 */
+	private final ConcurrentMap<String, Method> readMethods = new ConcurrentHashMap<String, Method>();
+
 	/**
 	 * @param order the order value to set priority of callback execution for
 	 * the {@link BeanFactoryPostProcessor} part of this scope bean.
@@ -96,6 +110,28 @@ public abstract class BatchScopeSupport implements Scope, BeanFactoryPostProcess
 
 	public abstract String getTargetNamePrefix();
 
+	/**
+	 * Read a property of the context for the late binding of expressions in
+	 * scoped beans. Simple properties are read through a cached getter, and
+	 * anything else through a {@link BeanWrapperImpl}.
+	 *
+	 * @param context the current context
+	 * @param key the property path
+	 * @return the property value
+	 */
+	protected Object getContextProperty(Object context, String key) {
+		Method method = readMethods.get(key);
+		if (method == null) {
+			PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(context.getClass(), key);
+			if (descriptor == null || descriptor.getReadMethod() == null) {
+				return new BeanWrapperImpl(context).getPropertyValue(key);
+			}
+			method = descriptor.getReadMethod();
+			readMethods.put(key, method);
+		}
+		return ReflectionUtils.invokeMethod(method, context);
+	}
+
 	/**
 	 * Register this scope with the enclosing BeanFactory.
 	 *
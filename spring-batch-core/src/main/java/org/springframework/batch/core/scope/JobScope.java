@@ -20,7 +20,6 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.core.scope.context.JobContext;
 import org.springframework.batch.core.scope.context.JobSynchronizationManager;
 import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.Scope;
 
@@ -81,7 +80,7 @@ public class JobScope extends BatchScopeSupport {
 		JobContext context = getContext();
 		// TODO: support for attributes as well maybe (setters not exposed yet
 		// so not urgent).
-		return new BeanWrapperImpl(context).getPropertyValue(key);
+		return getContextProperty(context, key);
 	}
 
 	/**
@@ -20,7 +20,6 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.core.scope.context.StepContext;
 import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.Scope;
 
@@ -88,7 +87,7 @@ public class StepScope extends BatchScopeSupport {
 		StepContext context = getContext();
 		// TODO: support for attributes as well maybe (setters not exposed yet
 		// so not urgent).
-		return new BeanWrapperImpl(context).getPropertyValue(key);
+		return getContextProperty(context, key);
 	}
 
 	/**
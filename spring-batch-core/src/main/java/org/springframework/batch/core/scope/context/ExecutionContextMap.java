@@ -0,0 +1,92 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.core.scope.context;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Read only {@link java.util.Map} view of an {@link ExecutionContext}, so that
+ * expressions can look up entries without a copy of the context being made.
+ * The context is obtained on every access because the owning execution can
+ * be given a new one.
+ *
+ * @since 3.0
+ */
+abstract class ExecutionContextMap extends AbstractMap<String, Object> {
+
+	protected abstract ExecutionContext getExecutionContext();
+
+	@Override
+	public Object get(Object key) {
+		return key instanceof String ? getExecutionContext().get((String) key) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String && getExecutionContext().containsKey((String) key);
+	}
+
+	@Override
+	public int size() {
+		return getExecutionContext().size();
+	}
+
+	/**
+	 * The entries are copies, since setting the value of an entry of the
+	 * context itself would bypass its dirty flag.
+	 */
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		final Set<Entry<String, Object>> entries = getExecutionContext().entrySet();
+		return new AbstractSet<Entry<String, Object>>() {
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				final Iterator<Entry<String, Object>> iterator = entries.iterator();
+				return new Iterator<Entry<String, Object>>() {
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						return new SimpleImmutableEntry<String, Object>(iterator.next());
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+
+		};
+	}
+
+}
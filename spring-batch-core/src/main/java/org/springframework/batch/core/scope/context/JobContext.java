@@ -18,12 +18,13 @@ package org.springframework.batch.core.scope.context;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
@@ -50,7 +51,18 @@ public class JobContext extends SynchronizedAttributeAccessor {
 
 	private JobExecution jobExecution;
 
-	private Map<String, Set<Runnable>> callbacks = new HashMap<String, Set<Runnable>>();
+	// concurrent so that scoped beans can be created by many threads at once
+	private ConcurrentMap<String, Set<Runnable>> callbacks = new ConcurrentHashMap<String, Set<Runnable>>();
+
+	// a live view, so that late binding expressions do not copy the context
+	private final Map<String, Object> jobExecutionContext = new ExecutionContextMap() {
+		@Override
+		protected ExecutionContext getExecutionContext() {
+			return jobExecution.getExecutionContext();
+		}
+	};
+
+	private volatile Map<String, Object> jobParameters;
 
 	public JobContext(JobExecution jobExecution) {
 		super();
@@ -80,26 +92,28 @@ public class JobContext extends SynchronizedAttributeAccessor {
 	}
 
 	/**
-	 * @return a map containing the items from the job {@link ExecutionContext}
+	 * @return a read only view of the items in the job {@link ExecutionContext}
 	 */
 	public Map<String, Object> getJobExecutionContext() {
-		Map<String, Object> result = new HashMap<String, Object>();
-		for (Entry<String, Object> entry : jobExecution.getExecutionContext().entrySet()) {
-			result.put(entry.getKey(), entry.getValue());
-		}
-		return Collections.unmodifiableMap(result);
+		return jobExecutionContext;
 	}
 
 	/**
 	 * @return a map containing the items from the {@link JobParameters}
 	 */
 	public Map<String, Object> getJobParameters() {
-		Map<String, Object> result = new HashMap<String, Object>();
-		for (Entry<String, JobParameter> entry : jobExecution.getJobParameters().getParameters()
-				.entrySet()) {
-			result.put(entry.getKey(), entry.getValue().getValue());
+		Map<String, Object> result = jobParameters;
+		if (result == null) {
+			// the parameters of an execution do not change, so they are
+			// converted only once
+			result = new HashMap<String, Object>();
+			for (Entry<String, JobParameter> entry : jobExecution.getJobParameters().getParameters().entrySet()) {
+				result.put(entry.getKey(), entry.getValue().getValue());
+			}
+			result = Collections.unmodifiableMap(result);
+			jobParameters = result;
 		}
-		return Collections.unmodifiableMap(result);
+		return result;
 	}
 
 	/**
@@ -111,20 +125,19 @@ public class JobContext extends SynchronizedAttributeAccessor {
 	 *        a callback to execute on close
 	 */
 	public void registerDestructionCallback(String name, Runnable callback) {
-		synchronized (callbacks) {
-			Set<Runnable> set = callbacks.get(name);
+		Set<Runnable> set = callbacks.get(name);
+		if (set == null) {
+			Set<Runnable> candidate = Collections.newSetFromMap(new ConcurrentHashMap<Runnable, Boolean>());
+			set = callbacks.putIfAbsent(name, candidate);
 			if (set == null) {
-				set = new HashSet<Runnable>();
-				callbacks.put(name, set);
+				set = candidate;
 			}
-			set.add(callback);
 		}
+		set.add(callback);
 	}
 
 	private void unregisterDestructionCallbacks(String name) {
-		synchronized (callbacks) {
-			callbacks.remove(name);
-		}
+		callbacks.remove(name);
 	}
 
 	/**
@@ -148,9 +161,7 @@ public class JobContext extends SynchronizedAttributeAccessor {
 
 		List<Exception> errors = new ArrayList<Exception>();
 
-		Map<String, Set<Runnable>> copy = Collections.unmodifiableMap(callbacks);
-
-		for (Entry<String, Set<Runnable>> entry : copy.entrySet()) {
+		for (Entry<String, Set<Runnable>> entry : callbacks.entrySet()) {
 			Set<Runnable> set = entry.getValue();
 			for (Runnable callback : set) {
 				if (callback != null) {
@@ -15,9 +15,9 @@
  */
 package org.springframework.batch.core.scope.context;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.batch.core.jsr.configuration.support.BatchPropertyContext;
@@ -50,15 +50,12 @@ public abstract class SynchronizationManagerSupport<E, C> {
 	private final ThreadLocal<Stack<E>> executionHolder = new ThreadLocal<Stack<E>>();
 
 	/**
-	 * Reference counter for each execution: how many threads are using the
-	 * same one?
+	 * Map from a running execution to the associated context and the
+	 * reference counter for the execution (how many threads are using the
+	 * same one?). A concurrent map, so that many partitions registering on a
+	 * large thread pool do not contend on a single lock.
 	 */
-	private final Map<E, AtomicInteger> counts = new HashMap<E, AtomicInteger>();
-
-	/**
-	 * Simple map from a running execution to the associated context.
-	 */
-	private final Map<E, C> contexts = new HashMap<E, C>();
+	private final ConcurrentMap<E, ContextHolder<C>> contexts = new ConcurrentHashMap<E, ContextHolder<C>>();
 
 	/**
 	 * Getter for the current context if there is one, otherwise returns null.
@@ -70,9 +67,8 @@ public abstract class SynchronizationManagerSupport<E, C> {
 		if (getCurrent().isEmpty()) {
 			return null;
 		}
-		synchronized (contexts) {
-			return contexts.get(getCurrent().peek());
-		}
+		ContextHolder<C> holder = contexts.get(getCurrent().peek());
+		return holder == null ? null : holder.context;
 	}
 
 	/**
@@ -85,20 +81,7 @@ public abstract class SynchronizationManagerSupport<E, C> {
 	 *         execution
 	 */
 	public C register(E execution) {
-		if (execution == null) {
-			return null;
-		}
-		getCurrent().push(execution);
-		C context;
-		synchronized (contexts) {
-			context = contexts.get(execution);
-			if (context == null) {
-				context = createNewContext(execution, null);
-				contexts.put(execution, context);
-			}
-		}
-		increment();
-		return context;
+		return register(execution, null);
 	}
 
 	/**
@@ -115,16 +98,7 @@ public abstract class SynchronizationManagerSupport<E, C> {
 			return null;
 		}
 		getCurrent().push(execution);
-		C context;
-		synchronized (contexts) {
-			context = contexts.get(execution);
-			if (context == null) {
-				context = createNewContext(execution, propertyContext);
-				contexts.put(execution, context);
-			}
-		}
-		increment();
-		return context;
+		return acquire(execution, propertyContext).context;
 	}
 
 	/**
@@ -146,12 +120,9 @@ public abstract class SynchronizationManagerSupport<E, C> {
 	private void decrement() {
 		E current = getCurrent().pop();
 		if (current != null) {
-			int remaining = counts.get(current).decrementAndGet();
-			if (remaining <= 0) {
-				synchronized (contexts) {
-					contexts.remove(current);
-					counts.remove(current);
-				}
+			ContextHolder<C> holder = contexts.get(current);
+			if (holder != null && holder.release()) {
+				contexts.remove(current, holder);
 			}
 		}
 	}
@@ -159,15 +130,30 @@ public abstract class SynchronizationManagerSupport<E, C> {
 	public void increment() {
 		E current = getCurrent().peek();
 		if (current != null) {
-			AtomicInteger count;
-			synchronized (counts) {
-				count = counts.get(current);
-				if (count == null) {
-					count = new AtomicInteger();
-					counts.put(current, count);
+			acquire(current, null);
+		}
+	}
+
+	/**
+	 * Find or create the holder for the execution and count one more
+	 * reference to it. A holder whose count has dropped to zero is on its way
+	 * out of the map and cannot be revived, so in that case a new one is
+	 * created.
+	 */
+	private ContextHolder<C> acquire(E execution, BatchPropertyContext propertyContext) {
+		while (true) {
+			ContextHolder<C> holder = contexts.get(execution);
+			if (holder == null) {
+				ContextHolder<C> candidate = new ContextHolder<C>(createNewContext(execution, propertyContext));
+				holder = contexts.putIfAbsent(execution, candidate);
+				if (holder == null) {
+					holder = candidate;
 				}
 			}
-			count.incrementAndGet();
+			if (holder.acquire()) {
+				return holder;
+			}
+			contexts.remove(execution, holder);
 		}
 	}
 
@@ -198,4 +184,39 @@ public abstract class SynchronizationManagerSupport<E, C> {
 
 	protected abstract C createNewContext(E execution, BatchPropertyContext propertyContext);
 
+	/**
+	 * A context with its reference count. The count is retired (set to -1)
+	 * when the last reference is released.
+	 */
+	private static class ContextHolder<C> {
+
+		private final C context;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		public ContextHolder(C context) {
+			this.context = context;
+		}
+
+		public boolean acquire() {
+			while (true) {
+				int current = count.get();
+				if (current < 0) {
+					return false;
+				}
+				if (count.compareAndSet(current, current + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * @return true if this was the last reference
+		 */
+		public boolean release() {
+			return count.decrementAndGet() == 0 && count.compareAndSet(0, -1);
+		}
+
+	}
+
 }
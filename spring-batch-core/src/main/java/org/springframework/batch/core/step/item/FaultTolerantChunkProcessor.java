@@ -45,6 +45,10 @@ import org.springframework.retry.support.DefaultRetryState;
 /**
  * FaultTolerant implementation of the {@link ChunkProcessor} interface, that
  * allows for skipping or retry of items that cause exceptions during writing.
+ * A {@link org.springframework.batch.item.BulkItemProcessor} processes the
+ * whole chunk in one call. If that fails, the items of the chunk are processed
+ * one by one instead, so that the failing items can be retried or skipped, and
+ * only those calls are reported to the item process listeners.
  *
  */
 public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O> {
@@ -193,6 +197,26 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 
 	}
 
+	/**
+	 * A failure to prefetch is only logged: the items are then processed one
+	 * by one, with skip and retry as usual. Nothing is prefetched while
+	 * scanning for a failed item.
+	 */
+	@Override
+	protected void prefetch(Chunk<I> inputs) {
+		@SuppressWarnings("unchecked")
+		UserData<O> data = (UserData<O>) inputs.getUserData();
+		if (data.scanning()) {
+			return;
+		}
+		try {
+			doPrefetch(inputs);
+		}
+		catch (Exception e) {
+			logger.warn("Prefetch failed, processing the items one by one", e);
+		}
+	}
+
 	@Override
 	protected Chunk<O> transform(final StepContribution contribution, Chunk<I> inputs) throws Exception {
 
@@ -203,6 +227,34 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 		final Iterator<O> cacheIterator = cache.isEmpty() ? null : new ArrayList<O>(cache.getItems()).iterator();
 		final AtomicInteger count = new AtomicInteger(0);
 
+		if (isBulkItemProcessor() && cacheIterator == null && !data.scanning() && !data.bulkFailed()) {
+			try {
+				List<O> results = tryProcessAll(inputs.getItems());
+				Iterator<O> resultIterator = results.iterator();
+				for (Chunk<I>.ChunkIterator iterator = inputs.iterator(); iterator.hasNext();) {
+					iterator.next();
+					O output = resultIterator.next();
+					if (output == null) {
+						data.incrementFilterCount();
+						iterator.remove();
+					}
+					else {
+						outputs.add(output);
+						if (!processorTransactional) {
+							cache.add(output);
+						}
+					}
+				}
+				return outputs;
+			}
+			catch (Exception e) {
+				// Process the items one by one to find the failure(s), in
+				// this and all further attempts with the same inputs
+				logger.debug("Bulk processing failed, processing the items one by one", e);
+				data.bulkFailed(true);
+			}
+		}
+
 		// final int scanLimit = processorTransactional && data.scanning() ? 1 :
 		// 0;
 
@@ -614,10 +666,20 @@ public class FaultTolerantChunkProcessor<I, O> extends SimpleChunkProcessor<I, O
 
 		private boolean scanning;
 
+		private boolean bulkFailed;
+
 		public boolean scanning() {
 			return scanning;
 		}
 
+		public boolean bulkFailed() {
+			return bulkFailed;
+		}
+
+		public void bulkFailed(boolean bulkFailed) {
+			this.bulkFailed = bulkFailed;
+		}
+
 		public void scanning(boolean scanning) {
 			this.scanning = scanning;
 		}
@@ -16,20 +16,26 @@
 
 package org.springframework.batch.core.step.item;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepListener;
 import org.springframework.batch.core.listener.MulticasterBatchListener;
+import org.springframework.batch.item.BulkItemProcessor;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.PrefetchingItemProcessor;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
 
 /**
  * Simple implementation of the {@link ChunkProcessor} interface that handles
  * basic item writing and processing. Any exceptions encountered will be
- * rethrown.
+ * rethrown. A {@link PrefetchingItemProcessor} is shown the items of the chunk
+ * before they are processed, and a {@link BulkItemProcessor} processes them
+ * all in one call.
  *
  * @see ChunkOrientedTasklet
  */
@@ -134,6 +140,74 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 
 	}
 
+	/**
+	 * @return true if the {@link ItemProcessor} is a {@link BulkItemProcessor}
+	 */
+	protected final boolean isBulkItemProcessor() {
+		return itemProcessor instanceof BulkItemProcessor;
+	}
+
+	/**
+	 * Process all the items with the {@link BulkItemProcessor}, with the
+	 * listener callbacks for every item. If the processor fails the error is
+	 * reported for every item.
+	 *
+	 * @param items the input items
+	 * @return the results of the processing, in the order of the items
+	 * @throws Exception
+	 */
+	protected final List<O> doProcessAll(List<I> items) throws Exception {
+
+		for (I item : items) {
+			listener.beforeProcess(item);
+		}
+		List<O> results;
+		try {
+			results = processAll(items);
+		}
+		catch (Exception e) {
+			for (I item : items) {
+				listener.onProcessError(item, e);
+			}
+			throw e;
+		}
+		for (int i = 0; i < items.size(); i++) {
+			listener.afterProcess(items.get(i), results.get(i));
+		}
+		return results;
+
+	}
+
+	/**
+	 * Process all the items with the {@link BulkItemProcessor} when a failure
+	 * is handled by processing the items one by one. The listener callbacks
+	 * for an item are only made if the processor succeeds, so that the
+	 * listeners see each item once, from the call that decides its outcome.
+	 *
+	 * @param items the input items
+	 * @return the results of the processing, in the order of the items
+	 * @throws Exception if the processor fails, without listener callbacks
+	 */
+	protected final List<O> tryProcessAll(List<I> items) throws Exception {
+
+		List<O> results = processAll(items);
+		for (int i = 0; i < items.size(); i++) {
+			listener.beforeProcess(items.get(i));
+			listener.afterProcess(items.get(i), results.get(i));
+		}
+		return results;
+
+	}
+
+	private List<O> processAll(List<I> items) throws Exception {
+		@SuppressWarnings("unchecked")
+		BulkItemProcessor<? super I, ? extends O> processor = (BulkItemProcessor<? super I, ? extends O>) itemProcessor;
+		List<? extends O> results = processor.processAll(items);
+		Assert.state(results != null && results.size() == items.size(),
+				"The BulkItemProcessor must return one result per item");
+		return new ArrayList<O>(results);
+	}
+
 	/**
 	 * Surrounds the actual write call with listener callbacks.
 	 *
@@ -187,6 +261,8 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 			return;
 		}
 
+		prefetch(inputs);
+
 		// Make the transformation, calling remove() on the inputs iterator if
 		// any items are filtered. Might throw exception and cause rollback.
 		Chunk<O> outputs = transform(contribution, inputs);
@@ -284,8 +360,64 @@ public class SimpleChunkProcessor<I, O> implements ChunkProcessor<I>, Initializi
 		contribution.incrementWriteCount(outputs.size());
 	}
 
+	/**
+	 * Show the inputs to the {@link ItemProcessor} if it is a
+	 * {@link PrefetchingItemProcessor}.
+	 *
+	 * @param inputs the inputs for the transformation
+	 * @throws Exception if the processor fails
+	 */
+	protected final void doPrefetch(Chunk<I> inputs) throws Exception {
+		if (itemProcessor instanceof PrefetchingItemProcessor) {
+			((PrefetchingItemProcessor<? super I, ?>) itemProcessor).prefetch(inputs.getItems());
+		}
+	}
+
+	/**
+	 * Extension point for subclasses to prepare the processor for the inputs
+	 * before they are transformed. Delegates to {@link #doPrefetch(Chunk)}.
+	 *
+	 * @param inputs the inputs for the transformation
+	 * @throws Exception if there is a problem
+	 */
+	protected void prefetch(Chunk<I> inputs) throws Exception {
+		try {
+			doPrefetch(inputs);
+		}
+		catch (Exception e) {
+			/*
+			 * For a simple chunk processor (no fault tolerance) we are done
+			 * here, so prevent any more processing of these inputs.
+			 */
+			inputs.clear();
+			throw e;
+		}
+	}
+
 	protected Chunk<O> transform(StepContribution contribution, Chunk<I> inputs) throws Exception {
 		Chunk<O> outputs = new Chunk<O>();
+		if (isBulkItemProcessor()) {
+			List<O> results;
+			try {
+				results = doProcessAll(inputs.getItems());
+			}
+			catch (Exception e) {
+				inputs.clear();
+				throw e;
+			}
+			Iterator<O> resultIterator = results.iterator();
+			for (Chunk<I>.ChunkIterator iterator = inputs.iterator(); iterator.hasNext();) {
+				iterator.next();
+				O output = resultIterator.next();
+				if (output != null) {
+					outputs.add(output);
+				}
+				else {
+					iterator.remove();
+				}
+			}
+			return outputs;
+		}
 		for (Chunk<I>.ChunkIterator iterator = inputs.iterator(); iterator.hasNext();) {
 			final I item = iterator.next();
 			O output;
@@ -14,6 +14,11 @@ CREATE TABLE BATCH_JOB_EXECUTION_PARAMS  (
 	references BATCH_JOB_EXECUTION(JOB_EXECUTION_ID)
 ) ENGINE=InnoDB;
 
+-- create the indexes for the job explorer queries
+
+CREATE INDEX JOB_EXEC_CREATE_IDX ON BATCH_JOB_EXECUTION(CREATE_TIME, JOB_EXECUTION_ID);
+CREATE INDEX JOB_EXEC_STATUS_IDX ON BATCH_JOB_EXECUTION(STATUS, JOB_EXECUTION_ID);
+
 -- insert script that 'copies' existing batch_job_params to batch_job_execution_params
 -- sets new params to identifying ones
 -- verified on h2, 
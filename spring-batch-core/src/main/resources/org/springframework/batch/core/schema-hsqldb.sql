@@ -76,6 +76,10 @@ CREATE TABLE BATCH_JOB_EXECUTION_CONTEXT  (
 	references BATCH_JOB_EXECUTION(JOB_EXECUTION_ID)
 ) ;
 
+CREATE INDEX JOB_EXEC_INST_IDX ON BATCH_JOB_EXECUTION(JOB_INSTANCE_ID);
+CREATE INDEX JOB_EXEC_CREATE_IDX ON BATCH_JOB_EXECUTION(CREATE_TIME, JOB_EXECUTION_ID);
+CREATE INDEX JOB_EXEC_STATUS_IDX ON BATCH_JOB_EXECUTION(STATUS, JOB_EXECUTION_ID);
+
 CREATE TABLE BATCH_STEP_EXECUTION_SEQ (
 	ID BIGINT IDENTITY
 );
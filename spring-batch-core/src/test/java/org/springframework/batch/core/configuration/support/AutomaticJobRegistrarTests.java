@@ -2,17 +2,24 @@ package org.springframework.batch.core.configuration.support;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.job.JobSupport;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
@@ -20,6 +27,7 @@ import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 /**
  * 
@@ -187,6 +195,145 @@ public class AutomaticJobRegistrarTests {
 
 	}
 
+	@Test
+	public void testLoadInParallel() throws Exception {
+		registrar.setTaskExecutor(new SimpleAsyncTaskExecutor());
+		for (int i = 0; i < 10; i++) {
+			registrar.addApplicationContextFactory(new StubApplicationContextFactory("job" + i));
+		}
+		registrar.start();
+		assertEquals(10, registry.getJobNames().size());
+		assertEquals("job7", registry.getJob("job7").getName());
+		registrar.stop();
+		assertEquals(0, registry.getJobNames().size());
+	}
+
+	@Test
+	public void testLoadInParallelWithError() throws Exception {
+		registrar.setTaskExecutor(new SimpleAsyncTaskExecutor());
+		registrar.addApplicationContextFactory(new StubApplicationContextFactory("foo"));
+		registrar.addApplicationContextFactory(new ApplicationContextFactory() {
+			@Override
+			public ConfigurableApplicationContext createApplicationContext() {
+				throw new BeanCreationException("Planned failure");
+			}
+		});
+		try {
+			registrar.start();
+			fail("Expected BeanCreationException");
+		}
+		catch (BeanCreationException e) {
+			assertFalse(registrar.isRunning());
+		}
+	}
+
+	@Test
+	public void testLazyJobs() throws Exception {
+		StubApplicationContextFactory factory = new StubApplicationContextFactory("foo", "bar");
+		Map<String, ApplicationContextFactory> lazyJobs = new HashMap<String, ApplicationContextFactory>();
+		lazyJobs.put("foo", factory);
+		lazyJobs.put("bar", factory);
+		registrar.setLazyJobs(lazyJobs);
+		registrar.setJobRegistry(registry);
+		registrar.afterPropertiesSet();
+		registrar.start();
+
+		assertEquals(2, registry.getJobNames().size());
+		assertEquals(0, factory.count);
+		Job job = registry.getJob("foo");
+		assertEquals("foo", job.getName());
+		assertEquals(1, factory.count);
+		assertSame(job, registry.getJob("foo"));
+		assertEquals("bar", registry.getJob("bar").getName());
+		assertEquals(1, factory.count);
+
+		registrar.stop();
+		assertEquals(0, registry.getJobNames().size());
+	}
+
+	@Test
+	public void testLazyJobsRegisteredWhileLoading() throws Exception {
+		final Collection<String> namesWhileLoading = new ArrayList<String>();
+		StubApplicationContextFactory factory = new StubApplicationContextFactory("foo", "bar") {
+			@Override
+			public ConfigurableApplicationContext createApplicationContext() {
+				// a concurrent request finds the placeholders
+				namesWhileLoading.addAll(registry.getJobNames());
+				return super.createApplicationContext();
+			}
+		};
+		Map<String, ApplicationContextFactory> lazyJobs = new HashMap<String, ApplicationContextFactory>();
+		lazyJobs.put("foo", factory);
+		lazyJobs.put("bar", factory);
+		registrar.setLazyJobs(lazyJobs);
+		registrar.setJobRegistry(registry);
+		registrar.start();
+
+		assertEquals("foo", registry.getJob("foo").getName());
+		assertTrue(namesWhileLoading.containsAll(Arrays.asList("foo", "bar")));
+		assertEquals("bar", registry.getJob("bar").getName());
+		assertEquals(1, factory.count);
+	}
+
+	@Test
+	public void testLazyJobsLoadedAgainAfterFailure() throws Exception {
+		StubApplicationContextFactory factory = new StubApplicationContextFactory("foo") {
+			@Override
+			public ConfigurableApplicationContext createApplicationContext() {
+				if (count++ == 0) {
+					throw new IllegalStateException("planned");
+				}
+				return super.createApplicationContext();
+			}
+		};
+		registrar.setLazyJobs(Collections.<String, ApplicationContextFactory> singletonMap("foo", factory));
+		registrar.setJobRegistry(registry);
+		registrar.start();
+		try {
+			registry.getJob("foo");
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("planned", e.getMessage());
+		}
+
+		assertTrue(registry.getJobNames().contains("foo"));
+		assertEquals("foo", registry.getJob("foo").getName());
+	}
+
+	@Test
+	public void testLazyJobsNeverLoaded() throws Exception {
+		StubApplicationContextFactory factory = new StubApplicationContextFactory("foo");
+		registrar.setLazyJobs(Collections.<String, ApplicationContextFactory> singletonMap("foo", factory));
+		registrar.setJobRegistry(registry);
+		registrar.start();
+		registrar.stop();
+		assertEquals(0, registry.getJobNames().size());
+		assertEquals(0, factory.count);
+	}
+
+	@Test
+	public void testLazyJobNotInContext() throws Exception {
+		StubApplicationContextFactory factory = new StubApplicationContextFactory("foo");
+		registrar.setLazyJobs(Collections.<String, ApplicationContextFactory> singletonMap("bar", factory));
+		registrar.setJobRegistry(registry);
+		registrar.start();
+		try {
+			registry.getJob("bar");
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue("Wrong message: " + e.getMessage(), e.getMessage().contains("bar"));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testLazyJobsWithoutJobRegistry() throws Exception {
+		registrar.setLazyJobs(Collections.<String, ApplicationContextFactory> singletonMap("foo",
+				new StubApplicationContextFactory("foo")));
+		registrar.afterPropertiesSet();
+	}
+
 	private void setUpApplicationContextFactories(Resource[] jobPaths, ApplicationContext parent) {
 		Collection<ApplicationContextFactory> applicationContextFactories = new ArrayList<ApplicationContextFactory>();
 		for (Resource resource : jobPaths) {
@@ -198,4 +345,27 @@ public class AutomaticJobRegistrarTests {
 				.toArray(new ApplicationContextFactory[jobPaths.length]));
 	}
 
+	private static class StubApplicationContextFactory implements ApplicationContextFactory {
+
+		private final String[] jobNames;
+
+		protected int count = 0;
+
+		public StubApplicationContextFactory(String... jobNames) {
+			this.jobNames = jobNames;
+		}
+
+		@Override
+		public ConfigurableApplicationContext createApplicationContext() {
+			count++;
+			GenericApplicationContext context = new GenericApplicationContext();
+			for (String jobName : jobNames) {
+				context.getBeanFactory().registerSingleton(jobName, new JobSupport(jobName));
+			}
+			context.refresh();
+			return context;
+		}
+
+	}
+
 }
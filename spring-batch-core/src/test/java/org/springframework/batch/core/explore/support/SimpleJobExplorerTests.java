@@ -20,7 +20,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import java.util.Collections;
 
@@ -30,6 +32,8 @@ import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExecutionFilter;
+import org.springframework.batch.core.explore.JobExecutionFinder;
 import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.batch.core.repository.dao.ExecutionContextDao;
 import org.springframework.batch.core.repository.dao.JobExecutionDao;
@@ -175,4 +179,24 @@ public class SimpleJobExplorerTests {
 
 		jobExplorer.getJobInstanceCount("throwException");
 	}
+
+	@Test
+	public void testFindJobExecutionSummaries() throws Exception {
+		jobExecutionDao = mock(JobExecutionDao.class, withSettings().extraInterfaces(JobExecutionFinder.class));
+		jobExplorer = new SimpleJobExplorer(jobInstanceDao, jobExecutionDao, stepExecutionDao, ecDao);
+		JobExecutionFilter filter = new JobExecutionFilter();
+		JobExecutionFinder finder = (JobExecutionFinder) jobExecutionDao;
+		when(finder.findJobExecutions(filter, 20)).thenReturn(Collections.singletonList(jobExecution));
+		when(finder.getJobExecutionCount(filter)).thenReturn(1);
+
+		assertEquals(Collections.singletonList(jobExecution), jobExplorer.findJobExecutions(filter, 20));
+		assertEquals(1, jobExplorer.getJobExecutionCount(filter));
+		// summaries are not hydrated
+		verifyZeroInteractions(jobInstanceDao, stepExecutionDao, ecDao);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFindJobExecutionSummariesWithoutFinder() throws Exception {
+		jobExplorer.findJobExecutions(new JobExecutionFilter(), 20);
+	}
 }
@@ -213,4 +213,41 @@ public class FlowJobBuilderTests {
 		assertEquals("step2", execution.getStepExecutions().iterator().next().getStepName());
 	}
 
+	@Test
+	public void testBuildGraph() throws Exception {
+		Flow flow = new FlowBuilder<Flow>("graph").graph(new SimpleAsyncTaskExecutor()).add(step1).add(step2, step1)
+				.add(step3, step1).end().build();
+		new JobBuilder("flow").repository(jobRepository).start(flow).end().preventRestart().build().execute(execution);
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(3, execution.getStepExecutions().size());
+	}
+
+	@Test
+	public void testBuildGraphWithRestart() throws Exception {
+		StepSupport flaky = new StepSupport("flaky") {
+			private boolean failed = false;
+
+			@Override
+			public void execute(StepExecution stepExecution) throws JobInterruptedException,
+			UnexpectedJobExecutionException {
+				BatchStatus status = failed ? BatchStatus.COMPLETED : BatchStatus.FAILED;
+				failed = true;
+				stepExecution.upgradeStatus(status);
+				stepExecution.setExitStatus(new ExitStatus(status.toString()));
+				jobRepository.update(stepExecution);
+			}
+		};
+		Flow flow = new FlowBuilder<Flow>("graph").graph(new SimpleAsyncTaskExecutor()).add(step1).add(flaky, step1)
+				.add(step2, flaky).add(step3, step1).end().build();
+		Job job = new JobBuilder("flow").repository(jobRepository).start(flow).end().build();
+		job.execute(execution);
+		assertEquals(BatchStatus.FAILED, execution.getStatus());
+		assertEquals(3, execution.getStepExecutions().size());
+		execution = jobRepository.createJobExecution("flow", new JobParameters());
+		job.execute(execution);
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		// only the step that failed and the one depending on it run again
+		assertEquals(2, execution.getStepExecutions().size());
+	}
+
 }
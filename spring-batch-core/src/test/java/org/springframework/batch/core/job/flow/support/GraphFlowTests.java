@@ -0,0 +1,168 @@
+package org.springframework.batch.core.job.flow.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.batch.core.job.flow.FlowExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionException;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.FlowExecutor;
+import org.springframework.batch.core.job.flow.StateSupport;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Tests for {@link GraphFlow}.
+ */
+public class GraphFlowTests {
+
+	private GraphFlow flow = new GraphFlow("job");
+
+	private FlowExecutor executor = new JobFlowExecutorSupport();
+
+	private List<String> handled = new CopyOnWriteArrayList<String>();
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmpty() throws Exception {
+		flow.afterPropertiesSet();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingDependency() throws Exception {
+		flow.addState(new RecordingState("a"), "b");
+		flow.afterPropertiesSet();
+	}
+
+	@Test
+	public void testCyclicDependencies() throws Exception {
+		flow.addState(new RecordingState("a"));
+		flow.addState(new RecordingState("b"), "a", "c");
+		flow.addState(new RecordingState("c"), "b");
+		try {
+			flow.afterPropertiesSet();
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("[b, c]"));
+		}
+	}
+
+	@Test
+	public void testDependencyOrder() throws Exception {
+		flow.addState(new RecordingState("d"), "b", "c");
+		flow.addState(new RecordingState("b"), "a");
+		flow.addState(new RecordingState("c"), "a");
+		flow.addState(new RecordingState("a"));
+		flow.afterPropertiesSet();
+		FlowExecution execution = flow.start(executor);
+		assertEquals(FlowExecutionStatus.COMPLETED, execution.getStatus());
+		assertEquals("job", execution.getName());
+		assertEquals(4, handled.size());
+		assertEquals("a", handled.get(0));
+		assertEquals("d", handled.get(3));
+	}
+
+	@Test
+	public void testIndependentStatesRunConcurrently() throws Exception {
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		flow.setTaskExecutor(new SimpleAsyncTaskExecutor());
+		flow.addState(new RecordingState("a"));
+		flow.addState(new RecordingState("b") {
+			@Override
+			public FlowExecutionStatus handle(FlowExecutor executor) throws Exception {
+				// fails unless c is running at the same time
+				barrier.await(5, TimeUnit.SECONDS);
+				return super.handle(executor);
+			}
+		}, "a");
+		flow.addState(new RecordingState("c") {
+			@Override
+			public FlowExecutionStatus handle(FlowExecutor executor) throws Exception {
+				barrier.await(5, TimeUnit.SECONDS);
+				return super.handle(executor);
+			}
+		}, "a");
+		flow.addState(new RecordingState("d"), "b", "c");
+		FlowExecution execution = flow.start(executor);
+		assertEquals(FlowExecutionStatus.COMPLETED, execution.getStatus());
+		assertEquals("d", handled.get(3));
+	}
+
+	@Test
+	public void testFailureStopsDependents() throws Exception {
+		flow.addState(new RecordingState("a"));
+		flow.addState(new RecordingState("b", FlowExecutionStatus.FAILED), "a");
+		flow.addState(new RecordingState("c"), "b");
+		flow.addState(new RecordingState("d"));
+		FlowExecution execution = flow.start(executor);
+		assertEquals(FlowExecutionStatus.FAILED, execution.getStatus());
+		assertFalse(handled.contains("c"));
+		assertTrue(handled.containsAll(Arrays.asList("a", "b", "d")));
+	}
+
+	@Test
+	public void testFailedRootStopsOtherRootsWithSyncTaskExecutor() throws Exception {
+		flow.addState(new RecordingState("a", FlowExecutionStatus.FAILED));
+		flow.addState(new RecordingState("b"));
+		flow.addState(new RecordingState("c"), "a");
+		FlowExecution execution = flow.start(executor);
+		assertEquals(FlowExecutionStatus.FAILED, execution.getStatus());
+		assertEquals(Arrays.asList("a"), handled);
+	}
+
+	@Test
+	public void testFailureStopsOtherDependentsWithSyncTaskExecutor() throws Exception {
+		flow.addState(new RecordingState("a"));
+		flow.addState(new RecordingState("b", FlowExecutionStatus.FAILED), "a");
+		flow.addState(new RecordingState("c"), "a");
+		FlowExecution execution = flow.start(executor);
+		assertEquals(FlowExecutionStatus.FAILED, execution.getStatus());
+		assertEquals(Arrays.asList("a", "b"), handled);
+	}
+
+	@Test
+	public void testException() throws Exception {
+		flow.addState(new RecordingState("a") {
+			@Override
+			public FlowExecutionStatus handle(FlowExecutor executor) throws Exception {
+				throw new IllegalStateException("planned");
+			}
+		});
+		flow.addState(new RecordingState("b"), "a");
+		try {
+			flow.start(executor);
+			fail("Expected FlowExecutionException");
+		}
+		catch (FlowExecutionException e) {
+			assertEquals("planned", e.getCause().getMessage());
+		}
+		assertTrue(handled.isEmpty());
+	}
+
+	private class RecordingState extends StateSupport {
+
+		public RecordingState(String name) {
+			super(name);
+		}
+
+		public RecordingState(String name, FlowExecutionStatus status) {
+			super(name, status);
+		}
+
+		@Override
+		public FlowExecutionStatus handle(FlowExecutor executor) throws Exception {
+			handled.add(getName());
+			return super.handle(executor);
+		}
+
+	}
+
+}
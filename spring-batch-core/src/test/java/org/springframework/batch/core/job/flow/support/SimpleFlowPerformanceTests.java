@@ -0,0 +1,68 @@
+package org.springframework.batch.core.job.flow.support;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.core.job.flow.StateSupport;
+import org.springframework.batch.core.job.flow.support.state.DecisionState;
+import org.springframework.batch.core.job.flow.support.state.EndState;
+import org.springframework.util.StopWatch;
+
+/**
+ * Measures the state transitions of a decider driven loop.
+ */
+public class SimpleFlowPerformanceTests {
+
+	private static final int ITERATIONS = 100000;
+
+	private Log logger = LogFactory.getLog(getClass());
+
+	@Test
+	public void testDeciderLoop() throws Exception {
+		final int[] count = new int[1];
+		DecisionState decision = new DecisionState(new JobExecutionDecider() {
+			@Override
+			public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+				return new FlowExecutionStatus(++count[0] < ITERATIONS ? "CONTINUE" : "COMPLETED");
+			}
+		}, "decision");
+		StateSupport step = new StateSupport("step");
+		EndState end = new EndState(FlowExecutionStatus.COMPLETED, "end");
+		EndState failed = new EndState(FlowExecutionStatus.FAILED, "failed");
+
+		List<StateTransition> transitions = new ArrayList<StateTransition>();
+		transitions.add(StateTransition.createStateTransition(step, "COMPLETED*", "decision"));
+		transitions.add(StateTransition.createStateTransition(step, "*", "failed"));
+		transitions.add(StateTransition.createStateTransition(decision, "FAILED", "failed"));
+		transitions.add(StateTransition.createStateTransition(decision, "STOP*", "failed"));
+		transitions.add(StateTransition.createStateTransition(decision, "CONTINUE", "step"));
+		transitions.add(StateTransition.createStateTransition(decision, "COMPLETED", "end"));
+		transitions.add(StateTransition.createStateTransition(decision, "*", "failed"));
+		transitions.add(StateTransition.createEndStateTransition(end));
+		transitions.add(StateTransition.createEndStateTransition(failed));
+
+		SimpleFlow flow = new SimpleFlow("loop");
+		flow.setStateTransitions(transitions);
+		flow.afterPropertiesSet();
+
+		StopWatch stopWatch = new StopWatch("decider loop");
+		stopWatch.start();
+		FlowExecution execution = flow.start(new JobFlowExecutorSupport());
+		stopWatch.stop();
+		logger.info(stopWatch.shortSummary());
+
+		assertEquals(FlowExecutionStatus.COMPLETED, execution.getStatus());
+		assertEquals(ITERATIONS, count[0]);
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.springframework.batch.core.job.flow.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.batch.core.job.flow.State;
+import org.springframework.batch.core.job.flow.StateSupport;
+
+/**
+ * Tests for {@link StateTransitionTable}.
+ */
+public class StateTransitionTableTests {
+
+	private State state = new StateSupport("state");
+
+	@Test
+	public void testFirstMatchWins() {
+		StateTransition wildcard = StateTransition.createStateTransition(state, "COMP*", "wildcard");
+		StateTransition exact = StateTransition.createStateTransition(state, "COMPLETED", "exact");
+		StateTransitionTable table = new StateTransitionTable(Arrays.asList(wildcard, exact));
+		assertSame(wildcard, table.find("COMPLETED"));
+		table = new StateTransitionTable(Arrays.asList(exact, wildcard));
+		assertSame(exact, table.find("COMPLETED"));
+		assertSame(wildcard, table.find("COMPLETED WITH SKIPS"));
+	}
+
+	@Test
+	public void testNoMatch() {
+		StateTransitionTable table = new StateTransitionTable(Arrays.asList(StateTransition.createStateTransition(
+				state, "COMPLETED", "next")));
+		assertNull(table.find("FAILED"));
+		// answered from the cache the second time
+		assertNull(table.find("FAILED"));
+	}
+
+	@Test
+	public void testPendingMatchesStopped() {
+		StateTransition stopped = StateTransition.createStateTransition(state, "STOPPED", "stopped");
+		StateTransition any = StateTransition.createStateTransition(state, "*", "any");
+		StateTransitionTable table = new StateTransitionTable(Arrays.asList(stopped, any));
+		assertSame(stopped, table.find("PENDING"));
+	}
+
+	@Test
+	public void testSameAnswersAsMatches() {
+		List<StateTransition> transitions = Arrays.asList(
+				StateTransition.createStateTransition(state, "C?MPLETED", "a"),
+				StateTransition.createStateTransition(state, "*ED", "b"),
+				StateTransition.createStateTransition(state, "F*L*D", "c"),
+				StateTransition.createStateTransition(state, "UNKNOWN", "d"),
+				StateTransition.createStateTransition(state, "*", "e"));
+		StateTransitionTable table = new StateTransitionTable(transitions);
+		for (String status : Arrays.asList("COMPLETED", "CXMPLETED", "STOPPED", "FAILED", "FOOLED", "UNKNOWN", "",
+				"CUSTOM")) {
+			StateTransition expected = null;
+			for (StateTransition transition : transitions) {
+				if (transition.matches(status)) {
+					expected = transition;
+					break;
+				}
+			}
+			assertEquals(status, expected, table.find(status));
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+package org.springframework.batch.core.launch;
+
+import org.springframework.batch.core.AbstractExceptionTests;
+
+/**
+ * Tests for {@link JobLaunchRejectedException}.
+ */
+public class JobLaunchRejectedExceptionTests extends AbstractExceptionTests {
+
+	@Override
+	public Exception getException(String msg) throws Exception {
+		return new JobLaunchRejectedException(msg);
+	}
+
+	@Override
+	public Exception getException(String msg, Throwable t) throws Exception {
+		return new JobLaunchRejectedException(msg, t);
+	}
+
+}
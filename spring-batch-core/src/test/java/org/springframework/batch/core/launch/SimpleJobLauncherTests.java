@@ -20,6 +20,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -40,6 +42,7 @@ import org.springframework.batch.core.JobParametersValidator;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.job.DefaultJobParametersValidator;
 import org.springframework.batch.core.job.JobSupport;
+import org.springframework.batch.core.launch.support.JobLaunchQueue;
 import org.springframework.batch.core.launch.support.SimpleJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.JobRestartException;
@@ -193,6 +196,57 @@ public class SimpleJobLauncherTests {
 
 	}
 
+	@Test
+	public void testLaunchQueueReleasedAfterRun() throws Exception {
+		JobLaunchQueue launchQueue = new JobLaunchQueue();
+		jobLauncher.setLaunchQueue(launchQueue);
+		testRun();
+		assertEquals(1, launchQueue.getLaunchCount());
+		assertEquals(0, launchQueue.getRunningCount());
+	}
+
+	@Test
+	public void testLaunchQueueReleasedWhenTaskExecutorRejects() throws Exception {
+		JobLaunchQueue launchQueue = new JobLaunchQueue();
+		jobLauncher.setLaunchQueue(launchQueue);
+		jobLauncher.setTaskExecutor(new TaskExecutor() {
+			@Override
+			public void execute(Runnable task) {
+				throw new TaskRejectedException("Planned failure");
+			}
+		});
+		JobExecution jobExecution = new JobExecution((JobInstance) null, (JobParameters) null);
+		when(jobRepository.createJobExecution(job.getName(), jobParameters)).thenReturn(jobExecution);
+
+		jobLauncher.afterPropertiesSet();
+		jobLauncher.run(job, jobParameters);
+		assertEquals(BatchStatus.FAILED, jobExecution.getStatus());
+		assertEquals(0, launchQueue.getRunningCount());
+	}
+
+	@Test
+	public void testLaunchQueueRejects() throws Exception {
+		JobLaunchQueue launchQueue = new JobLaunchQueue();
+		launchQueue.setMaxConcurrentLaunches(1);
+		launchQueue.setCapacity(0);
+		jobLauncher.setLaunchQueue(launchQueue);
+		jobLauncher.afterPropertiesSet();
+
+		JobLaunchQueue.Permit permit = launchQueue.acquire("other");
+		try {
+			jobLauncher.run(job, jobParameters);
+			fail("Expected JobLaunchRejectedException");
+		}
+		catch (JobLaunchRejectedException e) {
+			// expected
+		}
+		finally {
+			permit.release();
+		}
+		// nothing was written to the repository
+		verify(jobRepository, never()).createJobExecution(job.getName(), jobParameters);
+	}
+
 	@Test
 	public void testRunWithException() throws Exception {
 		job = new JobSupport() {
@@ -16,10 +16,18 @@
 package org.springframework.batch.core.launch.support;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -38,6 +46,7 @@ import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.JobLocator;
 import org.springframework.batch.core.converter.DefaultJobParametersConverter;
 import org.springframework.batch.core.converter.JobParametersConverter;
 import org.springframework.batch.core.explore.JobExplorer;
@@ -68,6 +77,8 @@ public class CommandLineJobRunnerTests {
 
 	private InputStream stdin;
 
+	private File tokenFile;
+
 	@Before
 	public void setUp() throws Exception {
 		JobExecution jobExecution = new JobExecution(null, new Long(1), null, null);
@@ -75,6 +86,8 @@ public class CommandLineJobRunnerTests {
 		jobExecution.setExitStatus(exitStatus);
 		StubJobLauncher.jobExecution = jobExecution;
 		stdin = System.in;
+		tokenFile = File.createTempFile("launcher", ".token");
+		tokenFile.delete();
 		System.setIn(new InputStream() {
 			@Override
 			public int read() {
@@ -86,6 +99,7 @@ public class CommandLineJobRunnerTests {
 	@After
 	public void tearDown() throws Exception {
 		System.setIn(stdin);
+		tokenFile.delete();
 		StubJobLauncher.tearDown();
 	}
 
@@ -355,6 +369,201 @@ public class CommandLineJobRunnerTests {
 		assertTrue(StubJobLauncher.destroyed);
 	}
 
+	@Test
+	public void testDaemonKeepsContextOpen() throws Throwable {
+		int port = getFreePort();
+		Thread daemon = startDaemon(new CommandLineJobRunner(), port);
+		CommandLineJobRunner client = new CommandLineJobRunner();
+		assertEquals(0, send(client, port, jobPath, jobName, jobKey));
+		assertEquals(0, send(client, port, jobPath, jobName, vendorId));
+		assertEquals(new JobParametersBuilder().addString("vendor.id", "33243243").toJobParameters(),
+				StubJobLauncher.jobParameters);
+		assertFalse(StubJobLauncher.destroyed);
+		assertEquals(0, send(client, port, "-shutdown"));
+		daemon.join(5000);
+		assertFalse(daemon.isAlive());
+		assertTrue(StubJobLauncher.destroyed);
+		assertFalse(tokenFile.exists());
+	}
+
+	@Test
+	public void testDaemonUsesItsCollaborators() throws Throwable {
+		int port = getFreePort();
+		CommandLineJobRunner runner = new CommandLineJobRunner();
+		final List<String> located = new ArrayList<String>();
+		runner.setJobLocator(new JobLocator() {
+			@Override
+			public Job getJob(String name) throws NoSuchJobException {
+				located.add(name);
+				throw new NoSuchJobException(name);
+			}
+		});
+		Thread daemon = startDaemon(runner, port);
+		CommandLineJobRunner client = new CommandLineJobRunner();
+		assertEquals(0, send(client, port, jobPath, jobName, jobKey));
+		assertEquals(Arrays.asList(jobName), located);
+		assertEquals(0, send(client, port, "-shutdown"));
+		daemon.join(5000);
+		assertFalse(daemon.isAlive());
+	}
+
+	@Test
+	public void testDaemonWritesOnlyTheTokenFile() throws Throwable {
+		int port = getFreePort();
+		Thread daemon = startDaemon(new CommandLineJobRunner(), port);
+		CommandLineJobRunner client = new CommandLineJobRunner();
+		waitForDaemon(port);
+		assertTrue(tokenFile.isFile());
+		String[] others = tokenFile.getParentFile().list(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith("." + tokenFile.getName());
+			}
+		});
+		assertEquals(0, others.length);
+		assertEquals(0, send(client, port, "-shutdown"));
+		daemon.join(5000);
+		assertFalse(daemon.isAlive());
+	}
+
+	@Test
+	public void testDaemonWithInvalidArgs() throws Throwable {
+		int port = getFreePort();
+		Thread daemon = startDaemon(new CommandLineJobRunner(), port);
+		CommandLineJobRunner client = new CommandLineJobRunner();
+		assertEquals(1, send(client, port, jobPath));
+		String errorMessage = CommandLineJobRunner.getErrorMessage();
+		assertTrue("Wrong error message: " + errorMessage, errorMessage.contains("At least 2 arguments"));
+		assertEquals(0, send(client, port, "-shutdown"));
+		daemon.join(5000);
+		assertFalse(daemon.isAlive());
+	}
+
+	@Test
+	public void testDaemonWithInvalidToken() throws Throwable {
+		int port = getFreePort();
+		Thread daemon = startDaemon(new CommandLineJobRunner(), port);
+		CommandLineJobRunner client = new CommandLineJobRunner();
+		waitForDaemon(port);
+		File otherTokenFile = File.createTempFile("launcher", ".token");
+		try {
+			FileOutputStream out = new FileOutputStream(otherTokenFile);
+			out.write("guess\n".getBytes("UTF-8"));
+			out.close();
+			assertEquals(1, client.send(port, otherTokenFile, Arrays.asList(jobPath, jobName)));
+		}
+		finally {
+			otherTokenFile.delete();
+		}
+		String errorMessage = CommandLineJobRunner.getErrorMessage();
+		assertTrue("Wrong error message: " + errorMessage, errorMessage.contains("Invalid token"));
+		assertNull(StubJobLauncher.jobParameters);
+		assertEquals(0, send(client, port, "-shutdown"));
+		daemon.join(5000);
+		assertFalse(daemon.isAlive());
+	}
+
+	@Test
+	public void testDaemonRejectsTooManyRequests() throws Throwable {
+		int port = getFreePort();
+		CommandLineJobRunner runner = new CommandLineJobRunner();
+		runner.setMaxRequests(1);
+		Thread daemon = startDaemon(runner, port);
+		CommandLineJobRunner client = new CommandLineJobRunner();
+		assertEquals(1, send(client, port, jobPath));
+		// let the thread of that request go back to the pool
+		Thread.sleep(100);
+		// one request being handled and one waiting
+		Socket running = new Socket(InetAddress.getByName(null), port);
+		Socket waiting = new Socket(InetAddress.getByName(null), port);
+		try {
+			assertEquals(1, client.send(port, tokenFile, Arrays.asList(jobPath, jobName)));
+			String errorMessage = CommandLineJobRunner.getErrorMessage();
+			assertTrue("Wrong error message: " + errorMessage, errorMessage.contains("Too many launch requests"));
+		}
+		finally {
+			running.close();
+			waiting.close();
+		}
+		int status = 1;
+		for (int i = 0; i < 100 && status != 0; i++) {
+			status = client.send(port, tokenFile, Arrays.asList("-shutdown"));
+		}
+		assertEquals(0, status);
+		daemon.join(5000);
+		assertFalse(daemon.isAlive());
+	}
+
+	@Test
+	public void testClientWithoutDaemon() throws Throwable {
+		CommandLineJobRunner.presetSystemExiter(new StubSystemExiter());
+		FileOutputStream out = new FileOutputStream(tokenFile);
+		out.write("token\n".getBytes("UTF-8"));
+		out.close();
+		CommandLineJobRunner.main(new String[] { "-client", String.valueOf(getFreePort()), tokenFile.getPath(),
+				jobPath, jobName });
+		assertEquals(1, StubSystemExiter.getStatus());
+		String errorMessage = CommandLineJobRunner.getErrorMessage();
+		assertTrue("Wrong error message: " + errorMessage, errorMessage.contains("Could not send launch request"));
+	}
+
+	@Test
+	public void testClientWithoutPort() throws Throwable {
+		CommandLineJobRunner.presetSystemExiter(new StubSystemExiter());
+		CommandLineJobRunner.main(new String[] { "-client", jobPath, jobName });
+		assertEquals(1, StubSystemExiter.getStatus());
+		String errorMessage = CommandLineJobRunner.getErrorMessage();
+		assertTrue("Wrong error message: " + errorMessage, errorMessage.contains("port number and a token file"));
+	}
+
+	@Test
+	public void testClientWithoutTokenFile() throws Throwable {
+		CommandLineJobRunner.presetSystemExiter(new StubSystemExiter());
+		CommandLineJobRunner.main(new String[] { "-client", String.valueOf(getFreePort()) });
+		assertEquals(1, StubSystemExiter.getStatus());
+		String errorMessage = CommandLineJobRunner.getErrorMessage();
+		assertTrue("Wrong error message: " + errorMessage, errorMessage.contains("port number and a token file"));
+	}
+
+	private int getFreePort() throws IOException {
+		ServerSocket socket = new ServerSocket(0);
+		try {
+			return socket.getLocalPort();
+		}
+		finally {
+			socket.close();
+		}
+	}
+
+	private Thread startDaemon(final CommandLineJobRunner runner, final int port) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runner.serve(port, tokenFile);
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	private void waitForDaemon(int port) throws InterruptedException {
+		// the daemon might not be listening yet
+		for (int i = 0; i < 100; i++) {
+			try {
+				new Socket(InetAddress.getByName(null), port).close();
+				return;
+			}
+			catch (IOException e) {
+				Thread.sleep(50);
+			}
+		}
+	}
+
+	private int send(CommandLineJobRunner client, int port, String... args) throws InterruptedException {
+		waitForDaemon(port);
+		return client.send(port, tokenFile, Arrays.asList(args));
+	}
+
 	public static class StubSystemExiter implements SystemExiter {
 
 		private static int status;
@@ -0,0 +1,157 @@
+package org.springframework.batch.core.launch.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.batch.core.launch.JobLaunchRejectedException;
+
+/**
+ * Tests for {@link JobLaunchQueue}.
+ */
+public class JobLaunchQueueTests {
+
+	private JobLaunchQueue queue = new JobLaunchQueue();
+
+	@Test
+	public void testUnlimited() throws Exception {
+		JobLaunchQueue.Permit first = queue.acquire("foo");
+		JobLaunchQueue.Permit second = queue.acquire("foo");
+		assertEquals(2, queue.getRunningCount());
+		assertEquals(2, queue.getRunningCount("foo"));
+		first.release();
+		second.release();
+		second.release();
+		assertEquals(0, queue.getRunningCount());
+		assertEquals(2, queue.getLaunchCount());
+	}
+
+	@Test
+	public void testRejectedWhenFull() throws Exception {
+		queue.setMaxConcurrentLaunches(1);
+		queue.setCapacity(0);
+		JobLaunchQueue.Permit permit = queue.acquire("foo");
+		try {
+			queue.acquire("bar");
+			fail("Expected JobLaunchRejectedException");
+		}
+		catch (JobLaunchRejectedException e) {
+			assertTrue("Wrong message: " + e.getMessage(), e.getMessage().contains("full"));
+		}
+		assertEquals(1, queue.getRejectedCount());
+		assertEquals(0, queue.getQueueDepth());
+		permit.release();
+		queue.acquire("bar").release();
+	}
+
+	@Test
+	public void testRejectedAfterTimeout() throws Exception {
+		queue.setMaxConcurrentLaunches(1);
+		queue.setTimeout(50);
+		queue.acquire("foo");
+		try {
+			queue.acquire("bar");
+			fail("Expected JobLaunchRejectedException");
+		}
+		catch (JobLaunchRejectedException e) {
+			assertTrue("Wrong message: " + e.getMessage(), e.getMessage().contains("Timed out"));
+		}
+		assertEquals(1, queue.getRejectedCount());
+		assertEquals(0, queue.getQueueDepth());
+	}
+
+	@Test
+	public void testConcurrencyLimitPerJob() throws Exception {
+		queue.setConcurrencyLimits(Collections.singletonMap("foo", 1));
+		queue.setTimeout(50);
+		JobLaunchQueue.Permit permit = queue.acquire("foo");
+		// other jobs are not held back
+		queue.acquire("bar").release();
+		try {
+			queue.acquire("foo");
+			fail("Expected JobLaunchRejectedException");
+		}
+		catch (JobLaunchRejectedException e) {
+			// expected
+		}
+		permit.release();
+		queue.acquire("foo").release();
+	}
+
+	@Test
+	public void testPriorities() throws Exception {
+		Map<String, Integer> priorities = new HashMap<String, Integer>();
+		priorities.put("high", 10);
+		queue.setPriorities(priorities);
+		queue.setMaxConcurrentLaunches(1);
+		JobLaunchQueue.Permit permit = queue.acquire("blocker");
+
+		final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+		List<Thread> threads = new ArrayList<Thread>();
+		for (String name : new String[] { "low", "high" }) {
+			threads.add(launch(name, order));
+			while (queue.getQueueDepth() < threads.size()) {
+				Thread.sleep(1);
+			}
+		}
+		assertEquals(2, queue.getMaxQueueDepth());
+
+		permit.release();
+		for (Thread thread : threads) {
+			thread.join(5000);
+		}
+		assertEquals("[high, low]", order.toString());
+		assertEquals(3, queue.getLaunchCount());
+	}
+
+	@Test
+	public void testManyLaunches() throws Exception {
+		queue.setMaxConcurrentLaunches(4);
+		queue.setCapacity(1000);
+		final CountDownLatch latch = new CountDownLatch(50);
+		final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+		for (int i = 0; i < 50; i++) {
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					JobLaunchQueue.Permit permit = queue.acquire("foo");
+					try {
+						assertTrue(queue.getRunningCount() <= 4);
+						order.add("foo");
+					}
+					finally {
+						permit.release();
+						latch.countDown();
+					}
+				}
+			}).start();
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals(50, order.size());
+		assertEquals(0, queue.getRunningCount());
+		assertEquals(0, queue.getRejectedCount());
+	}
+
+	private Thread launch(final String name, final List<String> order) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				JobLaunchQueue.Permit permit = queue.acquire(name);
+				order.add(name);
+				permit.release();
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+}
@@ -61,6 +61,26 @@ public class MulticasterBatchListenerTests {
 		assertEquals(2, count);
 	}
 
+	@Test
+	public void testItemCallbacksWithoutItemListeners() {
+		multicast = new MulticasterBatchListener<Integer, String>();
+		multicast.register(new StepListenerSupport<Integer, String>() {
+			@Override
+			public void beforeStep(StepExecution stepExecution) {
+				count++;
+			}
+		});
+		multicast.beforeRead();
+		multicast.afterRead(1);
+		multicast.beforeProcess(1);
+		multicast.afterProcess(1, "1");
+		multicast.beforeWrite(Arrays.asList("1"));
+		multicast.afterWrite(Arrays.asList("1"));
+		assertEquals(0, count);
+		multicast.beforeStep(new StepExecution("s1", new JobExecution(1L)));
+		assertEquals(1, count);
+	}
+
 	/**
 	 * Test method for
 	 * {@link org.springframework.batch.core.listener.MulticasterBatchListener#register(org.springframework.batch.core.StepListener)}
@@ -17,6 +17,7 @@ package org.springframework.batch.core.listener;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Iterator;
@@ -128,6 +129,31 @@ public class OrderedCompositeTests {
 		assertEquals(item, iterator.next());
 	}
 
+	@Test
+	public void testIteratorIsSnapshot() {
+		list.setItems(Arrays.asList(new Object[] { "1", "2" }));
+		Iterator<Object> iterator = list.iterator();
+		Iterator<Object> reverse = list.reverse();
+		list.add("3");
+		assertEquals("1", iterator.next());
+		assertEquals("2", iterator.next());
+		assertFalse(iterator.hasNext());
+		assertEquals("2", reverse.next());
+		assertEquals("1", reverse.next());
+		assertFalse(reverse.hasNext());
+		assertEquals("3", list.reverse().next());
+	}
+
+	@Test
+	public void testIsEmpty() {
+		assertTrue(list.isEmpty());
+		list.add("1");
+		assertFalse(list.isEmpty());
+		list.setItems(Arrays.asList(new Object[0]));
+		assertTrue(list.isEmpty());
+		assertFalse(list.iterator().hasNext());
+	}
+
 	@Order(0)
 	private static class OrderedObject {
 
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertFalse;
 import static org.springframework.batch.core.listener.StepListenerMetaData.AFTER_STEP;
 import static org.springframework.batch.core.listener.StepListenerMetaData.AFTER_WRITE;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +34,7 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.ItemProcessListener;
@@ -203,6 +205,35 @@ public class StepListenerFactoryBeanTests {
 		assertEquals(3, ((Ordered) listener).getOrder());
 	}
 
+	@Test
+	public void testAnnotationsWithoutProxy() throws Exception {
+		final List<String> calls = new ArrayList<String>();
+		Object delegate = new Object() {
+			@BeforeRead
+			public void before() {
+				calls.add("beforeRead");
+			}
+
+			@AfterStep
+			public ExitStatus after(StepExecution execution) {
+				calls.add("afterStep");
+				return ExitStatus.FAILED;
+			}
+		};
+		StepListener listener = StepListenerFactoryBean.getListener(delegate);
+		assertFalse(AopUtils.isAopProxy(listener));
+		assertTrue(listener instanceof ItemReadListener);
+		assertTrue(listener instanceof StepExecutionListener);
+		assertFalse(listener instanceof ItemWriteListener);
+		assertFalse(listener instanceof ChunkListener);
+		assertFalse(listener instanceof Ordered);
+		((ItemReadListener<?>) listener).beforeRead();
+		assertEquals(ExitStatus.FAILED, ((StepExecutionListener) listener).afterStep(stepExecution));
+		assertEquals(Arrays.asList("beforeRead", "afterStep"), calls);
+		assertEquals(listener, StepListenerFactoryBean.getListener(delegate));
+		assertEquals(listener.hashCode(), StepListenerFactoryBean.getListener(delegate).hashCode());
+	}
+
 	@Test
 	public void testProxiedAnnotationsFactoryMethod() throws Exception {
 		Object delegate = new InitializingBean() {
@@ -3,6 +3,7 @@ package org.springframework.batch.core.repository.dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -19,6 +20,8 @@ import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExecutionFilter;
+import org.springframework.batch.core.explore.JobExecutionFinder;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
@@ -333,6 +336,84 @@ public abstract class AbstractJobExecutionDaoTests {
 		assertEquals(BatchStatus.UNKNOWN, exec2.getStatus());
 	}
 
+	/**
+	 * Summaries are filtered by job name, status and create time, and come
+	 * back most recent first.
+	 */
+	@Transactional
+	@Test
+	public void testFindJobExecutionSummaries() {
+		JobInstance otherInstance = getJobInstanceDao().createJobInstance("otherTestJob", jobParameters);
+		List<JobExecution> execs = new ArrayList<JobExecution>();
+		for (int i = 0; i < 6; i++) {
+			JobExecution exec = new JobExecution(i % 3 == 2 ? otherInstance : jobInstance, jobParameters);
+			exec.setCreateTime(new Date(i * 1000L));
+			exec.setStatus(i % 2 == 0 ? BatchStatus.COMPLETED : BatchStatus.FAILED);
+			dao.saveJobExecution(exec);
+			execs.add(exec);
+		}
+
+		JobExecutionFinder finder = (JobExecutionFinder) dao;
+		JobExecutionFilter filter = new JobExecutionFilter();
+		List<JobExecution> summaries = finder.findJobExecutions(filter, 10);
+		assertEquals(6, summaries.size());
+		for (int i = 0; i < 6; i++) {
+			assertExecutionsAreEqual(execs.get(5 - i), summaries.get(i));
+		}
+		assertEquals("execTestJob", summaries.get(1).getJobInstance().getJobName());
+		assertEquals(jobInstance.getId(), summaries.get(1).getJobId());
+		assertEquals(0, summaries.get(1).getStepExecutions().size());
+
+		filter.setJobName("execTestJob");
+		assertEquals(4, finder.getJobExecutionCount(filter));
+		filter.setStatuses(Collections.singleton(BatchStatus.FAILED));
+		// executions 1 and 3
+		assertEquals(2, finder.getJobExecutionCount(filter));
+		assertEquals(execs.get(3), finder.findJobExecutions(filter, 10).get(0));
+		filter.setStatuses(null);
+		filter.setCreateTimeFrom(new Date(1000L));
+		filter.setCreateTimeTo(new Date(4000L));
+		// executions 1 and 3, 2 belongs to the other job
+		summaries = finder.findJobExecutions(filter, 10);
+		assertEquals(2, summaries.size());
+		assertEquals(execs.get(3), summaries.get(0));
+		assertEquals(execs.get(1), summaries.get(1));
+		assertEquals(0, finder.findJobExecutions(filter, 0).size());
+		assertEquals(0, finder.findJobExecutions(filter, -1).size());
+	}
+
+	/**
+	 * Pages follow on from each other through the keyset.
+	 */
+	@Transactional
+	@Test
+	public void testFindJobExecutionSummariesByPage() {
+		for (int i = 0; i < 7; i++) {
+			JobExecution exec = new JobExecution(jobInstance, jobParameters);
+			dao.saveJobExecution(exec);
+		}
+
+		JobExecutionFilter filter = new JobExecutionFilter();
+		filter.setJobName("execTestJob");
+		JobExecutionFinder finder = (JobExecutionFinder) dao;
+		List<Long> ids = new ArrayList<Long>();
+		List<JobExecution> page = finder.findJobExecutions(filter, 3);
+		while (!page.isEmpty()) {
+			assertTrue(page.size() <= 3);
+			for (JobExecution exec : page) {
+				ids.add(exec.getId());
+			}
+			filter.setBeforeExecutionId(page.get(page.size() - 1).getId());
+			page = finder.findJobExecutions(filter, 3);
+		}
+		assertEquals(7, ids.size());
+		for (int i = 1; i < ids.size(); i++) {
+			assertTrue(ids.get(i - 1) > ids.get(i));
+		}
+		filter.setBeforeExecutionId(ids.get(2));
+		assertEquals(4, finder.getJobExecutionCount(filter));
+	}
+
 	/*
 	 * Check to make sure the executions are equal. Normally, comparing the id's
 	 * is sufficient. However, for testing purposes, especially of a DAO, we
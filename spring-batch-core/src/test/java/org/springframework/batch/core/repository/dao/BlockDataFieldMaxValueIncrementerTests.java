@@ -0,0 +1,120 @@
+package org.springframework.batch.core.repository.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.jdbc.support.incrementer.AbstractDataFieldMaxValueIncrementer;
+
+/**
+ * Tests for {@link BlockDataFieldMaxValueIncrementer}.
+ */
+public class BlockDataFieldMaxValueIncrementerTests {
+
+	@Test
+	public void testOneCallPerBlock() throws Exception {
+		StubIncrementer delegate = new StubIncrementer(10);
+		BlockDataFieldMaxValueIncrementer incrementer = new BlockDataFieldMaxValueIncrementer(delegate, 10);
+		// the first value only checks the step
+		assertEquals(20, incrementer.nextLongValue());
+		for (long i = 21; i < 30; i++) {
+			assertEquals(i, incrementer.nextLongValue());
+		}
+		assertEquals(2, delegate.count);
+		assertEquals(30, incrementer.nextIntValue());
+		assertEquals("31", incrementer.nextStringValue());
+		assertEquals(3, delegate.count);
+	}
+
+	@Test
+	public void testBlockSizeOne() throws Exception {
+		StubIncrementer delegate = new StubIncrementer(1);
+		BlockDataFieldMaxValueIncrementer incrementer = new BlockDataFieldMaxValueIncrementer(delegate, 1);
+		assertEquals(2, incrementer.nextLongValue());
+		assertEquals(3, incrementer.nextLongValue());
+		assertEquals(3, delegate.count);
+	}
+
+	@Test
+	public void testBlockSizeSmallerThanStep() throws Exception {
+		StubIncrementer delegate = new StubIncrementer(10);
+		BlockDataFieldMaxValueIncrementer incrementer = new BlockDataFieldMaxValueIncrementer(delegate, 3);
+		assertEquals(20, incrementer.nextLongValue());
+		assertEquals(21, incrementer.nextLongValue());
+		assertEquals(22, incrementer.nextLongValue());
+		assertEquals(30, incrementer.nextLongValue());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBlockSizeGreaterThanStep() throws Exception {
+		StubIncrementer delegate = new StubIncrementer(5);
+		new BlockDataFieldMaxValueIncrementer(delegate, 10).nextLongValue();
+	}
+
+	@Test
+	public void testBlocksOfDifferentSizesDoNotOverlap() throws Exception {
+		StubIncrementer delegate = new StubIncrementer(5);
+		BlockDataFieldMaxValueIncrementer first = new BlockDataFieldMaxValueIncrementer(delegate, 5);
+		BlockDataFieldMaxValueIncrementer second = new BlockDataFieldMaxValueIncrementer(delegate, 3);
+		Set<Long> ids = new HashSet<Long>();
+		for (int i = 0; i < 12; i++) {
+			assertTrue(ids.add(first.nextLongValue()));
+			assertTrue(ids.add(second.nextLongValue()));
+			// a process without blocks uses the values directly
+			assertTrue(ids.add(delegate.nextLongValue()));
+		}
+	}
+
+	@Test
+	public void testMultithreaded() throws Exception {
+		final BlockDataFieldMaxValueIncrementer incrementer = new BlockDataFieldMaxValueIncrementer(
+				new StubIncrementer(7), 7);
+		final Set<Long> ids = Collections.synchronizedSet(new HashSet<Long>());
+		final CountDownLatch latch = new CountDownLatch(8);
+		for (int i = 0; i < 8; i++) {
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) {
+						ids.add(incrementer.nextLongValue());
+					}
+					latch.countDown();
+				}
+			}).start();
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals(8000, ids.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBlockSize() throws Exception {
+		new BlockDataFieldMaxValueIncrementer(new StubIncrementer(1), 0);
+	}
+
+	/**
+	 * A sequence starting at its increment.
+	 */
+	private static class StubIncrementer extends AbstractDataFieldMaxValueIncrementer {
+
+		private final int step;
+
+		private int count = 0;
+
+		public StubIncrementer(int step) {
+			this.step = step;
+		}
+
+		@Override
+		protected synchronized long getNextKey() {
+			return ++count * step;
+		}
+
+	}
+
+}
@@ -39,6 +39,8 @@ import org.springframework.batch.item.database.support.DataFieldMaxValueIncremen
 import org.springframework.core.serializer.Serializer;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.HsqlMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.MySQLMaxValueIncrementer;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.jdbc.support.lob.OracleLobHandler;
@@ -115,6 +117,48 @@ public class JobRepositoryFactoryBeanTests {
 
 	}
 
+	@Test
+	public void testIdBlockSizeWithTableIncrementer() throws Exception {
+
+		factory.setDatabaseType("MYSQL");
+		factory.setIdBlockSize(50);
+
+		MySQLMaxValueIncrementer incrementer = new MySQLMaxValueIncrementer();
+		incrementerFactory = mock(DataFieldMaxValueIncrementerFactory.class);
+		when(incrementerFactory.isSupportedIncrementerType("MYSQL")).thenReturn(true);
+		when(incrementerFactory.getIncrementer("MYSQL", tablePrefix + "JOB_SEQ")).thenReturn(incrementer);
+		when(incrementerFactory.getIncrementer("MYSQL", tablePrefix + "JOB_EXECUTION_SEQ")).thenReturn(new StubIncrementer());
+		when(incrementerFactory.getIncrementer("MYSQL", tablePrefix + "STEP_EXECUTION_SEQ")).thenReturn(new StubIncrementer());
+		factory.setIncrementerFactory(incrementerFactory);
+
+		factory.afterPropertiesSet();
+		factory.getObject();
+		// the table is advanced by the block size instead of wrapping the incrementer
+		assertEquals(50, incrementer.getCacheSize());
+
+	}
+
+	@Test
+	public void testIdBlockSizeWithIdentityTableIncrementer() throws Exception {
+
+		factory.setDatabaseType("HSQL");
+		factory.setIdBlockSize(50);
+
+		HsqlMaxValueIncrementer incrementer = new HsqlMaxValueIncrementer();
+		incrementerFactory = mock(DataFieldMaxValueIncrementerFactory.class);
+		when(incrementerFactory.isSupportedIncrementerType("HSQL")).thenReturn(true);
+		when(incrementerFactory.getIncrementer("HSQL", tablePrefix + "JOB_SEQ")).thenReturn(incrementer);
+		when(incrementerFactory.getIncrementer("HSQL", tablePrefix + "JOB_EXECUTION_SEQ")).thenReturn(new StubIncrementer());
+		when(incrementerFactory.getIncrementer("HSQL", tablePrefix + "STEP_EXECUTION_SEQ")).thenReturn(new StubIncrementer());
+		factory.setIncrementerFactory(incrementerFactory);
+
+		factory.afterPropertiesSet();
+		factory.getObject();
+		// an identity table inserts a row per id however many are cached
+		assertEquals(1, incrementer.getCacheSize());
+
+	}
+
 	@Test
 	public void testCustomLobHandler() throws Exception {
 
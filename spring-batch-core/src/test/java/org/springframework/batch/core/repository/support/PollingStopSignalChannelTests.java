@@ -0,0 +1,104 @@
+package org.springframework.batch.core.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExecutionFilter;
+import org.springframework.batch.core.explore.JobExecutionFinder;
+import org.springframework.batch.core.explore.JobExplorer;
+
+/**
+ * Tests for {@link PollingStopSignalChannel}.
+ */
+public class PollingStopSignalChannelTests {
+
+	private PollingStopSignalChannel channel = new PollingStopSignalChannel();
+
+	private JobExplorer jobExplorer = mock(JobExplorer.class, withSettings().extraInterfaces(JobExecutionFinder.class));
+
+	private List<JobExecutionFilter> filters = Collections.synchronizedList(new ArrayList<JobExecutionFilter>());
+
+	private List<JobExecution> stopped = Collections.synchronizedList(new ArrayList<JobExecution>());
+
+	@Before
+	public void setUp() throws Exception {
+		when(((JobExecutionFinder) jobExplorer).findJobExecutions(any(JobExecutionFilter.class), anyInt())).thenAnswer(
+				new Answer<List<JobExecution>>() {
+					@Override
+					public List<JobExecution> answer(InvocationOnMock invocation) throws Throwable {
+						filters.add((JobExecutionFilter) invocation.getArguments()[0]);
+						return new ArrayList<JobExecution>(stopped);
+					}
+				});
+		channel.setJobExplorer(jobExplorer);
+		channel.setMaxLatency(10);
+		channel.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		channel.destroy();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testJobExplorerWithoutFinder() throws Exception {
+		PollingStopSignalChannel channel = new PollingStopSignalChannel();
+		channel.setJobExplorer(mock(JobExplorer.class));
+		channel.afterPropertiesSet();
+	}
+
+	@Test
+	public void testRemoteStop() throws Exception {
+		JobExecution jobExecution = new JobExecution(11L);
+		jobExecution.setCreateTime(new Date(1000L));
+		channel.register(jobExecution);
+		stopped.add(new JobExecution(12L));
+		stopped.add(new JobExecution(11L));
+		for (int i = 0; i < 500 && !channel.isStopRequested(jobExecution); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(channel.isStopRequested(jobExecution));
+		JobExecutionFilter filter = filters.get(0);
+		assertEquals(Collections.singleton(BatchStatus.STOPPING), filter.getStatuses());
+		assertEquals(new Date(1000L), filter.getCreateTimeFrom());
+	}
+
+	@Test
+	public void testPollingEndsWithoutExecutions() throws Exception {
+		JobExecution jobExecution = new JobExecution(11L);
+		channel.register(jobExecution);
+		while (filters.isEmpty()) {
+			Thread.sleep(10);
+		}
+		channel.unregister(jobExecution);
+		Thread.sleep(50);
+		int count = filters.size();
+		Thread.sleep(50);
+		assertEquals(count, filters.size());
+
+		// registering again starts a new poller
+		channel.register(jobExecution);
+		for (int i = 0; i < 500 && filters.size() == count; i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(filters.size() > count);
+	}
+
+}
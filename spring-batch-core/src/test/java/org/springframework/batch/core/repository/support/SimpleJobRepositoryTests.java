@@ -20,7 +20,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,6 +31,8 @@ import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
@@ -219,6 +223,36 @@ public class SimpleJobRepositoryTests {
 		assertTrue(stepExecution.isTerminateOnly());
 	}
 
+	@Test
+	public void testInterruptedWithStopSignalChannel(){
+
+		jobRepository.setStopSignalChannel(new SimpleStopSignalChannel());
+		StepExecution stepExecution = new StepExecution("stepName", jobExecution);
+		stepExecution.setId(323L);
+
+		// only the first update of the execution goes to the database
+		jobRepository.update(stepExecution);
+		jobRepository.update(stepExecution);
+		verify(jobExecutionDao, times(1)).synchronizeStatus(jobExecution);
+		assertFalse(stepExecution.isTerminateOnly());
+
+		JobExecution stopped = new JobExecution(jobExecution);
+		stopped.setStatus(BatchStatus.STOPPING);
+		jobRepository.update(stopped);
+
+		// the stop is seen without another query, then the status is synchronized
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				jobExecution.upgradeStatus(BatchStatus.STOPPING);
+				return null;
+			}
+		}).when(jobExecutionDao).synchronizeStatus(jobExecution);
+		jobRepository.update(stepExecution);
+		verify(jobExecutionDao, times(2)).synchronizeStatus(jobExecution);
+		assertTrue(stepExecution.isTerminateOnly());
+	}
+
 	@Test
 	public void testIsJobInstanceFalse() throws Exception {
 		jobInstanceDao.getJobInstance("foo", new JobParameters());
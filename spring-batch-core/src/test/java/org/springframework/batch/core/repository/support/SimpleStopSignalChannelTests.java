@@ -0,0 +1,89 @@
+package org.springframework.batch.core.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+
+/**
+ * Tests for {@link SimpleStopSignalChannel}.
+ */
+public class SimpleStopSignalChannelTests {
+
+	private SimpleStopSignalChannel channel = new SimpleStopSignalChannel();
+
+	private JobExecution jobExecution = new JobExecution(11L);
+
+	@Test
+	public void testRegisterOnce() throws Exception {
+		assertTrue(channel.register(jobExecution));
+		assertFalse(channel.register(new JobExecution(11L)));
+		assertTrue(channel.hasRegisteredExecutions());
+		channel.unregister(jobExecution);
+		assertFalse(channel.hasRegisteredExecutions());
+		assertTrue(channel.register(jobExecution));
+	}
+
+	@Test
+	public void testStop() throws Exception {
+		channel.register(jobExecution);
+		assertFalse(channel.isStopRequested(jobExecution));
+		// a different instance of the same execution
+		channel.stop(new JobExecution(11L));
+		assertTrue(channel.isStopRequested(jobExecution));
+		assertTrue(channel.getUnsignalledExecutions().isEmpty());
+	}
+
+	@Test
+	public void testStopNotRegistered() throws Exception {
+		channel.stop(jobExecution);
+		assertFalse(channel.hasRegisteredExecutions());
+		assertFalse(channel.isStopRequested(jobExecution));
+		channel.register(jobExecution);
+		assertFalse(channel.isStopRequested(jobExecution));
+	}
+
+	@Test
+	public void testRemoveIdleExecutions() throws Exception {
+		channel.setIdleTimeout(0);
+		JobExecution idle = new JobExecution(12L);
+		channel.register(jobExecution);
+		channel.register(idle);
+		for (int i = 0; i < 3; i++) {
+			channel.isStopRequested(jobExecution);
+			Thread.sleep(2);
+			channel.removeIdleExecutions();
+		}
+		assertEquals(1, channel.getUnsignalledExecutions().size());
+		assertTrue(channel.getUnsignalledExecutions().containsKey(11L));
+		assertTrue(channel.register(idle));
+	}
+
+	@Test
+	public void testRemoveIdleExecutionsBeforeTimeout() throws Exception {
+		JobExecution idle = new JobExecution(12L);
+		channel.register(jobExecution);
+		channel.register(idle);
+		for (int i = 0; i < 3; i++) {
+			channel.removeIdleExecutions();
+		}
+		assertEquals(2, channel.getUnsignalledExecutions().size());
+	}
+
+	@Test
+	public void testRegisterRemovesIdleExecutions() throws Exception {
+		channel.setIdleTimeout(50);
+		// ended in another process, so never unregistered here
+		channel.register(new JobExecution(12L));
+		Thread.sleep(60);
+		channel.register(jobExecution);
+		Thread.sleep(60);
+		channel.isStopRequested(jobExecution);
+		channel.register(jobExecution);
+		assertEquals(1, channel.getUnsignalledExecutions().size());
+		assertTrue(channel.getUnsignalledExecutions().containsKey(11L));
+	}
+
+}
@@ -1,5 +1,14 @@
 package org.springframework.batch.core.scope;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.junit.After;
@@ -58,6 +67,44 @@ public class StepScopePerformanceTests implements ApplicationContextAware {
 		logger.info("Item count: "+count);
 	}
 
+	@Test
+	public void testProxiedMultithreaded() throws Exception {
+		int expected = doTest("vanilla", "expected");
+		int partitions = 64;
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+			for (int i = 0; i < partitions; i++) {
+				final long id = i + 2;
+				tasks.add(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						// each partition has its own step execution and so its
+						// own instance of the proxied reader
+						StepSynchronizationManager.register(new StepExecution("step" + id, new JobExecution(0L), id));
+						try {
+							return doTest("proxied", "partition" + id);
+						}
+						finally {
+							StepSynchronizationManager.release();
+						}
+					}
+				});
+			}
+			StopWatch stopWatch = new StopWatch("multithreaded");
+			stopWatch.start();
+			List<Future<Integer>> results = executor.invokeAll(tasks);
+			stopWatch.stop();
+			for (Future<Integer> result : results) {
+				assertEquals(expected, result.get().intValue());
+			}
+			logger.info(stopWatch.shortSummary());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
 	private int doTest(String name, String test) throws Exception {
 		@SuppressWarnings("unchecked")
 		ItemStreamReader<String> reader = (ItemStreamReader<String>) applicationContext.getBean(name);
@@ -24,6 +24,7 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
@@ -188,6 +189,17 @@ public class StepScopeTests {
 		assertEquals(11, scope.getOrder());
 	}
 
+	@Test
+	public void testResolveContextualObject() throws Exception {
+		stepExecution.getExecutionContext().put("foo", "bar");
+		@SuppressWarnings("unchecked")
+		Map<String, Object> map = (Map<String, Object>) scope.resolveContextualObject("stepExecutionContext");
+		assertEquals("bar", map.get("foo"));
+		assertSame(map, scope.resolveContextualObject("stepExecutionContext"));
+		assertEquals("foo", scope.resolveContextualObject("stepName"));
+		assertEquals(123L, scope.resolveContextualObject("stepExecution.id"));
+	}
+
 	@SuppressWarnings("resource")
 	@Test
 	public void testName() throws Exception {
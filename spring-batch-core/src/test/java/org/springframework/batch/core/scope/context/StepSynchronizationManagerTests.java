@@ -18,12 +18,14 @@ package org.springframework.batch.core.scope.context;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
@@ -104,6 +106,42 @@ public class StepSynchronizationManagerTests {
 		assertNull(StepSynchronizationManager.getContext());
 	}
 
+	@Test
+	public void testMultithreadedRegisterAndClose() throws Exception {
+		final StepContext context = StepSynchronizationManager.register(stepExecution);
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+		for (int i = 0; i < 8; i++) {
+			final StepExecution partition = new StepExecution("partition" + i, new JobExecution(0L), i + 1L);
+			tasks.add(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					for (int j = 0; j < 1000; j++) {
+						assertSame(context, StepSynchronizationManager.register(stepExecution));
+						StepContext own = StepSynchronizationManager.register(partition);
+						assertSame(own, StepSynchronizationManager.getContext());
+						StepSynchronizationManager.close();
+						assertSame(context, StepSynchronizationManager.getContext());
+						StepSynchronizationManager.close();
+					}
+					return true;
+				}
+			});
+		}
+		for (Future<Boolean> result : executorService.invokeAll(tasks)) {
+			result.get();
+		}
+		executorService.shutdown();
+		assertSame(context, StepSynchronizationManager.getContext());
+		StepSynchronizationManager.close();
+		assertNull(StepSynchronizationManager.getContext());
+		// the context is not kept once the last reference is closed
+		StepContext next = StepSynchronizationManager.register(stepExecution);
+		assertNotNull(next);
+		assertSame(next, StepSynchronizationManager.getContext());
+		StepSynchronizationManager.close();
+	}
+
 	@Test
 	public void testRelease() {
 		StepContext context = StepSynchronizationManager.register(stepExecution);
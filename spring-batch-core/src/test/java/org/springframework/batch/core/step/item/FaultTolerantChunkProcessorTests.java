@@ -17,8 +17,10 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.listener.ItemListenerSupport;
 import org.springframework.batch.core.step.skip.AlwaysSkipItemSkipPolicy;
 import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.item.BulkItemProcessor;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.PrefetchingItemProcessor;
 import org.springframework.batch.item.support.PassThroughItemProcessor;
 import org.springframework.classify.BinaryExceptionClassifier;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -66,6 +68,24 @@ public class FaultTolerantChunkProcessorTests {
 		assertEquals(2, list.size());
 	}
 
+	@Test
+	public void testPrefetchFailure() throws Exception {
+		processor.setItemProcessor(new PrefetchingItemProcessor<String, String>() {
+			@Override
+			public void prefetch(List<? extends String> items) throws Exception {
+				throw new RuntimeException("Planned failure!");
+			}
+
+			@Override
+			public String process(String item) throws Exception {
+				return item;
+			}
+		});
+		Chunk<String> inputs = new Chunk<String>(Arrays.asList("1", "2"));
+		processor.process(contribution, inputs);
+		assertEquals(Arrays.asList("1", "2"), list);
+	}
+
 	@Test
 	public void testTransform() throws Exception {
 		processor.setItemProcessor(new ItemProcessor<String, String>() {
@@ -108,6 +128,115 @@ public class FaultTolerantChunkProcessorTests {
 		assertEquals(1, contribution.getFilterCount());
 	}
 
+	@Test
+	public void testBulkProcess() throws Exception {
+		final List<List<? extends String>> calls = new ArrayList<List<? extends String>>();
+		processor.setItemProcessor(new BulkItemProcessor<String, String>() {
+			@Override
+			public List<String> processAll(List<? extends String> items) throws Exception {
+				calls.add(new ArrayList<String>(items));
+				List<String> results = new ArrayList<String>();
+				for (String item : items) {
+					results.add(process(item));
+				}
+				return results;
+			}
+
+			@Override
+			public String process(String item) throws Exception {
+				return item.equals("1") ? null : item;
+			}
+		});
+		Chunk<String> inputs = new Chunk<String>(Arrays.asList("1", "2", "3"));
+		processor.process(contribution, inputs);
+		assertEquals(Arrays.asList("2", "3"), list);
+		assertEquals(1, contribution.getFilterCount());
+		assertEquals(1, calls.size());
+	}
+
+	@Test
+	public void testBulkProcessSkip() throws Exception {
+		final List<String> processed = new ArrayList<String>();
+		processor.setProcessSkipPolicy(new AlwaysSkipItemSkipPolicy());
+		processor.setItemProcessor(new BulkItemProcessor<String, String>() {
+			@Override
+			public List<String> processAll(List<? extends String> items) throws Exception {
+				if (items.contains("1")) {
+					throw new RuntimeException("Skippable");
+				}
+				return new ArrayList<String>(items);
+			}
+
+			@Override
+			public String process(String item) throws Exception {
+				processed.add(item);
+				if (item.equals("1")) {
+					throw new RuntimeException("Skippable");
+				}
+				return item;
+			}
+		});
+		Chunk<String> inputs = new Chunk<String>(Arrays.asList("2", "1", "3"));
+		try {
+			processor.process(contribution, inputs);
+			fail("Expected Exception");
+		}
+		catch (Exception e) {
+			assertEquals("Skippable", e.getMessage());
+		}
+		processor.process(contribution, inputs);
+		assertEquals(Arrays.asList("2", "3"), list);
+		assertEquals(1, contribution.getSkipCount());
+		assertEquals(Arrays.asList("2", "1", "2", "3"), processed);
+	}
+
+	@Test
+	public void testBulkProcessFailureListeners() throws Exception {
+		final List<String> calls = new ArrayList<String>();
+		processor.setProcessSkipPolicy(new AlwaysSkipItemSkipPolicy());
+		processor.setListeners(Arrays.asList(new ItemListenerSupport<String, String>() {
+			@Override
+			public void beforeProcess(String item) {
+				calls.add("before:" + item);
+			}
+
+			@Override
+			public void afterProcess(String item, String result) {
+				calls.add("after:" + item);
+			}
+
+			@Override
+			public void onProcessError(String item, Exception e) {
+				calls.add("error:" + item);
+			}
+		}));
+		processor.setItemProcessor(new BulkItemProcessor<String, String>() {
+			@Override
+			public List<String> processAll(List<? extends String> items) throws Exception {
+				throw new RuntimeException("Skippable");
+			}
+
+			@Override
+			public String process(String item) throws Exception {
+				if (item.equals("1")) {
+					throw new RuntimeException("Skippable");
+				}
+				return item;
+			}
+		});
+		Chunk<String> inputs = new Chunk<String>(Arrays.asList("2", "1", "3"));
+		try {
+			processor.process(contribution, inputs);
+			fail("Expected Exception");
+		}
+		catch (Exception e) {
+			assertEquals("Skippable", e.getMessage());
+		}
+		processor.process(contribution, inputs);
+		assertEquals(Arrays.asList("before:2", "after:2", "before:1", "error:1", "before:2", "after:2", "before:3",
+				"after:3"), calls);
+	}
+
 	/**
 	 * An Error can be retried or skipped but by default it is just propagated
 	 *
@@ -13,8 +13,10 @@ import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.BulkItemProcessor;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.PrefetchingItemProcessor;
 
 public class SimpleChunkProcessorTests {
 
@@ -59,4 +61,53 @@ public class SimpleChunkProcessorTests {
 		assertEquals(2, contribution.getWriteCount());
 	}
 
+	@Test
+	public void testPrefetch() throws Exception {
+		final List<String> prefetched = new ArrayList<String>();
+		processor.setItemProcessor(new PrefetchingItemProcessor<String, String>() {
+			@Override
+			public void prefetch(List<? extends String> items) throws Exception {
+				prefetched.addAll(items);
+			}
+
+			@Override
+			public String process(String item) throws Exception {
+				return prefetched.contains(item) ? item.toUpperCase() : item;
+			}
+		});
+		Chunk<String> chunk = new Chunk<String>();
+		chunk.add("foo");
+		chunk.add("bar");
+		processor.process(contribution, chunk);
+		assertEquals(Arrays.asList("foo", "bar"), prefetched);
+		assertEquals(Arrays.asList("FOO", "BAR"), list);
+	}
+
+	@Test
+	public void testBulkProcess() throws Exception {
+		processor.setItemProcessor(new BulkItemProcessor<String, String>() {
+			@Override
+			public List<String> processAll(List<? extends String> items) throws Exception {
+				List<String> results = new ArrayList<String>();
+				for (String item : items) {
+					results.add(item.equals("err") ? null : item + items.size());
+				}
+				return results;
+			}
+
+			@Override
+			public String process(String item) throws Exception {
+				throw new UnsupportedOperationException();
+			}
+		});
+		Chunk<String> chunk = new Chunk<String>();
+		chunk.add("foo");
+		chunk.add("err");
+		chunk.add("bar");
+		processor.process(contribution, chunk);
+		assertEquals(Arrays.asList("foo3", "bar3"), list);
+		assertEquals(1, contribution.getFilterCount());
+		assertEquals(2, contribution.getWriteCount());
+	}
+
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item;
+
+import java.util.List;
+
+/**
+ * {@link ItemProcessor} that can process all the items of a chunk in one
+ * call, e.g. to score them in one batch or to send them in one request. The
+ * step calls {@link #processAll(List)} for each chunk, and falls back to
+ * {@link #process(Object)} for one item at a time where it has to isolate a
+ * failing item, e.g. to skip or retry it.
+ *
+ * @since 3.0
+ */
+public interface BulkItemProcessor<I, O> extends ItemProcessor<I, O> {
+
+	/**
+	 * Process the items of a chunk. The result for each item has to be the
+	 * same as if {@link #process(Object)} was called for it.
+	 *
+	 * @param items the items to be processed
+	 * @return the results, in the order of the items: a potentially modified
+	 * or new item for continued processing, or null if processing of the item
+	 * should not continue
+	 * @throws Exception if the items cannot be processed
+	 */
+	List<O> processAll(List<? extends I> items) throws Exception;
+
+}
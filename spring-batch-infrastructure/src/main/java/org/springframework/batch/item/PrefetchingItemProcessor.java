@@ -0,0 +1,41 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item;
+
+import java.util.List;
+
+/**
+ * {@link ItemProcessor} that is shown all the items of a chunk before they are
+ * processed one by one, e.g. to look up the data it needs for the whole chunk
+ * with one query instead of one query per item.
+ *
+ * @since 3.0
+ */
+public interface PrefetchingItemProcessor<I, O> extends ItemProcessor<I, O> {
+
+	/**
+	 * Prepare for the processing of a chunk of items. Called once per chunk
+	 * before {@link #process(Object)} is called for the items, and maybe again
+	 * when a chunk is processed again after a rollback. Failures are not
+	 * fatal to a fault tolerant step, so {@link #process(Object)} must still
+	 * work for items that were not prefetched.
+	 *
+	 * @param items the items of the chunk
+	 * @throws Exception if the items cannot be prefetched
+	 */
+	void prefetch(List<? extends I> items) throws Exception;
+
+}
@@ -25,17 +25,27 @@ import java.util.regex.Pattern;
 
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.context.MappingContext;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
 import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
 import com.mongodb.util.JSON;
 
 /**
@@ -58,6 +68,24 @@ import com.mongodb.util.JSON;
  * </p>
  *
  * <p>
+ * If a {@link #setKeyField(String) keyField} is set, pages are read with a
+ * keyset instead of an offset: each page asks for the documents whose key is
+ * greater (or, with a descending sort, lower) than the key of the last
+ * document read, so late pages cost as much as the first one. The last key
+ * is stored in the {@link ExecutionContext} and a restart carries on from
+ * there without reading the documents before it again. The key field has to
+ * be unique and indexed, it is the only field the input is sorted by, and it
+ * must not be excluded by the {@link #setFields(String) fields}.
+ * </p>
+ *
+ * <p>
+ * If {@link #setStreaming(boolean) streaming} is switched on, the whole input
+ * is read through a single cursor that fetches
+ * {@link #setBatchSize(int) batchSize} documents per round trip, instead of
+ * running one query per page.
+ * </p>
+ *
+ * <p>
  * The implementation is thread-safe between calls to
  * {@link #open(ExecutionContext)}, but remember to use <code>saveState=false</code>
  * if used in a multi-threaded client (no restart available.
@@ -69,6 +97,7 @@ import com.mongodb.util.JSON;
 public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> implements InitializingBean {
 
 	private static final Pattern PLACEHOLDER = Pattern.compile("\\?(\\d+)");
+	private static final String LAST_KEY = "last.key";
 	private MongoOperations template;
 	private String query;
 	private Class<? extends T> type;
@@ -76,6 +105,16 @@ public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> imple
 	private String hint;
 	private String fields;
 	private List<Object> parameterValues;
+	private String collection;
+	private String keyField;
+	private String keyFieldName;
+	private boolean streaming = false;
+	private int batchSize = 0;
+	private DBObject queryObject;
+	private DBObject fieldsObject;
+	private volatile Object lastKey;
+	private int skip = 0;
+	private DBCursor cursor;
 
 	public MongoItemReader() {
 		super();
@@ -102,6 +141,7 @@ public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> imple
 	 */
 	public void setQuery(String query) {
 		this.query = query;
+		this.queryObject = null;
 	}
 
 	/**
@@ -121,6 +161,7 @@ public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> imple
 	 */
 	public void setParameterValues(List<Object> parameterValues) {
 		this.parameterValues = parameterValues;
+		this.queryObject = null;
 	}
 
 	/**
@@ -131,6 +172,7 @@ public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> imple
 	 */
 	public void setFields(String fields) {
 		this.fields = fields;
+		this.queryObject = null;
 	}
 
 	/**
@@ -152,30 +194,208 @@ public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> imple
 		this.hint = hint;
 	}
 
+	/**
+	 * The name of the collection to read from. Defaults to the collection
+	 * the target type is mapped to.
+	 *
+	 * @param collection the name of the collection
+	 */
+	public void setCollection(String collection) {
+		this.collection = collection;
+	}
+
+	/**
+	 * The field to read the pages by in keyset mode. It has to be unique and
+	 * indexed. The sort, if set, may only be on this field and gives the
+	 * direction (ascending by default). If not set, pages are read with an
+	 * offset. A property of the target type (e.g. <code>id</code>) is mapped
+	 * to its field in the documents (e.g. <code>_id</code>).
+	 *
+	 * @param keyField the name of the key field
+	 */
+	public void setKeyField(String keyField) {
+		this.keyField = keyField;
+	}
+
+	/**
+	 * Read the whole input through a single cursor instead of one query per
+	 * page. Defaults to false.
+	 *
+	 * @param streaming true to read the input through a single cursor
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * The number of documents the cursor fetches per round trip when
+	 * {@link #setStreaming(boolean) streaming}. Defaults to 0, which leaves
+	 * the choice to the server.
+	 *
+	 * @param batchSize the number of documents per round trip
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		if (isSaveState() && executionContext.containsKey(getExecutionContextKey(LAST_KEY))) {
+			lastKey = executionContext.get(getExecutionContextKey(LAST_KEY));
+		}
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState() && keyField != null && lastKey != null) {
+			executionContext.put(getExecutionContextKey(LAST_KEY), lastKey);
+		}
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	protected Iterator<T> doPageRead() {
 
+		if (streaming) {
+			return doCursorRead();
+		}
+
+		if (keyField != null) {
+			Query mongoQuery = createQuery().limit(pageSize);
+			return new DocumentIterator(template.find(mongoQuery, DBObject.class, getCollection()).iterator());
+		}
+
 		Pageable pageRequest = new PageRequest(page, pageSize, sort);
 
-		String populatedQuery = replacePlaceholders(query, parameterValues);
+		Query mongoQuery = createQuery().with(pageRequest);
+
+		return (Iterator<T>) template.find(mongoQuery, type).iterator();
+	}
+
+	private Iterator<T> doCursorRead() {
+		if (cursor != null) {
+			// the cursor was exhausted
+			return null;
+		}
+		Query mongoQuery = createQuery();
+		if (keyField == null) {
+			mongoQuery.with(sort);
+		}
+		cursor = template.getCollection(getCollection()).find(mongoQuery.getQueryObject(),
+				mongoQuery.getFieldsObject());
+		cursor.sort(mongoQuery.getSortObject());
+		if (skip > 0) {
+			cursor.skip(skip);
+		}
+		if (batchSize > 0) {
+			cursor.batchSize(batchSize);
+		}
+		if (StringUtils.hasText(hint)) {
+			cursor.hint(hint);
+		}
+		return new DocumentIterator(cursor);
+	}
+
+	/**
+	 * Create the query for the next page, without paging. The JSON of the
+	 * query and fields is only parsed once.
+	 */
+	private Query createQuery() {
+
+		if (queryObject == null) {
+			queryObject = (DBObject) JSON.parse(replacePlaceholders(query, parameterValues));
+			fieldsObject = StringUtils.hasText(fields) ? (DBObject) JSON.parse(fields) : null;
+		}
 
 		Query mongoQuery = null;
 
-		if(StringUtils.hasText(fields)) {
-			mongoQuery = new BasicQuery(populatedQuery, fields);
+		if (keyField != null) {
+			Sort.Direction direction = getKeyDirection();
+			DBObject pageObject = queryObject;
+			if (lastKey != null) {
+				DBObject condition = new BasicDBObject(getKeyFieldName(), new BasicDBObject(
+						direction == Sort.Direction.ASC ? "$gt" : "$lt", lastKey));
+				if (queryObject.keySet().isEmpty()) {
+					pageObject = condition;
+				}
+				else {
+					BasicDBList and = new BasicDBList();
+					and.add(queryObject);
+					and.add(condition);
+					pageObject = new BasicDBObject("$and", and);
+				}
+			}
+			mongoQuery = new BasicQuery(pageObject, fieldsObject).with(new Sort(direction, getKeyFieldName()));
 		}
 		else {
-			mongoQuery = new BasicQuery(populatedQuery);
+			mongoQuery = new BasicQuery(queryObject, fieldsObject);
 		}
 
-		mongoQuery.with(pageRequest);
-
 		if(StringUtils.hasText(hint)) {
 			mongoQuery.withHint(hint);
 		}
 
-		return (Iterator<T>) template.find(mongoQuery, type).iterator();
+		return mongoQuery;
+	}
+
+	/**
+	 * The queries are run against the raw documents, so the key property is
+	 * mapped to the name of its field with the mapping of the target type.
+	 */
+	private String getKeyFieldName() {
+		if (keyFieldName == null) {
+			keyFieldName = keyField;
+			MongoConverter converter = template.getConverter();
+			MongoPersistentEntity<?> entity = null;
+			if (converter != null) {
+				MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext = converter
+						.getMappingContext();
+				entity = mappingContext == null ? null : mappingContext.getPersistentEntity(type);
+			}
+			if (entity != null) {
+				DBObject mapped = new QueryMapper(converter).getMappedObject(new BasicDBObject(keyField, 1), entity);
+				keyFieldName = mapped.keySet().iterator().next();
+			}
+		}
+		return keyFieldName;
+	}
+
+	private Sort.Direction getKeyDirection() {
+		Sort.Order order = sort == null ? null : sort.getOrderFor(keyField);
+		return order == null ? Sort.Direction.ASC : order.getDirection();
+	}
+
+	private String getCollection() {
+		return collection != null ? collection : template.getCollectionName(type);
+	}
+
+	@Override
+	protected void jumpToItem(int itemLastIndex) throws Exception {
+		if (keyField != null) {
+			// the position is restored from the last key
+			return;
+		}
+		if (streaming) {
+			skip = itemLastIndex;
+			return;
+		}
+		super.jumpToItem(itemLastIndex);
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		if (cursor != null) {
+			cursor.close();
+			cursor = null;
+		}
+		results = null;
+		lastKey = null;
+		skip = 0;
+		queryObject = null;
+		keyFieldName = null;
+		super.doClose();
 	}
 
 	/**
@@ -187,7 +407,14 @@ public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> imple
 		Assert.state(template != null, "An implementation of MongoOperations is required.");
 		Assert.state(type != null, "A type to convert the input into is required.");
 		Assert.state(query != null, "A query is required.");
-		Assert.state(sort != null, "A sort is required.");
+		if (keyField == null) {
+			Assert.state(sort != null, "A sort is required.");
+		}
+		else if (sort != null) {
+			for (Sort.Order order : sort) {
+				Assert.state(keyField.equals(order.getProperty()), "In keyset mode the sort can only be on the key field.");
+			}
+		}
 	}
 
 	// Copied from StringBasedMongoQuery...is there a place where this type of logic is already exposed?
@@ -218,4 +445,41 @@ public class MongoItemReader<T> extends AbstractPaginatedDataItemReader<T> imple
 
 		return new Sort(sortValues);
 	}
+
+	/**
+	 * Converts the documents to the target type as they are read and keeps
+	 * track of the key of the last one.
+	 */
+	private class DocumentIterator implements Iterator<T> {
+
+		private final Iterator<DBObject> documents;
+
+		public DocumentIterator(Iterator<DBObject> documents) {
+			this.documents = documents;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return documents.hasNext();
+		}
+
+		@Override
+		public T next() {
+			DBObject document = documents.next();
+			if (keyField != null) {
+				Object key = document.get(getKeyFieldName());
+				// without a key the next page would start over
+				Assert.state(key != null, "No value for the key field [" + getKeyFieldName()
+						+ "] in a document: it must be in every document and selected by the fields");
+				lastKey = key;
+			}
+			return template.getConverter().read(type, document);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
 }
@@ -134,6 +134,8 @@ implements InitializingBean {
 
 	private boolean useSharedExtendedConnection = false;
 
+	private int cursorOffset = 0;
+
 
 	public AbstractCursorItemReader() {
 		super();
@@ -191,6 +193,32 @@ implements InitializingBean {
 		}
 	}
 
+	/**
+	 * Prepare the given result set, e.g. a REF CURSOR returned by a stored
+	 * procedure, which does not take the fetch size of the statement.
+	 *
+	 * @param rs the result set to prepare
+	 * @throws SQLException
+	 *
+	 * @see #setFetchSize
+	 */
+	protected void applyResultSetSettings(ResultSet rs) throws SQLException {
+		if (fetchSize != VALUE_NOT_SET) {
+			rs.setFetchSize(fetchSize);
+		}
+	}
+
+	/**
+	 * Set the number of items read before the first row of the cursor, e.g.
+	 * because the cursor was opened after the last item read before a
+	 * restart. Used to verify the cursor position.
+	 *
+	 * @param cursorOffset the number of items before the first row
+	 */
+	protected void setCursorOffset(int cursorOffset) {
+		this.cursorOffset = cursorOffset;
+	}
+
 	/**
 	 * Return the exception translator for this instance.
 	 *
@@ -361,7 +389,7 @@ implements InitializingBean {
 	 */
 	private void verifyCursorPosition(long expectedCurrentRow) throws SQLException {
 		if (verifyCursorPosition) {
-			if (expectedCurrentRow != this.rs.getRow()) {
+			if (expectedCurrentRow - cursorOffset != this.rs.getRow()) {
 				throw new InvalidDataAccessResourceUsageException("Unexpected cursor position change.");
 			}
 		}
@@ -374,6 +402,7 @@ implements InitializingBean {
 	@Override
 	protected void doClose() throws Exception {
 		initialized = false;
+		cursorOffset = 0;
 		JdbcUtils.closeResultSet(this.rs);
 		rs = null;
 		cleanupOnClose();
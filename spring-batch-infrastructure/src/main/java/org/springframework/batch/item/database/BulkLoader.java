@@ -0,0 +1,45 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Strategy for inserting many rows into a table in one operation, e.g. with a
+ * bulk load protocol of the database, instead of one statement per row.
+ *
+ * @since 3.0
+ *
+ * @see JdbcBatchItemWriter#setBulkLoad(boolean)
+ */
+public interface BulkLoader {
+
+	/**
+	 * Insert rows into the table of the loader.
+	 *
+	 * @param connection the connection of the current transaction
+	 * @param rows the values of each row, in the order of the parameters of
+	 * the insert statement. A value can be a
+	 * {@link org.springframework.jdbc.core.SqlParameterValue} that carries its
+	 * SQL type.
+	 * @return the number of rows inserted
+	 * @throws SQLException if the rows cannot be inserted
+	 */
+	int load(Connection connection, List<Object[]> rows) throws SQLException;
+
+}
@@ -35,6 +35,14 @@ import org.springframework.util.Assert;
  * default (see {@link #setClearSession(boolean) clearSession} property).<br/>
  * <br/>
  *
+ * With a {@link #setFlushSize(int) flushSize} the session is also flushed
+ * (and cleared) every few items within a chunk. For new entities,
+ * {@link #setInsertOnly(boolean) insertOnly} saves the items through a
+ * short-lived session on the connection of the current session instead, so
+ * the persistence context of the current session does not grow. Both need a
+ * {@link #setSessionFactory(SessionFactory) sessionFactory}.<br/>
+ * <br/>
+ *
  * The writer is thread safe once properties are set (normal singleton behavior)
  * if a {@link CurrentSessionContext} that uses only one session per thread is
  * used.
@@ -54,6 +62,10 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 	private boolean clearSession = true;
 
+	private boolean insertOnly = false;
+
+	private int flushSize = 0;
+
 	/**
 	 * Flag to indicate that the session should be cleared and flushed at the
 	 * end of the write (default true).
@@ -65,6 +77,33 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		this.clearSession = clearSession;
 	}
 
+	/**
+	 * Flag to indicate that the items are new entities that should be
+	 * inserted without checking the current session (default false). They
+	 * are saved through a separate session that uses the connection of the
+	 * current session, so they take part in the same transaction, and that
+	 * is closed at the end of the write. Requires a
+	 * {@link #setSessionFactory(SessionFactory) sessionFactory}.
+	 *
+	 * @param insertOnly the flag value to set
+	 */
+	public void setInsertOnly(boolean insertOnly) {
+		this.insertOnly = insertOnly;
+	}
+
+	/**
+	 * The number of items after which the pending inserts and updates are
+	 * sent to the database while a chunk is written (default 0, i.e. only at
+	 * the end of the chunk). Setting it to <code>hibernate.jdbc.batch_size</code>
+	 * sends full JDBC batches. Requires a
+	 * {@link #setSessionFactory(SessionFactory) sessionFactory}.
+	 *
+	 * @param flushSize the number of items per flush
+	 */
+	public void setFlushSize(int flushSize) {
+		this.flushSize = flushSize;
+	}
+
 	/**
 	 * Public setter for the {@link HibernateOperations} property.
 	 *
@@ -92,6 +131,8 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 	public void afterPropertiesSet() {
 		Assert.state(!(hibernateTemplate == null && sessionFactory == null),
 				"Either HibernateOperations or SessionFactory must be provided");
+		Assert.state(sessionFactory != null || (!insertOnly && flushSize <= 0),
+				"A SessionFactory must be provided to use insertOnly or a flushSize");
 	}
 
 	/**
@@ -109,6 +150,9 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 				hibernateTemplate.clear();
 			}
 		}
+		else if (insertOnly) {
+			doInsert(sessionFactory, items);
+		}
 		else {
 			doWrite(sessionFactory, items);
 			sessionFactory.getCurrentSession().flush();
@@ -136,11 +180,18 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 		if (!items.isEmpty()) {
 			long saveOrUpdateCount = 0;
+			int count = 0;
 			for (T item : items) {
 				if (!currentSession.contains(item)) {
 					currentSession.saveOrUpdate(item);
 					saveOrUpdateCount++;
 				}
+				if (flushSize > 0 && ++count % flushSize == 0 && count < items.size()) {
+					currentSession.flush();
+					if (clearSession) {
+						currentSession.clear();
+					}
+				}
 			}
 			if (logger.isDebugEnabled()) {
 				logger.debug(saveOrUpdateCount + " entities saved/updated.");
@@ -150,6 +201,41 @@ public class HibernateItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		}
 	}
 
+	/**
+	 * Insert all the items through a new session that shares the connection
+	 * of the current session. The session is flushed (and cleared) every
+	 * {@link #setFlushSize(int) flushSize} items and at the end, then closed.
+	 * This can be overridden in a subclass if necessary.
+	 *
+	 * @param sessionFactory the session factory to use
+	 * @param items the list of items to use for the write
+	 */
+	protected void doInsert(SessionFactory sessionFactory, List<? extends T> items) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Inserting with Hibernate " + items.size() + " items.");
+		}
+
+		if (items.isEmpty()) {
+			return;
+		}
+
+		Session session = sessionFactory.getCurrentSession().sessionWithOptions().connection().openSession();
+		try {
+			int count = 0;
+			for (T item : items) {
+				session.save(item);
+				if (flushSize > 0 && ++count % flushSize == 0 && count < items.size()) {
+					session.flush();
+					session.clear();
+				}
+			}
+			session.flush();
+		}
+		finally {
+			session.close();
+		}
+	}
+
 	/**
 	 * Do perform the actual write operation using {@link HibernateOperations}.
 	 * This can be overridden in a subclass if necessary.
@@ -15,6 +15,10 @@
  */
 package org.springframework.batch.item.database;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -26,14 +30,24 @@ import javax.sql.DataSource;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.support.BulkLoaderFactory;
+import org.springframework.batch.item.database.support.UpsertStatementFactory;
+import org.springframework.batch.support.DatabaseType;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcAccessor;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.util.Assert;
 
 /**
@@ -49,6 +63,17 @@ import org.springframework.util.Assert;
  * This callback would be responsible for mapping the item to the parameters needed to
  * execute the SQL statement.<br/>
  *
+ * For inserts, {@link #setBulkLoad(boolean) bulkLoad} sends each chunk through
+ * a {@link BulkLoader} for the {@link DatabaseType} instead, e.g.
+ * <code>COPY</code> on PostgreSQL or multi-row inserts, with the same mapping of
+ * the items to the parameters.<br/>
+ *
+ * Instead of an SQL statement, a {@link #setTableName(String) tableName} and
+ * its {@link #setKeyColumns(String[]) keyColumns} and
+ * {@link #setValueColumns(String[]) valueColumns} can be given to insert the
+ * items or update the rows that exist with the upsert statement of the
+ * {@link DatabaseType}.<br/>
+ *
  * It is expected that {@link #write(List)} is called inside a transaction.<br/>
  *
  * The writer is thread safe after its properties are set (normal singleton
@@ -77,6 +102,22 @@ public class JdbcBatchItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 	private boolean usingNamedParameters;
 
+	private DataSource dataSource;
+
+	private boolean bulkLoad = false;
+
+	private String databaseType;
+
+	private BulkLoader bulkLoader;
+
+	private ParsedSql parsedSql;
+
+	private String tableName;
+
+	private String[] keyColumns;
+
+	private String[] valueColumns;
+
 	/**
 	 * Public setter for the flag that determines whether an assertion is made
 	 * that all items cause at least one row to be updated.
@@ -121,6 +162,7 @@ public class JdbcBatchItemWriter<T> implements ItemWriter<T>, InitializingBean {
 	 * @param dataSource
 	 */
 	public void setDataSource(DataSource dataSource) {
+		this.dataSource = dataSource;
 		if (namedParameterJdbcTemplate == null) {
 			this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
 		}
@@ -134,6 +176,76 @@ public class JdbcBatchItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
 	}
 
+	/**
+	 * Flag to indicate that the SQL is an insert statement and the items
+	 * should be inserted with the {@link BulkLoader} for the database type
+	 * (default false). If the database or the statement do not allow bulk
+	 * loading, the items are written in JDBC batches as usual.
+	 *
+	 * @param bulkLoad the flag value to set
+	 * @see BulkLoaderFactory
+	 */
+	public void setBulkLoad(boolean bulkLoad) {
+		this.bulkLoad = bulkLoad;
+	}
+
+	/**
+	 * The type of the database used to select the {@link BulkLoader}, as a
+	 * name of {@link DatabaseType}. Detected from the data source if not set.
+	 *
+	 * @param databaseType the databaseType to set
+	 */
+	public void setDatabaseType(String databaseType) {
+		this.databaseType = databaseType;
+	}
+
+	/**
+	 * Public setter for a custom {@link BulkLoader} for the table of the
+	 * insert statement. It is given the values of the statement parameters
+	 * for every item. Setting it switches bulk loading on.
+	 *
+	 * @param bulkLoader the {@link BulkLoader} to set
+	 */
+	public void setBulkLoader(BulkLoader bulkLoader) {
+		this.bulkLoader = bulkLoader;
+	}
+
+	/**
+	 * The table to upsert the items into, instead of an SQL statement. The
+	 * statement is generated for the database type, with a named parameter
+	 * for every key and value column, named after the column.
+	 *
+	 * Note that MySQL counts a row that already has the values written as not
+	 * updated, so {@link #setAssertUpdates(boolean) assertUpdates} should be
+	 * switched off there.
+	 *
+	 * @param tableName the table to set
+	 * @see UpsertStatementFactory
+	 */
+	public void setTableName(String tableName) {
+		this.tableName = tableName;
+	}
+
+	/**
+	 * The columns of a unique key of the {@link #setTableName(String) table},
+	 * used to find the row to update.
+	 *
+	 * @param keyColumns the column names to set
+	 */
+	public void setKeyColumns(String[] keyColumns) {
+		this.keyColumns = keyColumns;
+	}
+
+	/**
+	 * The other columns of the {@link #setTableName(String) table} to write,
+	 * updated if the row exists.
+	 *
+	 * @param valueColumns the column names to set
+	 */
+	public void setValueColumns(String[] valueColumns) {
+		this.valueColumns = valueColumns;
+	}
+
 	/**
 	 * Check mandatory properties - there must be a SimpleJdbcTemplate and an SQL statement plus a
 	 * parameter source.
@@ -141,6 +253,11 @@ public class JdbcBatchItemWriter<T> implements ItemWriter<T>, InitializingBean {
 	@Override
 	public void afterPropertiesSet() {
 		Assert.notNull(namedParameterJdbcTemplate, "A DataSource or a NamedParameterJdbcTemplate is required.");
+		if (tableName != null) {
+			Assert.state(sql == null, "Either an SQL statement or a table name can be set, not both.");
+			sql = new UpsertStatementFactory().getUpsertStatement(getDatabaseType(), tableName, keyColumns,
+					valueColumns);
+		}
 		Assert.notNull(sql, "An SQL statement is required.");
 		List<String> namedParameters = new ArrayList<String>();
 		parameterCount = JdbcParameterUtils.countParameterPlaceholders(sql, namedParameters);
@@ -153,6 +270,42 @@ public class JdbcBatchItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		if (!usingNamedParameters) {
 			Assert.notNull(itemPreparedStatementSetter, "Using SQL statement with '?' placeholders requires an ItemPreparedStatementSetter");
 		}
+		if (bulkLoad && bulkLoader == null) {
+			bulkLoader = createBulkLoader();
+		}
+		if (bulkLoader != null && usingNamedParameters) {
+			parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+		}
+	}
+
+	private DatabaseType getDatabaseType() {
+		try {
+			return databaseType != null ? DatabaseType.valueOf(databaseType.toUpperCase()) : DatabaseType
+					.fromMetaData(getDataSource());
+		}
+		catch (MetaDataAccessException e) {
+			throw new IllegalArgumentException(
+					"Could not inspect meta data for database type.  You have to supply it explicitly.", e);
+		}
+	}
+
+	private BulkLoader createBulkLoader() {
+		DatabaseType type = getDatabaseType();
+		String positionalSql = usingNamedParameters ? NamedParameterUtils.parseSqlStatementIntoString(sql) : sql;
+		BulkLoader loader = new BulkLoaderFactory().getBulkLoader(type, positionalSql);
+		if (loader == null) {
+			logger.info("Bulk loading is not available for " + type + " and [" + sql + "], using JDBC batches");
+		}
+		return loader;
+	}
+
+	private DataSource getDataSource() {
+		DataSource result = dataSource;
+		if (result == null && namedParameterJdbcTemplate.getJdbcOperations() instanceof JdbcAccessor) {
+			result = ((JdbcAccessor) namedParameterJdbcTemplate.getJdbcOperations()).getDataSource();
+		}
+		Assert.state(result != null, "A DataSource is required to detect the database type.");
+		return result;
 	}
 
 	/* (non-Javadoc)
@@ -164,6 +317,11 @@ public class JdbcBatchItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 		if (!items.isEmpty()) {
 
+			if (bulkLoader != null) {
+				bulkLoad(items);
+				return;
+			}
+
 			if (logger.isDebugEnabled()) {
 				logger.debug("Executing batch with " + items.size() + " items.");
 			}
@@ -206,4 +364,92 @@ public class JdbcBatchItemWriter<T> implements ItemWriter<T>, InitializingBean {
 			}
 		}
 	}
+
+	@SuppressWarnings("unchecked")
+	private void bulkLoad(List<? extends T> items) {
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing bulk load with " + items.size() + " items.");
+		}
+
+		final List<Object[]> rows = new ArrayList<Object[]>(items.size());
+		for (T item : items) {
+			if (usingNamedParameters) {
+				SqlParameterSource source = item instanceof Map ? new MapSqlParameterSource((Map<String, ?>) item)
+						: itemSqlParameterSourceProvider.createSqlParameterSource(item);
+				rows.add(NamedParameterUtils.buildValueArray(parsedSql, source, null));
+			}
+			else {
+				ParameterRecorder recorder = new ParameterRecorder(parameterCount);
+				try {
+					itemPreparedStatementSetter.setValues(item, recorder.getPreparedStatement());
+				}
+				catch (SQLException e) {
+					throw new InvalidDataAccessApiUsageException("Could not map item for bulk load: [" + item + "]", e);
+				}
+				rows.add(recorder.values);
+			}
+		}
+
+		Integer count = namedParameterJdbcTemplate.getJdbcOperations().execute(new ConnectionCallback<Integer>() {
+			@Override
+			public Integer doInConnection(Connection connection) throws SQLException, DataAccessException {
+				return bulkLoader.load(connection, rows);
+			}
+		});
+
+		if (assertUpdates && count < items.size()) {
+			throw new EmptyResultDataAccessException("Only " + count + " of " + items.size()
+					+ " items were inserted by the bulk load", items.size());
+		}
+
+	}
+
+	/**
+	 * Records the values an {@link ItemPreparedStatementSetter} sets on a
+	 * {@link PreparedStatement}, so that they can be bulk loaded.
+	 */
+	private static class ParameterRecorder implements InvocationHandler {
+
+		private final Object[] values;
+
+		public ParameterRecorder(int parameterCount) {
+			this.values = new Object[parameterCount];
+		}
+
+		public PreparedStatement getPreparedStatement() {
+			return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				int index = (Integer) args[0];
+				Assert.isTrue(index > 0 && index <= values.length, "Parameter index out of range: " + index);
+				if ("setNull".equals(name)) {
+					values[index - 1] = new SqlParameterValue((Integer) args[1], null);
+				}
+				else if ("setObject".equals(name) && args.length > 2 && args[2] instanceof Integer) {
+					values[index - 1] = new SqlParameterValue((Integer) args[2], args[1]);
+				}
+				else {
+					values[index - 1] = args[1];
+				}
+				return null;
+			}
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			if ("toString".equals(name)) {
+				return "Parameter recorder for bulk load";
+			}
+			throw new UnsupportedOperationException("Only parameter setters can be used for bulk load, not " + name);
+		}
+
+	}
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.support.LookupLoader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+
+/**
+ * {@link LookupLoader} that loads the values for all the keys with one query
+ * with an <code>IN</code> list, e.g.
+ * <code>SELECT CODE, NAME FROM T_COUNTRIES WHERE CODE IN (:keys)</code>. Each
+ * row is mapped to a value by the {@link RowMapper}, and the key of the value
+ * is read from the {@link #setKeyColumn(String) keyColumn} of the row.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ *
+ * @since 3.0
+ */
+public class JdbcLookupLoader<K, V> implements LookupLoader<K, V>, InitializingBean {
+
+	/**
+	 * The name of the parameter for the keys in the SQL statement.
+	 */
+	public static final String KEYS_PARAMETER = "keys";
+
+	private NamedParameterJdbcOperations namedParameterJdbcTemplate;
+
+	private String sql;
+
+	private RowMapper<V> rowMapper;
+
+	private String keyColumn;
+
+	private Class<K> keyType;
+
+	/**
+	 * Public setter for the data source for injection purposes.
+	 *
+	 * @param dataSource {@link javax.sql.DataSource} to use for querying
+	 */
+	public void setDataSource(DataSource dataSource) {
+		if (namedParameterJdbcTemplate == null) {
+			this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		}
+	}
+
+	/**
+	 * Public setter for the {@link NamedParameterJdbcOperations}.
+	 *
+	 * @param namedParameterJdbcTemplate the {@link NamedParameterJdbcOperations} to set
+	 */
+	public void setJdbcTemplate(NamedParameterJdbcOperations namedParameterJdbcTemplate) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+	}
+
+	/**
+	 * The query, with a named parameter <code>:keys</code> for the list of
+	 * keys.
+	 *
+	 * @param sql the SQL query
+	 */
+	public void setSql(String sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * @param rowMapper the {@link RowMapper} to map a row to a value
+	 */
+	public void setRowMapper(RowMapper<V> rowMapper) {
+		this.rowMapper = rowMapper;
+	}
+
+	/**
+	 * The name or label of the column holding the key of a row.
+	 *
+	 * @param keyColumn the column name
+	 */
+	public void setKeyColumn(String keyColumn) {
+		this.keyColumn = keyColumn;
+	}
+
+	/**
+	 * The type of the keys, used to read the key column so that the keys of
+	 * the rows are equal to the ones asked for. If not set the column is read
+	 * with the type of the JDBC driver's choice.
+	 *
+	 * @param keyType the type of the keys
+	 */
+	public void setKeyType(Class<K> keyType) {
+		this.keyType = keyType;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(namedParameterJdbcTemplate, "A DataSource or a NamedParameterJdbcTemplate is required.");
+		Assert.hasText(sql, "An SQL query is required.");
+		Assert.notNull(rowMapper, "A RowMapper is required.");
+		Assert.hasText(keyColumn, "A key column is required.");
+	}
+
+	@Override
+	public Map<K, V> load(Collection<K> keys) throws Exception {
+		return namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource(KEYS_PARAMETER, keys),
+				new ResultSetExtractor<Map<K, V>>() {
+					@Override
+					public Map<K, V> extractData(ResultSet rs) throws SQLException, DataAccessException {
+						Map<K, V> values = new HashMap<K, V>();
+						int keyIndex = rs.findColumn(keyColumn);
+						int rowNum = 0;
+						while (rs.next()) {
+							@SuppressWarnings("unchecked")
+							K key = (K) JdbcUtils.getResultSetValue(rs, keyIndex, keyType);
+							values.put(key, rowMapper.mapRow(rs, rowNum++));
+						}
+						return values;
+					}
+				});
+	}
+
+}
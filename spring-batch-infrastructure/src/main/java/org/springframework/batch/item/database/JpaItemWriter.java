@@ -40,6 +40,13 @@ import org.springframework.util.Assert;
  * {@link javax.persistence.EntityManagerFactory} that is capable of
  * participating in Spring managed transactions.
  *
+ * For inserts, {@link #setPersistOnly(boolean) persistOnly} skips the SELECT
+ * a merge needs for every detached entity. With a
+ * {@link #setFlushSize(int) flushSize} and
+ * {@link #setClearPersistenceContext(boolean) clearPersistenceContext} the
+ * persistence context is flushed and cleared every few items, so it does not
+ * grow with the chunk.
+ *
  * The writer is thread safe after its properties are set (normal singleton
  * behaviour), so it can be used to write in multiple concurrent transactions.
  *
@@ -52,6 +59,12 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 	private EntityManagerFactory entityManagerFactory;
 
+	private boolean persistOnly = false;
+
+	private int flushSize = 0;
+
+	private boolean clearPersistenceContext = false;
+
 	/**
 	 * Set the EntityManager to be used internally.
 	 *
@@ -61,6 +74,41 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 		this.entityManagerFactory = entityManagerFactory;
 	}
 
+	/**
+	 * Flag to indicate that the items are new entities that can be persisted
+	 * rather than merged (default false). Persisting does not read the
+	 * current state of the entity from the database first, but fails for
+	 * entities that already exist.
+	 *
+	 * @param persistOnly the flag value to set
+	 */
+	public void setPersistOnly(boolean persistOnly) {
+		this.persistOnly = persistOnly;
+	}
+
+	/**
+	 * The number of items after which the entity manager is flushed while a
+	 * chunk is written (default 0, i.e. only at the end of the chunk). Setting
+	 * it to the JDBC batch size of the persistence provider (e.g.
+	 * <code>hibernate.jdbc.batch_size</code>) sends full batches.
+	 *
+	 * @param flushSize the number of items per flush
+	 */
+	public void setFlushSize(int flushSize) {
+		this.flushSize = flushSize;
+	}
+
+	/**
+	 * Flag to indicate that the persistence context should be cleared after
+	 * each flush (default false), so that it does not keep the written
+	 * entities.
+	 *
+	 * @param clearPersistenceContext the flag value to set
+	 */
+	public void setClearPersistenceContext(boolean clearPersistenceContext) {
+		this.clearPersistenceContext = clearPersistenceContext;
+	}
+
 	/**
 	 * Check mandatory properties - there must be an entityManagerFactory.
 	 */
@@ -70,8 +118,8 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 	}
 
 	/**
-	 * Merge all provided items that aren't already in the persistence context
-	 * and then flush the entity manager.
+	 * Merge (or persist) all provided items that aren't already in the
+	 * persistence context and then flush the entity manager.
 	 *
 	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
 	 */
@@ -82,7 +130,7 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 			throw new DataAccessResourceFailureException("Unable to obtain a transactional EntityManager");
 		}
 		doWrite(entityManager, items);
-		entityManager.flush();
+		flush(entityManager);
 	}
 
 	/**
@@ -100,18 +148,34 @@ public class JpaItemWriter<T> implements ItemWriter<T>, InitializingBean {
 
 		if (!items.isEmpty()) {
 			long mergeCount = 0;
+			int count = 0;
 			for (T item : items) {
 				if (!entityManager.contains(item)) {
-					entityManager.merge(item);
+					if (persistOnly) {
+						entityManager.persist(item);
+					}
+					else {
+						entityManager.merge(item);
+					}
 					mergeCount++;
 				}
+				if (flushSize > 0 && ++count % flushSize == 0 && count < items.size()) {
+					flush(entityManager);
+				}
 			}
 			if (logger.isDebugEnabled()) {
-				logger.debug(mergeCount + " entities merged.");
+				logger.debug(mergeCount + (persistOnly ? " entities persisted." : " entities merged."));
 				logger.debug((items.size() - mergeCount) + " entities found in persistence context.");
 			}
 		}
 
 	}
 
+	private void flush(EntityManager entityManager) {
+		entityManager.flush();
+		if (clearPersistenceContext) {
+			entityManager.clear();
+		}
+	}
+
 }
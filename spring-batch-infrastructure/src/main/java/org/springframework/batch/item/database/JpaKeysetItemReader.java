@@ -0,0 +1,430 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>
+ * {@link org.springframework.batch.item.ItemReader} for reading large results
+ * with JPA. Unlike the {@link JpaPagingItemReader} it does not page with an
+ * offset: the query is ordered by a unique {@link #setSortKey(String) sortKey}
+ * and each page asks for the entities after the last one read, so that every
+ * page costs as much as the first one however deep the read goes.
+ * </p>
+ *
+ * <p>
+ * The JPQL {@link #setQueryString(String) queryString} must not have an ORDER
+ * BY clause. The reader adds one for the sort key and, for all pages but the
+ * first, a condition on the sort key to the WHERE clause. The items must be
+ * the entities (or beans) that carry the sort key, e.g.
+ * <code>select f from Foo f where f.value &gt; :min</code> with a sort key of
+ * <code>f.id</code>.
+ * </p>
+ *
+ * <p>
+ * The persistence context is cleared before each page is read, so the heap
+ * used by the reader is bounded by the page size. This causes the entities
+ * read to be detached. If you make changes to the entities and want the
+ * changes persisted then you must explicitly merge the entities.
+ * </p>
+ *
+ * <p>
+ * With {@link #setUseScrollableResults(boolean) useScrollableResults}, if the
+ * JPA provider is Hibernate, the whole input is read through a single
+ * forward-only {@link ScrollableResults} instead, and the persistence context
+ * is cleared every {@link #setPageSize(int) pageSize} items. With other
+ * providers the reader falls back to keyset paging.
+ * </p>
+ *
+ * <p>
+ * The last sort key read is stored in the {@link ExecutionContext}, and a
+ * restart starts after it. The reader must be configured with an
+ * {@link javax.persistence.EntityManagerFactory}. All entity access is
+ * performed within a new transaction, independent of any existing Spring
+ * managed transactions.
+ * </p>
+ *
+ * <p>
+ * The implementation is thread-safe in between calls to
+ * {@link #open(ExecutionContext)}, but remember to use
+ * <code>saveState=false</code> if used in a multi-threaded client (no restart
+ * available).
+ * </p>
+ *
+ * @since 3.0
+ */
+public class JpaKeysetItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(JpaKeysetItemReader.class);
+
+	private static final String LAST_KEY = "last.key";
+
+	private static final String LAST_KEY_PARAMETER = "lastSortKey";
+
+	private static final Pattern WHERE = Pattern.compile("\\swhere\\s", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern ORDER_BY = Pattern.compile("\\sorder\\s+by\\s", Pattern.CASE_INSENSITIVE);
+
+	private static final boolean hibernatePresent = ClassUtils.isPresent("org.hibernate.Query",
+			JpaKeysetItemReader.class.getClassLoader());
+
+	private EntityManagerFactory entityManagerFactory;
+
+	private EntityManager entityManager;
+
+	private final Map<String, Object> jpaPropertyMap = new HashMap<String, Object>();
+
+	private String queryString;
+
+	private Map<String, Object> parameterValues;
+
+	private String sortKey;
+
+	private boolean ascending = true;
+
+	private int pageSize = 10;
+
+	private boolean transacted = true;
+
+	private boolean useScrollableResults = false;
+
+	private String firstPageQuery;
+
+	private String remainingPagesQuery;
+
+	private String sortKeyProperty;
+
+	private volatile Object lastKey;
+
+	private List<T> results;
+
+	private int current = 0;
+
+	private Cursor cursor;
+
+	private EntityTransaction transaction;
+
+	private final Object lock = new Object();
+
+	public JpaKeysetItemReader() {
+		setName(ClassUtils.getShortName(JpaKeysetItemReader.class));
+	}
+
+	public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * @param queryString JPQL query string without an ORDER BY clause
+	 */
+	public void setQueryString(String queryString) {
+		this.queryString = queryString;
+	}
+
+	/**
+	 * The parameter values to be used for the query execution.
+	 *
+	 * @param parameterValues the values keyed by the parameter named used in
+	 * the query string.
+	 */
+	public void setParameterValues(Map<String, Object> parameterValues) {
+		this.parameterValues = parameterValues;
+	}
+
+	/**
+	 * The path of the attribute to order and page by, including the alias
+	 * used in the query, e.g. <code>f.id</code>. It has to be unique and
+	 * indexed.
+	 *
+	 * @param sortKey the sort key path
+	 */
+	public void setSortKey(String sortKey) {
+		this.sortKey = sortKey;
+	}
+
+	/**
+	 * Set the sort direction (default true, i.e. ascending).
+	 *
+	 * @param ascending false to read in descending order of the sort key
+	 */
+	public void setAscending(boolean ascending) {
+		this.ascending = ascending;
+	}
+
+	/**
+	 * The number of items to read per query, or per clear of the persistence
+	 * context when scrolling. Defaults to 10.
+	 *
+	 * @param pageSize the number of items
+	 */
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * By default (true) the EntityTransaction will be started and committed
+	 * around the read. Can be overridden (false) in cases where the JPA
+	 * implementation doesn't support a particular transaction.
+	 *
+	 * @param transacted the flag value to set
+	 */
+	public void setTransacted(boolean transacted) {
+		this.transacted = transacted;
+	}
+
+	/**
+	 * Read the input through a single Hibernate {@link ScrollableResults}
+	 * instead of one query per page, if Hibernate is the JPA provider
+	 * (default false).
+	 *
+	 * @param useScrollableResults the flag value to set
+	 */
+	public void setUseScrollableResults(boolean useScrollableResults) {
+		this.useScrollableResults = useScrollableResults;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(entityManagerFactory, "An EntityManagerFactory is required");
+		Assert.hasLength(queryString, "A query string is required");
+		Assert.hasLength(sortKey, "A sort key is required");
+		Assert.isTrue(!ORDER_BY.matcher(queryString).find(),
+				"The query string must not have an ORDER BY clause, the sort key is used instead");
+		Assert.isTrue(pageSize > 0, "pageSize must be greater than zero");
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		if (isSaveState() && executionContext.containsKey(getExecutionContextKey(LAST_KEY))) {
+			lastKey = executionContext.get(getExecutionContextKey(LAST_KEY));
+		}
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState() && lastKey != null) {
+			executionContext.put(getExecutionContextKey(LAST_KEY), lastKey);
+		}
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+
+		String order = " order by " + sortKey + (ascending ? " asc" : " desc");
+		String condition = sortKey + (ascending ? " > :" : " < :") + LAST_KEY_PARAMETER;
+		firstPageQuery = queryString + order;
+		Matcher matcher = WHERE.matcher(queryString);
+		if (matcher.find()) {
+			remainingPagesQuery = queryString.substring(0, matcher.end()) + "(" + queryString.substring(matcher.end())
+					+ ") and " + condition + order;
+		}
+		else {
+			remainingPagesQuery = queryString + " where " + condition + order;
+		}
+		int dot = sortKey.indexOf('.');
+		sortKeyProperty = dot < 0 ? sortKey : sortKey.substring(dot + 1);
+
+		entityManager = entityManagerFactory.createEntityManager(jpaPropertyMap);
+		if (entityManager == null) {
+			throw new DataAccessResourceFailureException("Unable to obtain an EntityManager");
+		}
+
+		if (useScrollableResults) {
+			if (hibernatePresent) {
+				openCursor();
+			}
+			else {
+				logger.warn("Hibernate is not available, reading pages instead of scrolling");
+			}
+		}
+
+	}
+
+	private void openCursor() {
+		if (transacted) {
+			transaction = entityManager.getTransaction();
+			transaction.begin();
+		}
+		try {
+			cursor = new Cursor(createQuery(), pageSize);
+		}
+		catch (PersistenceException e) {
+			logger.warn("The JPA provider does not support scrolling, reading pages instead: " + e.getMessage());
+			if (transaction != null) {
+				transaction.commit();
+				transaction = null;
+			}
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected T doRead() throws Exception {
+
+		synchronized (lock) {
+
+			T item = null;
+
+			if (cursor != null) {
+				if (current++ == pageSize) {
+					entityManager.clear();
+					current = 1;
+				}
+				item = (T) cursor.next();
+			}
+			else {
+				if (results == null || current >= results.size()) {
+					if (results != null && results.size() < pageSize) {
+						// the last page was not full
+						return null;
+					}
+					readPage();
+				}
+				if (current < results.size()) {
+					item = results.get(current++);
+				}
+			}
+
+			if (item != null) {
+				lastKey = PropertyAccessorFactory.forBeanPropertyAccess(item).getPropertyValue(sortKeyProperty);
+			}
+			return item;
+
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readPage() {
+
+		EntityTransaction tx = null;
+
+		if (transacted) {
+			tx = entityManager.getTransaction();
+			tx.begin();
+		}
+
+		entityManager.clear();
+
+		results = createQuery().setMaxResults(pageSize).getResultList();
+		current = 0;
+
+		if (tx != null) {
+			tx.commit();
+		}
+
+	}
+
+	private Query createQuery() {
+
+		Query query = entityManager.createQuery(lastKey == null ? firstPageQuery : remainingPagesQuery);
+
+		if (parameterValues != null) {
+			for (Map.Entry<String, Object> me : parameterValues.entrySet()) {
+				query.setParameter(me.getKey(), me.getValue());
+			}
+		}
+		if (lastKey != null) {
+			query.setParameter(LAST_KEY_PARAMETER, lastKey);
+		}
+
+		return query;
+
+	}
+
+	/**
+	 * No-op: the position is restored from the last sort key.
+	 */
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+
+		synchronized (lock) {
+			if (cursor != null) {
+				cursor.close();
+				cursor = null;
+			}
+			if (transaction != null) {
+				if (transaction.isActive()) {
+					transaction.commit();
+				}
+				transaction = null;
+			}
+			entityManager.close();
+			results = null;
+			current = 0;
+			lastKey = null;
+		}
+
+	}
+
+	/**
+	 * Forward-only Hibernate scroll over the results of a JPA query. Kept in a
+	 * separate class so that Hibernate is only needed when it is used.
+	 */
+	private static class Cursor {
+
+		private final ScrollableResults scroll;
+
+		public Cursor(Query query, int fetchSize) {
+			this.scroll = query.unwrap(org.hibernate.Query.class).setFetchSize(fetchSize)
+					.scroll(ScrollMode.FORWARD_ONLY);
+		}
+
+		public Object next() {
+			if (!scroll.next()) {
+				return null;
+			}
+			Object[] row = scroll.get();
+			return row.length == 1 ? row[0] : row;
+		}
+
+		public void close() {
+			scroll.close();
+		}
+
+	}
+
+}
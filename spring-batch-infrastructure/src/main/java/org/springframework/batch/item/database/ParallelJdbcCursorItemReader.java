@@ -0,0 +1,488 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>
+ * Item reader that splits a query into {@link #setBucketCount(int)
+ * bucketCount} buckets of rows, reads the buckets concurrently with one
+ * cursor and connection each, and merges their rows into a single stream of
+ * items. It is meant for large single-table extracts where the database can
+ * serve several cursors faster than one, but partitioning the step would be
+ * overkill.
+ * </p>
+ *
+ * <p>
+ * Each bucket runs the {@link #setSql(String) query} as a sub-query, filtered
+ * on the {@link #setBucketExpression(String) bucket expression} and ordered by
+ * the {@link #setKeyColumn(String) key column}, which must be unique and
+ * selected by the query:
+ * </p>
+ *
+ * <pre>
+ * SELECT * FROM (query) B WHERE MOD(MOD(ID, 4) + 4, 4) = ? ORDER BY ID
+ * </pre>
+ *
+ * <p>
+ * The rows are mapped by the {@link RowMapper} in the reading threads and
+ * handed over through a queue of at most {@link #setQueueCapacity(int)
+ * queueCapacity} items. The items come in no particular order across
+ * buckets. The last key read from each bucket is stored in the
+ * {@link ExecutionContext}, and a restart reads each bucket after it.
+ * </p>
+ *
+ * <p>
+ * The cursors are opened with separate connections, which means that they do
+ * not participate in any transactions created as part of the step
+ * processing, and that the buckets are not read from a single snapshot of the
+ * data. Calls to {@link #read()} must not be made concurrently.
+ * </p>
+ *
+ * @since 3.0
+ */
+public class ParallelJdbcCursorItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements
+		InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(ParallelJdbcCursorItemReader.class);
+
+	private static final String BUCKET_COUNT = "bucket.count";
+
+	private static final String LAST_KEY = "last.key";
+
+	private static final String DONE = "done";
+
+	private static final long OFFER_TIMEOUT = 100;
+
+	private DataSource dataSource;
+
+	private String sql;
+
+	private RowMapper<T> rowMapper;
+
+	private PreparedStatementSetter preparedStatementSetter;
+
+	private String keyColumn;
+
+	private String bucketExpression;
+
+	private int bucketCount = 4;
+
+	private int fetchSize = 0;
+
+	private int queueCapacity = 1000;
+
+	private TaskExecutor taskExecutor;
+
+	private Object[] lastKeys;
+
+	private boolean[] done;
+
+	private int remaining;
+
+	private BlockingQueue<Row> queue;
+
+	private CountDownLatch finished;
+
+	private volatile boolean stopped;
+
+	private Exception failure;
+
+	public ParallelJdbcCursorItemReader() {
+		setName(ClassUtils.getShortName(ParallelJdbcCursorItemReader.class));
+	}
+
+	/**
+	 * Public setter for the data source for injection purposes.
+	 *
+	 * @param dataSource the {@link DataSource} to read from
+	 */
+	public void setDataSource(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	/**
+	 * Set the query to split into buckets. It must select the
+	 * {@link #setKeyColumn(String) key column}, and should not have an ORDER
+	 * BY clause.
+	 *
+	 * @param sql the SQL query
+	 */
+	public void setSql(String sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * Set the {@link RowMapper} to map a row to an item. It is called
+	 * concurrently by the threads reading the buckets.
+	 *
+	 * @param rowMapper the {@link RowMapper} to set
+	 */
+	public void setRowMapper(RowMapper<T> rowMapper) {
+		this.rowMapper = rowMapper;
+	}
+
+	/**
+	 * Set the {@link PreparedStatementSetter} for the parameters of the query,
+	 * if any. It is called once per bucket.
+	 *
+	 * @param preparedStatementSetter the {@link PreparedStatementSetter} to set
+	 */
+	public void setPreparedStatementSetter(PreparedStatementSetter preparedStatementSetter) {
+		this.preparedStatementSetter = preparedStatementSetter;
+	}
+
+	/**
+	 * Set the unique column to order each bucket by and to restart after.
+	 *
+	 * @param keyColumn the name or label of the column
+	 */
+	public void setKeyColumn(String keyColumn) {
+		this.keyColumn = keyColumn;
+	}
+
+	/**
+	 * Set the SQL expression that computes the bucket of a row over the
+	 * columns selected by the query. It must return a value from 0 to
+	 * bucketCount - 1 for every row: rows with any other value are in no
+	 * bucket and are not read. Defaults to
+	 * <code>MOD(MOD(keyColumn, bucketCount) + bucketCount, bucketCount)</code>,
+	 * which needs a numeric key and also covers negative keys (for which
+	 * <code>MOD</code> is negative on most databases); use e.g.
+	 * <code>ORA_HASH(CODE, 3)</code> for other keys.
+	 *
+	 * @param bucketExpression the SQL expression
+	 */
+	public void setBucketExpression(String bucketExpression) {
+		this.bucketExpression = bucketExpression;
+	}
+
+	/**
+	 * Set the number of buckets, i.e. of concurrent cursors. Defaults to 4.
+	 * It cannot change between a failed execution and its restart.
+	 *
+	 * @param bucketCount the number of buckets
+	 */
+	public void setBucketCount(int bucketCount) {
+		this.bucketCount = bucketCount;
+	}
+
+	/**
+	 * Gives the JDBC driver a hint as to the number of rows that should be
+	 * fetched from the database for each bucket when more rows are needed.
+	 *
+	 * @param fetchSize the number of rows to fetch
+	 * @see java.sql.Statement#setFetchSize(int)
+	 */
+	public void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Set the maximum number of items read ahead of the calls to
+	 * {@link #read()}. Defaults to 1000.
+	 *
+	 * @param queueCapacity the number of items
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the {@link TaskExecutor} that runs the threads reading the buckets.
+	 * It has to run all of them at the same time, so it cannot be a
+	 * {@link SyncTaskExecutor}. Defaults to a {@link SimpleAsyncTaskExecutor}.
+	 *
+	 * @param taskExecutor the task executor to set
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(dataSource, "DataSource must be provided");
+		Assert.hasText(sql, "The SQL query must be provided");
+		Assert.notNull(rowMapper, "RowMapper must be provided");
+		Assert.hasText(keyColumn, "The key column must be provided");
+		Assert.isTrue(bucketCount > 0, "The bucket count must be greater than zero");
+		Assert.isTrue(queueCapacity > 0, "The queue capacity must be greater than zero");
+		Assert.isTrue(!(taskExecutor instanceof SyncTaskExecutor),
+				"The TaskExecutor must run the buckets concurrently: a SyncTaskExecutor blocks when the queue is full");
+		if (taskExecutor == null) {
+			taskExecutor = new SimpleAsyncTaskExecutor(getExecutionContextKey("bucket-"));
+		}
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		lastKeys = new Object[bucketCount];
+		done = new boolean[bucketCount];
+		if (isSaveState() && executionContext.containsKey(getExecutionContextKey(BUCKET_COUNT))) {
+			Assert.state(executionContext.getInt(getExecutionContextKey(BUCKET_COUNT)) == bucketCount,
+					"The bucket count cannot change on restart");
+			for (int bucket = 0; bucket < bucketCount; bucket++) {
+				lastKeys[bucket] = executionContext.get(getExecutionContextKey(bucket + "." + LAST_KEY));
+				done[bucket] = executionContext.containsKey(getExecutionContextKey(bucket + "." + DONE));
+			}
+		}
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState()) {
+			executionContext.putInt(getExecutionContextKey(BUCKET_COUNT), bucketCount);
+			for (int bucket = 0; bucket < bucketCount; bucket++) {
+				if (lastKeys[bucket] != null) {
+					executionContext.put(getExecutionContextKey(bucket + "." + LAST_KEY), lastKeys[bucket]);
+				}
+				if (done[bucket]) {
+					executionContext.putString(getExecutionContextKey(bucket + "." + DONE), "true");
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		Assert.state(queue == null, "Stream is already initialized.  Close before re-opening.");
+		stopped = false;
+		failure = null;
+		queue = new LinkedBlockingQueue<Row>(queueCapacity);
+		finished = new CountDownLatch(bucketCount);
+		remaining = 0;
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			if (done[bucket]) {
+				finished.countDown();
+			}
+			else {
+				remaining++;
+				try {
+					taskExecutor.execute(new BucketReader(bucket, lastKeys[bucket]));
+				}
+				catch (TaskRejectedException e) {
+					// the buckets which are not started cannot finish, and the
+					// started ones would never be read to the end
+					stopped = true;
+					for (int rejected = bucket; rejected < bucketCount; rejected++) {
+						finished.countDown();
+					}
+					throw e;
+				}
+			}
+		}
+	}
+
+	@Override
+	protected T doRead() throws Exception {
+		if (failure != null) {
+			// the failed bucket is not read any further, so the rest of the
+			// items cannot be read either
+			throw failure;
+		}
+		while (remaining > 0) {
+			Row row = queue.poll(OFFER_TIMEOUT, TimeUnit.MILLISECONDS);
+			if (row == null) {
+				if (finished.getCount() == 0 && queue.isEmpty()) {
+					throw new IllegalStateException("The bucket readers ended before all the buckets were read");
+				}
+				continue;
+			}
+			if (row.failure != null) {
+				failure = row.failure;
+				throw failure;
+			}
+			if (row.done) {
+				done[row.bucket] = true;
+				remaining--;
+			}
+			else {
+				lastKeys[row.bucket] = row.key;
+				return row.item;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * No-op: each bucket is restarted after the last key read from it.
+	 */
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		stopped = true;
+		if (queue != null) {
+			queue.clear();
+			finished.await();
+			queue = null;
+		}
+	}
+
+	private String getBucketSql(boolean restart) {
+		String expression = bucketExpression != null ? bucketExpression : "MOD(MOD(" + keyColumn + ", "
+				+ bucketCount + ") + " + bucketCount + ", " + bucketCount + ")";
+		return "SELECT * FROM (" + sql + ") B WHERE " + expression + " = ?"
+				+ (restart ? " AND " + keyColumn + " > ?" : "") + " ORDER BY " + keyColumn;
+	}
+
+	private class BucketReader implements Runnable {
+
+		private final int bucket;
+
+		private final Object lastKey;
+
+		public BucketReader(int bucket, Object lastKey) {
+			this.bucket = bucket;
+			this.lastKey = lastKey;
+		}
+
+		@Override
+		public void run() {
+			String bucketSql = getBucketSql(lastKey != null);
+			Connection con = null;
+			PreparedStatement ps = null;
+			ResultSet rs = null;
+			try {
+				con = dataSource.getConnection();
+				ps = con.prepareStatement(bucketSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+				if (fetchSize > 0) {
+					ps.setFetchSize(fetchSize);
+					ps.setFetchDirection(ResultSet.FETCH_FORWARD);
+				}
+				if (preparedStatementSetter != null) {
+					preparedStatementSetter.setValues(ps);
+				}
+				int index = JdbcParameterUtils.countParameterPlaceholders(sql, null);
+				ps.setInt(++index, bucket);
+				if (lastKey != null) {
+					ps.setObject(++index, lastKey);
+				}
+				rs = ps.executeQuery();
+				int rowNum = 0;
+				while (!stopped && rs.next()) {
+					T item = rowMapper.mapRow(rs, rowNum++);
+					if (!put(new Row(bucket, rs.getObject(keyColumn), item))) {
+						return;
+					}
+				}
+				put(new Row(bucket));
+			}
+			catch (SQLException e) {
+				put(new Row(bucket, new SQLErrorCodeSQLExceptionTranslator(dataSource).translate(
+						"Reading bucket " + bucket, bucketSql, e)));
+			}
+			catch (Exception e) {
+				put(new Row(bucket, e));
+			}
+			finally {
+				JdbcUtils.closeResultSet(rs);
+				JdbcUtils.closeStatement(ps);
+				JdbcUtils.closeConnection(con);
+				finished.countDown();
+			}
+		}
+
+		/**
+		 * Hand over a row, unless the reader is closed while waiting.
+		 */
+		private boolean put(Row row) {
+			try {
+				while (!stopped) {
+					if (queue.offer(row, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+						return true;
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				logger.debug("Interrupted while reading bucket " + bucket);
+				Thread.currentThread().interrupt();
+			}
+			return false;
+		}
+
+	}
+
+	private class Row {
+
+		private final int bucket;
+
+		private final Object key;
+
+		private final T item;
+
+		private final boolean done;
+
+		private final Exception failure;
+
+		public Row(int bucket, Object key, T item) {
+			this.bucket = bucket;
+			this.key = key;
+			this.item = item;
+			this.done = false;
+			this.failure = null;
+		}
+
+		public Row(int bucket) {
+			this.bucket = bucket;
+			this.key = null;
+			this.item = null;
+			this.done = true;
+			this.failure = null;
+		}
+
+		public Row(int bucket, Exception failure) {
+			this.bucket = bucket;
+			this.key = null;
+			this.item = null;
+			this.done = false;
+			this.failure = failure;
+		}
+
+	}
+
+}
@@ -23,10 +23,14 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Arrays;
 
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlOutParameter;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.metadata.CallMetaDataContext;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.util.Assert;
@@ -50,6 +54,22 @@ import org.springframework.util.ClassUtils;
  * </p>
  *
  * <p>
+ * By default a restart calls the procedure again and skips the rows that were
+ * read before. If the procedure returns its rows ordered by a unique key and
+ * takes the last key read as a parameter, a restart can start after it
+ * instead: set the {@link #setLastKeyColumn(String) lastKeyColumn} holding
+ * the key and the {@link #setLastKeyParameterIndex(int) lastKeyParameterIndex}
+ * of the parameter. The last key read is stored in the execution context and
+ * passed to the procedure when it is opened, null if nothing was read.
+ * </p>
+ *
+ * <p>
+ * The {@link #setFetchSize(int) fetch size} is applied to the returned cursor
+ * as well as to the statement, since a REF CURSOR does not take it from the
+ * statement.
+ * </p>
+ *
+ * <p>
  * This class is modeled after the similar <code>JdbcCursorItemReader</code> class.
  * </p>
  *
@@ -58,6 +78,8 @@ import org.springframework.util.ClassUtils;
 @SuppressWarnings("rawtypes")
 public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 
+	private static final String LAST_KEY = "last.key";
+
 	private CallableStatement callableStatement;
 
 	private PreparedStatementSetter preparedStatementSetter;
@@ -74,6 +96,14 @@ public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 
 	private int refCursorPosition = 0;
 
+	private String lastKeyColumn;
+
+	private int lastKeyParameterIndex = 0;
+
+	private Object lastKey;
+
+	private Object startKey;
+
 	public StoredProcedureItemReader() {
 		super();
 		setName(ClassUtils.getShortName(StoredProcedureItemReader.class));
@@ -137,6 +167,29 @@ public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 		this.refCursorPosition = refCursorPosition;
 	}
 
+	/**
+	 * Set the column holding the unique key that the procedure orders its
+	 * rows by, to restart after the last key read.
+	 *
+	 * @param lastKeyColumn the name or label of the key column
+	 * @see #setLastKeyParameterIndex(int)
+	 */
+	public void setLastKeyColumn(String lastKeyColumn) {
+		this.lastKeyColumn = lastKeyColumn;
+	}
+
+	/**
+	 * Set the index of the procedure parameter for the last key read, as used
+	 * by the {@link PreparedStatementSetter}. The procedure must return the
+	 * rows after the key, or all of them if it is null.
+	 *
+	 * @param lastKeyParameterIndex the index of the parameter, starting at 1
+	 * @see #setLastKeyColumn(String)
+	 */
+	public void setLastKeyParameterIndex(int lastKeyParameterIndex) {
+		this.lastKeyParameterIndex = lastKeyParameterIndex;
+	}
+
 	/**
 	 * Assert that mandatory properties are set.
 	 *
@@ -148,6 +201,27 @@ public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 		super.afterPropertiesSet();
 		Assert.notNull(procedureName, "The name of the stored procedure must be provided");
 		Assert.notNull(rowMapper, "RowMapper must be provided");
+		Assert.isTrue((lastKeyColumn == null) == (lastKeyParameterIndex <= 0),
+				"The last key column and the last key parameter index must be set together");
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		startKey = null;
+		if (isSaveState() && lastKeyColumn != null
+				&& executionContext.containsKey(getExecutionContextKey(LAST_KEY))) {
+			startKey = executionContext.get(getExecutionContextKey(LAST_KEY));
+		}
+		lastKey = startKey;
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState() && lastKey != null) {
+			executionContext.put(getExecutionContextKey(LAST_KEY), lastKey);
+		}
 	}
 
 	@Override
@@ -196,6 +270,14 @@ public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 			if (this.preparedStatementSetter != null) {
 				preparedStatementSetter.setValues(callableStatement);
 			}
+			if (lastKeyParameterIndex > 0) {
+				int lastKeySqlType = SqlTypeValue.TYPE_UNKNOWN;
+				if (!function && lastKeyParameterIndex <= parameters.length) {
+					lastKeySqlType = parameters[lastKeyParameterIndex - 1].getSqlType();
+				}
+				StatementCreatorUtils.setParameterValue(callableStatement, lastKeyParameterIndex, lastKeySqlType,
+						startKey);
+			}
 
 			if (function) {
 				callableStatement.registerOutParameter(1, cursorSqlType);
@@ -217,6 +299,9 @@ public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 					rs = (ResultSet) callableStatement.getObject(refCursorPosition);
 				}
 			}
+			if (rs != null) {
+				applyResultSetSettings(rs);
+			}
 			handleWarnings(callableStatement);
 		}
 		catch (SQLException se) {
@@ -229,7 +314,25 @@ public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 	@Override
 	@SuppressWarnings("unchecked")
 	protected T readCursor(ResultSet rs, int currentRow) throws SQLException {
-		return (T) rowMapper.mapRow(rs, currentRow);
+		T item = (T) rowMapper.mapRow(rs, currentRow);
+		if (lastKeyColumn != null) {
+			lastKey = rs.getObject(lastKeyColumn);
+		}
+		return item;
+	}
+
+	/**
+	 * If the procedure was called with the last key read before, it only
+	 * returned the rows after it, so there is nothing to skip.
+	 */
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+		if (startKey != null) {
+			setCursorOffset(itemIndex);
+		}
+		else {
+			super.jumpToItem(itemIndex);
+		}
 	}
 
 	/**
@@ -238,6 +341,8 @@ public class StoredProcedureItemReader<T> extends AbstractCursorItemReader<T> {
 	@Override
 	protected void cleanupOnClose() throws Exception {
 		JdbcUtils.closeStatement(this.callableStatement);
+		startKey = null;
+		lastKey = null;
 	}
 
 	@Override
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.batch.item.database.BulkLoader;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Base class for {@link BulkLoader}s that send the rows to the database as
+ * delimited text, one line per row and one field per column. Rows with
+ * values that cannot be written as text, and connections that do not support
+ * the bulk load protocol, go to a fallback loader instead.
+ *
+ * @since 3.0
+ */
+public abstract class AbstractTextBulkLoader implements BulkLoader {
+
+	private final String tableName;
+
+	private final List<String> columnNames;
+
+	private final BulkLoader fallback;
+
+	/**
+	 * @param tableName the table to load
+	 * @param columnNames the columns to load, in the order of the values
+	 * @param fallback the loader to use when the rows cannot be loaded as text
+	 */
+	protected AbstractTextBulkLoader(String tableName, List<String> columnNames, BulkLoader fallback) {
+		Assert.hasText(tableName, "A table name is required");
+		Assert.notEmpty(columnNames, "Column names are required");
+		Assert.notNull(fallback, "A fallback BulkLoader is required");
+		this.tableName = tableName;
+		this.columnNames = columnNames;
+		this.fallback = fallback;
+	}
+
+	@Override
+	public int load(Connection connection, List<Object[]> rows) throws SQLException {
+		if (!isSupported(connection) || !isText(rows)) {
+			return fallback.load(connection, rows);
+		}
+		return load(connection, format(rows));
+	}
+
+	/**
+	 * Format the rows as the text sent to the database.
+	 *
+	 * @param rows the values of the rows
+	 * @return the text with one line per row
+	 */
+	protected String format(List<Object[]> rows) {
+		StringBuilder text = new StringBuilder(rows.size() * columnNames.size() * 16);
+		for (Object[] values : rows) {
+			Assert.isTrue(values.length == columnNames.size(), "Expected " + columnNames.size()
+					+ " values per row but got " + values.length);
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) {
+					text.append(',');
+				}
+				Object value = getValue(values[i]);
+				if (value == null) {
+					appendNull(text);
+				}
+				else if (value instanceof Date && !(value instanceof java.sql.Date || value instanceof java.sql.Time)) {
+					appendValue(text, new Timestamp(((Date) value).getTime()));
+				}
+				else {
+					appendValue(text, value);
+				}
+			}
+			text.append('\n');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * @return the table name quoted as given
+	 */
+	protected String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * @return the column names separated by commas
+	 */
+	protected String getColumnList() {
+		return StringUtils.collectionToDelimitedString(columnNames, ", ");
+	}
+
+	/**
+	 * Check if a value can be written as text. By default characters,
+	 * numbers, booleans and dates can.
+	 *
+	 * @param value a value that is not null
+	 * @return true if the value can be written as text
+	 */
+	protected boolean isText(Object value) {
+		return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Date;
+	}
+
+	/**
+	 * Check if the bulk load protocol can be used on a connection.
+	 *
+	 * @param connection the connection of the current transaction
+	 * @return true if the connection supports the protocol
+	 * @throws SQLException if the connection cannot be inspected
+	 */
+	protected abstract boolean isSupported(Connection connection) throws SQLException;
+
+	/**
+	 * Append a null value to the text.
+	 *
+	 * @param text the text of the rows so far
+	 */
+	protected abstract void appendNull(StringBuilder text);
+
+	/**
+	 * Append a value to the text, escaped as needed.
+	 *
+	 * @param text the text of the rows so far
+	 * @param value a value for which {@link #isText(Object)} is true
+	 */
+	protected abstract void appendValue(StringBuilder text, Object value);
+
+	/**
+	 * Send the text to the database.
+	 *
+	 * @param connection the connection of the current transaction
+	 * @param text the rows formatted with {@link #format(List)}
+	 * @return the number of rows inserted
+	 * @throws SQLException if the rows cannot be loaded
+	 */
+	protected abstract int load(Connection connection, String text) throws SQLException;
+
+	private boolean isText(List<Object[]> rows) {
+		for (Object[] values : rows) {
+			for (Object value : values) {
+				value = getValue(value);
+				if (value != null && !isText(value)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private Object getValue(Object value) {
+		return value instanceof SqlParameterValue ? ((SqlParameterValue) value).getValue() : value;
+	}
+
+}
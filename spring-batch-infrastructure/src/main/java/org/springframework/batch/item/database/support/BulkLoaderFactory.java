@@ -0,0 +1,115 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.batch.item.database.BulkLoader;
+import org.springframework.batch.item.database.JdbcParameterUtils;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.util.StringUtils;
+
+/**
+ * Factory for the {@link BulkLoader} of an insert statement, appropriate for
+ * a {@link DatabaseType}:
+ *
+ * <ul>
+ * <li>PostgreSQL: <code>COPY ... FROM STDIN</code> ({@link PostgresCopyBulkLoader})</li>
+ * <li>MySQL: <code>LOAD DATA LOCAL INFILE</code> ({@link MySqlLoadDataBulkLoader})</li>
+ * <li>Oracle and Sybase: none, as they have no multi-row VALUES clause</li>
+ * <li>others: multi-row inserts ({@link MultiRowInsertBulkLoader})</li>
+ * </ul>
+ *
+ * The PostgreSQL and MySQL loaders fall back to multi-row inserts when their
+ * driver is not available or the values are not all plain placeholders.
+ *
+ * @since 3.0
+ */
+public class BulkLoaderFactory {
+
+	private static final Pattern INSERT = Pattern.compile(
+			"\\s*insert\\s+into\\s+([^\\s(]+)\\s*\\(([^)]*)\\)\\s*values\\s*(\\(.*\\))\\s*;?\\s*", Pattern.CASE_INSENSITIVE
+					| Pattern.DOTALL);
+
+	private static final Pattern PLACEHOLDERS = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+	/**
+	 * Get a {@link BulkLoader} for an insert statement.
+	 *
+	 * @param databaseType the type of the database
+	 * @param sql an insert statement of one row with '?' placeholders, e.g.
+	 * <code>INSERT INTO T (A, B) VALUES (?, ?)</code>
+	 * @return a bulk loader or null if the statement can only be executed in
+	 * plain JDBC batches
+	 */
+	public BulkLoader getBulkLoader(DatabaseType databaseType, String sql) {
+
+		Matcher matcher = INSERT.matcher(sql);
+		if (!matcher.matches() || databaseType == DatabaseType.ORACLE || databaseType == DatabaseType.SYBASE) {
+			return null;
+		}
+
+		String tableName = matcher.group(1);
+		List<String> columnNames = new ArrayList<String>();
+		for (String column : StringUtils.commaDelimitedListToStringArray(matcher.group(2))) {
+			columnNames.add(column.trim());
+		}
+		String valuesRow = matcher.group(3).trim();
+		if (!isSingleRow(valuesRow)) {
+			// e.g. an ON DUPLICATE KEY or ON CONFLICT clause after the values
+			return null;
+		}
+		int parameterCount = JdbcParameterUtils.countParameterPlaceholders(valuesRow, null);
+		if (parameterCount != JdbcParameterUtils.countParameterPlaceholders(sql, null)) {
+			// parameters outside of the values
+			return null;
+		}
+
+		BulkLoader multiRowInsert = new MultiRowInsertBulkLoader("INSERT INTO " + tableName + " ("
+				+ StringUtils.collectionToDelimitedString(columnNames, ", ") + ") VALUES", valuesRow, parameterCount);
+
+		if (!PLACEHOLDERS.matcher(valuesRow).matches() || parameterCount != columnNames.size()) {
+			return multiRowInsert;
+		}
+		switch (databaseType) {
+		case POSTGRES:
+			return new PostgresCopyBulkLoader(tableName, columnNames, multiRowInsert);
+		case MYSQL:
+			return new MySqlLoadDataBulkLoader(tableName, columnNames, multiRowInsert);
+		default:
+			return multiRowInsert;
+		}
+
+	}
+
+	private boolean isSingleRow(String valuesRow) {
+		int depth = 0;
+		for (int i = 0; i < valuesRow.length(); i++) {
+			char c = valuesRow.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')' && --depth == 0 && i < valuesRow.length() - 1) {
+				return false;
+			}
+		}
+		return depth == 0;
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.batch.item.database.BulkLoader;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+
+/**
+ * {@link BulkLoader} that inserts many rows per statement with a multi-row
+ * VALUES clause, i.e. <code>INSERT INTO T (A, B) VALUES (?, ?), (?, ?), ...</code>.
+ * Rows are split over several statements so that none has more than 1000
+ * rows or 2000 parameters, which are the limits of the most restrictive
+ * databases that support the syntax.
+ *
+ * @since 3.0
+ */
+public class MultiRowInsertBulkLoader implements BulkLoader {
+
+	private static final int MAX_ROWS = 1000;
+
+	private static final int MAX_PARAMETERS = 2000;
+
+	private final String insertClause;
+
+	private final String valuesRow;
+
+	private final int parametersPerRow;
+
+	private final int rowsPerStatement;
+
+	/**
+	 * @param insertClause the statement up to the VALUES keyword included,
+	 * e.g. <code>INSERT INTO T (A, B) VALUES</code>
+	 * @param valuesRow the values of one row, e.g. <code>(?, ?)</code>
+	 * @param parametersPerRow the number of parameters in the values of one
+	 * row
+	 */
+	public MultiRowInsertBulkLoader(String insertClause, String valuesRow, int parametersPerRow) {
+		Assert.hasText(insertClause, "An insert clause is required");
+		Assert.hasText(valuesRow, "The values of a row are required");
+		this.insertClause = insertClause;
+		this.valuesRow = valuesRow;
+		this.parametersPerRow = parametersPerRow;
+		this.rowsPerStatement = Math.max(1, Math.min(MAX_ROWS, MAX_PARAMETERS / Math.max(1, parametersPerRow)));
+	}
+
+	@Override
+	public int load(Connection connection, List<Object[]> rows) throws SQLException {
+		int count = 0;
+		for (int start = 0; start < rows.size(); start += rowsPerStatement) {
+			List<Object[]> statementRows = rows.subList(start, Math.min(start + rowsPerStatement, rows.size()));
+			PreparedStatement ps = connection.prepareStatement(getSql(statementRows.size()));
+			try {
+				int index = 1;
+				for (Object[] values : statementRows) {
+					Assert.isTrue(values.length == parametersPerRow, "Expected " + parametersPerRow
+							+ " values per row but got " + values.length);
+					for (Object value : values) {
+						if (value instanceof SqlParameterValue) {
+							SqlParameterValue parameterValue = (SqlParameterValue) value;
+							StatementCreatorUtils.setParameterValue(ps, index++, parameterValue,
+									parameterValue.getValue());
+						}
+						else {
+							StatementCreatorUtils.setParameterValue(ps, index++, SqlTypeValue.TYPE_UNKNOWN, value);
+						}
+					}
+				}
+				count += ps.executeUpdate();
+			}
+			finally {
+				JdbcUtils.closeStatement(ps);
+			}
+		}
+		return count;
+	}
+
+	private String getSql(int rowCount) {
+		StringBuilder sql = new StringBuilder(insertClause.length() + rowCount * (valuesRow.length() + 2));
+		sql.append(insertClause).append(" ");
+		for (int i = 0; i < rowCount; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(valuesRow);
+		}
+		return sql.toString();
+	}
+
+}
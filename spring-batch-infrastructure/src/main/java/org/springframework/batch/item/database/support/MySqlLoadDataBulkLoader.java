@@ -0,0 +1,187 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.List;
+
+import org.springframework.batch.item.database.BulkLoader;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link BulkLoader} for MySQL that streams the rows from memory through
+ * <code>LOAD DATA LOCAL INFILE</code>. It uses the local infile stream of the
+ * MySQL Connector/J driver, found by reflection so that the driver is not
+ * needed at compile time. The connection must allow local infiles (the
+ * <code>allowLoadLocalInfile</code> driver property). Connections that cannot
+ * be unwrapped to a driver statement go to the fallback loader.
+ *
+ * With <code>LOCAL</code> the server cannot stop the client from sending the
+ * rest of the file, so it loads as if <code>IGNORE</code> was given: rows that
+ * fail are skipped and bad values are truncated, with only a warning. The
+ * load fails instead if there are warnings or fewer rows were inserted than
+ * sent, so that the transaction is rolled back.
+ *
+ * @since 3.0
+ */
+public class MySqlLoadDataBulkLoader extends AbstractTextBulkLoader {
+
+	private static final String CONNECTION_CLASS = "com.mysql.jdbc.Connection";
+
+	private static final String STATEMENT_CLASS = "com.mysql.jdbc.Statement";
+
+	private final String sql;
+
+	private Class<?> connectionType;
+
+	private Class<?> statementType;
+
+	private Method setLocalInfileInputStream;
+
+	/**
+	 * @param tableName the table to load
+	 * @param columnNames the columns to load, in the order of the values
+	 * @param fallback the loader to use when the rows cannot be loaded
+	 */
+	public MySqlLoadDataBulkLoader(String tableName, List<String> columnNames, BulkLoader fallback) {
+		super(tableName, columnNames, fallback);
+		this.sql = "LOAD DATA LOCAL INFILE 'items' INTO TABLE " + tableName
+				+ " CHARACTER SET utf8 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'"
+				+ " LINES TERMINATED BY '\\n' (" + getColumnList() + ")";
+		ClassLoader classLoader = MySqlLoadDataBulkLoader.class.getClassLoader();
+		if (ClassUtils.isPresent(CONNECTION_CLASS, classLoader) && ClassUtils.isPresent(STATEMENT_CLASS, classLoader)) {
+			connectionType = ClassUtils.resolveClassName(CONNECTION_CLASS, classLoader);
+			statementType = ClassUtils.resolveClassName(STATEMENT_CLASS, classLoader);
+			setLocalInfileInputStream = ClassUtils.getMethodIfAvailable(statementType, "setLocalInfileInputStream",
+					InputStream.class);
+		}
+	}
+
+	@Override
+	protected boolean isSupported(Connection connection) throws SQLException {
+		return setLocalInfileInputStream != null && connection.isWrapperFor(connectionType);
+	}
+
+	@Override
+	protected void appendNull(StringBuilder text) {
+		text.append("\\N");
+	}
+
+	@Override
+	protected void appendValue(StringBuilder text, Object value) {
+		if (value instanceof Boolean) {
+			text.append(((Boolean) value) ? '1' : '0');
+			return;
+		}
+		if (value instanceof Number) {
+			text.append(value);
+			return;
+		}
+		String string = value.toString();
+		text.append('"');
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '\\':
+				text.append("\\\\");
+				break;
+			case '"':
+				text.append("\\\"");
+				break;
+			case '\n':
+				text.append("\\n");
+				break;
+			case '\r':
+				text.append("\\r");
+				break;
+			case '\0':
+				text.append("\\0");
+				break;
+			default:
+				text.append(c);
+			}
+		}
+		text.append('"');
+	}
+
+	@Override
+	protected int load(Connection connection, String text) throws SQLException {
+		InputStream stream;
+		try {
+			stream = new ByteArrayInputStream(text.getBytes("UTF-8"));
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 is not supported", e);
+		}
+		Statement statement = connection.createStatement();
+		try {
+			setLocalInfileInputStream.invoke(statement.unwrap(statementType), stream);
+			int count = statement.executeUpdate(sql);
+			checkLoad(statement, count, text);
+			return count;
+		}
+		catch (InvocationTargetException e) {
+			throw new IllegalStateException("Could not set the stream to load into " + getTableName(),
+					e.getTargetException());
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not use the local infile API of the MySQL driver", e);
+		}
+		finally {
+			JdbcUtils.closeStatement(statement);
+		}
+	}
+
+	/**
+	 * Check that every row sent was inserted as it was, i.e. that the load
+	 * left no warnings and inserted one row per line of the text.
+	 *
+	 * @param statement the statement that ran the load
+	 * @param count the number of rows inserted
+	 * @param text the rows that were sent
+	 * @throws SQLException with the warnings as next exceptions if the check
+	 * fails
+	 */
+	protected void checkLoad(Statement statement, int count, String text) throws SQLException {
+		int rows = 0;
+		// line breaks in values are escaped, so each one ends a row
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				rows++;
+			}
+		}
+		SQLWarning warning = statement.getWarnings();
+		if (count == rows && warning == null) {
+			return;
+		}
+		SQLException e = new SQLException("Loaded " + count + " of " + rows + " rows into " + getTableName()
+				+ (warning == null ? "" : " with warnings, the first was: " + warning.getMessage()));
+		if (warning != null) {
+			e.setNextException(warning);
+		}
+		throw e;
+	}
+
+}
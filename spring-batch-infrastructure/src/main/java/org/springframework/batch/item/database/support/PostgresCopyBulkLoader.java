@@ -0,0 +1,133 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.batch.item.database.BulkLoader;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link BulkLoader} for PostgreSQL that streams the rows as CSV through
+ * <code>COPY ... FROM STDIN</code>. It uses the copy API of the PostgreSQL
+ * JDBC driver, found by reflection so that the driver is not needed at compile
+ * time. Connections that cannot be unwrapped to a driver connection go to the
+ * fallback loader.
+ *
+ * @since 3.0
+ */
+public class PostgresCopyBulkLoader extends AbstractTextBulkLoader {
+
+	private static final String CONNECTION_CLASS = "org.postgresql.PGConnection";
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final String sql;
+
+	private Class<?> connectionType;
+
+	private Method getCopyApi;
+
+	private Method copyIn;
+
+	/**
+	 * @param tableName the table to load
+	 * @param columnNames the columns to load, in the order of the values
+	 * @param fallback the loader to use when the rows cannot be copied
+	 */
+	public PostgresCopyBulkLoader(String tableName, List<String> columnNames, BulkLoader fallback) {
+		super(tableName, columnNames, fallback);
+		this.sql = "COPY " + tableName + " (" + getColumnList() + ") FROM STDIN WITH CSV";
+		ClassLoader classLoader = PostgresCopyBulkLoader.class.getClassLoader();
+		if (ClassUtils.isPresent(CONNECTION_CLASS, classLoader)) {
+			connectionType = ClassUtils.resolveClassName(CONNECTION_CLASS, classLoader);
+			getCopyApi = ClassUtils.getMethodIfAvailable(connectionType, "getCopyAPI");
+			if (getCopyApi != null) {
+				copyIn = ClassUtils.getMethodIfAvailable(getCopyApi.getReturnType(), "copyIn", String.class,
+						Reader.class);
+			}
+		}
+	}
+
+	@Override
+	protected boolean isSupported(Connection connection) throws SQLException {
+		return copyIn != null && connection.isWrapperFor(connectionType);
+	}
+
+	@Override
+	protected boolean isText(Object value) {
+		return value instanceof byte[] || super.isText(value);
+	}
+
+	/**
+	 * An unquoted empty field is a null in CSV.
+	 */
+	@Override
+	protected void appendNull(StringBuilder text) {
+	}
+
+	@Override
+	protected void appendValue(StringBuilder text, Object value) {
+		if (value instanceof byte[]) {
+			text.append("\\x");
+			for (byte b : (byte[]) value) {
+				text.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+			}
+			return;
+		}
+		String string = value.toString();
+		boolean quote = string.length() == 0;
+		for (int i = 0; i < string.length() && !quote; i++) {
+			char c = string.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (quote) {
+			text.append('"').append(string.replace("\"", "\"\"")).append('"');
+		}
+		else {
+			text.append(string);
+		}
+	}
+
+	@Override
+	protected int load(Connection connection, String text) throws SQLException {
+		try {
+			Object copyManager = getCopyApi.invoke(connection.unwrap(connectionType));
+			return ((Number) copyIn.invoke(copyManager, sql, new StringReader(text))).intValue();
+		}
+		catch (InvocationTargetException e) {
+			Throwable cause = e.getTargetException();
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw new SQLException("Could not copy rows into " + getTableName(), cause);
+			}
+			throw new IllegalStateException("Could not copy rows into " + getTableName(), cause);
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not use the copy API of the PostgreSQL driver", e);
+		}
+	}
+
+}
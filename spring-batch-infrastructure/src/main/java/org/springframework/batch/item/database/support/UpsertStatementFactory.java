@@ -0,0 +1,146 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.database.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Factory for the statement that inserts a row or updates it if a row with
+ * the same key exists, in the dialect of a {@link DatabaseType}:
+ *
+ * <ul>
+ * <li>PostgreSQL (9.5 and later): <code>INSERT ... ON CONFLICT ... DO UPDATE</code></li>
+ * <li>MySQL: <code>INSERT ... ON DUPLICATE KEY UPDATE</code></li>
+ * <li>H2: <code>MERGE INTO ... KEY</code></li>
+ * <li>Oracle, SQL Server, Sybase, HSQL and DB2: <code>MERGE INTO ... USING</code></li>
+ * </ul>
+ *
+ * Derby has no statement to merge parameter values. The statements use named
+ * parameters with the names of the columns.
+ *
+ * @since 3.0
+ */
+public class UpsertStatementFactory {
+
+	/**
+	 * Get the upsert statement for a table.
+	 *
+	 * @param databaseType the type of the database
+	 * @param tableName the table to write to
+	 * @param keyColumns the columns of a unique key of the table
+	 * @param valueColumns the other columns to write, updated if the row
+	 * exists
+	 * @return the SQL statement with a named parameter per column
+	 * @throws IllegalArgumentException if the database has no upsert statement
+	 */
+	public String getUpsertStatement(DatabaseType databaseType, String tableName, String[] keyColumns,
+			String[] valueColumns) {
+
+		Assert.hasText(tableName, "A table name is required");
+		Assert.notEmpty(keyColumns, "Key columns are required");
+		List<String> keys = Arrays.asList(keyColumns);
+		List<String> values = valueColumns == null ? new ArrayList<String>() : Arrays.asList(valueColumns);
+		List<String> columns = new ArrayList<String>(keys);
+		columns.addAll(values);
+
+		switch (databaseType) {
+		case POSTGRES:
+			return "INSERT INTO " + tableName + " (" + join(columns, "") + ") VALUES (" + join(columns, ":")
+					+ ") ON CONFLICT (" + join(keys, "") + ") DO "
+					+ (values.isEmpty() ? "NOTHING" : "UPDATE SET " + assign(values, "", "EXCLUDED."));
+		case MYSQL:
+			return "INSERT INTO " + tableName + " (" + join(columns, "") + ") VALUES (" + join(columns, ":")
+					+ ") ON DUPLICATE KEY UPDATE "
+					+ (values.isEmpty() ? assign(keys.subList(0, 1), "", "") : assignValues(values));
+		case H2:
+			return "MERGE INTO " + tableName + " (" + join(columns, "") + ") KEY (" + join(keys, "")
+					+ ") VALUES (" + join(columns, ":") + ")";
+		case ORACLE:
+			return merge(tableName, keys, values, "(SELECT " + selectParameters(columns) + " FROM DUAL) S", "");
+		case SQLSERVER:
+			return merge(tableName, keys, values, "(SELECT " + selectParameters(columns) + ") AS S", ";");
+		case SYBASE:
+			return merge(tableName, keys, values, "(SELECT " + selectParameters(columns) + ") AS S", "");
+		case HSQL:
+		case DB2:
+		case DB2ZOS:
+			return merge(tableName, keys, values,
+					"(VALUES (" + join(columns, ":") + ")) AS S (" + join(columns, "") + ")", "");
+		default:
+			throw new IllegalArgumentException("Upsert is not supported for database type " + databaseType);
+		}
+
+	}
+
+	private String merge(String tableName, List<String> keys, List<String> values, String source, String end) {
+		List<String> columns = new ArrayList<String>(keys);
+		columns.addAll(values);
+		StringBuilder sql = new StringBuilder("MERGE INTO ").append(tableName).append(" T USING ").append(source);
+		sql.append(" ON (");
+		for (int i = 0; i < keys.size(); i++) {
+			if (i > 0) {
+				sql.append(" AND ");
+			}
+			sql.append("T.").append(keys.get(i)).append(" = S.").append(keys.get(i));
+		}
+		sql.append(")");
+		if (!values.isEmpty()) {
+			sql.append(" WHEN MATCHED THEN UPDATE SET ").append(assign(values, "T.", "S."));
+		}
+		sql.append(" WHEN NOT MATCHED THEN INSERT (").append(join(columns, "")).append(") VALUES (")
+				.append(join(columns, "S.")).append(")").append(end);
+		return sql.toString();
+	}
+
+	private String join(List<String> columns, String prefix) {
+		List<String> result = new ArrayList<String>();
+		for (String column : columns) {
+			result.add(prefix + column);
+		}
+		return StringUtils.collectionToDelimitedString(result, ", ");
+	}
+
+	private String assign(List<String> columns, String target, String source) {
+		List<String> result = new ArrayList<String>();
+		for (String column : columns) {
+			result.add(target + column + " = " + source + column);
+		}
+		return StringUtils.collectionToDelimitedString(result, ", ");
+	}
+
+	private String assignValues(List<String> columns) {
+		List<String> result = new ArrayList<String>();
+		for (String column : columns) {
+			result.add(column + " = VALUES(" + column + ")");
+		}
+		return StringUtils.collectionToDelimitedString(result, ", ");
+	}
+
+	private String selectParameters(List<String> columns) {
+		List<String> result = new ArrayList<String>();
+		for (String column : columns) {
+			result.add(":" + column + " AS " + column);
+		}
+		return StringUtils.collectionToDelimitedString(result, ", ");
+	}
+
+}
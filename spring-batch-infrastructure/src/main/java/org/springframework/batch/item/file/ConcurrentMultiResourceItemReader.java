@@ -0,0 +1,547 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.ResourceAware;
+import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads items from multiple resources concurrently - resource list is given by {@link #setResources(Resource[])}, each
+ * resource is read by its own delegate obtained from {@link #setDelegateFactory(ObjectFactory)}. Up to
+ * {@link #setConcurrency(int) concurrency} resources are opened and read at the same time on the
+ * {@link #setTaskExecutor(TaskExecutor) task executor}, which hides the per-file open and close latency when there are
+ * many small files.
+ *
+ * In ordered mode (the default) the items are returned resource by resource, in the order given by
+ * {@link #setComparator(Comparator)}, just like {@link MultiResourceItemReader} would return them. In unordered mode the
+ * items are returned as soon as they are read, from whichever resource.
+ *
+ * The restart state is the number of items returned from each resource, so that a restarted delegate can skip them.
+ * Resources are identified by their index in the sorted resource list, so the comparator must give a stable ordering
+ * between job runs. Delegates extending {@link AbstractItemCountingItemStreamItemReader} skip the items through their
+ * own (possibly optimized) {@code jumpToItem}, other delegates are simply read.
+ *
+ * A {@link ParseException} from a delegate is rethrown by {@link #read()} and the delegate carries on with the next
+ * item, so that the item can be skipped. Any other failure is rethrown once and ends the resource for this run; it is
+ * read again from the same position on restart.
+ *
+ * The {@link #read()} method is *not* thread-safe: it is intended to be called by a single consumer. The task executor
+ * must run the delegates asynchronously: a {@link SyncTaskExecutor} would block {@link #open(ExecutionContext)} as
+ * soon as the read-ahead queue is full.
+ *
+ * @since 3.0
+ */
+public class ConcurrentMultiResourceItemReader<T> extends AbstractItemStreamItemReader<T> implements InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(ConcurrentMultiResourceItemReader.class);
+
+	private static final String POSITIONS_KEY = "resourcePositions";
+
+	private static final String READ_COUNT = "read.count";
+
+	// position of a resource which has been read to the end
+	private static final int COMPLETED = -1;
+
+	private static final long POLL_INTERVAL = 100;
+
+	private ObjectFactory<? extends ResourceAwareItemReaderItemStream<? extends T>> delegateFactory;
+
+	private Resource[] resources;
+
+	private TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor();
+
+	private int concurrency = 4;
+
+	private int queueCapacity = 100;
+
+	private boolean ordered = true;
+
+	private boolean saveState = true;
+
+	private boolean strict = false;
+
+	private Comparator<Resource> comparator = new Comparator<Resource>() {
+
+		/**
+		 * Compares resource filenames.
+		 */
+		@Override
+		public int compare(Resource r1, Resource r2) {
+			return r1.getFilename().compareTo(r2.getFilename());
+		}
+
+	};
+
+	// number of items returned from each resource, or COMPLETED
+	private int[] positions;
+
+	// resources with nothing more to read in this run
+	private boolean[] finished;
+
+	private int finishedResources;
+
+	// resource index returned by the last read
+	private int currentResource = -1;
+
+	private List<BlockingQueue<Entry<T>>> queues;
+
+	private volatile boolean running;
+
+	private CountDownLatch stopped;
+
+	public ConcurrentMultiResourceItemReader() {
+		this.setExecutionContextName(ClassUtils.getShortName(ConcurrentMultiResourceItemReader.class));
+	}
+
+	/**
+	 * @param delegateFactory creates a new reader for each resource (e.g. an
+	 * {@link org.springframework.beans.factory.config.ObjectFactoryCreatingFactoryBean} for a prototype bean).
+	 */
+	public void setDelegateFactory(ObjectFactory<? extends ResourceAwareItemReaderItemStream<? extends T>> delegateFactory) {
+		this.delegateFactory = delegateFactory;
+	}
+
+	/**
+	 * @param resources input resources
+	 */
+	public void setResources(Resource[] resources) {
+		Assert.notNull(resources, "The resources must not be null");
+		this.resources = Arrays.asList(resources).toArray(new Resource[resources.length]);
+	}
+
+	/**
+	 * @param taskExecutor the executor running the delegates, by default a {@link SimpleAsyncTaskExecutor}. It must not
+	 * be a {@link SyncTaskExecutor}.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * @param concurrency the maximum number of resources read at the same time (default 4)
+	 */
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * @param queueCapacity the maximum number of items read ahead per resource in ordered mode, or in total in
+	 * unordered mode (default 100)
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * @param ordered true (default) to return the items in resource order, false to return them as soon as they are
+	 * read
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 * @param comparator used to order the injected resources, by default compares {@link Resource#getFilename()}
+	 * values. A {@link org.springframework.batch.support.LastModifiedResourceComparator} can be used to read the
+	 * oldest files first.
+	 */
+	public void setComparator(Comparator<Resource> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Set the boolean indicating whether or not state should be saved in the provided {@link ExecutionContext} during
+	 * the {@link ItemStream} call to update.
+	 *
+	 * @param saveState
+	 */
+	public void setSaveState(boolean saveState) {
+		this.saveState = saveState;
+	}
+
+	/**
+	 * In strict mode the reader will throw an exception on
+	 * {@link #open(org.springframework.batch.item.ExecutionContext)} if there are no resources to read.
+	 * @param strict false by default
+	 */
+	public void setStrict(boolean strict) {
+		this.strict = strict;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(delegateFactory, "DelegateFactory must be set");
+		assertAsynchronous();
+	}
+
+	/**
+	 * Figure out which resources are left to read in case of restart and start reading them.
+	 */
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		super.open(executionContext);
+		Assert.notNull(resources, "Resources must be set");
+		Assert.notNull(delegateFactory, "DelegateFactory must be set");
+		assertAsynchronous();
+
+		if (resources.length == 0) {
+			if (strict) {
+				throw new IllegalStateException(
+						"No resources to read. Set strict=false if this is not an error condition.");
+			}
+			logger.warn("No resources to read. Set strict=true if this should be an error condition.");
+		}
+
+		Arrays.sort(resources, comparator);
+
+		positions = new int[resources.length];
+		finished = new boolean[resources.length];
+		if (executionContext.containsKey(getExecutionContextKey(POSITIONS_KEY))) {
+			@SuppressWarnings("unchecked")
+			Map<Integer, Integer> stored = (Map<Integer, Integer>) executionContext
+					.get(getExecutionContextKey(POSITIONS_KEY));
+			for (Map.Entry<Integer, Integer> entry : stored.entrySet()) {
+				positions[entry.getKey()] = entry.getValue();
+			}
+		}
+
+		List<Integer> pending = new ArrayList<Integer>();
+		finishedResources = 0;
+		for (int i = 0; i < resources.length; i++) {
+			if (positions[i] == COMPLETED) {
+				finished[i] = true;
+				finishedResources++;
+			}
+			else {
+				pending.add(i);
+			}
+		}
+		currentResource = -1;
+
+		queues = new ArrayList<BlockingQueue<Entry<T>>>();
+		if (ordered) {
+			for (int i = 0; i < resources.length; i++) {
+				queues.add(new LinkedBlockingQueue<Entry<T>>(queueCapacity));
+			}
+		}
+		else {
+			BlockingQueue<Entry<T>> queue = new LinkedBlockingQueue<Entry<T>>(queueCapacity);
+			for (int i = 0; i < resources.length; i++) {
+				queues.add(queue);
+			}
+		}
+
+		int workers = Math.min(concurrency, pending.size());
+		running = true;
+		stopped = new CountDownLatch(workers);
+		AtomicInteger next = new AtomicInteger();
+		int started = 0;
+		for (int i = 0; i < workers; i++) {
+			try {
+				taskExecutor.execute(new Worker(pending, next));
+				started++;
+			}
+			catch (TaskRejectedException e) {
+				// the workers share the pending resources, so the ones which
+				// were started read them all
+				stopped.countDown();
+			}
+		}
+		if (workers > 0 && started == 0) {
+			running = false;
+			throw new ItemStreamException("TaskExecutor rejected all the delegates");
+		}
+		if (started < workers) {
+			logger.warn("TaskExecutor rejected " + (workers - started) + " of " + workers + " delegates");
+		}
+	}
+
+	/**
+	 * Reads the next item from the resource currently read (ordered) or from any resource (unordered).
+	 */
+	@Override
+	public T read() throws Exception, UnexpectedInputException, ParseException {
+		Assert.state(positions != null, "Reader must be open before it can be read.");
+		int ordinal = 0;
+		while (finishedResources < resources.length) {
+			BlockingQueue<Entry<T>> queue;
+			if (ordered) {
+				while (finished[ordinal]) {
+					ordinal++;
+				}
+				queue = queues.get(ordinal);
+			}
+			else {
+				queue = queues.get(0);
+			}
+			Entry<T> entry = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			if (entry == null) {
+				// a delegate interrupted while handing over an entry drops it
+				if (stopped.getCount() == 0 && queue.isEmpty()) {
+					throw new IllegalStateException("The delegates stopped before all the resources were read");
+				}
+				continue;
+			}
+			currentResource = entry.resource;
+			if (entry.failure != null) {
+				if (entry.last) {
+					// the resource cannot be read any further in this run, but
+					// is read again from the same position on restart
+					finished[entry.resource] = true;
+					finishedResources++;
+				}
+				else {
+					positions[entry.resource]++;
+				}
+				throw entry.failure;
+			}
+			if (entry.last) {
+				positions[entry.resource] = COMPLETED;
+				finished[entry.resource] = true;
+				finishedResources++;
+				continue;
+			}
+			positions[entry.resource]++;
+			return entry.item;
+		}
+		currentResource = -1;
+		return null;
+	}
+
+	/**
+	 * Store the number of items returned from each resource.
+	 */
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (saveState && positions != null) {
+			HashMap<Integer, Integer> stored = new HashMap<Integer, Integer>();
+			for (int i = 0; i < positions.length; i++) {
+				if (positions[i] != 0) {
+					stored.put(i, positions[i]);
+				}
+			}
+			executionContext.put(getExecutionContextKey(POSITIONS_KEY), stored);
+		}
+	}
+
+	/**
+	 * Stop reading, close the delegates and reset instance variable values.
+	 */
+	@Override
+	public void close() throws ItemStreamException {
+		super.close();
+		running = false;
+		if (stopped != null) {
+			try {
+				stopped.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ItemStreamException("Interrupted while waiting for the delegates to close", e);
+			}
+		}
+		positions = null;
+		finished = null;
+		queues = null;
+		stopped = null;
+	}
+
+	/**
+	 * @return the resource of the item returned by the last read, or null if
+	 * nothing has been read yet or all resources are exhausted
+	 */
+	public Resource getCurrentResource() {
+		if (currentResource < 0) {
+			return null;
+		}
+		return resources[currentResource];
+	}
+
+	private void assertAsynchronous() {
+		Assert.state(!(taskExecutor instanceof SyncTaskExecutor),
+				"The TaskExecutor must be asynchronous: the delegates would block as soon as the queue is full");
+	}
+
+	/**
+	 * Reads the resources taken from the shared list of pending resources one
+	 * after the other.
+	 */
+	private class Worker implements Runnable {
+
+		private final List<Integer> pending;
+
+		private final AtomicInteger next;
+
+		public Worker(List<Integer> pending, AtomicInteger next) {
+			this.pending = pending;
+			this.next = next;
+		}
+
+		@Override
+		public void run() {
+			try {
+				int index;
+				while (running && (index = next.getAndIncrement()) < pending.size()) {
+					readResource(pending.get(index));
+				}
+			}
+			finally {
+				stopped.countDown();
+			}
+		}
+
+		private void readResource(int resource) {
+			BlockingQueue<Entry<T>> queue = queues.get(resource);
+			ResourceAwareItemReaderItemStream<? extends T> delegate = null;
+			try {
+				delegate = delegateFactory.getObject();
+				delegate.setResource(resources[resource]);
+				openAt(delegate, positions[resource]);
+			}
+			catch (Throwable e) {
+				put(queue, new Entry<T>(resource, null, e, true));
+				close(delegate);
+				return;
+			}
+			try {
+				while (running) {
+					T item;
+					try {
+						item = delegate.read();
+					}
+					catch (Exception e) {
+						if (e instanceof ParseException) {
+							// the delegate has moved past the input it could
+							// not parse, so it can carry on if the consumer
+							// skips the item
+							put(queue, new Entry<T>(resource, null, e, false));
+							continue;
+						}
+						put(queue, new Entry<T>(resource, null, e, true));
+						return;
+					}
+					if (item == null) {
+						put(queue, new Entry<T>(resource, null, null, true));
+						return;
+					}
+					if (item instanceof ResourceAware) {
+						((ResourceAware) item).setResource(resources[resource]);
+					}
+					put(queue, new Entry<T>(resource, item, null, false));
+				}
+			}
+			catch (Throwable e) {
+				put(queue, new Entry<T>(resource, null, e, true));
+			}
+			finally {
+				close(delegate);
+			}
+		}
+
+		private void openAt(ResourceAwareItemReaderItemStream<? extends T> delegate, int position) throws Exception {
+			if (position > 0 && delegate instanceof AbstractItemCountingItemStreamItemReader
+					&& ((AbstractItemCountingItemStreamItemReader<?>) delegate).isSaveState()) {
+				ExecutionContext context = new ExecutionContext();
+				context.putInt(((AbstractItemCountingItemStreamItemReader<?>) delegate).getExecutionContextKey(READ_COUNT),
+						position);
+				delegate.open(context);
+				return;
+			}
+			delegate.open(new ExecutionContext());
+			for (int i = 0; i < position; i++) {
+				delegate.read();
+			}
+		}
+
+		private void put(BlockingQueue<Entry<T>> queue, Entry<T> entry) {
+			try {
+				while (running && !queue.offer(entry, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+					// wait for the consumer or for close
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				running = false;
+			}
+		}
+
+		private void close(ItemStream delegate) {
+			if (delegate == null) {
+				return;
+			}
+			try {
+				delegate.close();
+			}
+			catch (Exception e) {
+				logger.warn("Could not close delegate reader", e);
+			}
+		}
+
+	}
+
+	private static class Entry<T> {
+
+		private final int resource;
+
+		private final T item;
+
+		private final Exception failure;
+
+		// true if nothing more will be read from the resource
+		private final boolean last;
+
+		public Entry(int resource, T item, Throwable failure, boolean last) {
+			this.resource = resource;
+			this.item = item;
+			this.failure = failure == null ? null : failure instanceof Exception ? (Exception) failure
+					: new ItemStreamException("Failed to read resource", failure);
+			this.last = last;
+		}
+
+	}
+
+}
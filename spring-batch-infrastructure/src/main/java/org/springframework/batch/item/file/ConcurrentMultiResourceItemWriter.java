@@ -0,0 +1,574 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemStreamItemWriter;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.classify.Classifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Writes items into several output resources at the same time. The items are
+ * routed to one of {@link #setPartCount(int) partCount} open parts, by the key
+ * returned from {@link #setKeyClassifier(Classifier)} or round-robin, and each
+ * part is written by its own delegate obtained from
+ * {@link #setDelegateFactory(ObjectFactory)}. Like in
+ * {@link MultiResourceItemWriter} a part rolls over to a new resource when its
+ * item count exceeds {@link #setItemCountLimitPerResource(int)}, and resource
+ * names are created by appending the suffix from
+ * {@link #setResourceSuffixCreator(ResourceSuffixCreator)} to
+ * {@link #setResource(Resource)}, with the index shared by all parts.
+ *
+ * The parts of a chunk are written in parallel on the
+ * {@link #setTaskExecutor(TaskExecutor) task executor}, and rolled over parts
+ * are closed (footer, flush, sync) asynchronously - they are only waited for
+ * in {@link #update(ExecutionContext)}, so that the saved state never refers
+ * to an unfinished resource.
+ *
+ * The delegates are always called from the task executor threads, where no
+ * transaction is active, so a transactional delegate writes straight to its
+ * resource. The chunk transaction semantics are kept by this writer instead:
+ * when a transaction is rolled back all parts are restored to the state saved
+ * by the last committed {@link #update(ExecutionContext)}, by reopening the
+ * delegates with that state as on a restart (which truncates the data written
+ * since). The delegates must therefore be restartable.
+ *
+ * @param <T> item type
+ *
+ * @since 3.0
+ */
+public class ConcurrentMultiResourceItemWriter<T> extends AbstractItemStreamItemWriter<T> {
+
+	final static private String RESOURCE_INDEX_KEY = "resource.index";
+
+	final static private String PART_RESOURCE_INDEX = "resource.index";
+
+	final static private String PART_ITEM_COUNT = "resource.item.count";
+
+	final static private String PART_DELEGATE_PREFIX = "delegate.";
+
+	private Resource resource;
+
+	private ObjectFactory<? extends ResourceAwareItemWriterItemStream<? super T>> delegateFactory;
+
+	private int itemCountLimitPerResource = Integer.MAX_VALUE;
+
+	private int partCount = 4;
+
+	private Classifier<? super T, ?> keyClassifier;
+
+	private TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor();
+
+	private ResourceSuffixCreator suffixCreator = new SimpleResourceSuffixCreator();
+
+	private boolean saveState = true;
+
+	private final Object synchronizationKey = new Object();
+
+	private List<Part> parts;
+
+	private int resourceIndex = 1;
+
+	private int nextPart = 0;
+
+	private List<Future<Object>> finalizations = new ArrayList<Future<Object>>();
+
+	// state to restore on rollback
+	private State committed;
+
+	// state saved in the current transaction
+	private State saved;
+
+	public ConcurrentMultiResourceItemWriter() {
+		this.setExecutionContextName(ClassUtils.getShortName(ConcurrentMultiResourceItemWriter.class));
+	}
+
+	/**
+	 * Allows customization of the suffix of the created resources based on the
+	 * index.
+	 */
+	public void setResourceSuffixCreator(ResourceSuffixCreator suffixCreator) {
+		this.suffixCreator = suffixCreator;
+	}
+
+	/**
+	 * After this limit is exceeded the next items routed to the same part will
+	 * be written into a newly created resource.
+	 */
+	public void setItemCountLimitPerResource(int itemCountLimitPerResource) {
+		this.itemCountLimitPerResource = itemCountLimitPerResource;
+	}
+
+	/**
+	 * Creates a new delegate for each output resource, e.g. an
+	 * {@link org.springframework.beans.factory.config.ObjectFactoryCreatingFactoryBean}
+	 * for a prototype bean.
+	 */
+	public void setDelegateFactory(ObjectFactory<? extends ResourceAwareItemWriterItemStream<? super T>> delegateFactory) {
+		this.delegateFactory = delegateFactory;
+	}
+
+	/**
+	 * The number of parts kept open at the same time (default 4).
+	 */
+	public void setPartCount(int partCount) {
+		this.partCount = partCount;
+	}
+
+	/**
+	 * Items with equal keys are written into the same part. By default the
+	 * items are distributed round-robin.
+	 */
+	public void setKeyClassifier(Classifier<? super T, ?> keyClassifier) {
+		this.keyClassifier = keyClassifier;
+	}
+
+	/**
+	 * The executor writing the parts, by default a
+	 * {@link SimpleAsyncTaskExecutor}. It should not run the tasks in the
+	 * calling thread, otherwise the delegates would see the chunk transaction.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Prototype for output resources. Actual output files will be created in
+	 * the same directory and use the same name as this prototype with appended
+	 * suffix (according to
+	 * {@link #setResourceSuffixCreator(ResourceSuffixCreator)}.
+	 */
+	public void setResource(Resource resource) {
+		this.resource = resource;
+	}
+
+	public void setSaveState(boolean saveState) {
+		this.saveState = saveState;
+	}
+
+	@Override
+	public void write(List<? extends T> items) throws Exception {
+		registerSynchronization();
+
+		for (T item : items) {
+			parts.get(route(item)).items.add(item);
+		}
+
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (final Part part : parts) {
+			if (part.items.isEmpty()) {
+				continue;
+			}
+			final boolean create = part.delegate == null;
+			if (create) {
+				part.delegate = delegateFactory.getObject();
+				part.resourceIndex = resourceIndex++;
+			}
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					if (create) {
+						File file = setResourceToDelegate(part);
+						// create only if write is called
+						file.createNewFile();
+						Assert.state(file.canWrite(), "Output resource " + file.getAbsolutePath() + " must be writable");
+						part.delegate.open(new ExecutionContext());
+					}
+					part.delegate.write(part.items);
+					return null;
+				}
+			});
+		}
+
+		try {
+			invokeAll(tasks);
+			for (Part part : parts) {
+				part.itemCount += part.items.size();
+			}
+		}
+		finally {
+			for (Part part : parts) {
+				part.items.clear();
+			}
+		}
+
+		for (Part part : parts) {
+			if (part.itemCount >= itemCountLimitPerResource) {
+				finalizations.add(submit(new CloseTask(part.delegate)));
+				part.delegate = null;
+				part.resourceIndex = 0;
+				part.itemCount = 0;
+			}
+		}
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		super.open(executionContext);
+		Assert.notNull(resource, "Resource must be set");
+		Assert.notNull(delegateFactory, "DelegateFactory must be set");
+
+		State state = new State(partCount);
+		state.resourceIndex = executionContext.getInt(getExecutionContextKey(RESOURCE_INDEX_KEY), 1);
+		for (int i = 0; i < partCount; i++) {
+			state.resourceIndexes[i] = executionContext.getInt(getPartKey(i, PART_RESOURCE_INDEX), 0);
+			state.itemCounts[i] = executionContext.getInt(getPartKey(i, PART_ITEM_COUNT), 0);
+			if (state.resourceIndexes[i] > 0) {
+				// It's a restart
+				state.contexts[i] = extract(executionContext, getPartKey(i, PART_DELEGATE_PREFIX));
+			}
+		}
+
+		parts = new ArrayList<Part>();
+		for (int i = 0; i < partCount; i++) {
+			parts.add(new Part());
+		}
+		restore(state);
+		committed = state;
+		saved = null;
+		nextPart = 0;
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		awaitFinalizations();
+
+		final State state = new State(partCount);
+		state.resourceIndex = resourceIndex;
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (int i = 0; i < partCount; i++) {
+			final Part part = parts.get(i);
+			state.resourceIndexes[i] = part.resourceIndex;
+			state.itemCounts[i] = part.itemCount;
+			if (part.delegate != null) {
+				final ExecutionContext context = new ExecutionContext();
+				state.contexts[i] = context;
+				tasks.add(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						part.delegate.update(context);
+						return null;
+					}
+				});
+			}
+		}
+		invokeAllUnchecked(tasks, "Could not update the output parts");
+
+		if (saveState) {
+			executionContext.putInt(getExecutionContextKey(RESOURCE_INDEX_KEY), state.resourceIndex);
+			for (int i = 0; i < partCount; i++) {
+				executionContext.putInt(getPartKey(i, PART_RESOURCE_INDEX), state.resourceIndexes[i]);
+				executionContext.putInt(getPartKey(i, PART_ITEM_COUNT), state.itemCounts[i]);
+				String prefix = getPartKey(i, PART_DELEGATE_PREFIX);
+				for (Map.Entry<String, Object> entry : extract(executionContext, prefix).entrySet()) {
+					executionContext.remove(prefix + entry.getKey());
+				}
+				if (state.contexts[i] != null) {
+					for (Map.Entry<String, Object> entry : state.contexts[i].entrySet()) {
+						executionContext.put(prefix + entry.getKey(), entry.getValue());
+					}
+				}
+			}
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			registerSynchronization();
+			saved = state;
+		}
+		else {
+			committed = state;
+		}
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		super.close();
+		if (parts == null) {
+			return;
+		}
+		try {
+			awaitFinalizations();
+			List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+			for (Part part : parts) {
+				if (part.delegate != null) {
+					tasks.add(new CloseTask(part.delegate));
+				}
+			}
+			invokeAllUnchecked(tasks, "Could not close the output parts");
+		}
+		finally {
+			parts = null;
+			committed = null;
+			saved = null;
+			resourceIndex = 1;
+		}
+	}
+
+	/**
+	 * Close all open parts and reopen the ones present in the given state with
+	 * the delegate state saved there.
+	 */
+	private void restore(State state) {
+		awaitFinalizations();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (Part part : parts) {
+			if (part.delegate != null) {
+				tasks.add(new CloseTask(part.delegate));
+			}
+		}
+		invokeAllUnchecked(tasks, "Could not close the output parts");
+
+		// resources created since the state was saved are abandoned
+		for (int index = state.resourceIndex; index < resourceIndex; index++) {
+			try {
+				getFile(index).delete();
+			}
+			catch (IOException e) {
+				throw new ItemStreamException("Couldn't delete abandoned resource", e);
+			}
+		}
+
+		tasks.clear();
+		resourceIndex = state.resourceIndex;
+		for (int i = 0; i < partCount; i++) {
+			final Part part = parts.get(i);
+			part.items.clear();
+			part.resourceIndex = state.resourceIndexes[i];
+			part.itemCount = state.itemCounts[i];
+			part.delegate = null;
+			if (part.resourceIndex > 0) {
+				part.delegate = delegateFactory.getObject();
+				final ExecutionContext context = state.contexts[i];
+				tasks.add(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						setResourceToDelegate(part);
+						part.delegate.open(context);
+						return null;
+					}
+				});
+			}
+		}
+		invokeAllUnchecked(tasks, "Could not open the output parts");
+	}
+
+	/**
+	 * Register a callback which keeps the saved state on commit or restores
+	 * the last committed state on rollback, once per transaction.
+	 */
+	private void registerSynchronization() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()
+				|| TransactionSynchronizationManager.hasResource(synchronizationKey)) {
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(synchronizationKey, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				if (TransactionSynchronizationManager.hasResource(synchronizationKey)) {
+					TransactionSynchronizationManager.unbindResource(synchronizationKey);
+				}
+				if (parts == null) {
+					return;
+				}
+				if (status == TransactionSynchronization.STATUS_COMMITTED) {
+					if (saved != null) {
+						committed = saved;
+					}
+				}
+				else {
+					restore(committed);
+				}
+				saved = null;
+			}
+		});
+	}
+
+	private int route(T item) {
+		if (keyClassifier == null) {
+			int part = nextPart;
+			nextPart = (nextPart + 1) % partCount;
+			return part;
+		}
+		Object key = keyClassifier.classify(item);
+		return key == null ? 0 : (key.hashCode() & Integer.MAX_VALUE) % partCount;
+	}
+
+	private void awaitFinalizations() {
+		try {
+			await(finalizations);
+		}
+		catch (Exception e) {
+			throw new ItemStreamException("Could not close the output parts", e);
+		}
+		finally {
+			finalizations.clear();
+		}
+	}
+
+	private Future<Object> submit(Callable<Object> task) {
+		FutureTask<Object> future = new FutureTask<Object>(task);
+		taskExecutor.execute(future);
+		return future;
+	}
+
+	/**
+	 * Run the tasks on the task executor and wait for all of them. The first
+	 * failure is rethrown.
+	 */
+	private void invokeAll(List<Callable<Object>> tasks) throws Exception {
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+		for (Callable<Object> task : tasks) {
+			futures.add(submit(task));
+		}
+		await(futures);
+	}
+
+	private void invokeAllUnchecked(List<Callable<Object>> tasks, String message) {
+		try {
+			invokeAll(tasks);
+		}
+		catch (ItemStreamException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new ItemStreamException(message, e);
+		}
+	}
+
+	private void await(List<Future<Object>> futures) throws Exception {
+		Throwable failure = null;
+		for (Future<Object> future : futures) {
+			try {
+				future.get();
+			}
+			catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw (Exception) failure;
+		}
+	}
+
+	private ExecutionContext extract(ExecutionContext executionContext, String prefix) {
+		ExecutionContext result = new ExecutionContext();
+		for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+			if (entry.getKey().startsWith(prefix)) {
+				result.put(entry.getKey().substring(prefix.length()), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	private String getPartKey(int part, String key) {
+		return getExecutionContextKey("part." + part + "." + key);
+	}
+
+	/**
+	 * Point the delegate of the part to its output resource.
+	 */
+	private File setResourceToDelegate(Part part) throws IOException {
+		File file = getFile(part.resourceIndex);
+		part.delegate.setResource(new FileSystemResource(file));
+		return file;
+	}
+
+	private File getFile(int index) throws IOException {
+		return new File(resource.getFile().getAbsolutePath() + suffixCreator.getSuffix(index));
+	}
+
+	/**
+	 * An output slot with its current delegate.
+	 */
+	private class Part {
+
+		private ResourceAwareItemWriterItemStream<? super T> delegate;
+
+		// 0 if no resource is open
+		private int resourceIndex;
+
+		private int itemCount;
+
+		private final List<T> items = new ArrayList<T>();
+
+	}
+
+	private static class CloseTask implements Callable<Object> {
+
+		private final ResourceAwareItemWriterItemStream<?> delegate;
+
+		public CloseTask(ResourceAwareItemWriterItemStream<?> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Object call() throws Exception {
+			delegate.close();
+			return null;
+		}
+
+	}
+
+	/**
+	 * The restartable state of all parts.
+	 */
+	private static class State {
+
+		private int resourceIndex;
+
+		private final int[] resourceIndexes;
+
+		private final int[] itemCounts;
+
+		private final ExecutionContext[] contexts;
+
+		public State(int partCount) {
+			resourceIndexes = new int[partCount];
+			itemCounts = new int[partCount];
+			contexts = new ExecutionContext[partCount];
+		}
+
+	}
+
+}
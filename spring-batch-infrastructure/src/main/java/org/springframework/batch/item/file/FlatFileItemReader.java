@@ -17,17 +17,24 @@
 package org.springframework.batch.item.file;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ReaderNotOpenException;
+import org.springframework.batch.item.file.codec.CompressedBlockInputStream;
+import org.springframework.batch.item.file.codec.CompressionCodec;
 import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
 import org.springframework.batch.item.file.separator.SimpleRecordSeparatorPolicy;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -49,6 +56,14 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 	// default encoding for input files
 	public static final String DEFAULT_CHARSET = Charset.defaultCharset().name();
 
+	private static final String BLOCK_OFFSET = "block.offset";
+
+	private static final String BLOCK_LINE = "block.line";
+
+	private static final String LINE_COUNT = "line.count";
+
+	private static final String BLOCK_ITEM_COUNT = "block.item.count";
+
 	private RecordSeparatorPolicy recordSeparatorPolicy = new SimpleRecordSeparatorPolicy();
 
 	private Resource resource;
@@ -73,6 +88,21 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 
 	private BufferedReaderFactory bufferedReaderFactory = new DefaultBufferedReaderFactory();
 
+	private CompressionCodec compressionCodec;
+
+	private boolean seekOnRestart = false;
+
+	private CompressedBlockInputStream compressedStream;
+
+	// the compressed block to resume from, 0 if reading from the start
+	private long blockOffset = 0;
+
+	private long blockLine;
+
+	private int checkpointLineCount;
+
+	private int checkpointItemCount;
+
 	public FlatFileItemReader() {
 		setName(ClassUtils.getShortName(FlatFileItemReader.class));
 	}
@@ -131,6 +161,30 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 		this.bufferedReaderFactory = bufferedReaderFactory;
 	}
 
+	/**
+	 * Codec used to decompress the input, e.g. a
+	 * {@link org.springframework.batch.item.file.codec.GzipCompressionCodec}. The input is decompressed while it is
+	 * read, without any temporary files. Defaults to null, meaning no compression.
+	 * 
+	 * @param compressionCodec the codec to use
+	 */
+	public void setCompressionCodec(CompressionCodec compressionCodec) {
+		this.compressionCodec = compressionCodec;
+	}
+
+	/**
+	 * Flag to indicate that on restart a compressed input should be decompressed from the last block starting at a
+	 * line boundary before the restart position, instead of from the beginning of the file. Only useful if the input
+	 * consists of several blocks, e.g. if it was written by a {@link FlatFileItemWriter} with the same codec. Requires
+	 * line feed terminated lines in an ASCII compatible encoding and a {@link BufferedReaderFactory} splitting lines
+	 * at line feeds. Defaults to false.
+	 * 
+	 * @param seekOnRestart the flag value to set
+	 */
+	public void setSeekOnRestart(boolean seekOnRestart) {
+		this.seekOnRestart = seekOnRestart;
+	}
+
 	/**
 	 * Setter for comment prefixes. Can be used to ignore header lines as well by using e.g. the first couple of column
 	 * names as a prefix.
@@ -235,11 +289,47 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 	@Override
 	protected void doClose() throws Exception {
 		lineCount = 0;
+		blockOffset = 0;
+		compressedStream = null;
 		if (reader != null) {
 			reader.close();
 		}
 	}
 
+	/**
+	 * Load the compressed block to resume from before opening the input.
+	 */
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		blockOffset = 0;
+		if (compressionCodec != null && seekOnRestart && isSaveState()
+				&& executionContext.containsKey(getExecutionContextKey(BLOCK_OFFSET))) {
+			blockOffset = executionContext.getLong(getExecutionContextKey(BLOCK_OFFSET));
+			blockLine = executionContext.getLong(getExecutionContextKey(BLOCK_LINE));
+			checkpointLineCount = executionContext.getInt(getExecutionContextKey(LINE_COUNT));
+			checkpointItemCount = executionContext.getInt(getExecutionContextKey(BLOCK_ITEM_COUNT));
+		}
+		super.open(executionContext);
+	}
+
+	/**
+	 * Store the last compressed block starting at a line boundary, together with the line and item counts at this
+	 * point.
+	 */
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (compressedStream != null && seekOnRestart && isSaveState()) {
+			long[] checkpoint = compressedStream.getCheckpoint(lineCount);
+			if (checkpoint != null) {
+				executionContext.putLong(getExecutionContextKey(BLOCK_OFFSET), checkpoint[0]);
+				executionContext.putLong(getExecutionContextKey(BLOCK_LINE), checkpoint[1]);
+				executionContext.putInt(getExecutionContextKey(LINE_COUNT), lineCount);
+				executionContext.putInt(getExecutionContextKey(BLOCK_ITEM_COUNT), getCurrentItemCount());
+			}
+		}
+	}
+
 	@Override
 	protected void doOpen() throws Exception {
 		Assert.notNull(resource, "Input resource must be set");
@@ -263,7 +353,25 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 			return;
 		}
 
-		reader = bufferedReaderFactory.create(resource, encoding);
+		if (blockOffset > 0) {
+			if (skippedLinesCallback != null) {
+				// the skipped lines are not read again when resuming from a block
+				BufferedReader headerReader = createReader(0, 0);
+				try {
+					for (int i = 0; i < linesToSkip; i++) {
+						skippedLinesCallback.handleLine(headerReader.readLine());
+					}
+				}
+				finally {
+					headerReader.close();
+				}
+			}
+			reader = createReader(blockOffset, blockLine);
+			noInput = false;
+			return;
+		}
+
+		reader = createReader(0, 0);
 		for (int i = 0; i < linesToSkip; i++) {
 			String line = readLine();
 			if (skippedLinesCallback != null) {
@@ -273,6 +381,27 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 		noInput = false;
 	}
 
+	private BufferedReader createReader(long offset, long line) throws IOException {
+		if (compressionCodec == null) {
+			return bufferedReaderFactory.create(resource, encoding);
+		}
+		InputStream in = resource.getInputStream();
+		for (long remaining = offset; remaining > 0;) {
+			long skipped = in.skip(remaining);
+			if (skipped <= 0) {
+				if (in.read() == -1) {
+					in.close();
+					throw new EOFException("Input resource is shorter than the stored block offset: " + resource);
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+		compressedStream = new CompressedBlockInputStream(in, compressionCodec, offset, line);
+		return bufferedReaderFactory.create(new InputStreamResource(compressedStream, resource.getDescription()),
+				encoding);
+	}
+
     @Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(lineMapper, "LineMapper is required");
@@ -280,7 +409,16 @@ public class FlatFileItemReader<T> extends AbstractItemCountingItemStreamItemRea
 
 	@Override
 	protected void jumpToItem(int itemIndex) throws Exception {
-		for (int i = 0; i < itemIndex; i++) {
+		int start = 0;
+		if (blockOffset > 0) {
+			// move from the start of the block to the stored line
+			for (long i = blockLine; i < checkpointLineCount; i++) {
+				reader.readLine();
+			}
+			lineCount = checkpointLineCount;
+			start = checkpointItemCount;
+		}
+		for (int i = start; i < itemIndex; i++) {
 			readLine();
 		}
 	}
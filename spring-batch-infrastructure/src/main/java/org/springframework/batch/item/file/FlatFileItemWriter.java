@@ -33,6 +33,8 @@ import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.WriteFailedException;
 import org.springframework.batch.item.WriterNotOpenException;
+import org.springframework.batch.item.file.codec.BlockCompressingWriter;
+import org.springframework.batch.item.file.codec.CompressionCodec;
 import org.springframework.batch.item.file.transform.LineAggregator;
 import org.springframework.batch.item.support.AbstractItemStreamItemWriter;
 import org.springframework.batch.item.util.FileUtils;
@@ -96,6 +98,8 @@ InitializingBean {
 
 	private boolean append = false;
 
+	private CompressionCodec compressionCodec;
+
 	public FlatFileItemWriter() {
 		this.setExecutionContextName(ClassUtils.getShortName(FlatFileItemWriter.class));
 	}
@@ -235,6 +239,20 @@ InitializingBean {
 		this.transactional = transactional;
 	}
 
+	/**
+	 * Codec used to compress the output, e.g. a
+	 * {@link org.springframework.batch.item.file.codec.GzipCompressionCodec}.
+	 * The data of each write, and the header and the footer, are each
+	 * written as a separate compressed block, so the saved position is always
+	 * a block boundary where the file can be truncated on restart. Defaults to
+	 * null, meaning no compression.
+	 * 
+	 * @param compressionCodec the codec to use
+	 */
+	public void setCompressionCodec(CompressionCodec compressionCodec) {
+		this.compressionCodec = compressionCodec;
+	}
+
 	/**
 	 * Writes out a string followed by a "new line", where the format of the new
 	 * line separator is determined by the underlying operating system. If the
@@ -405,6 +423,9 @@ InitializingBean {
 		// The bufferedWriter over the file channel that is actually written
 		Writer outputBufferedWriter;
 
+		// The writer delaying the output until commit, if transactional
+		TransactionAwareBufferedWriter transactionAwareWriter;
+
 		FileChannel fileChannel;
 
 		// this represents the charset encoding (if any is needed) for the
@@ -439,7 +460,7 @@ InitializingBean {
 			outputBufferedWriter.flush();
 			pos = fileChannel.position();
 			if (transactional) {
-				pos += ((TransactionAwareBufferedWriter) outputBufferedWriter).getBufferSize();
+				pos += transactionAwareWriter.getBufferSize();
 			}
 
 			return pos;
@@ -561,7 +582,14 @@ InitializingBean {
 			os = new FileOutputStream(file.getAbsolutePath(), true);
 			fileChannel = os.getChannel();
 
-			outputBufferedWriter = getBufferedWriter(fileChannel, encoding);
+			if (compressionCodec == null) {
+				outputBufferedWriter = getBufferedWriter(fileChannel, encoding);
+			}
+			else {
+				// one block per flush, carried byte for byte by the writer below
+				outputBufferedWriter = new BlockCompressingWriter(getBufferedWriter(fileChannel,
+						BlockCompressingWriter.BLOCK_ENCODING), encoding, compressionCodec);
+			}
 			outputBufferedWriter.flush();
 
 			if (append) {
@@ -604,6 +632,7 @@ InitializingBean {
 
 					writer.setEncoding(encoding);
 					writer.setForceSync(forceSync);
+					transactionAwareWriter = writer;
 					return writer;
 				}
 				else {
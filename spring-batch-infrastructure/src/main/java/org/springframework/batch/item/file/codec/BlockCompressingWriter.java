@@ -0,0 +1,85 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file.codec;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer buffering text until it is flushed, and then writing it to the
+ * target writer as one compressed block. The target carries the compressed
+ * bytes as characters, so it has to encode them with {@link #BLOCK_ENCODING},
+ * which maps every byte to the character of the same value and back. Each
+ * flush of the target therefore ends at a block boundary, which is a safe
+ * truncation point, and the target does not need to know about compression.
+ *
+ * @since 3.0
+ */
+public class BlockCompressingWriter extends Writer {
+
+	/**
+	 * The encoding the target writer has to use for the compressed bytes.
+	 */
+	public static final String BLOCK_ENCODING = "ISO-8859-1";
+
+	private final Writer target;
+
+	private final String encoding;
+
+	private final CompressionCodec codec;
+
+	private final StringBuilder buffer = new StringBuilder();
+
+	/**
+	 * @param target the writer for the compressed blocks, encoding with
+	 * {@link #BLOCK_ENCODING}
+	 * @param encoding the encoding of the text before compression
+	 * @param codec the codec compressing each block
+	 */
+	public BlockCompressingWriter(Writer target, String encoding, CompressionCodec codec) {
+		this.target = target;
+		this.encoding = encoding;
+		this.codec = codec;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		buffer.append(cbuf, off, len);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		buffer.append(str, off, off + len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (buffer.length() > 0) {
+			byte[] block = CompressionUtils.compress(codec, buffer.toString().getBytes(encoding));
+			buffer.setLength(0);
+			target.write(new String(block, BLOCK_ENCODING));
+		}
+		target.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		target.close();
+	}
+
+}
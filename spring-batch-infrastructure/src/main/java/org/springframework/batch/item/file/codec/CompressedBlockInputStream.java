@@ -0,0 +1,198 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file.codec;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+
+/**
+ * Decompresses a concatenation of blocks written by a {@link CompressionCodec}
+ * and keeps track of the blocks which start at the beginning of a line. A
+ * reader can ask for the last such block before a line it has reached with
+ * {@link #getCheckpoint(long)}, and later resume from there by creating a new
+ * stream over the input skipped to the block offset.
+ *
+ * Lines are counted as line feed bytes, so the checkpoints are only meaningful
+ * for line feed terminated text in an ASCII compatible encoding.
+ *
+ * @since 3.0
+ */
+public class CompressedBlockInputStream extends InputStream {
+
+	// upper limit for the blocks decoded ahead of the reader
+	private static final int MAX_CHECKPOINTS = 1024;
+
+	private final CountingInputStream in;
+
+	private final CompressionCodec codec;
+
+	private final LinkedList<long[]> checkpoints = new LinkedList<long[]>();
+
+	private final byte[] single = new byte[1];
+
+	private InputStream block;
+
+	private long lines;
+
+	private boolean lineStart = true;
+
+	/**
+	 * @param in the compressed input, positioned at the start of a block
+	 * @param codec the codec which wrote the blocks
+	 * @param offset the offset of the input in the compressed data
+	 * @param line the number of lines before the input
+	 */
+	public CompressedBlockInputStream(InputStream in, CompressionCodec codec, long offset, long line) {
+		this.in = new CountingInputStream(new BufferedInputStream(in), offset);
+		this.codec = codec;
+		this.lines = line;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		while (true) {
+			if (block == null && !nextBlock()) {
+				return -1;
+			}
+			int count = block.read(b, off, len);
+			if (count == -1) {
+				block.close();
+				block = null;
+				continue;
+			}
+			for (int i = off; i < off + count; i++) {
+				if (b[i] == '\n') {
+					lines++;
+				}
+			}
+			lineStart = b[off + count - 1] == '\n';
+			return count;
+		}
+	}
+
+	/**
+	 * Find the last block starting at a line boundary before the given line.
+	 * Older blocks are forgotten, so the line numbers should not decrease
+	 * between calls.
+	 *
+	 * @param line the number of lines consumed by the reader
+	 * @return the compressed offset and the line number of the block, or null
+	 * if there is none
+	 */
+	public long[] getCheckpoint(long line) {
+		while (checkpoints.size() > 1 && checkpoints.get(1)[1] <= line) {
+			checkpoints.removeFirst();
+		}
+		if (checkpoints.isEmpty() || checkpoints.getFirst()[1] > line) {
+			return null;
+		}
+		return checkpoints.getFirst().clone();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (block != null) {
+				block.close();
+			}
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private boolean nextBlock() throws IOException {
+		in.mark(1);
+		if (in.read() == -1) {
+			return false;
+		}
+		in.reset();
+		if (lineStart) {
+			checkpoints.add(new long[] { in.count, lines });
+			if (checkpoints.size() > MAX_CHECKPOINTS) {
+				checkpoints.removeFirst();
+			}
+		}
+		block = codec.createInputStream(in);
+		return true;
+	}
+
+	/**
+	 * Counts the bytes consumed from the compressed input.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		private long mark;
+
+		public CountingInputStream(InputStream in, long count) {
+			super(in);
+			this.count = count;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int result = super.read(b, off, len);
+			if (result > 0) {
+				count += result;
+			}
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long result = super.skip(n);
+			count += result;
+			return result;
+		}
+
+		@Override
+		public synchronized void mark(int readlimit) {
+			super.mark(readlimit);
+			mark = count;
+		}
+
+		@Override
+		public synchronized void reset() throws IOException {
+			super.reset();
+			count = mark;
+		}
+
+	}
+
+}
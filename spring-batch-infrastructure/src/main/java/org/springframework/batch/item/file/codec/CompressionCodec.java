@@ -0,0 +1,56 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Strategy for compressing flat file data. Compressed files are a
+ * concatenation of independently decodable blocks (e.g. gzip members), so that
+ * a writer can end a block at each commit and safely truncate the file at a
+ * block boundary on restart, and a reader can start decoding at a block
+ * boundary instead of at the beginning of the file.
+ *
+ * @since 3.0
+ */
+public interface CompressionCodec {
+
+	/**
+	 * Create a stream compressing a single block into the output. The block
+	 * is complete when the returned stream is closed, which must not close
+	 * the output.
+	 *
+	 * @param out the output for the compressed data
+	 * @return a stream accepting the uncompressed data
+	 * @throws IOException if the block cannot be started
+	 */
+	OutputStream createOutputStream(OutputStream out) throws IOException;
+
+	/**
+	 * Create a stream decompressing a single block from the input. The
+	 * returned stream ends with the block and leaves the input positioned at
+	 * the first byte after it.
+	 *
+	 * @param in the compressed input, supporting {@link InputStream#mark(int)}
+	 * @return a stream returning the uncompressed data of the block
+	 * @throws IOException if the block cannot be decoded
+	 */
+	InputStream createInputStream(InputStream in) throws IOException;
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Utility methods for writing compressed blocks.
+ *
+ * @since 3.0
+ */
+public final class CompressionUtils {
+
+	// forbids instantiation
+	private CompressionUtils() {
+	}
+
+	/**
+	 * Compress the data into a single block.
+	 *
+	 * @param codec the codec to use
+	 * @param data the uncompressed data
+	 * @return the compressed block, empty if there is no data
+	 * @throws IOException if the codec fails
+	 */
+	public static byte[] compress(CompressionCodec codec, byte[] data) throws IOException {
+		if (data.length == 0) {
+			return data;
+		}
+		ByteArrayOutputStream result = new ByteArrayOutputStream(data.length / 4 + 64);
+		OutputStream out = codec.createOutputStream(result);
+		try {
+			out.write(data);
+		}
+		finally {
+			out.close();
+		}
+		return result.toByteArray();
+	}
+
+}
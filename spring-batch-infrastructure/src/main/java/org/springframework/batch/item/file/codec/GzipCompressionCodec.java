@@ -0,0 +1,140 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * {@link CompressionCodec} for the gzip format, where each block is a gzip
+ * member. The files can be read by any gzip tool, which concatenates the
+ * members.
+ *
+ * @since 3.0
+ */
+public class GzipCompressionCodec implements CompressionCodec {
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+
+	private static final int FHCRC = 2;
+
+	private static final int FEXTRA = 4;
+
+	private static final int FNAME = 8;
+
+	private static final int FCOMMENT = 16;
+
+	private int level = Deflater.DEFAULT_COMPRESSION;
+
+	/**
+	 * @param level the compression level, from 1 (fastest) to 9 (smallest),
+	 * by default {@link Deflater#DEFAULT_COMPRESSION}
+	 */
+	public void setLevel(int level) {
+		this.level = level;
+	}
+
+	@Override
+	public OutputStream createOutputStream(OutputStream out) throws IOException {
+		final int level = this.level;
+		return new GZIPOutputStream(new NonClosingOutputStream(out)) {
+			{
+				def.setLevel(level);
+			}
+		};
+	}
+
+	@Override
+	public InputStream createInputStream(InputStream in) throws IOException {
+		readHeader(in);
+		return new GzipMemberInputStream(in);
+	}
+
+	private void readHeader(InputStream in) throws IOException {
+		if (readUnsignedShort(in) != GZIP_MAGIC) {
+			throw new ZipException("Not in GZIP format");
+		}
+		if (InflaterBlockInputStream.readUnsignedByte(in) != Deflater.DEFLATED) {
+			throw new ZipException("Unsupported compression method");
+		}
+		int flags = InflaterBlockInputStream.readUnsignedByte(in);
+		// modification time, extra flags and operating system
+		InflaterBlockInputStream.skipFully(in, 6);
+		if ((flags & FEXTRA) == FEXTRA) {
+			InflaterBlockInputStream.skipFully(in, readUnsignedShort(in));
+		}
+		if ((flags & FNAME) == FNAME) {
+			while (InflaterBlockInputStream.readUnsignedByte(in) != 0) {
+			}
+		}
+		if ((flags & FCOMMENT) == FCOMMENT) {
+			while (InflaterBlockInputStream.readUnsignedByte(in) != 0) {
+			}
+		}
+		if ((flags & FHCRC) == FHCRC) {
+			InflaterBlockInputStream.skipFully(in, 2);
+		}
+	}
+
+	private static int readUnsignedShort(InputStream in) throws IOException {
+		int b = InflaterBlockInputStream.readUnsignedByte(in);
+		return (InflaterBlockInputStream.readUnsignedByte(in) << 8) | b;
+	}
+
+	private static long readUnsignedInt(InputStream in) throws IOException {
+		long s = readUnsignedShort(in);
+		return ((long) readUnsignedShort(in) << 16) | s;
+	}
+
+	/**
+	 * Inflates the member data and checks the trailer.
+	 */
+	private static class GzipMemberInputStream extends InflaterBlockInputStream {
+
+		private final CRC32 crc = new CRC32();
+
+		private long size = 0;
+
+		public GzipMemberInputStream(InputStream in) {
+			super(in, new Inflater(true));
+		}
+
+		@Override
+		protected void inflated(byte[] b, int off, int len) {
+			crc.update(b, off, len);
+			size += len;
+		}
+
+		@Override
+		protected void blockFinished() throws IOException {
+			if (readUnsignedInt(in) != crc.getValue()) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+			if (readUnsignedInt(in) != (size & 0xffffffffL)) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.file.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a single deflate stream without reading past its end. The
+ * compressed input is read with {@link InputStream#mark(int)} set, so that the
+ * bytes the {@link Inflater} did not consume can be given back when the block
+ * ends.
+ *
+ * @since 3.0
+ */
+class InflaterBlockInputStream extends InputStream {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	protected final InputStream in;
+
+	private final Inflater inflater;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private final byte[] single = new byte[1];
+
+	private int filled;
+
+	private boolean finished = false;
+
+	public InflaterBlockInputStream(InputStream in, Inflater inflater) {
+		if (!in.markSupported()) {
+			throw new IllegalArgumentException("The compressed input must support mark and reset");
+		}
+		this.in = in;
+		this.inflater = inflater;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (finished) {
+			return -1;
+		}
+		if (len == 0) {
+			return 0;
+		}
+		try {
+			while (true) {
+				int count = inflater.inflate(b, off, len);
+				if (count > 0) {
+					inflated(b, off, count);
+					return count;
+				}
+				if (inflater.finished()) {
+					finish();
+					return -1;
+				}
+				if (inflater.needsDictionary()) {
+					throw new ZipException("Compressed block requires a preset dictionary");
+				}
+				if (inflater.needsInput()) {
+					fill();
+				}
+			}
+		}
+		catch (DataFormatException e) {
+			throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid compressed block");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!finished) {
+			finished = true;
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Callback for the uncompressed data, e.g. to compute a checksum.
+	 */
+	protected void inflated(byte[] b, int off, int len) {
+	}
+
+	/**
+	 * Callback at the end of the deflate stream, with the input positioned
+	 * right after it, e.g. to read a trailer.
+	 */
+	protected void blockFinished() throws IOException {
+	}
+
+	private void fill() throws IOException {
+		in.mark(BUFFER_SIZE);
+		filled = in.read(buffer, 0, BUFFER_SIZE);
+		if (filled == -1) {
+			throw new EOFException("Unexpected end of compressed block");
+		}
+		inflater.setInput(buffer, 0, filled);
+	}
+
+	private void finish() throws IOException {
+		int remaining = inflater.getRemaining();
+		if (remaining > 0) {
+			// give back what belongs to the next block
+			in.reset();
+			skipFully(in, filled - remaining);
+		}
+		finished = true;
+		inflater.end();
+		blockFinished();
+	}
+
+	static void skipFully(InputStream in, long count) throws IOException {
+		while (count > 0) {
+			long skipped = in.skip(count);
+			if (skipped <= 0) {
+				if (in.read() == -1) {
+					throw new EOFException("Unexpected end of compressed input");
+				}
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+
+	static int readUnsignedByte(InputStream in) throws IOException {
+		int b = in.read();
+		if (b == -1) {
+			throw new EOFException("Unexpected end of compressed block");
+		}
+		return b;
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.PrefetchingItemProcessor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>
+ * {@link PrefetchingItemProcessor} that enriches items with reference data
+ * looked up by key. Before a chunk is processed the keys of all its items are
+ * collected and the ones that are not cached are loaded with a single call of
+ * the {@link LookupLoader}, split into calls of at most
+ * {@link #setMaxKeysPerLoad(int) maxKeysPerLoad} keys. An item whose value is
+ * not cached when it is processed, e.g. because the step does not prefetch, is
+ * looked up on its own.
+ * </p>
+ *
+ * <p>
+ * The values are kept in a cache of at most {@link #setCacheSize(int)
+ * cacheSize} keys that evicts the least recently used ones, and optionally
+ * expire after a {@link #setTimeToLive(long) timeToLive}. Keys without a
+ * value are cached as well. The cache is cleared when the step closes the
+ * processor, unless {@link #setClearOnClose(boolean) clearOnClose} is false,
+ * in which case it lives as long as the processor, e.g. for all the steps of
+ * a job that share it. The cache should hold at least the distinct keys of a
+ * chunk: otherwise the keys loaded first are evicted by the ones loaded after
+ * them and have to be looked up again one by one when their items are
+ * processed.
+ * </p>
+ *
+ * <p>
+ * Subclasses provide the key of an item and combine the item with its value.
+ * The hit, miss and load counts are available from the getters and are
+ * stored in the {@link ExecutionContext} of the step. They start again from
+ * zero when the processor is opened, or from the stored values on a restart.
+ * The implementation is
+ * thread-safe.
+ * </p>
+ *
+ * @param <I> the type of the input items
+ * @param <K> the type of the lookup keys
+ * @param <V> the type of the looked up values
+ * @param <O> the type of the output items
+ *
+ * @since 3.0
+ */
+public abstract class CachingLookupItemProcessor<I, K, V, O> extends ItemStreamSupport implements
+		PrefetchingItemProcessor<I, O>, InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(CachingLookupItemProcessor.class);
+
+	private static final String HIT_COUNT = "hit.count";
+
+	private static final String MISS_COUNT = "miss.count";
+
+	private static final String LOAD_COUNT = "load.count";
+
+	private static final Object NO_VALUE = new Object();
+
+	private LookupLoader<K, V> lookupLoader;
+
+	private int cacheSize = 10000;
+
+	private long timeToLive = 0;
+
+	private int maxKeysPerLoad = 1000;
+
+	private boolean clearOnClose = true;
+
+	private final Map<K, CacheEntry> cache = new LinkedHashMap<K, CacheEntry>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, CacheEntry> eldest) {
+			return size() > cacheSize;
+		}
+	};
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong loadCount = new AtomicLong();
+
+	public CachingLookupItemProcessor() {
+		setName(ClassUtils.getShortName(CachingLookupItemProcessor.class));
+	}
+
+	/**
+	 * @param lookupLoader the {@link LookupLoader} to get the values from
+	 */
+	public void setLookupLoader(LookupLoader<K, V> lookupLoader) {
+		this.lookupLoader = lookupLoader;
+	}
+
+	/**
+	 * The maximum number of keys to cache (default 10000). It should be at
+	 * least the number of distinct keys in a chunk, or the prefetched values
+	 * are evicted before they are used.
+	 *
+	 * @param cacheSize the number of keys
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * The time in milliseconds after which a cached value is loaded again.
+	 * Defaults to 0, i.e. values do not expire.
+	 *
+	 * @param timeToLive the time to live in milliseconds
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * The maximum number of keys passed to one call of the
+	 * {@link LookupLoader} (default 1000), e.g. to stay within the limits of
+	 * an <code>IN</code> list.
+	 *
+	 * @param maxKeysPerLoad the number of keys
+	 */
+	public void setMaxKeysPerLoad(int maxKeysPerLoad) {
+		this.maxKeysPerLoad = maxKeysPerLoad;
+	}
+
+	/**
+	 * Flag to clear the cache when the step ends (default true).
+	 *
+	 * @param clearOnClose false to keep the cache for the lifetime of this
+	 * processor
+	 */
+	public void setClearOnClose(boolean clearOnClose) {
+		this.clearOnClose = clearOnClose;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.notNull(lookupLoader, "A LookupLoader is required");
+		Assert.isTrue(cacheSize > 0, "The cache size must be greater than zero");
+		Assert.isTrue(maxKeysPerLoad > 0, "The maximum number of keys per load must be greater than zero");
+	}
+
+	/**
+	 * @return the number of items processed with a cached value
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of items that had to be looked up on their own
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the number of calls of the {@link LookupLoader}
+	 */
+	public long getLoadCount() {
+		return loadCount.get();
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		hitCount.set(executionContext.getLong(getExecutionContextKey(HIT_COUNT), 0));
+		missCount.set(executionContext.getLong(getExecutionContextKey(MISS_COUNT), 0));
+		loadCount.set(executionContext.getLong(getExecutionContextKey(LOAD_COUNT), 0));
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		executionContext.putLong(getExecutionContextKey(HIT_COUNT), hitCount.get());
+		executionContext.putLong(getExecutionContextKey(MISS_COUNT), missCount.get());
+		executionContext.putLong(getExecutionContextKey(LOAD_COUNT), loadCount.get());
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		if (clearOnClose) {
+			synchronized (cache) {
+				cache.clear();
+			}
+		}
+	}
+
+	/**
+	 * Load the values of all the keys of the items that are not cached.
+	 */
+	@Override
+	public void prefetch(List<? extends I> items) throws Exception {
+		Set<K> chunkKeys = new LinkedHashSet<K>();
+		for (I item : items) {
+			K key = getKey(item);
+			if (key != null) {
+				chunkKeys.add(key);
+			}
+		}
+		if (chunkKeys.size() > cacheSize && logger.isWarnEnabled()) {
+			logger.warn("The chunk has " + chunkKeys.size() + " distinct keys but the cache size is " + cacheSize
+					+ ": prefetched values will be evicted and looked up again one by one");
+		}
+		Set<K> keys = new LinkedHashSet<K>();
+		long now = System.currentTimeMillis();
+		synchronized (cache) {
+			for (K key : chunkKeys) {
+				if (getEntry(key, now) == null) {
+					keys.add(key);
+				}
+			}
+		}
+		List<K> batch = new ArrayList<K>();
+		for (K key : keys) {
+			batch.add(key);
+			if (batch.size() == maxKeysPerLoad) {
+				load(batch);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			load(batch);
+		}
+	}
+
+	/**
+	 * Look up the value for the key of the item and
+	 * {@link #process(Object, Object) combine} them.
+	 */
+	@Override
+	public O process(I item) throws Exception {
+		K key = getKey(item);
+		if (key == null) {
+			return process(item, null);
+		}
+		CacheEntry entry;
+		synchronized (cache) {
+			entry = getEntry(key, System.currentTimeMillis());
+		}
+		if (entry != null) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+			entry = load(Collections.singletonList(key)).get(key);
+		}
+		return process(item, entry.getValue());
+	}
+
+	/**
+	 * Get the key to look up the value for an item.
+	 *
+	 * @param item the item to process
+	 * @return the key, or null if there is nothing to look up
+	 */
+	protected abstract K getKey(I item);
+
+	/**
+	 * Combine an item with the value of its key.
+	 *
+	 * @param item the item to process
+	 * @param value the value, or null if there is none for the key
+	 * @return the output item, or null to filter the item
+	 * @throws Exception if the item cannot be processed
+	 */
+	protected abstract O process(I item, V value) throws Exception;
+
+	private CacheEntry getEntry(K key, long now) {
+		CacheEntry entry = cache.get(key);
+		if (entry != null && timeToLive > 0 && now - entry.loaded > timeToLive) {
+			cache.remove(key);
+			return null;
+		}
+		return entry;
+	}
+
+	private Map<K, CacheEntry> load(Collection<K> keys) throws Exception {
+		loadCount.incrementAndGet();
+		Map<K, V> values = lookupLoader.load(keys);
+		long now = System.currentTimeMillis();
+		Map<K, CacheEntry> result = new LinkedHashMap<K, CacheEntry>();
+		for (K key : keys) {
+			result.put(key, new CacheEntry(values.containsKey(key) ? values.get(key) : NO_VALUE, now));
+		}
+		synchronized (cache) {
+			cache.putAll(result);
+		}
+		return result;
+	}
+
+	private class CacheEntry {
+
+		private final Object value;
+
+		private final long loaded;
+
+		public CacheEntry(Object value, long loaded) {
+			this.value = value;
+			this.loaded = loaded;
+		}
+
+		@SuppressWarnings("unchecked")
+		public V getValue() {
+			return value == NO_VALUE ? null : (V) value;
+		}
+
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.item.support;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Strategy for loading reference data by key for a
+ * {@link CachingLookupItemProcessor}, e.g. with a query like
+ * <code>SELECT ... WHERE CODE IN (...)</code>.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ *
+ * @since 3.0
+ */
+public interface LookupLoader<K, V> {
+
+	/**
+	 * Load the values for some keys.
+	 *
+	 * @param keys the keys to look up, without duplicates
+	 * @return the values found, by key. Keys without a value can be left out.
+	 * @throws Exception if the values cannot be loaded
+	 */
+	Map<K, V> load(Collection<K> keys) throws Exception;
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.batch.item.xml;
 
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -31,10 +32,14 @@ import javax.xml.stream.events.XMLEvent;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.item.xml.stax.ByteOffsetTrackingReader;
 import org.springframework.batch.item.xml.stax.DefaultFragmentEventReader;
+import org.springframework.batch.item.xml.stax.ElementStackEventReader;
 import org.springframework.batch.item.xml.stax.FragmentEventReader;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.io.Resource;
@@ -52,6 +57,11 @@ import org.springframework.util.StringUtils;
  * 
  * The implementation is *not* thread-safe.
  * 
+ * If {@link #setSeekOnRestart(boolean) seekOnRestart} is switched on, the byte offset of the last fragment read is
+ * stored in the {@link ExecutionContext} together with the start tags of its enclosing elements. On restart the
+ * reader seeks directly to that offset and re-opens the enclosing elements in a synthetic prefix, instead of parsing
+ * the document from the beginning to skip the fragments already processed.
+ * 
  * @author Robert Kasanicky
  */
 public class StaxEventItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements
@@ -59,6 +69,14 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 
 	private static final Log logger = LogFactory.getLog(StaxEventItemReader.class);
 
+	private static final String FRAGMENT_OFFSET = "fragment.offset";
+
+	private static final String FRAGMENT_INDEX = "fragment.index";
+
+	private static final String FRAGMENT_ANCESTORS = "fragment.ancestors";
+
+	public static final String DEFAULT_ENCODING = "UTF-8";
+
 	private FragmentEventReader fragmentReader;
 
 	private XMLEventReader eventReader;
@@ -75,6 +93,24 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 
 	private boolean strict = true;
 
+	private boolean seekOnRestart = false;
+
+	private String encoding = DEFAULT_ENCODING;
+
+	private ByteOffsetTrackingReader trackingReader;
+
+	private ElementStackEventReader elementStackReader;
+
+	// position of the last fragment read, or of the fragment to seek to on
+	// restart
+	private long fragmentOffset = -1;
+
+	private int fragmentIndex = 0;
+
+	private List<StartElement> fragmentAncestors;
+
+	private String restartAncestors;
+
 	public StaxEventItemReader() {
 		setName(ClassUtils.getShortName(StaxEventItemReader.class));
 	}
@@ -88,6 +124,29 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 		this.strict = strict;
 	}
 
+	/**
+	 * Remember the byte offset of the last fragment read, so that a restart can seek directly to it rather than
+	 * parsing the document from the beginning. The input is then decoded by the reader itself (see
+	 * {@link #setEncoding(String)}), and the document must not rely on entities declared in a DTD. Byte offsets are
+	 * derived from the character offsets reported by the StAX implementation, which must point to the start of each
+	 * element (as Woodstox does). If they do not, restart falls back to parsing the document from the beginning.
+	 * 
+	 * @param seekOnRestart false by default
+	 */
+	public void setSeekOnRestart(boolean seekOnRestart) {
+		this.seekOnRestart = seekOnRestart;
+	}
+
+	/**
+	 * The encoding of the input when {@link #setSeekOnRestart(boolean) seekOnRestart} is switched on. Otherwise the
+	 * encoding is detected by the StAX parser.
+	 * 
+	 * @param encoding defaults to {@value #DEFAULT_ENCODING}
+	 */
+	public void setEncoding(String encoding) {
+		this.encoding = encoding;
+	}
+
 	@Override
 	public void setResource(Resource resource) {
 		this.resource = resource;
@@ -181,6 +240,12 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 		finally {
 			fragmentReader = null;
 			inputStream = null;
+			trackingReader = null;
+			elementStackReader = null;
+			fragmentOffset = -1;
+			fragmentIndex = 0;
+			fragmentAncestors = null;
+			restartAncestors = null;
 		}
 
 	}
@@ -206,12 +271,53 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 		}
 
 		inputStream = resource.getInputStream();
-		eventReader = XMLInputFactory.newInstance().createXMLEventReader(inputStream);
+		if (seekOnRestart) {
+			long initialOffset = 0;
+			String prefix = "";
+			if (fragmentOffset >= 0) {
+				skipFully(inputStream, fragmentOffset);
+				initialOffset = fragmentOffset;
+				prefix = restartAncestors;
+			}
+			trackingReader = new ByteOffsetTrackingReader(inputStream, Charset.forName(encoding), initialOffset, prefix);
+			elementStackReader = new ElementStackEventReader(XMLInputFactory.newInstance().createXMLEventReader(
+					trackingReader));
+			eventReader = elementStackReader;
+		}
+		else {
+			eventReader = XMLInputFactory.newInstance().createXMLEventReader(inputStream);
+		}
 		fragmentReader = new DefaultFragmentEventReader(eventReader);
 		noInput = false;
 
 	}
 
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		fragmentOffset = -1;
+		fragmentIndex = 0;
+		if (seekOnRestart && isSaveState() && executionContext.containsKey(getExecutionContextKey(FRAGMENT_OFFSET))) {
+			fragmentOffset = executionContext.getLong(getExecutionContextKey(FRAGMENT_OFFSET));
+			fragmentIndex = executionContext.getInt(getExecutionContextKey(FRAGMENT_INDEX));
+			restartAncestors = executionContext.getString(getExecutionContextKey(FRAGMENT_ANCESTORS));
+		}
+		super.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (seekOnRestart && isSaveState() && fragmentOffset >= 0) {
+			if (fragmentAncestors != null) {
+				restartAncestors = ElementStackEventReader.toStartTags(fragmentAncestors);
+				fragmentAncestors = null;
+			}
+			executionContext.putLong(getExecutionContextKey(FRAGMENT_OFFSET), fragmentOffset);
+			executionContext.putInt(getExecutionContextKey(FRAGMENT_INDEX), fragmentIndex);
+			executionContext.putString(getExecutionContextKey(FRAGMENT_ANCESTORS), restartAncestors);
+		}
+	}
+
 	/**
 	 * Move to next fragment and map it to item.
 	 */
@@ -234,6 +340,9 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 			throw e;
 		}
 		if (success) {
+			if (trackingReader != null) {
+				markFragmentPosition((StartElement) fragmentReader.peek());
+			}
 			fragmentReader.markStartFragment();
 
 			try {
@@ -255,12 +364,14 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 	 */
 	@Override
 	protected void jumpToItem(int itemIndex) throws Exception {
-		for (int i = 0; i < itemIndex; i++) {
+		// when the input was opened at a stored offset, the fragments before it are not in the stream
+		int fragmentsToSkip = fragmentOffset >= 0 ? itemIndex - fragmentIndex + 1 : itemIndex;
+		for (int i = 0; i < fragmentsToSkip; i++) {
 			try {
 				QName fragmentName = readToStartFragment();
 				readToEndFragment(fragmentName);
 			} catch (NoSuchElementException e) {
-				if (itemIndex == (i + 1)) {
+				if (fragmentsToSkip == (i + 1)) {
 					// we can presume a NoSuchElementException on the last item means the EOF was reached on the last run
 					return;
 				} else {
@@ -301,6 +412,42 @@ ResourceAwareItemReaderItemStream<T>, InitializingBean {
 		}
 	}
 	
+	/*
+	 * Remember the byte offset of the fragment about to be read. The offset is only trusted if the character offset
+	 * reported by the parser really points to the start tag of the fragment.
+	 */
+	private void markFragmentPosition(StartElement fragmentStart) {
+		if (fragmentStart.getLocation() == null) {
+			return;
+		}
+		long characterOffset = fragmentStart.getLocation().getCharacterOffset();
+		if (characterOffset < 0
+				|| !trackingReader.matches(characterOffset, "<" + ElementStackEventReader.toQualifiedName(fragmentStart.getName()))) {
+			return;
+		}
+		long byteOffset = trackingReader.getByteOffset(characterOffset);
+		if (byteOffset >= 0) {
+			fragmentOffset = byteOffset;
+			fragmentIndex = getCurrentItemCount();
+			fragmentAncestors = elementStackReader.getOpenElements();
+		}
+	}
+
+	private void skipFully(InputStream inputStream, long count) throws Exception {
+		long remaining = count;
+		while (remaining > 0) {
+			long skipped = inputStream.skip(remaining);
+			if (skipped <= 0) {
+				if (inputStream.read() < 0) {
+					throw new IllegalStateException("Input resource is shorter than the stored fragment offset "
+							+ count + ": " + resource.getDescription());
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+
 	private boolean isFragmentRootElementName(QName name) {
 		for (QName fragmentRootElementName : fragmentRootElementNames) {
 			if (fragmentRootElementName.getLocalPart().equals(name.getLocalPart())) {
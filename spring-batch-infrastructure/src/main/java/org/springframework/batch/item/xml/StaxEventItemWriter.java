@@ -32,7 +32,9 @@ import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
+import javax.xml.transform.stax.StAXResult;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -44,6 +46,7 @@ import org.springframework.batch.item.file.ResourceAwareItemWriterItemStream;
 import org.springframework.batch.item.support.AbstractItemStreamItemWriter;
 import org.springframework.batch.item.util.FileUtils;
 import org.springframework.batch.item.xml.stax.NoStartEndDocumentStreamWriter;
+import org.springframework.batch.item.xml.stax.NoStartEndDocumentXmlStreamWriter;
 import org.springframework.batch.support.transaction.TransactionAwareBufferedWriter;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.io.Resource;
@@ -62,6 +65,12 @@ import org.springframework.util.StringUtils;
  * This item writer also provides restart, statistics and transaction features
  * by implementing corresponding interfaces.
  * 
+ * Items are written through the StAX event API by default. Alternatively they
+ * can be written through the cursor API ({@link XMLStreamWriter}), either by
+ * the {@link Marshaller} (see {@link #setUseXmlStreamWriter(boolean)}) or by a
+ * {@link StaxItemSerializer} which bypasses OXM altogether. Header and footer
+ * callbacks always use the event API.
+ * 
  * The implementation is *not* thread-safe.
  * 
  * @author Peter Zozom
@@ -95,6 +104,11 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 	// xml marshaller
 	private Marshaller marshaller;
 
+	// alternative to the marshaller
+	private StaxItemSerializer<? super T> itemSerializer;
+
+	private boolean useXmlStreamWriter = false;
+
 	// encoding to be used while reading from the resource
 	private String encoding = DEFAULT_ENCODING;
 
@@ -127,6 +141,10 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 	// XML event writer
 	private XMLEventWriter delegateEventWriter;
 
+	// wrapper for XML stream writer that swallows start and end document
+	// calls, only used for items written through the cursor API
+	private XMLStreamWriter streamWriter;
+
 	// current count of processed records
 	private long currentRecordCount = 0;
 
@@ -167,6 +185,31 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 		this.marshaller = marshaller;
 	}
 
+	/**
+	 * Set a serializer which writes the items directly to an
+	 * {@link XMLStreamWriter}, as a cheaper alternative to a
+	 * {@link #setMarshaller(Marshaller) marshaller}. If set, the marshaller is
+	 * not used.
+	 * 
+	 * @param itemSerializer the serializer for the items
+	 */
+	public void setItemSerializer(StaxItemSerializer<? super T> itemSerializer) {
+		this.itemSerializer = itemSerializer;
+	}
+
+	/**
+	 * Flag to indicate that the {@link Marshaller} should write the items
+	 * through the cursor API ({@link XMLStreamWriter}) instead of the event API.
+	 * This avoids creating an event object for every node written. Defaults to
+	 * false. Always true if an {@link #setItemSerializer(StaxItemSerializer)
+	 * item serializer} is used.
+	 * 
+	 * @param useXmlStreamWriter the flag value to set
+	 */
+	public void setUseXmlStreamWriter(boolean useXmlStreamWriter) {
+		this.useXmlStreamWriter = useXmlStreamWriter;
+	}
+
 	/**
 	 * headerCallback is called before writing any items.
 	 */
@@ -337,7 +380,7 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 	 */
 	@Override
 	public void afterPropertiesSet() throws Exception {
-		Assert.notNull(marshaller);
+		Assert.state(marshaller != null || itemSerializer != null, "A Marshaller or an ItemSerializer is required");
 		if (rootTagName.contains("{")) {
 			rootTagNamespace = rootTagName.replaceAll("\\{(.*)\\}.*", "$1");
 			rootTagName = rootTagName.replaceAll("\\{.*\\}(.*)", "$1");
@@ -390,6 +433,18 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 			}
 		}
 
+		if (streamWriter != null) {
+			try {
+				// the items are written by another writer from now on, so
+				// any pending events must be written out
+				delegateEventWriter.add(createXmlEventFactory().createCharacters(""));
+				delegateEventWriter.flush();
+			}
+			catch (XMLStreamException e) {
+				throw new ItemStreamException("Failed to flush header", e);
+			}
+		}
+
 	}
 
 	/**
@@ -451,6 +506,13 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 			delegateEventWriter = createXmlEventWriter(outputFactory, bufferedWriter);
 			eventWriter = new NoStartEndDocumentStreamWriter(delegateEventWriter);
 			initNamespaceContext(delegateEventWriter);
+			if (isStreamWriting()) {
+				streamWriter = new NoStartEndDocumentXmlStreamWriter(createXmlStreamWriter(outputFactory, bufferedWriter));
+				initNamespaceContext(streamWriter);
+			}
+			else {
+				streamWriter = null;
+			}
 			if (!restarted) {
 				startDocument(delegateEventWriter);
 				if (forceSync) {
@@ -482,6 +544,19 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 		return outputFactory.createXMLEventWriter(writer);
 	}
 
+	/**
+	 * Subclasses can override to customize the writer used for items written
+	 * through the cursor API.
+	 * @param outputFactory
+	 * @param writer
+	 * @return an xml writer
+	 * @throws XMLStreamException
+	 */
+	protected XMLStreamWriter createXmlStreamWriter(XMLOutputFactory outputFactory, Writer writer)
+			throws XMLStreamException {
+		return outputFactory.createXMLStreamWriter(writer);
+	}
+
 	/**
 	 * Subclasses can override to customize the factory.
 	 * @return a factory for the xml output
@@ -507,6 +582,9 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 	 * @throws Exception
 	 */
 	protected Result createStaxResult() throws Exception {
+		if (streamWriter != null) {
+			return new StAXResult(streamWriter);
+		}
 		return StaxUtils.getResult(eventWriter);
 	}
 
@@ -543,6 +621,35 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 		}
 	}
 
+	/**
+	 * Inits the namespace context of the XMLStreamWriter used for the items, in
+	 * the same way as {@link #initNamespaceContext(XMLEventWriter)}.
+	 * 
+	 * @param writer XML stream writer
+	 * @throws XMLStreamException
+	 */
+	protected void initNamespaceContext(XMLStreamWriter writer) throws XMLStreamException {
+		if (StringUtils.hasText(getRootTagNamespace())) {
+			if(StringUtils.hasText(getRootTagNamespacePrefix())) {
+				writer.setPrefix(getRootTagNamespacePrefix(), getRootTagNamespace());
+			} else {
+				writer.setDefaultNamespace(getRootTagNamespace());
+			}
+		}
+		if (!CollectionUtils.isEmpty(getRootElementAttributes())) {
+			for (Map.Entry<String, String> entry : getRootElementAttributes().entrySet()) {
+				String key = entry.getKey();
+				if (key.startsWith("xmlns")) {
+					String prefix = "";
+					if (key.contains(":")) {
+						prefix = key.substring(key.indexOf(":") + 1);
+					}
+					writer.setPrefix(prefix, entry.getValue());
+				}
+			}
+		}
+	}
+
 	/**
 	 * Writes simple XML header containing:
 	 * <ul>
@@ -632,6 +739,9 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 
 		XMLEventFactory factory = createXmlEventFactory();
 		try {
+			if (streamWriter != null) {
+				streamWriter.flush();
+			}
 			delegateEventWriter.add(factory.createCharacters(""));
 		}
 		catch (XMLStreamException e) {
@@ -704,14 +814,21 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 
 		currentRecordCount += items.size();
 
-		for (Object object : items) {
-			Assert.state(marshaller.supports(object.getClass()),
-					"Marshaller must support the class of the marshalled object");
-			Result result = createStaxResult();
-			marshaller.marshal(object, result);
+		if (itemSerializer != null) {
+			for (T item : items) {
+				itemSerializer.serialize(item, streamWriter);
+			}
+		}
+		else {
+			for (Object object : items) {
+				Assert.state(marshaller.supports(object.getClass()),
+						"Marshaller must support the class of the marshalled object");
+				Result result = createStaxResult();
+				marshaller.marshal(object, result);
+			}
 		}
 		try {
-			eventWriter.flush();
+			flushItemWriter();
 			if (forceSync) {
 				channel.force(false);
 			}			
@@ -751,7 +868,7 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 		long position;
 
 		try {
-			eventWriter.flush();
+			flushItemWriter();
 			position = channel.position();
 			if (bufferedWriter instanceof TransactionAwareBufferedWriter) {
 				position += ((TransactionAwareBufferedWriter) bufferedWriter).getBufferSize();
@@ -764,6 +881,21 @@ ResourceAwareItemWriterItemStream<T>, InitializingBean {
 		return position;
 	}
 
+	private boolean isStreamWriting() {
+		return useXmlStreamWriter || itemSerializer != null;
+	}
+
+	private void flushItemWriter() throws XMLStreamException {
+		if (streamWriter != null) {
+			// completes an empty element the writer may still hold back
+			streamWriter.writeCharacters("");
+			streamWriter.flush();
+		}
+		else {
+			eventWriter.flush();
+		}
+	}
+
 	/**
 	 * Set the file channel position.
 	 * 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.xml;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Callback interface for writing a single item as an XML fragment, for use
+ * with {@link StaxEventItemWriter} in place of an OXM marshaller when the
+ * mapping is simple enough to be written by hand.
+ *
+ * @since 3.0
+ */
+public interface StaxItemSerializer<T> {
+
+	/**
+	 * Write the item using the supplied {@link XMLStreamWriter}. Start and
+	 * end document calls are ignored and it is not required to flush the
+	 * writer inside this method.
+	 *
+	 * @param item the item to write
+	 * @param writer the writer positioned inside the root element
+	 * @throws XMLStreamException if the item cannot be written
+	 */
+	void serialize(T item, XMLStreamWriter writer) throws XMLStreamException;
+
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.xml.stax;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * {@link Reader} decoding a byte stream which can translate the character
+ * offsets reported by a parser back into byte offsets of the underlying
+ * stream. Only the most recently decoded characters are retained (enough to
+ * cover the read-ahead buffer of a parser), so offsets lagging further behind
+ * can no longer be resolved.<br/>
+ *
+ * An optional prefix is served before the content of the stream. It does not
+ * correspond to any bytes of the stream, but it is counted in the character
+ * offsets.
+ *
+ * @since 3.0
+ */
+public class ByteOffsetTrackingReader extends Reader {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final int DEFAULT_RETAINED_CHARACTERS = 65536;
+
+	private final InputStream inputStream;
+
+	private final CharsetDecoder decoder;
+
+	private final CharsetEncoder encoder;
+
+	// length of the byte order mark written by the encoder (e.g. for UTF-16)
+	private final int byteOrderMarkLength;
+
+	private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+	private final String prefix;
+
+	private final LinkedList<Chunk> chunks = new LinkedList<Chunk>();
+
+	private int retainedCharacters = DEFAULT_RETAINED_CHARACTERS;
+
+	private int prefixPosition = 0;
+
+	// position in the stream after the last byte put into the buffer
+	private long bytesRead;
+
+	private long charactersRead = 0;
+
+	private int charactersRetained = 0;
+
+	private boolean endOfInput = false;
+
+	private char pendingCharacter;
+
+	private boolean hasPendingCharacter = false;
+
+	private boolean firstChunk = true;
+
+	/**
+	 * @param inputStream the stream to decode
+	 * @param charset the encoding of the stream
+	 * @param initialByteOffset the offset of the stream's first byte in the
+	 * resource it was opened from
+	 * @param prefix markup to serve before the content of the stream (may be
+	 * empty)
+	 */
+	public ByteOffsetTrackingReader(InputStream inputStream, Charset charset, long initialByteOffset, String prefix) {
+		this.inputStream = inputStream;
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.byteOrderMarkLength = getByteOrderMarkLength(encoder);
+		this.bytesRead = initialByteOffset;
+		this.prefix = prefix;
+		bytes.flip();
+	}
+
+	/**
+	 * @param retainedCharacters the minimum number of recently decoded
+	 * characters for which the byte offset can be resolved (default 65536)
+	 */
+	public void setRetainedCharacters(int retainedCharacters) {
+		this.retainedCharacters = retainedCharacters;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (prefixPosition < prefix.length()) {
+			int count = Math.min(len, prefix.length() - prefixPosition);
+			prefix.getChars(prefixPosition, prefixPosition + count, cbuf, off);
+			prefixPosition += count;
+			charactersRead += count;
+			return count;
+		}
+		if (hasPendingCharacter) {
+			cbuf[off] = pendingCharacter;
+			hasPendingCharacter = false;
+			return 1;
+		}
+		CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+		while (true) {
+			long chunkStart = bytesRead - bytes.remaining();
+			CoderResult result = decoder.decode(bytes, out, endOfInput);
+			if (endOfInput && out.position() == off) {
+				decoder.flush(out);
+			}
+			int count = out.position() - off;
+			if (count > 0) {
+				retain(chunkStart, Arrays.copyOfRange(cbuf, off, off + count));
+				charactersRead += count;
+				return count;
+			}
+			if (endOfInput) {
+				return -1;
+			}
+			if (result.isOverflow()) {
+				// a surrogate pair does not fit: decode it separately and
+				// serve the second half on the next call
+				CharBuffer pair = CharBuffer.allocate(2);
+				decoder.decode(bytes, pair, endOfInput);
+				char[] characters = Arrays.copyOf(pair.array(), pair.position());
+				retain(chunkStart, characters);
+				charactersRead += characters.length;
+				cbuf[off] = characters[0];
+				if (characters.length > 1) {
+					pendingCharacter = characters[1];
+					hasPendingCharacter = true;
+				}
+				return 1;
+			}
+			if (result.isUnderflow()) {
+				fill();
+			}
+		}
+	}
+
+	/**
+	 * Translate a character offset into the byte offset in the underlying
+	 * resource.
+	 *
+	 * @param characterOffset offset in the characters served by this reader
+	 * (including the prefix)
+	 * @return the byte offset or -1 if the character is part of the prefix or
+	 * is no longer retained
+	 */
+	public long getByteOffset(long characterOffset) {
+		Chunk chunk = findChunk(characterOffset);
+		if (chunk == null) {
+			return -1;
+		}
+		int length = (int) (characterOffset - chunk.characterStart);
+		if (length == 0) {
+			return chunk.byteStart;
+		}
+		int byteLength = getByteLength(chunk.characters, length);
+		return byteLength < 0 ? -1 : chunk.byteStart + byteLength;
+	}
+
+	/**
+	 * @param characterOffset offset in the characters served by this reader
+	 * @param text the expected text
+	 * @return true if the given text is found (and still retained) at the
+	 * offset
+	 */
+	public boolean matches(long characterOffset, String text) {
+		Chunk chunk = findChunk(characterOffset);
+		if (chunk == null) {
+			return false;
+		}
+		int index = (int) (characterOffset - chunk.characterStart);
+		for (int i = 0; i < text.length(); i++) {
+			while (index >= chunk.characters.length) {
+				chunk = findChunk(chunk.characterStart + chunk.characters.length);
+				if (chunk == null) {
+					return false;
+				}
+				index = 0;
+			}
+			if (chunk.characters[index++] != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		chunks.clear();
+		inputStream.close();
+	}
+
+	private Chunk findChunk(long characterOffset) {
+		// the offsets asked for are usually the most recent ones
+		for (Iterator<Chunk> iterator = chunks.descendingIterator(); iterator.hasNext();) {
+			Chunk chunk = iterator.next();
+			if (characterOffset >= chunk.characterStart
+					&& characterOffset < chunk.characterStart + chunk.characters.length) {
+				return chunk;
+			}
+		}
+		return null;
+	}
+
+	private void retain(long chunkStart, char[] characters) {
+		long byteStart = chunkStart;
+		if (firstChunk) {
+			// a byte order mark consumed by the decoder precedes the first
+			// character
+			int byteLength = getByteLength(characters, characters.length);
+			if (byteLength >= 0) {
+				byteStart = bytesRead - bytes.remaining() - byteLength;
+			}
+			firstChunk = false;
+		}
+		Chunk chunk = new Chunk(charactersRead, byteStart, characters);
+		chunks.addLast(chunk);
+		charactersRetained += chunk.characters.length;
+		while (charactersRetained - chunks.getFirst().characters.length >= retainedCharacters) {
+			charactersRetained -= chunks.removeFirst().characters.length;
+		}
+	}
+
+	/*
+	 * The number of bytes encoding the first characters, without the byte
+	 * order mark some encoders (e.g. for UTF-16) write first.
+	 */
+	private int getByteLength(char[] characters, int length) {
+		try {
+			encoder.reset();
+			return encoder.encode(CharBuffer.wrap(characters, 0, length)).remaining() - byteOrderMarkLength;
+		}
+		catch (CharacterCodingException e) {
+			return -1;
+		}
+	}
+
+	private static int getByteOrderMarkLength(CharsetEncoder encoder) {
+		try {
+			int single = encoder.encode(CharBuffer.wrap("a")).remaining();
+			encoder.reset();
+			int pair = encoder.encode(CharBuffer.wrap("aa")).remaining();
+			return Math.max(0, 2 * single - pair);
+		}
+		catch (CharacterCodingException e) {
+			return 0;
+		}
+	}
+
+	private void fill() throws IOException {
+		bytes.compact();
+		int count = inputStream.read(bytes.array(), bytes.position(), bytes.remaining());
+		if (count < 0) {
+			endOfInput = true;
+		}
+		else {
+			bytes.position(bytes.position() + count);
+			bytesRead += count;
+		}
+		bytes.flip();
+	}
+
+	private static class Chunk {
+
+		private final long characterStart;
+
+		private final long byteStart;
+
+		private final char[] characters;
+
+		public Chunk(long characterStart, long byteStart, char[] characters) {
+			this.characterStart = characterStart;
+			this.byteStart = byteStart;
+			this.characters = characters;
+		}
+
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.xml.stax;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Event reader wrapper that keeps track of the elements which are open at the
+ * current cursor position. The open elements can be rendered as markup (start
+ * tags including their namespace declarations) so that a document can be
+ * re-entered in the middle, e.g. when seeking to a fragment on restart.
+ *
+ * @since 3.0
+ */
+public class ElementStackEventReader extends AbstractEventReaderWrapper {
+
+	private final List<StartElement> openElements = new ArrayList<StartElement>();
+
+	public ElementStackEventReader(XMLEventReader wrappedEventReader) {
+		super(wrappedEventReader);
+	}
+
+	@Override
+	public XMLEvent nextEvent() throws XMLStreamException {
+		return track(wrappedEventReader.nextEvent());
+	}
+
+	@Override
+	public Object next() {
+		return track((XMLEvent) wrappedEventReader.next());
+	}
+
+	@Override
+	public XMLEvent nextTag() throws XMLStreamException {
+		return track(wrappedEventReader.nextTag());
+	}
+
+	/**
+	 * Reads to the end of the current element, so the element is closed
+	 * afterwards.
+	 */
+	@Override
+	public String getElementText() throws XMLStreamException {
+		String text = wrappedEventReader.getElementText();
+		if (!openElements.isEmpty()) {
+			openElements.remove(openElements.size() - 1);
+		}
+		return text;
+	}
+
+	/**
+	 * @return a snapshot of the elements open at the current position,
+	 * outermost first
+	 */
+	public List<StartElement> getOpenElements() {
+		return new ArrayList<StartElement>(openElements);
+	}
+
+	/**
+	 * Render start tags for the given elements, including the namespace
+	 * declarations made on them, but without any other attributes.
+	 *
+	 * @param elements the elements to render, outermost first
+	 * @return the start tags as markup
+	 */
+	public static String toStartTags(List<StartElement> elements) {
+		StringBuilder markup = new StringBuilder();
+		for (StartElement element : elements) {
+			markup.append('<').append(toQualifiedName(element.getName()));
+			for (Iterator<?> iterator = element.getNamespaces(); iterator.hasNext();) {
+				Namespace namespace = (Namespace) iterator.next();
+				markup.append(" xmlns");
+				if (StringUtils.hasLength(namespace.getPrefix())) {
+					markup.append(':').append(namespace.getPrefix());
+				}
+				markup.append("=\"").append(escape(namespace.getNamespaceURI())).append('"');
+			}
+			markup.append('>');
+		}
+		return markup.toString();
+	}
+
+	/**
+	 * @param name an element name
+	 * @return the name as it appears in the markup, i.e. prefixed if the
+	 * element uses a namespace prefix
+	 */
+	public static String toQualifiedName(QName name) {
+		if (StringUtils.hasLength(name.getPrefix())) {
+			return name.getPrefix() + ":" + name.getLocalPart();
+		}
+		return name.getLocalPart();
+	}
+
+	private XMLEvent track(XMLEvent event) {
+		if (event.isStartElement()) {
+			openElements.add(event.asStartElement());
+		}
+		else if (event.isEndElement() && !openElements.isEmpty()) {
+			openElements.remove(openElements.size() - 1);
+		}
+		return event;
+	}
+
+	private static String escape(String value) {
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;");
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.batch.item.xml.stax;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Delegating XMLStreamWriter, which ignores start and end document calls, but
+ * passes through everything else. This is the cursor API counterpart of
+ * {@link NoStartEndDocumentStreamWriter}.
+ *
+ * @since 3.0
+ */
+public class NoStartEndDocumentXmlStreamWriter implements XMLStreamWriter {
+
+	protected XMLStreamWriter wrappedStreamWriter;
+
+	public NoStartEndDocumentXmlStreamWriter(XMLStreamWriter wrappedStreamWriter) {
+		this.wrappedStreamWriter = wrappedStreamWriter;
+	}
+
+	@Override
+	public void writeStartDocument() throws XMLStreamException {
+	}
+
+	@Override
+	public void writeStartDocument(String version) throws XMLStreamException {
+	}
+
+	@Override
+	public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+	}
+
+	@Override
+	public void writeEndDocument() throws XMLStreamException {
+	}
+
+	// prevents OXM Marshallers from closing the XMLStreamWriter
+	@Override
+	public void close() throws XMLStreamException {
+		flush();
+	}
+
+	@Override
+	public void flush() throws XMLStreamException {
+		wrappedStreamWriter.flush();
+	}
+
+	@Override
+	public void writeStartElement(String localName) throws XMLStreamException {
+		wrappedStreamWriter.writeStartElement(localName);
+	}
+
+	@Override
+	public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+		wrappedStreamWriter.writeStartElement(namespaceURI, localName);
+	}
+
+	@Override
+	public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+		wrappedStreamWriter.writeStartElement(prefix, localName, namespaceURI);
+	}
+
+	@Override
+	public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+		wrappedStreamWriter.writeEmptyElement(namespaceURI, localName);
+	}
+
+	@Override
+	public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+		wrappedStreamWriter.writeEmptyElement(prefix, localName, namespaceURI);
+	}
+
+	@Override
+	public void writeEmptyElement(String localName) throws XMLStreamException {
+		wrappedStreamWriter.writeEmptyElement(localName);
+	}
+
+	@Override
+	public void writeEndElement() throws XMLStreamException {
+		wrappedStreamWriter.writeEndElement();
+	}
+
+	@Override
+	public void writeAttribute(String localName, String value) throws XMLStreamException {
+		wrappedStreamWriter.writeAttribute(localName, value);
+	}
+
+	@Override
+	public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+			throws XMLStreamException {
+		wrappedStreamWriter.writeAttribute(prefix, namespaceURI, localName, value);
+	}
+
+	@Override
+	public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+		wrappedStreamWriter.writeAttribute(namespaceURI, localName, value);
+	}
+
+	@Override
+	public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+		wrappedStreamWriter.writeNamespace(prefix, namespaceURI);
+	}
+
+	@Override
+	public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+		wrappedStreamWriter.writeDefaultNamespace(namespaceURI);
+	}
+
+	@Override
+	public void writeComment(String data) throws XMLStreamException {
+		wrappedStreamWriter.writeComment(data);
+	}
+
+	@Override
+	public void writeProcessingInstruction(String target) throws XMLStreamException {
+		wrappedStreamWriter.writeProcessingInstruction(target);
+	}
+
+	@Override
+	public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+		wrappedStreamWriter.writeProcessingInstruction(target, data);
+	}
+
+	@Override
+	public void writeCData(String data) throws XMLStreamException {
+		wrappedStreamWriter.writeCData(data);
+	}
+
+	@Override
+	public void writeDTD(String dtd) throws XMLStreamException {
+		wrappedStreamWriter.writeDTD(dtd);
+	}
+
+	@Override
+	public void writeEntityRef(String name) throws XMLStreamException {
+		wrappedStreamWriter.writeEntityRef(name);
+	}
+
+	@Override
+	public void writeCharacters(String text) throws XMLStreamException {
+		wrappedStreamWriter.writeCharacters(text);
+	}
+
+	@Override
+	public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+		wrappedStreamWriter.writeCharacters(text, start, len);
+	}
+
+	@Override
+	public String getPrefix(String uri) throws XMLStreamException {
+		return wrappedStreamWriter.getPrefix(uri);
+	}
+
+	@Override
+	public void setPrefix(String prefix, String uri) throws XMLStreamException {
+		wrappedStreamWriter.setPrefix(prefix, uri);
+	}
+
+	@Override
+	public void setDefaultNamespace(String uri) throws XMLStreamException {
+		wrappedStreamWriter.setDefaultNamespace(uri);
+	}
+
+	@Override
+	public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+		wrappedStreamWriter.setNamespaceContext(context);
+	}
+
+	@Override
+	public NamespaceContext getNamespaceContext() {
+		return wrappedStreamWriter.getNamespaceContext();
+	}
+
+	@Override
+	public Object getProperty(String name) throws IllegalArgumentException {
+		return wrappedStreamWriter.getProperty(name);
+	}
+
+}
@@ -49,15 +49,21 @@ import org.springframework.util.ClassUtils;
  */
 public class SimpleMethodInvoker implements MethodInvoker {
 
+	private static final Object[] NO_ARGS = new Object[0];
+
 	private final Object object;
 
 	private Method method;
 
+	// resolved once since the invoker is called for every item
+	private int parameterCount;
+
 	public SimpleMethodInvoker(Object object, Method method) {
 		Assert.notNull(object, "Object to invoke must not be null");
 		Assert.notNull(method, "Method to invoke must not be null");
 		this.method = method;
 		this.object = object;
+		prepare();
 	}
 
 	public SimpleMethodInvoker(Object object, String methodName, Class<?>... paramTypes) {
@@ -72,6 +78,12 @@ public class SimpleMethodInvoker implements MethodInvoker {
 					+ object.getClass() + "] with arguments of type: [" + Arrays.toString(paramTypes) + "]");
 		}
 		this.object = object;
+		prepare();
+	}
+
+	private void prepare() {
+		this.parameterCount = method.getParameterTypes().length;
+		method.setAccessible(true);
 	}
 
 	/*
@@ -84,21 +96,18 @@ public class SimpleMethodInvoker implements MethodInvoker {
     @Override
 	public Object invokeMethod(Object... args) {
 
-		Class<?>[] parameterTypes = method.getParameterTypes();
 		Object[] invokeArgs;
-		if (parameterTypes.length == 0) {
-			invokeArgs = new Object[] {};
+		if (parameterCount == 0) {
+			invokeArgs = NO_ARGS;
 		}
-		else if (parameterTypes.length != args.length) {
-			throw new IllegalArgumentException("Wrong number of arguments, expected no more than: ["
-					+ parameterTypes.length + "]");
+		else if (parameterCount != args.length) {
+			throw new IllegalArgumentException("Wrong number of arguments, expected no more than: [" + parameterCount
+					+ "]");
 		}
 		else {
 			invokeArgs = args;
 		}
 
-		method.setAccessible(true);
-
 		try {
 			// Extract the target from an Advised as late as possible
 			// in case it contains a lazy initialization
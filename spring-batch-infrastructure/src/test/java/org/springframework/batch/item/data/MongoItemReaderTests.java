@@ -3,12 +3,23 @@ package org.springframework.batch.item.data;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
@@ -16,16 +27,30 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.query.Query;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
 public class MongoItemReaderTests {
 
 	private MongoItemReader reader;
 	@Mock
 	private MongoOperations template;
+	@Mock
+	private MongoConverter converter;
 	private Map<String, Sort.Direction> sortOptions;
+	private List<DBObject> documents = new ArrayList<DBObject>();
 
 	@Before
 	public void setUp() throws Exception {
@@ -180,4 +205,294 @@ public class MongoItemReaderTests {
 		assertEquals("{ \"name\" : \"foo\"}", query.getQueryObject().toString());
 		assertEquals("{ \"name\" : -1}", query.getSortObject().toString());
 	}
+
+	@Test
+	public void testKeysetAfterPropertiesSet() throws Exception {
+		reader = new MongoItemReader();
+		reader.setTemplate(template);
+		reader.setTargetType(String.class);
+		reader.setQuery("{ }");
+		reader.setKeyField("_id");
+		reader.afterPropertiesSet();
+
+		reader.setSort(sortOptions);
+		try {
+			reader.afterPropertiesSet();
+			fail("Sort was not on the key field but exception was not thrown.");
+		} catch (IllegalStateException iae) {
+			assertEquals("In keyset mode the sort can only be on the key field.", iae.getMessage());
+		}
+	}
+
+	@Test
+	public void testKeysetPaging() throws Exception {
+		List<Query> queries = setUpKeyset(5);
+		reader.setPageSize(2);
+		reader.open(new ExecutionContext());
+
+		for (int i = 1; i <= 5; i++) {
+			assertEquals("doc" + i, reader.read());
+		}
+		assertNull(reader.read());
+
+		assertEquals(4, queries.size());
+		assertEquals("{ }", queries.get(0).getQueryObject().toString());
+		assertEquals("{ \"_id\" : { \"$gt\" : 2}}", queries.get(1).getQueryObject().toString());
+		assertEquals("{ \"_id\" : { \"$gt\" : 4}}", queries.get(2).getQueryObject().toString());
+		for (Query query : queries) {
+			assertEquals(2, query.getLimit());
+			assertEquals(0, query.getSkip());
+			assertEquals("{ \"_id\" : 1}", query.getSortObject().toString());
+		}
+	}
+
+	@Test
+	public void testKeysetPagingWithQueryDescending() throws Exception {
+		List<Query> queries = setUpKeyset(0);
+		sortOptions.clear();
+		sortOptions.put("_id", Sort.Direction.DESC);
+		reader.setSort(sortOptions);
+		reader.setParameterValues(Collections.<Object> singletonList("foo"));
+		reader.setQuery("{ name : ?0 }");
+		reader.setPageSize(2);
+		reader.open(new ExecutionContext());
+
+		assertNull(reader.read());
+		assertEquals("{ \"name\" : \"foo\"}", queries.get(0).getQueryObject().toString());
+
+		documents.add(new BasicDBObject("_id", 7).append("name", "foo"));
+		documents.add(new BasicDBObject("_id", 6).append("name", "foo"));
+		reader.close();
+		reader.open(new ExecutionContext());
+
+		assertEquals("doc7", reader.read());
+		assertEquals("doc6", reader.read());
+		reader.read();
+		assertEquals("{ \"$and\" : [ { \"name\" : \"foo\"} , { \"_id\" : { \"$lt\" : 6}}]}", queries.get(2)
+				.getQueryObject().toString());
+		assertEquals("{ \"_id\" : -1}", queries.get(2).getSortObject().toString());
+	}
+
+	@Test
+	public void testKeysetRestart() throws Exception {
+		List<Query> queries = setUpKeyset(5);
+		reader.setPageSize(2);
+		ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		reader.read();
+		reader.read();
+		reader.read();
+		reader.update(executionContext);
+		reader.close();
+		assertEquals(3, executionContext.get("MongoItemReader.last.key"));
+		assertEquals(3, executionContext.getInt("MongoItemReader.read.count"));
+
+		queries.clear();
+		reader.open(executionContext);
+		assertEquals("doc4", reader.read());
+		assertEquals("doc5", reader.read());
+		assertNull(reader.read());
+		assertEquals("{ \"_id\" : { \"$gt\" : 3}}", queries.get(0).getQueryObject().toString());
+	}
+
+	@Test
+	public void testKeysetPagingWithMappedKeyField() throws Exception {
+		List<Query> queries = setUpKeyset(3);
+		MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.initialize();
+		doReturn(mappingContext).when(converter).getMappingContext();
+		when(converter.getConversionService()).thenReturn(new DefaultConversionService());
+		when(converter.read(eq(Item.class), any(DBObject.class))).thenAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				return "doc" + ((DBObject) invocation.getArguments()[1]).get("_id");
+			}
+		});
+		sortOptions.clear();
+		sortOptions.put("id", Sort.Direction.ASC);
+		reader.setSort(sortOptions);
+		reader.setKeyField("id");
+		reader.setTargetType(Item.class);
+		reader.afterPropertiesSet();
+		reader.setPageSize(2);
+		reader.open(new ExecutionContext());
+
+		assertEquals("doc1", reader.read());
+		assertEquals("doc2", reader.read());
+		assertEquals("doc3", reader.read());
+		assertNull(reader.read());
+		assertEquals("{ \"_id\" : { \"$gt\" : 2}}", queries.get(1).getQueryObject().toString());
+		assertEquals("{ \"_id\" : 1}", queries.get(1).getSortObject().toString());
+	}
+
+	@Test
+	public void testKeysetPagingWithoutKeyInDocument() throws Exception {
+		setUpKeyset(1);
+		sortOptions.clear();
+		sortOptions.put("code", Sort.Direction.ASC);
+		reader.setSort(sortOptions);
+		reader.setKeyField("code");
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+		try {
+			reader.read();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("code"));
+		}
+	}
+
+	@Test
+	public void testStreaming() throws Exception {
+		DBCursor cursor = setUpStreaming(3);
+		reader.setBatchSize(100);
+		reader.setFields("{name : 1}");
+		reader.open(new ExecutionContext());
+
+		assertEquals("doc1", reader.read());
+		assertEquals("doc2", reader.read());
+		assertEquals("doc3", reader.read());
+		assertNull(reader.read());
+		assertNull(reader.read());
+
+		verify(template, times(1)).getCollection("items");
+		verify(cursor).sort(new BasicDBObject("name", -1));
+		verify(cursor).batchSize(100);
+		verify(cursor, never()).skip(any(Integer.class));
+		reader.close();
+		verify(cursor).close();
+	}
+
+	@Test
+	public void testStreamingRestart() throws Exception {
+		DBCursor cursor = setUpStreaming(3);
+		ExecutionContext executionContext = new ExecutionContext();
+		executionContext.putInt("MongoItemReader.read.count", 2);
+		reader.open(executionContext);
+
+		reader.read();
+		verify(cursor).skip(2);
+	}
+
+	private List<Query> setUpKeyset(int count) throws Exception {
+		for (int i = 1; i <= count; i++) {
+			documents.add(new BasicDBObject("_id", i).append("name", "foo"));
+		}
+		sortOptions.clear();
+		sortOptions.put("_id", Sort.Direction.ASC);
+		reader.setSort(sortOptions);
+		reader.setKeyField("_id");
+		reader.setCollection("items");
+		reader.afterPropertiesSet();
+		setUpConverter();
+
+		final List<Query> queries = new ArrayList<Query>();
+		when(template.find(any(Query.class), eq(DBObject.class), eq("items"))).thenAnswer(new Answer<List<DBObject>>() {
+			@Override
+			public List<DBObject> answer(InvocationOnMock invocation) throws Throwable {
+				Query query = (Query) invocation.getArguments()[0];
+				queries.add(query);
+				return find(query);
+			}
+		});
+		return queries;
+	}
+
+	private DBCursor setUpStreaming(int count) throws Exception {
+		for (int i = 1; i <= count; i++) {
+			documents.add(new BasicDBObject("_id", i).append("name", "foo"));
+		}
+		reader.setStreaming(true);
+		reader.setCollection("items");
+		setUpConverter();
+
+		final Iterator<DBObject> iterator = documents.iterator();
+		DBCollection collection = mock(DBCollection.class);
+		DBCursor cursor = mock(DBCursor.class);
+		when(template.getCollection("items")).thenReturn(collection);
+		when(collection.find(any(DBObject.class), any(DBObject.class))).thenReturn(cursor);
+		when(cursor.hasNext()).thenAnswer(new Answer<Boolean>() {
+			@Override
+			public Boolean answer(InvocationOnMock invocation) throws Throwable {
+				return iterator.hasNext();
+			}
+		});
+		when(cursor.next()).thenAnswer(new Answer<DBObject>() {
+			@Override
+			public DBObject answer(InvocationOnMock invocation) throws Throwable {
+				return iterator.next();
+			}
+		});
+		return cursor;
+	}
+
+	private void setUpConverter() {
+		when(template.getConverter()).thenReturn(converter);
+		when(converter.read(eq(String.class), any(DBObject.class))).thenAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				return "doc" + ((DBObject) invocation.getArguments()[1]).get("_id");
+			}
+		});
+	}
+
+	/**
+	 * Evaluates the queries of the keyset mode against the documents: a
+	 * conjunction of equality and range conditions, sorted by one field.
+	 */
+	private List<DBObject> find(Query query) {
+		DBObject sortObject = query.getSortObject();
+		final String sortField = sortObject.keySet().iterator().next();
+		final int direction = ((Number) sortObject.get(sortField)).intValue();
+		List<DBObject> result = new ArrayList<DBObject>();
+		for (DBObject document : documents) {
+			if (matches(query.getQueryObject(), document)) {
+				result.add(document);
+			}
+		}
+		Collections.sort(result, new Comparator<DBObject>() {
+			@Override
+			public int compare(DBObject o1, DBObject o2) {
+				return direction * compareValues(o1.get(sortField), o2.get(sortField));
+			}
+		});
+		return result.subList(0, Math.min(query.getLimit(), result.size()));
+	}
+
+	private boolean matches(DBObject queryObject, DBObject document) {
+		for (String field : queryObject.keySet()) {
+			Object condition = queryObject.get(field);
+			if ("$and".equals(field)) {
+				for (Object part : (List<?>) condition) {
+					if (!matches((DBObject) part, document)) {
+						return false;
+					}
+				}
+			}
+			else if (condition instanceof DBObject) {
+				DBObject range = (DBObject) condition;
+				int comparison = compareValues(document.get(field), range.get(range.keySet().iterator().next()));
+				if (range.containsField("$gt") ? comparison <= 0 : comparison >= 0) {
+					return false;
+				}
+			}
+			else if (!condition.equals(document.get(field))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private int compareValues(Object first, Object second) {
+		return ((Comparable) first).compareTo(second);
+	}
+
+	public static class Item {
+
+		private Integer id;
+
+	}
+
 }
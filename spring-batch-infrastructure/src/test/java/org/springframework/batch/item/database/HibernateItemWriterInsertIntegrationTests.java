@@ -0,0 +1,100 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate4.HibernateTransactionManager;
+import org.springframework.orm.hibernate4.LocalSessionFactoryBean;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests for {@link HibernateItemWriter} inserting through a separate session
+ * with JDBC batching.
+ */
+public class HibernateItemWriterInsertIntegrationTests {
+
+	private DriverManagerDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactionTemplate;
+
+	private HibernateItemWriter<Foo> writer;
+
+	@Before
+	public void setUp() throws Exception {
+		dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:insert", "sa", "");
+		dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE T_WRITE_FOOS (ID BIGINT NOT NULL PRIMARY KEY, NAME VARCHAR(45), VALUE INTEGER)");
+
+		LocalSessionFactoryBean factoryBean = new LocalSessionFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setMappingLocations(new Resource[] { new ClassPathResource("Foo-write.hbm.xml", getClass()) });
+		Properties hibernateProperties = new Properties();
+		hibernateProperties.setProperty("hibernate.dialect", "org.hibernate.dialect.HSQLDialect");
+		hibernateProperties.setProperty("hibernate.jdbc.batch_size", "5");
+		factoryBean.setHibernateProperties(hibernateProperties);
+		factoryBean.afterPropertiesSet();
+		SessionFactory sessionFactory = factoryBean.getObject();
+
+		transactionTemplate = new TransactionTemplate(new HibernateTransactionManager(sessionFactory));
+		writer = new HibernateItemWriter<Foo>();
+		writer.setSessionFactory(sessionFactory);
+		writer.setInsertOnly(true);
+	}
+
+	@After
+	public void tearDown() {
+		jdbcTemplate.execute("DROP TABLE T_WRITE_FOOS");
+	}
+
+	@Test
+	public void testInsert() throws Exception {
+		writer.afterPropertiesSet();
+
+		write(7);
+
+		assertEquals(7, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM T_WRITE_FOOS"));
+	}
+
+	@Test
+	public void testInsertWithFlushSize() throws Exception {
+		writer.setFlushSize(3);
+		writer.afterPropertiesSet();
+
+		write(7);
+		write(2);
+
+		assertEquals(9, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM T_WRITE_FOOS"));
+		assertEquals(9, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM T_WRITE_FOOS WHERE NAME LIKE 'foo%'"));
+	}
+
+	private void write(int count) {
+		final List<Foo> items = new ArrayList<Foo>();
+		for (int i = 0; i < count; i++) {
+			items.add(new Foo(0, "foo" + i, i));
+		}
+		transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				writer.write(items);
+			}
+		});
+	}
+
+}
@@ -16,6 +16,8 @@
 package org.springframework.batch.item.database;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -145,4 +147,43 @@ public class HibernateItemWriterTests {
 			assertEquals("ERROR", e.getMessage());
 		}
 	}
+
+	@Test
+	public void testWriteWithFlushSizeHibernate4() throws Exception {
+		writer.setSessionFactory(factory);
+		writer.setFlushSize(2);
+		when(factory.getCurrentSession()).thenReturn(currentSession);
+
+		writer.write(Arrays.asList(new String[] { "foo", "bar", "spam" }));
+
+		verify(currentSession).saveOrUpdate("spam");
+		verify(currentSession, times(2)).flush();
+		verify(currentSession, times(2)).clear();
+	}
+
+	@Test
+	public void testAfterPropertiesSetInsertOnlyWithoutSessionFactory() throws Exception {
+		writer.setHibernateTemplate(ht);
+		writer.setInsertOnly(true);
+		try {
+			writer.afterPropertiesSet();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue("Wrong message for exception: " + e.getMessage(), e.getMessage().indexOf("SessionFactory") >= 0);
+		}
+	}
+
+	@Test
+	public void testAfterPropertiesSetFlushSizeWithoutSessionFactory() throws Exception {
+		writer.setHibernateTemplate(ht);
+		writer.setFlushSize(2);
+		try {
+			writer.afterPropertiesSet();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue("Wrong message for exception: " + e.getMessage(), e.getMessage().indexOf("SessionFactory") >= 0);
+		}
+	}
 }
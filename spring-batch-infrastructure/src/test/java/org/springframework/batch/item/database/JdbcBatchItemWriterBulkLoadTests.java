@@ -0,0 +1,126 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests for {@link JdbcBatchItemWriter} with bulk loading.
+ */
+public class JdbcBatchItemWriterBulkLoadTests {
+
+	private DataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcBatchItemWriter<Foo> writer = new JdbcBatchItemWriter<Foo>();
+
+	@Before
+	public void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:bulkload", "sa", "");
+		dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+		this.dataSource = dataSource;
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE T_BULK_FOOS (ID BIGINT NOT NULL PRIMARY KEY, NAME VARCHAR(45), VALUE INTEGER)");
+		writer.setDataSource(dataSource);
+		writer.setBulkLoad(true);
+	}
+
+	@After
+	public void tearDown() {
+		jdbcTemplate.execute("DROP TABLE T_BULK_FOOS");
+	}
+
+	@Test
+	public void testNamedParameters() throws Exception {
+		writer.setSql("INSERT INTO T_BULK_FOOS (ID, NAME, VALUE) VALUES (:id, :name, :value)");
+		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<Foo>());
+		writer.afterPropertiesSet();
+
+		writer.write(getFoos(1500));
+
+		assertEquals(1500, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM T_BULK_FOOS"));
+		assertEquals("foo1234", jdbcTemplate.queryForObject("SELECT NAME FROM T_BULK_FOOS WHERE ID = 1234", String.class));
+	}
+
+	@Test
+	public void testPreparedStatementSetter() throws Exception {
+		writer.setSql("INSERT INTO T_BULK_FOOS (ID, NAME, VALUE) VALUES (?, ?, ?)");
+		writer.setItemPreparedStatementSetter(new ItemPreparedStatementSetter<Foo>() {
+			@Override
+			public void setValues(Foo item, PreparedStatement ps) throws SQLException {
+				ps.setLong(1, item.getId());
+				ps.setNull(2, Types.VARCHAR);
+				ps.setInt(3, item.getValue());
+			}
+		});
+		writer.afterPropertiesSet();
+
+		writer.write(getFoos(10));
+
+		assertEquals(10, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM T_BULK_FOOS"));
+		assertNull(jdbcTemplate.queryForObject("SELECT NAME FROM T_BULK_FOOS WHERE ID = 5", String.class));
+		assertEquals(5, jdbcTemplate.queryForInt("SELECT VALUE FROM T_BULK_FOOS WHERE ID = 5"));
+	}
+
+	@Test
+	public void testFallbackToBatches() throws Exception {
+		writer.setDatabaseType("oracle");
+		writer.setSql("INSERT INTO T_BULK_FOOS (ID, NAME, VALUE) VALUES (:id, :name, :value)");
+		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<Foo>());
+		writer.afterPropertiesSet();
+
+		writer.write(getFoos(3));
+
+		assertEquals(3, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM T_BULK_FOOS"));
+	}
+
+	@Test(expected = EmptyResultDataAccessException.class)
+	public void testAssertUpdates() throws Exception {
+		BulkLoader bulkLoader = mock(BulkLoader.class);
+		when(bulkLoader.load(any(Connection.class), anyListOf(Object[].class))).thenReturn(0);
+		writer.setBulkLoader(bulkLoader);
+		writer.setSql("INSERT INTO T_BULK_FOOS (ID, NAME, VALUE) VALUES (:id, :name, :value)");
+		writer.setItemSqlParameterSourceProvider(new ItemSqlParameterSourceProvider<Foo>() {
+			@Override
+			public SqlParameterSource createSqlParameterSource(Foo item) {
+				return new BeanPropertySqlParameterSource(item);
+			}
+		});
+		writer.afterPropertiesSet();
+
+		writer.write(Collections.singletonList(new Foo(1, "foo", 1)));
+	}
+
+	private List<Foo> getFoos(int count) {
+		List<Foo> foos = new ArrayList<Foo>();
+		for (int i = 0; i < count; i++) {
+			foos.add(new Foo(i, "foo" + i, i));
+		}
+		return foos;
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests for {@link JdbcBatchItemWriter} with an upsert statement.
+ */
+public class JdbcBatchItemWriterUpsertTests {
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcBatchItemWriter<Foo> writer = new JdbcBatchItemWriter<Foo>();
+
+	@Before
+	public void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:upsert", "sa", "");
+		dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE T_UPSERT_FOOS (ID BIGINT NOT NULL PRIMARY KEY, NAME VARCHAR(45), VALUE INTEGER)");
+		jdbcTemplate.update("INSERT INTO T_UPSERT_FOOS (ID, NAME, VALUE) VALUES (1, 'foo1', 1)");
+		writer.setDataSource(dataSource);
+		writer.setTableName("T_UPSERT_FOOS");
+		writer.setKeyColumns(new String[] { "id" });
+		writer.setValueColumns(new String[] { "name", "value" });
+		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<Foo>());
+	}
+
+	@After
+	public void tearDown() {
+		jdbcTemplate.execute("DROP TABLE T_UPSERT_FOOS");
+	}
+
+	@Test
+	public void testInsertAndUpdate() throws Exception {
+		writer.afterPropertiesSet();
+
+		writer.write(Arrays.asList(new Foo(1, "bar1", 11), new Foo(2, "bar2", 12)));
+
+		assertEquals(2, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM T_UPSERT_FOOS"));
+		assertEquals("bar1", jdbcTemplate.queryForObject("SELECT NAME FROM T_UPSERT_FOOS WHERE ID = 1", String.class));
+		assertEquals(12, jdbcTemplate.queryForInt("SELECT VALUE FROM T_UPSERT_FOOS WHERE ID = 2"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testTableNameAndSql() throws Exception {
+		writer.setSql("INSERT INTO T_UPSERT_FOOS (ID) VALUES (:id)");
+		writer.afterPropertiesSet();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedDatabase() throws Exception {
+		writer.setDatabaseType("derby");
+		writer.afterPropertiesSet();
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests for {@link JdbcLookupLoader}.
+ */
+public class JdbcLookupLoaderTests {
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcLookupLoader<Long, String> loader = new JdbcLookupLoader<Long, String>();
+
+	@Before
+	public void setUp() throws Exception {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:lookup", "sa", "");
+		dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE T_LOOKUP_FOOS (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(45))");
+		for (int i = 1; i <= 3; i++) {
+			jdbcTemplate.update("INSERT INTO T_LOOKUP_FOOS (ID, NAME) VALUES (?, ?)", i, "foo" + i);
+		}
+		loader.setDataSource(dataSource);
+		loader.setSql("SELECT ID, NAME FROM T_LOOKUP_FOOS WHERE ID IN (:keys)");
+		loader.setKeyColumn("ID");
+		loader.setKeyType(Long.class);
+		loader.setRowMapper(new RowMapper<String>() {
+			@Override
+			public String mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return rs.getString("NAME");
+			}
+		});
+		loader.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		jdbcTemplate.execute("DROP TABLE T_LOOKUP_FOOS");
+	}
+
+	@Test
+	public void testLoad() throws Exception {
+		Map<Long, String> values = loader.load(Arrays.asList(1L, 3L, 4L));
+
+		assertEquals(2, values.size());
+		assertEquals("foo1", values.get(1L));
+		assertEquals("foo3", values.get(3L));
+	}
+
+}
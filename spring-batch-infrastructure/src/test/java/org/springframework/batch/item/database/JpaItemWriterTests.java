@@ -20,6 +20,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -106,4 +109,39 @@ public class JpaItemWriterTests {
 		TransactionSynchronizationManager.unbindResource(emf);
 	}
 
+	@Test
+	public void testPersistOnlyWithFlushSize() throws Exception {
+		EntityManager em = mock(EntityManager.class,"em");
+		TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+		writer.setPersistOnly(true);
+		writer.setFlushSize(2);
+		writer.setClearPersistenceContext(true);
+
+		writer.write(Arrays.asList(new String[] { "foo", "bar", "spam", "bucket" }));
+
+		verify(em).persist("foo");
+		verify(em).persist("bar");
+		verify(em).persist("spam");
+		verify(em).persist("bucket");
+		verify(em, never()).merge("foo");
+		verify(em, times(2)).flush();
+		verify(em, times(2)).clear();
+
+		TransactionSynchronizationManager.unbindResource(emf);
+	}
+
+	@Test
+	public void testWriteDoesNotClearByDefault() throws Exception {
+		EntityManager em = mock(EntityManager.class,"em");
+		TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+
+		writer.write(Arrays.asList(new String[] { "foo", "bar" }));
+
+		verify(em).merge("foo");
+		verify(em).flush();
+		verify(em, never()).clear();
+
+		TransactionSynchronizationManager.unbindResource(emf);
+	}
+
 }
@@ -0,0 +1,94 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.AbstractItemStreamItemReaderTests;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Tests for {@link JpaKeysetItemReader}.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "JpaPagingItemReaderCommonTests-context.xml")
+public class JpaKeysetItemReaderCommonTests extends AbstractItemStreamItemReaderTests {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	protected boolean isScrolling() {
+		return false;
+	}
+
+	@Override
+	protected ItemReader<Foo> getItemReader() throws Exception {
+		return createReader("select f from Foo f");
+	}
+
+	private JpaKeysetItemReader<Foo> createReader(String queryString) throws Exception {
+		JpaKeysetItemReader<Foo> reader = new JpaKeysetItemReader<Foo>();
+		reader.setQueryString(queryString);
+		reader.setSortKey("f.id");
+		reader.setEntityManagerFactory(entityManagerFactory);
+		reader.setPageSize(2);
+		reader.setUseScrollableResults(isScrolling());
+		reader.afterPropertiesSet();
+		reader.setSaveState(true);
+		return reader;
+	}
+
+	@Override
+	protected void pointToEmptyInput(ItemReader<Foo> tested) throws Exception {
+		JpaKeysetItemReader<Foo> reader = (JpaKeysetItemReader<Foo>) tested;
+		reader.close();
+		reader.setQueryString("select f from Foo f where f.id = -1");
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+	}
+
+	@Test
+	public void testWhereClauseDescending() throws Exception {
+		JpaKeysetItemReader<Foo> reader = createReader("select f from Foo f where f.value = :min or f.value > 2");
+		reader.setParameterValues(Collections.<String, Object> singletonMap("min", 1));
+		reader.setAscending(false);
+		reader.open(new ExecutionContext());
+		try {
+			assertEquals(5, reader.read().getValue());
+			assertEquals(4, reader.read().getValue());
+			assertEquals(3, reader.read().getValue());
+			assertEquals(1, reader.read().getValue());
+			assertNull(reader.read());
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testRestartFromLastKey() throws Exception {
+		tested.read();
+		tested.read();
+		tested.read();
+		testedAsStream().update(executionContext);
+		assertEquals(3, executionContext.get("JpaKeysetItemReader.last.key"));
+		testedAsStream().close();
+
+		executionContext.remove("JpaKeysetItemReader.read.count");
+		testedAsStream().open(executionContext);
+		assertEquals(4, tested.read().getValue());
+		assertEquals(5, tested.read().getValue());
+		assertNull(tested.read());
+	}
+
+}
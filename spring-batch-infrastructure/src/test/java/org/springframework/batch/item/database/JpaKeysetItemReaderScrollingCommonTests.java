@@ -0,0 +1,13 @@
+package org.springframework.batch.item.database;
+
+/**
+ * Tests for {@link JpaKeysetItemReader} reading through a scroll.
+ */
+public class JpaKeysetItemReaderScrollingCommonTests extends JpaKeysetItemReaderCommonTests {
+
+	@Override
+	protected boolean isScrolling() {
+		return true;
+	}
+
+}
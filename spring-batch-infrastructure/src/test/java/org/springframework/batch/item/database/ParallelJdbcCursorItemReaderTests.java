@@ -0,0 +1,228 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests for {@link ParallelJdbcCursorItemReader}.
+ */
+public class ParallelJdbcCursorItemReaderTests {
+
+	private static final int ROW_COUNT = 100;
+
+	private DriverManagerDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private ParallelJdbcCursorItemReader<Long> reader;
+
+	private ExecutionContext executionContext = new ExecutionContext();
+
+	@Before
+	public void setUp() throws Exception {
+		dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:parallel", "sa", "");
+		dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE T_PARALLEL_FOOS (ID BIGINT NOT NULL PRIMARY KEY, VALUE INTEGER)");
+		for (int i = 1; i <= ROW_COUNT; i++) {
+			jdbcTemplate.update("INSERT INTO T_PARALLEL_FOOS (ID, VALUE) VALUES (?, ?)", i, i % 10);
+		}
+		reader = createReader("SELECT ID, VALUE FROM T_PARALLEL_FOOS");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		reader.close();
+		jdbcTemplate.execute("DROP TABLE T_PARALLEL_FOOS");
+	}
+
+	@Test
+	public void testReadAllBuckets() throws Exception {
+		reader.open(executionContext);
+
+		Set<Long> ids = readAll();
+
+		assertEquals(ROW_COUNT, ids.size());
+		assertNull(reader.read());
+	}
+
+	@Test
+	public void testNegativeKeys() throws Exception {
+		for (int i = 1; i <= 10; i++) {
+			jdbcTemplate.update("INSERT INTO T_PARALLEL_FOOS (ID, VALUE) VALUES (?, ?)", -i, i % 10);
+		}
+		reader.open(executionContext);
+
+		Set<Long> ids = readAll();
+
+		assertEquals(ROW_COUNT + 10, ids.size());
+		assertTrue(ids.contains(-1L));
+		assertTrue(ids.contains(-10L));
+	}
+
+	@Test
+	public void testRestart() throws Exception {
+		reader.setQueueCapacity(1);
+		reader.open(executionContext);
+		Set<Long> ids = new HashSet<Long>();
+		for (int i = 0; i < 25; i++) {
+			ids.add(reader.read());
+		}
+		reader.update(executionContext);
+		reader.close();
+
+		reader = createReader("SELECT ID, VALUE FROM T_PARALLEL_FOOS");
+		reader.open(executionContext);
+		Set<Long> rest = readAll();
+
+		assertEquals(ROW_COUNT - 25, rest.size());
+		ids.addAll(rest);
+		assertEquals(ROW_COUNT, ids.size());
+		reader.update(executionContext);
+		assertTrue(executionContext.containsKey("ParallelJdbcCursorItemReader.2.done"));
+	}
+
+	@Test
+	public void testQueryParameters() throws Exception {
+		reader = createReader("SELECT ID, VALUE FROM T_PARALLEL_FOOS WHERE VALUE = ?");
+		reader.setPreparedStatementSetter(new PreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps) throws SQLException {
+				ps.setInt(1, 3);
+			}
+		});
+		reader.open(executionContext);
+
+		Set<Long> ids = readAll();
+
+		assertEquals(10, ids.size());
+		assertTrue(ids.contains(53L));
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		reader = createReader("SELECT ID, VALUE FROM T_NO_FOOS");
+		reader.open(executionContext);
+		try {
+			reader.read();
+			fail("Expected DataAccessException");
+		}
+		catch (DataAccessException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testReadAfterFailure() throws Exception {
+		reader = createReader("SELECT ID, VALUE FROM T_NO_FOOS");
+		reader.open(executionContext);
+		DataAccessException failure = null;
+		try {
+			reader.read();
+			fail("Expected DataAccessException");
+		}
+		catch (DataAccessException e) {
+			failure = e;
+		}
+		// e.g. after the read error was skipped
+		try {
+			reader.read();
+			fail("Expected DataAccessException");
+		}
+		catch (DataAccessException e) {
+			assertSame(failure, e);
+		}
+	}
+
+	@Test
+	public void testCloseBeforeEnd() throws Exception {
+		reader.setQueueCapacity(1);
+		reader.open(executionContext);
+		reader.read();
+		reader.close();
+		reader.open(new ExecutionContext());
+
+		assertEquals(ROW_COUNT, readAll().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSyncTaskExecutor() throws Exception {
+		reader.setTaskExecutor(new SyncTaskExecutor());
+		reader.afterPropertiesSet();
+	}
+
+	@Test
+	public void testRejectedBucket() throws Exception {
+		reader.setQueueCapacity(1);
+		reader.setTaskExecutor(new TaskExecutor() {
+			private final TaskExecutor delegate = new SimpleAsyncTaskExecutor();
+			private int accepted = 1;
+			@Override
+			public void execute(Runnable task) {
+				if (accepted-- <= 0) {
+					throw new TaskRejectedException("Rejected for test");
+				}
+				delegate.execute(task);
+			}
+		});
+		try {
+			reader.open(executionContext);
+			fail("Expected ItemStreamException");
+		}
+		catch (ItemStreamException e) {
+			assertTrue(e.getCause() instanceof TaskRejectedException);
+		}
+		// does not wait for the buckets which were not started
+		reader.close();
+	}
+
+	private Set<Long> readAll() throws Exception {
+		Set<Long> ids = new HashSet<Long>();
+		Long id;
+		while ((id = reader.read()) != null) {
+			assertTrue("Duplicate id: " + id, ids.add(id));
+		}
+		return ids;
+	}
+
+	private ParallelJdbcCursorItemReader<Long> createReader(String sql) throws Exception {
+		ParallelJdbcCursorItemReader<Long> reader = new ParallelJdbcCursorItemReader<Long>();
+		reader.setDataSource(dataSource);
+		reader.setSql(sql);
+		reader.setKeyColumn("ID");
+		reader.setBucketCount(3);
+		reader.setRowMapper(new RowMapper<Long>() {
+			@Override
+			public Long mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return rs.getLong("ID");
+			}
+		});
+		reader.afterPropertiesSet();
+		return reader;
+	}
+
+}
@@ -0,0 +1,93 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.SqlParameter;
+
+/**
+ * Tests for {@link StoredProcedureItemReader} restarting after the last key
+ * read.
+ */
+@RunWith(JUnit4.class)
+public class StoredProcedureItemReaderLastKeyCommonTests extends AbstractDatabaseItemStreamItemReaderTests {
+
+	@Override
+	protected ItemReader<Foo> getItemReader() throws Exception {
+		StoredProcedureItemReader<Foo> result = new StoredProcedureItemReader<Foo>();
+		result.setDataSource(getDataSource());
+		result.setProcedureName("read_foos_after");
+		result.setParameters(new SqlParameter[] { new SqlParameter("last_id", Types.BIGINT) });
+		result.setLastKeyColumn("ID");
+		result.setLastKeyParameterIndex(1);
+		result.setRowMapper(new FooRowMapper());
+		result.setFetchSize(2);
+		result.setVerifyCursorPosition(false);
+		result.afterPropertiesSet();
+		return result;
+	}
+
+	@Override
+	protected void initializeContext() throws Exception {
+		ctx = new ClassPathXmlApplicationContext("org/springframework/batch/item/database/stored-procedure-context.xml");
+	}
+
+	@Test
+	public void testLastKeyInExecutionContext() throws Exception {
+		tested.read();
+		tested.read();
+		testedAsStream().update(executionContext);
+
+		assertEquals(2L, ((Number) executionContext.get("StoredProcedureItemReader.last.key")).longValue());
+		assertEquals(2, executionContext.getInt("StoredProcedureItemReader.read.count"));
+	}
+
+	@Test
+	public void testRestartAfterRowsDeleted() throws Exception {
+		tested.read();
+		tested.read();
+		testedAsStream().update(executionContext);
+		testedAsStream().close();
+		// A restart by position would skip the third row
+		new JdbcTemplate(getDataSource()).update("DELETE FROM T_FOOS WHERE ID = 1");
+
+		tested = getItemReader();
+		testedAsStream().open(executionContext);
+
+		assertEquals(3, tested.read().getValue());
+	}
+
+	@Override
+	protected void pointToEmptyInput(ItemReader<Foo> tested) throws Exception {
+		StoredProcedureItemReader<Foo> reader = (StoredProcedureItemReader<Foo>) tested;
+		reader.close();
+		reader.setDataSource(getDataSource());
+		reader.setProcedureName("read_some_foos");
+		reader.setParameters(new SqlParameter[] { new SqlParameter("from_id", Types.NUMERIC),
+				new SqlParameter("to_id", Types.NUMERIC) });
+		reader.setPreparedStatementSetter(new PreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps) throws SQLException {
+				ps.setInt(1, 1000);
+				ps.setInt(2, 1001);
+			}
+		});
+		reader.setLastKeyColumn(null);
+		reader.setLastKeyParameterIndex(0);
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+	}
+
+}
@@ -0,0 +1,117 @@
+package org.springframework.batch.item.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.sample.Foo;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.util.StopWatch;
+
+/**
+ * Compares the time it takes the {@link StoredProcedureItemReader} to restart
+ * near the end of a large result, skipping the rows read before and calling
+ * the procedure with the last key read, on an embedded Derby database.
+ */
+public class StoredProcedureItemReaderPerformanceTests {
+
+	private static final int ROW_COUNT = 20000;
+
+	private static final int RESTART_COUNT = ROW_COUNT - 10;
+
+	private Log logger = LogFactory.getLog(getClass());
+
+	private ClassPathXmlApplicationContext ctx;
+
+	private DataSource dataSource;
+
+	@Before
+	public void setUp() throws Exception {
+		ctx = new ClassPathXmlApplicationContext("org/springframework/batch/item/database/stored-procedure-context.xml");
+		dataSource = (DataSource) ctx.getBean("dataSource");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("DELETE FROM T_FOOS");
+		jdbcTemplate.batchUpdate("INSERT INTO T_FOOS (ID, NAME, VALUE) VALUES (?, ?, ?)",
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						ps.setLong(1, i + 1);
+						ps.setString(2, "bar" + (i + 1));
+						ps.setInt(3, i + 1);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return ROW_COUNT;
+					}
+				});
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ctx.close();
+	}
+
+	@Test
+	public void testRestartBySkipping() throws Exception {
+		doTest("skip rows", createItemReader(false));
+	}
+
+	@Test
+	public void testRestartAfterLastKey() throws Exception {
+		doTest("last key", createItemReader(true));
+	}
+
+	private void doTest(String name, StoredProcedureItemReader<Foo> reader) throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		executionContext.putInt("StoredProcedureItemReader.read.count", RESTART_COUNT);
+		executionContext.put("StoredProcedureItemReader.last.key", (long) RESTART_COUNT);
+		StopWatch stopWatch = new StopWatch(name);
+		stopWatch.start();
+		reader.open(executionContext);
+		Foo foo = reader.read();
+		stopWatch.stop();
+		reader.close();
+		assertEquals(RESTART_COUNT + 1, foo.getValue());
+		logger.info(stopWatch.shortSummary());
+	}
+
+	private StoredProcedureItemReader<Foo> createItemReader(boolean lastKey) throws Exception {
+		StoredProcedureItemReader<Foo> reader = new StoredProcedureItemReader<Foo>();
+		reader.setDataSource(dataSource);
+		reader.setProcedureName("read_foos_after");
+		reader.setParameters(new SqlParameter[] { new SqlParameter("last_id", Types.BIGINT) });
+		reader.setRowMapper(new FooRowMapper());
+		reader.setFetchSize(100);
+		reader.setVerifyCursorPosition(false);
+		if (lastKey) {
+			reader.setLastKeyColumn("ID");
+			reader.setLastKeyParameterIndex(1);
+		}
+		else {
+			reader.setPreparedStatementSetter(new PreparedStatementSetter() {
+				@Override
+				public void setValues(PreparedStatement ps) throws SQLException {
+					ps.setNull(1, Types.BIGINT);
+				}
+			});
+		}
+		reader.afterPropertiesSet();
+		return reader;
+	}
+
+}
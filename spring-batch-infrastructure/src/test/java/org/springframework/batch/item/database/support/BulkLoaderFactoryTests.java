@@ -0,0 +1,50 @@
+package org.springframework.batch.item.database.support;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.batch.support.DatabaseType;
+
+/**
+ * Tests for {@link BulkLoaderFactory}.
+ */
+public class BulkLoaderFactoryTests {
+
+	private static final String SQL = "INSERT INTO T_FOOS (ID, NAME, VALUE) VALUES (?, ?, ?)";
+
+	private BulkLoaderFactory factory = new BulkLoaderFactory();
+
+	@Test
+	public void testPostgresCopy() {
+		assertTrue(factory.getBulkLoader(DatabaseType.POSTGRES, SQL) instanceof PostgresCopyBulkLoader);
+	}
+
+	@Test
+	public void testMySqlLoadData() {
+		assertTrue(factory.getBulkLoader(DatabaseType.MYSQL, SQL) instanceof MySqlLoadDataBulkLoader);
+	}
+
+	@Test
+	public void testMultiRowInsert() {
+		assertTrue(factory.getBulkLoader(DatabaseType.HSQL, SQL) instanceof MultiRowInsertBulkLoader);
+		assertTrue(factory.getBulkLoader(DatabaseType.SQLSERVER, "insert into t_foos(id,name)\nvalues(?,?);") instanceof MultiRowInsertBulkLoader);
+	}
+
+	@Test
+	public void testMultiRowInsertForExpressions() {
+		assertTrue(factory.getBulkLoader(DatabaseType.POSTGRES,
+				"INSERT INTO T_FOOS (ID, NAME, VALUE) VALUES (?, upper(?), 1)") instanceof MultiRowInsertBulkLoader);
+	}
+
+	@Test
+	public void testNoBulkLoad() {
+		assertNull(factory.getBulkLoader(DatabaseType.ORACLE, SQL));
+		assertNull(factory.getBulkLoader(DatabaseType.SYBASE, SQL));
+		assertNull(factory.getBulkLoader(DatabaseType.HSQL, "UPDATE T_FOOS SET NAME = ? WHERE ID = ?"));
+		assertNull(factory.getBulkLoader(DatabaseType.HSQL, "INSERT INTO T_FOOS (ID, NAME) SELECT ?, NAME FROM T_BARS"));
+		assertNull(factory.getBulkLoader(DatabaseType.MYSQL,
+				"INSERT INTO T_FOOS (ID, NAME) VALUES (?, ?) ON DUPLICATE KEY UPDATE NAME = VALUES(NAME)"));
+	}
+
+}
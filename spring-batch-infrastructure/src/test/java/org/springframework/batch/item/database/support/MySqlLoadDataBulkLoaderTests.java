@@ -0,0 +1,80 @@
+package org.springframework.batch.item.database.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.batch.item.database.BulkLoader;
+
+/**
+ * Tests for {@link MySqlLoadDataBulkLoader}.
+ */
+public class MySqlLoadDataBulkLoaderTests {
+
+	private BulkLoader fallback = mock(BulkLoader.class);
+
+	private MySqlLoadDataBulkLoader loader = new MySqlLoadDataBulkLoader("T_FOOS", Arrays.asList("ID", "NAME", "FLAG"),
+			fallback);
+
+	@Test
+	public void testFormat() {
+		List<Object[]> rows = Arrays.asList(new Object[] { 1, "plain", true }, new Object[] { 2,
+				"back\\slash, \"quotes\"\nand lines", null });
+		assertEquals("1,\"plain\",1\n2,\"back\\\\slash, \\\"quotes\\\"\\nand lines\",\\N\n", loader.format(rows));
+	}
+
+	@Test
+	public void testFallbackForBinaryValues() throws Exception {
+		Connection connection = mock(Connection.class);
+		List<Object[]> rows = Collections.singletonList(new Object[] { 1, new byte[] { 1 }, null });
+		loader.load(connection, rows);
+		verify(fallback).load(connection, rows);
+	}
+
+	@Test
+	public void testCheckLoad() throws Exception {
+		Statement statement = mock(Statement.class);
+		loader.checkLoad(statement, 2, "1,\"a\\nb\",1\n2,\"c\",0\n");
+	}
+
+	@Test
+	public void testCheckLoadWithSkippedRows() throws Exception {
+		Statement statement = mock(Statement.class);
+		try {
+			loader.checkLoad(statement, 1, "1,\"a\",1\n1,\"b\",0\n");
+			fail("Expected SQLException");
+		}
+		catch (SQLException e) {
+			assertEquals("Loaded 1 of 2 rows into T_FOOS", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testCheckLoadWithWarnings() throws Exception {
+		Statement statement = mock(Statement.class);
+		SQLWarning warning = new SQLWarning("Data truncated for column 'NAME' at row 1");
+		when(statement.getWarnings()).thenReturn(warning);
+		try {
+			loader.checkLoad(statement, 1, "1,\"too long\",1\n");
+			fail("Expected SQLException");
+		}
+		catch (SQLException e) {
+			assertEquals("Loaded 1 of 1 rows into T_FOOS with warnings, the first was: "
+					+ "Data truncated for column 'NAME' at row 1", e.getMessage());
+			assertSame(warning, e.getNextException());
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.springframework.batch.item.database.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.batch.item.database.BulkLoader;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+/**
+ * Tests for {@link PostgresCopyBulkLoader}.
+ */
+public class PostgresCopyBulkLoaderTests {
+
+	private BulkLoader fallback = mock(BulkLoader.class);
+
+	private PostgresCopyBulkLoader loader = new PostgresCopyBulkLoader("T_FOOS", Arrays.asList("ID", "NAME", "DATA"),
+			fallback);
+
+	@Test
+	public void testFormat() {
+		List<Object[]> rows = Arrays.asList(new Object[] { 1, "plain", new byte[] { 1, (byte) 0xab } }, new Object[] {
+				2L, "with, \"quotes\"\nand lines", null }, new Object[] { new SqlParameterValue(Types.INTEGER, 3), "",
+				new SqlParameterValue(Types.BINARY, null) });
+		assertEquals("1,plain,\\x01ab\n2,\"with, \"\"quotes\"\"\nand lines\",\n3,\"\",\n", loader.format(rows));
+	}
+
+	@Test
+	public void testFormatDate() {
+		Timestamp timestamp = Timestamp.valueOf("2013-01-02 03:04:05.6");
+		List<Object[]> rows = Collections.singletonList(new Object[] { 1, true, new java.util.Date(timestamp.getTime()) });
+		assertEquals("1,true,2013-01-02 03:04:05.6\n", loader.format(rows));
+	}
+
+	@Test
+	public void testFallbackWithoutDriver() throws Exception {
+		Connection connection = mock(Connection.class);
+		List<Object[]> rows = Collections.singletonList(new Object[] { 1, "foo", null });
+		loader.load(connection, rows);
+		verify(fallback).load(connection, rows);
+	}
+
+}
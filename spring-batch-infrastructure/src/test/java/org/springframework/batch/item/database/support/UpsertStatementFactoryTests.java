@@ -0,0 +1,72 @@
+package org.springframework.batch.item.database.support;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.springframework.batch.support.DatabaseType;
+
+/**
+ * Tests for {@link UpsertStatementFactory}.
+ */
+public class UpsertStatementFactoryTests {
+
+	private static final String[] KEYS = new String[] { "ID" };
+
+	private static final String[] VALUES = new String[] { "NAME", "VALUE" };
+
+	private UpsertStatementFactory factory = new UpsertStatementFactory();
+
+	@Test
+	public void testPostgres() {
+		assertEquals("INSERT INTO T_FOOS (ID, NAME, VALUE) VALUES (:ID, :NAME, :VALUE) ON CONFLICT (ID) "
+				+ "DO UPDATE SET NAME = EXCLUDED.NAME, VALUE = EXCLUDED.VALUE",
+				factory.getUpsertStatement(DatabaseType.POSTGRES, "T_FOOS", KEYS, VALUES));
+		assertEquals("INSERT INTO T_FOOS (ID) VALUES (:ID) ON CONFLICT (ID) DO NOTHING",
+				factory.getUpsertStatement(DatabaseType.POSTGRES, "T_FOOS", KEYS, null));
+	}
+
+	@Test
+	public void testMySql() {
+		assertEquals("INSERT INTO T_FOOS (ID, NAME, VALUE) VALUES (:ID, :NAME, :VALUE) "
+				+ "ON DUPLICATE KEY UPDATE NAME = VALUES(NAME), VALUE = VALUES(VALUE)",
+				factory.getUpsertStatement(DatabaseType.MYSQL, "T_FOOS", KEYS, VALUES));
+		assertEquals("INSERT INTO T_FOOS (ID) VALUES (:ID) ON DUPLICATE KEY UPDATE ID = ID",
+				factory.getUpsertStatement(DatabaseType.MYSQL, "T_FOOS", KEYS, null));
+	}
+
+	@Test
+	public void testH2() {
+		assertEquals("MERGE INTO T_FOOS (ID, NAME, VALUE) KEY (ID) VALUES (:ID, :NAME, :VALUE)",
+				factory.getUpsertStatement(DatabaseType.H2, "T_FOOS", KEYS, VALUES));
+	}
+
+	@Test
+	public void testOracle() {
+		assertEquals("MERGE INTO T_FOOS T USING (SELECT :ID AS ID, :NAME AS NAME, :VALUE AS VALUE FROM DUAL) S "
+				+ "ON (T.ID = S.ID) WHEN MATCHED THEN UPDATE SET T.NAME = S.NAME, T.VALUE = S.VALUE "
+				+ "WHEN NOT MATCHED THEN INSERT (ID, NAME, VALUE) VALUES (S.ID, S.NAME, S.VALUE)",
+				factory.getUpsertStatement(DatabaseType.ORACLE, "T_FOOS", KEYS, VALUES));
+	}
+
+	@Test
+	public void testSqlServer() {
+		assertEquals("MERGE INTO T_FOOS T USING (SELECT :ID AS ID, :NAME AS NAME) AS S "
+				+ "ON (T.ID = S.ID) WHEN MATCHED THEN UPDATE SET T.NAME = S.NAME "
+				+ "WHEN NOT MATCHED THEN INSERT (ID, NAME) VALUES (S.ID, S.NAME);",
+				factory.getUpsertStatement(DatabaseType.SQLSERVER, "T_FOOS", KEYS, new String[] { "NAME" }));
+	}
+
+	@Test
+	public void testHsqlCompositeKey() {
+		assertEquals("MERGE INTO T_FOOS T USING (VALUES (:ID, :CODE)) AS S (ID, CODE) "
+				+ "ON (T.ID = S.ID AND T.CODE = S.CODE) "
+				+ "WHEN NOT MATCHED THEN INSERT (ID, CODE) VALUES (S.ID, S.CODE)",
+				factory.getUpsertStatement(DatabaseType.HSQL, "T_FOOS", new String[] { "ID", "CODE" }, null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDerby() {
+		factory.getUpsertStatement(DatabaseType.DERBY, "T_FOOS", KEYS, VALUES);
+	}
+
+}
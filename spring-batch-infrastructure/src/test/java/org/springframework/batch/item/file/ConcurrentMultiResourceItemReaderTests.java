@@ -0,0 +1,397 @@
+package org.springframework.batch.item.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Tests for {@link ConcurrentMultiResourceItemReader}.
+ */
+public class ConcurrentMultiResourceItemReaderTests {
+
+	private ConcurrentMultiResourceItemReader<String> tested = new ConcurrentMultiResourceItemReader<String>();
+
+	private ExecutionContext ctx = new ExecutionContext();
+
+	// test input spans several resources
+	private Resource r1 = new ByteArrayResource("1\n2\n3\n".getBytes());
+
+	private Resource r2 = new ByteArrayResource("4\n5\n".getBytes());
+
+	private Resource r3 = new ByteArrayResource("".getBytes());
+
+	private Resource r4 = new ByteArrayResource("6\n".getBytes());
+
+	private Resource r5 = new ByteArrayResource("7\n8\n".getBytes());
+
+	/**
+	 * Setup the tested reader to read from the test resources.
+	 */
+	@Before
+	public void setUp() throws Exception {
+
+		tested.setDelegateFactory(new ObjectFactory<FlatFileItemReader<String>>() {
+			@Override
+			public FlatFileItemReader<String> getObject() throws BeansException {
+				FlatFileItemReader<String> reader = new FlatFileItemReader<String>();
+				reader.setLineMapper(new PassThroughLineMapper());
+				return reader;
+			}
+		});
+		tested.setComparator(new Comparator<Resource>() {
+			@Override
+			public int compare(Resource o1, Resource o2) {
+				return 0; // do not change ordering
+			}
+		});
+		tested.setResources(new Resource[] { r1, r2, r3, r4, r5 });
+		tested.setConcurrency(3);
+		tested.setQueueCapacity(1);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		tested.close();
+	}
+
+	/**
+	 * Read input from start to end in resource order.
+	 */
+	@Test
+	public void testOrderedRead() throws Exception {
+
+		tested.open(ctx);
+
+		assertEquals("1", tested.read());
+		assertSame(r1, tested.getCurrentResource());
+		assertEquals("2", tested.read());
+		assertEquals("3", tested.read());
+		assertEquals("4", tested.read());
+		assertSame(r2, tested.getCurrentResource());
+		assertEquals("5", tested.read());
+		assertEquals("6", tested.read());
+		assertSame(r4, tested.getCurrentResource());
+		assertEquals("7", tested.read());
+		assertEquals("8", tested.read());
+		assertNull(tested.read());
+		assertNull(tested.getCurrentResource());
+	}
+
+	/**
+	 * All items are returned once, in any order.
+	 */
+	@Test
+	public void testUnorderedRead() throws Exception {
+
+		tested.setOrdered(false);
+		tested.open(ctx);
+
+		List<String> items = new ArrayList<String>();
+		String item;
+		while ((item = tested.read()) != null) {
+			items.add(item);
+		}
+		Collections.sort(items);
+
+		assertEquals("[1, 2, 3, 4, 5, 6, 7, 8]", items.toString());
+	}
+
+	/**
+	 * Restart after the first resource is finished and the second one is
+	 * partially read.
+	 */
+	@Test
+	public void testRestart() throws Exception {
+
+		tested.open(ctx);
+
+		assertEquals("1", tested.read());
+		assertEquals("2", tested.read());
+		assertEquals("3", tested.read());
+		assertEquals("4", tested.read());
+
+		tested.update(ctx);
+		tested.close();
+
+		Map<?, ?> positions = (Map<?, ?>) ctx.get("ConcurrentMultiResourceItemReader.resourcePositions");
+		assertEquals(-1, positions.get(0));
+		assertEquals(1, positions.get(1));
+
+		tested.open(ctx);
+
+		assertEquals("5", tested.read());
+		assertEquals("6", tested.read());
+		assertEquals("7", tested.read());
+		assertEquals("8", tested.read());
+		assertNull(tested.read());
+	}
+
+	/**
+	 * Restart the unordered reader, each resource resumes from its own
+	 * position.
+	 */
+	@Test
+	public void testUnorderedRestart() throws Exception {
+
+		tested.setOrdered(false);
+		tested.open(ctx);
+
+		List<String> items = new ArrayList<String>();
+		for (int i = 0; i < 4; i++) {
+			items.add(tested.read());
+		}
+
+		tested.update(ctx);
+		tested.close();
+		tested.open(ctx);
+
+		String item;
+		while ((item = tested.read()) != null) {
+			items.add(item);
+		}
+		Collections.sort(items);
+
+		assertEquals("[1, 2, 3, 4, 5, 6, 7, 8]", items.toString());
+	}
+
+	/**
+	 * A failed item is rethrown and the remaining items are still read.
+	 */
+	@Test
+	public void testReadFailure() throws Exception {
+
+		tested.setDelegateFactory(new ObjectFactory<FlatFileItemReader<String>>() {
+			@Override
+			public FlatFileItemReader<String> getObject() throws BeansException {
+				FlatFileItemReader<String> reader = new FlatFileItemReader<String>();
+				reader.setLineMapper(new PassThroughLineMapper() {
+					@Override
+					public String mapLine(String line, int lineNumber) {
+						if ("5".equals(line)) {
+							throw new IllegalArgumentException("Planned failure");
+						}
+						return line;
+					}
+				});
+				return reader;
+			}
+		});
+		tested.open(ctx);
+
+		assertEquals("1", tested.read());
+		assertEquals("2", tested.read());
+		assertEquals("3", tested.read());
+		assertEquals("4", tested.read());
+		try {
+			tested.read();
+			fail();
+		}
+		catch (FlatFileParseException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+		assertEquals("6", tested.read());
+		assertEquals("7", tested.read());
+		assertEquals("8", tested.read());
+		assertNull(tested.read());
+	}
+
+	/**
+	 * A delegate that fails other than with a parse error is not read any
+	 * further, and the other resources are still read.
+	 */
+	@Test
+	public void testUnrecoverableReadFailure() throws Exception {
+
+		final List<Resource> opened = Collections.synchronizedList(new ArrayList<Resource>());
+		tested.setDelegateFactory(new ObjectFactory<FlatFileItemReader<String>>() {
+			@Override
+			public FlatFileItemReader<String> getObject() throws BeansException {
+				FlatFileItemReader<String> reader = new FlatFileItemReader<String>() {
+					private Resource resource;
+
+					@Override
+					public void setResource(Resource resource) {
+						super.setResource(resource);
+						this.resource = resource;
+						opened.add(resource);
+					}
+
+					@Override
+					public String read() throws Exception {
+						if (resource == r2) {
+							throw new IllegalStateException("Planned failure");
+						}
+						return super.read();
+					}
+				};
+				reader.setLineMapper(new PassThroughLineMapper());
+				return reader;
+			}
+		});
+		tested.open(ctx);
+
+		assertEquals("1", tested.read());
+		assertEquals("2", tested.read());
+		assertEquals("3", tested.read());
+		try {
+			tested.read();
+			fail();
+		}
+		catch (IllegalStateException e) {
+			assertEquals("Planned failure", e.getMessage());
+		}
+		assertEquals("6", tested.read());
+		assertEquals("7", tested.read());
+		assertEquals("8", tested.read());
+		assertNull(tested.read());
+		assertEquals(1, Collections.frequency(opened, r2));
+	}
+
+	/**
+	 * The consumer does not wait forever if the delegates are interrupted
+	 * while handing over their items.
+	 */
+	@Test(timeout = 10000)
+	public void testInterruptedDelegates() throws Exception {
+
+		final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+		tested.setTaskExecutor(new TaskExecutor() {
+			@Override
+			public void execute(Runnable task) {
+				Thread thread = new Thread(task);
+				threads.add(thread);
+				thread.start();
+			}
+		});
+		tested.open(ctx);
+		// let the delegates fill their queues and wait
+		Thread.sleep(200);
+		for (Thread thread : threads) {
+			thread.interrupt();
+		}
+		try {
+			while (tested.read() != null) {
+				// drain the items handed over before the interrupt
+			}
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("stopped"));
+		}
+	}
+
+	/**
+	 * Resources with more items than the queue capacity can be closed
+	 * before they are fully read.
+	 */
+	@Test
+	public void testCloseBeforeEnd() throws Exception {
+
+		tested.open(ctx);
+
+		assertEquals("1", tested.read());
+
+		tested.close();
+		tested.open(new ExecutionContext());
+
+		assertEquals("1", tested.read());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testStrictModeWithoutResources() throws Exception {
+		tested.setResources(new Resource[0]);
+		tested.setStrict(true);
+		tested.open(ctx);
+	}
+
+	/**
+	 * A synchronous executor would block open as soon as the queue is full.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testSyncTaskExecutorIsRejected() throws Exception {
+		tested.setTaskExecutor(new SyncTaskExecutor());
+		tested.afterPropertiesSet();
+	}
+
+	/**
+	 * The started delegates read all the resources if the executor rejects
+	 * some of them.
+	 */
+	@Test
+	public void testRejectedDelegates() throws Exception {
+
+		tested.setTaskExecutor(new RejectingTaskExecutor(1));
+		tested.open(ctx);
+
+		List<String> items = new ArrayList<String>();
+		String item;
+		while ((item = tested.read()) != null) {
+			items.add(item);
+		}
+
+		assertEquals("[1, 2, 3, 4, 5, 6, 7, 8]", items.toString());
+	}
+
+	/**
+	 * Open fails, and close does not wait, if no delegate can be started.
+	 */
+	@Test
+	public void testAllDelegatesRejected() throws Exception {
+
+		tested.setTaskExecutor(new RejectingTaskExecutor(0));
+		try {
+			tested.open(ctx);
+			fail("Expected ItemStreamException");
+		}
+		catch (ItemStreamException e) {
+			assertTrue(e.getMessage().contains("rejected"));
+		}
+	}
+
+	/**
+	 * Accepts a number of tasks and rejects the others.
+	 */
+	private static class RejectingTaskExecutor implements TaskExecutor {
+
+		private final TaskExecutor delegate = new SimpleAsyncTaskExecutor();
+
+		private int accepted;
+
+		public RejectingTaskExecutor(int accepted) {
+			this.accepted = accepted;
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			if (accepted-- <= 0) {
+				throw new TaskRejectedException("Rejected for test");
+			}
+			delegate.execute(task);
+		}
+
+	}
+
+}
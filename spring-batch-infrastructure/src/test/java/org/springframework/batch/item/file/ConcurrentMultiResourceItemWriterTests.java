@@ -0,0 +1,223 @@
+package org.springframework.batch.item.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.transform.PassThroughLineAggregator;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.classify.Classifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests for {@link ConcurrentMultiResourceItemWriter} delegating to
+ * {@link FlatFileItemWriter}.
+ */
+public class ConcurrentMultiResourceItemWriterTests {
+
+	private ConcurrentMultiResourceItemWriter<String> tested = new ConcurrentMultiResourceItemWriter<String>();
+
+	private ResourceSuffixCreator suffixCreator = new SimpleResourceSuffixCreator();
+
+	private ExecutionContext executionContext = new ExecutionContext();
+
+	private TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile(ConcurrentMultiResourceItemWriterTests.class.getSimpleName(), null);
+		tested.setResource(new FileSystemResource(file));
+		tested.setDelegateFactory(new ObjectFactory<FlatFileItemWriter<String>>() {
+			@Override
+			public FlatFileItemWriter<String> getObject() throws BeansException {
+				FlatFileItemWriter<String> delegate = new FlatFileItemWriter<String>();
+				delegate.setLineAggregator(new PassThroughLineAggregator<String>());
+				return delegate;
+			}
+		});
+		tested.setResourceSuffixCreator(suffixCreator);
+		tested.setPartCount(2);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		tested.close();
+		for (int i = 1; i <= 4; i++) {
+			getPart(i).delete();
+		}
+		file.delete();
+	}
+
+	@Test
+	public void testRoundRobinWithRollover() throws Exception {
+
+		tested.setItemCountLimitPerResource(2);
+		tested.open(executionContext);
+
+		tested.write(Arrays.asList("1", "2", "3"));
+		tested.update(executionContext);
+
+		assertEquals("13", readFile(getPart(1)));
+		assertEquals("2", readFile(getPart(2)));
+		assertEquals(3, executionContext.getInt(tested.getExecutionContextKey("resource.index")));
+		assertEquals(0, executionContext.getInt(tested.getExecutionContextKey("part.0.resource.index")));
+		assertEquals(2, executionContext.getInt(tested.getExecutionContextKey("part.1.resource.index")));
+
+		tested.write(Arrays.asList("4", "5"));
+		tested.close();
+
+		assertEquals("24", readFile(getPart(2)));
+		assertEquals("5", readFile(getPart(3)));
+	}
+
+	@Test
+	public void testKeyClassifier() throws Exception {
+
+		tested.setKeyClassifier(new Classifier<String, String>() {
+			@Override
+			public String classify(String item) {
+				return item.substring(0, 1);
+			}
+		});
+		tested.open(executionContext);
+
+		tested.write(Arrays.asList("a1", "b1", "a2"));
+		tested.write(Arrays.asList("b2", "a3"));
+		tested.close();
+
+		String first = readFile(getPart(1));
+		String second = readFile(getPart(2));
+		if (first.startsWith("a")) {
+			assertEquals("a1a2a3", first);
+			assertEquals("b1b2", second);
+		}
+		else {
+			assertEquals("b1b2", first);
+			assertEquals("a1a2a3", second);
+		}
+	}
+
+	@Test
+	public void testRollback() throws Exception {
+
+		tested.open(executionContext);
+
+		write(Arrays.asList("1", "2"), false);
+		try {
+			write(Arrays.asList("3", "4"), true);
+			fail("Expected RuntimeException");
+		}
+		catch (RuntimeException e) {
+			assertEquals("Planned failure", e.getMessage());
+		}
+
+		assertEquals("1", readFile(getPart(1)));
+		assertEquals("2", readFile(getPart(2)));
+
+		write(Arrays.asList("5", "6"), false);
+		tested.close();
+
+		assertEquals("15", readFile(getPart(1)));
+		assertEquals("26", readFile(getPart(2)));
+	}
+
+	@Test
+	public void testRollbackOfNewPart() throws Exception {
+
+		tested.setItemCountLimitPerResource(1);
+		tested.open(executionContext);
+
+		write(Arrays.asList("1"), false);
+		try {
+			write(Arrays.asList("2", "3"), true);
+			fail("Expected RuntimeException");
+		}
+		catch (RuntimeException e) {
+			assertEquals("Planned failure", e.getMessage());
+		}
+
+		write(Arrays.asList("4"), false);
+		tested.close();
+
+		assertEquals("1", readFile(getPart(1)));
+		assertEquals("4", readFile(getPart(2)));
+		assertFalse(getPart(3).exists());
+	}
+
+	@Test
+	public void testRestart() throws Exception {
+
+		tested.open(executionContext);
+
+		tested.write(Arrays.asList("1", "2", "3"));
+		tested.update(executionContext);
+		tested.write(Arrays.asList("4"));
+		tested.close();
+
+		tested.open(executionContext);
+		tested.write(Arrays.asList("5", "6"));
+		tested.close();
+
+		assertEquals("135", readFile(getPart(1)));
+		assertEquals("26", readFile(getPart(2)));
+	}
+
+	private void write(final List<String> items, final boolean fail) {
+		transactionTemplate.execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				try {
+					tested.write(items);
+				}
+				catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				tested.update(executionContext);
+				if (fail) {
+					throw new RuntimeException("Planned failure");
+				}
+				return null;
+			}
+		});
+	}
+
+	private File getPart(int index) {
+		return new File(file.getAbsolutePath() + suffixCreator.getSuffix(index));
+	}
+
+	private String readFile(File f) throws Exception {
+		BufferedReader reader = new BufferedReader(new FileReader(f));
+		StringBuilder result = new StringBuilder();
+		try {
+			while (true) {
+				String line = reader.readLine();
+				if (line == null) {
+					break;
+				}
+				result.append(line);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return result.toString();
+	}
+
+}
@@ -6,14 +6,20 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemCountAware;
 import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.codec.CompressionUtils;
+import org.springframework.batch.item.file.codec.GzipCompressionCodec;
 import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
 import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
 import org.springframework.core.io.AbstractResource;
@@ -224,6 +230,89 @@ public class FlatFileItemReaderTests {
 		assertEquals(4, executionContext.getInt(ClassUtils.getShortName(FlatFileItemReader.class) + ".read.count"));
 	}
 
+	@Test
+	public void testReadCompressed() throws Exception {
+
+		GzipCompressionCodec codec = new GzipCompressionCodec();
+		reader.setCompressionCodec(codec);
+		reader.setResource(new ByteArrayResource(compress(codec, "testLine1\ntestLine2\n", "testLine3\n")));
+		reader.open(executionContext);
+
+		assertEquals("testLine1", reader.read());
+		assertEquals("testLine2", reader.read());
+		assertEquals("testLine3", reader.read());
+		assertNull(reader.read());
+	}
+
+	@Test
+	public void testSeekOnRestartCompressed() throws Exception {
+
+		GzipCompressionCodec codec = new GzipCompressionCodec();
+		byte[] block1 = compress(codec, "header\ntestLine1\ntestLine2\n");
+		byte[] block2 = compress(codec, "testLine3\ntestLine4\n");
+		byte[] block3 = compress(codec, "testLine5\ntestLine6\n");
+		byte[] input = concat(block1, block2, block3);
+
+		reader.setCompressionCodec(codec);
+		reader.setSeekOnRestart(true);
+		reader.setLinesToSkip(1);
+		reader.setResource(new ByteArrayResource(input));
+		reader.open(executionContext);
+
+		for (int i = 1; i <= 4; i++) {
+			assertEquals("testLine" + i, reader.read());
+		}
+		reader.update(executionContext);
+		reader.close();
+
+		// the last block started before the fourth line
+		assertEquals(block1.length,
+				executionContext.getLong(ClassUtils.getShortName(FlatFileItemReader.class) + ".block.offset"));
+
+		// the restart must not decompress the block before the offset
+		Arrays.fill(input, 0, block1.length, (byte) 0);
+		reader.setResource(new ByteArrayResource(input));
+		reader.open(executionContext);
+
+		assertEquals("testLine5", reader.read());
+		assertEquals("testLine6", reader.read());
+
+		reader.update(executionContext);
+		assertEquals(6, executionContext.getInt(ClassUtils.getShortName(FlatFileItemReader.class) + ".read.count"));
+		assertNull(reader.read());
+	}
+
+	@Test
+	public void testSeekOnRestartCompressedWithSkippedLinesCallback() throws Exception {
+
+		GzipCompressionCodec codec = new GzipCompressionCodec();
+		reader.setCompressionCodec(codec);
+		reader.setSeekOnRestart(true);
+		reader.setLinesToSkip(1);
+		final List<String> skipped = new ArrayList<String>();
+		reader.setSkippedLinesCallback(new LineCallbackHandler() {
+			@Override
+			public void handleLine(String line) {
+				skipped.add(line);
+			}
+		});
+		reader.setResource(new ByteArrayResource(compress(codec, "header\ntestLine1\n", "testLine2\ntestLine3\n",
+				"testLine4\n")));
+		reader.open(executionContext);
+
+		assertEquals("testLine1", reader.read());
+		assertEquals("testLine2", reader.read());
+		reader.update(executionContext);
+		reader.close();
+
+		reader.open(executionContext);
+
+		assertEquals("testLine3", reader.read());
+		assertEquals("testLine4", reader.read());
+		assertNull(reader.read());
+		assertEquals("[header, header]", skipped.toString());
+	}
+
 	@Test
 	public void testCurrentItemCount() throws Exception {
 
@@ -498,6 +587,22 @@ public class FlatFileItemReaderTests {
 		return new ByteArrayResource(input.getBytes());
 	}
 
+	private byte[] compress(GzipCompressionCodec codec, String... blocks) throws IOException {
+		byte[][] result = new byte[blocks.length][];
+		for (int i = 0; i < blocks.length; i++) {
+			result[i] = CompressionUtils.compress(codec, blocks[i].getBytes());
+		}
+		return concat(result);
+	}
+
+	private byte[] concat(byte[]... blocks) {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		for (byte[] block : blocks) {
+			result.write(block, 0, block.length);
+		}
+		return result.toByteArray();
+	}
+
 	private static class NonExistentResource extends AbstractResource {
 
 		public NonExistentResource() {
@@ -23,11 +23,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
 import java.io.Writer;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
@@ -41,6 +44,8 @@ import org.junit.Test;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.batch.item.file.codec.CompressionCodec;
+import org.springframework.batch.item.file.codec.GzipCompressionCodec;
 import org.springframework.batch.item.file.transform.LineAggregator;
 import org.springframework.batch.item.file.transform.PassThroughLineAggregator;
 import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
@@ -441,6 +446,124 @@ public class FlatFileItemWriterTests {
 
 	}
 
+	@Test
+	public void testCompressedTransactionalRestart() throws Exception {
+
+		writer.setCompressionCodec(new GzipCompressionCodec());
+		writer.setHeaderCallback(new FlatFileHeaderCallback() {
+			@Override
+			public void writeHeader(Writer writer) throws IOException {
+				writer.write("header");
+			}
+		});
+		writer.setFooterCallback(new FlatFileFooterCallback() {
+			@Override
+			public void writeFooter(Writer writer) throws IOException {
+				writer.write("footer");
+			}
+		});
+
+		writer.open(executionContext);
+		writeInTransaction(executionContext, "testLine1", "testLine2", "testLine3");
+		// committed, but the state is not saved, so it is truncated on restart
+		writeInTransaction(new ExecutionContext(), "testLine4", "testLine5");
+		writer.close();
+
+		writer.open(executionContext);
+		writeInTransaction(executionContext, "testLine6");
+		writer.close();
+
+		reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(outputFile)), "UTF-8"));
+		assertEquals("header", readLine());
+		assertEquals("testLine1", readLine());
+		assertEquals("testLine2", readLine());
+		assertEquals("testLine3", readLine());
+		assertEquals("testLine6", readLine());
+		assertEquals("footer", readLine());
+		assertNull(readLine());
+	}
+
+	@Test
+	public void testCompressedNotTransactional() throws Exception {
+
+		writer.setCompressionCodec(new GzipCompressionCodec());
+		writer.setTransactional(false);
+		writer.open(executionContext);
+		writer.write(Arrays.asList("testLine1", "testLine2"));
+		writer.update(executionContext);
+		writer.write(Arrays.asList("testLine3"));
+		writer.close();
+
+		writer.open(executionContext);
+		writer.write(Arrays.asList("testLine4"));
+		writer.close();
+
+		reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(outputFile)), "UTF-8"));
+		assertEquals("testLine1", readLine());
+		assertEquals("testLine2", readLine());
+		assertEquals("testLine4", readLine());
+		assertNull(readLine());
+	}
+
+	@Test
+	public void testCompressedBlockPerWrite() throws Exception {
+
+		CompressionCodec codec = new GzipCompressionCodec();
+		writer.setCompressionCodec(codec);
+		writer.setLineSeparator("\n");
+		writer.setHeaderCallback(new FlatFileHeaderCallback() {
+			@Override
+			public void writeHeader(Writer writer) throws IOException {
+				writer.write("head");
+				writer.write("er");
+			}
+		});
+
+		// the header is written outside of a transaction
+		writer.open(executionContext);
+		writeInTransaction(executionContext, "testLine1", "testLine2");
+		writer.write(Arrays.asList("testLine3"));
+		writer.close();
+
+		InputStream in = new BufferedInputStream(new FileInputStream(outputFile));
+		try {
+			assertEquals("header\n", readBlock(codec, in));
+			assertEquals("testLine1\ntestLine2\n", readBlock(codec, in));
+			assertEquals("testLine3\n", readBlock(codec, in));
+			assertEquals(-1, in.read());
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private String readBlock(CompressionCodec codec, InputStream in) throws IOException {
+		InputStream block = codec.createInputStream(in);
+		StringBuilder result = new StringBuilder();
+		byte[] buffer = new byte[100];
+		int count;
+		while ((count = block.read(buffer)) > 0) {
+			result.append(new String(buffer, 0, count, "UTF-8"));
+		}
+		return result.toString();
+	}
+
+	private void writeInTransaction(final ExecutionContext executionContext, final String... lines) {
+		new TransactionTemplate(new ResourcelessTransactionManager()).execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				try {
+					writer.write(Arrays.asList(lines));
+				}
+				catch (Exception e) {
+					throw new UnexpectedInputException("Could not write data", e);
+				}
+				writer.update(executionContext);
+				return null;
+			}
+		});
+	}
+
 	@Test
 	// BATCH-1959
 	public void testTransactionalRestartWithMultiByteCharacterUTF8() throws Exception {
@@ -0,0 +1,69 @@
+package org.springframework.batch.item.file.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompressedBlockInputStream}.
+ */
+public class CompressedBlockInputStreamTests {
+
+	private CompressionCodec codec = new DeflaterCompressionCodec();
+
+	@Test
+	public void testCheckpointsAtLineBoundaries() throws Exception {
+		byte[] block1 = CompressionUtils.compress(codec, "a\nb\n".getBytes());
+		// the third block starts in the middle of a line
+		byte[] block2 = CompressionUtils.compress(codec, "c\nd".getBytes());
+		byte[] block3 = CompressionUtils.compress(codec, "e\nf\n".getBytes());
+		CompressedBlockInputStream stream = new CompressedBlockInputStream(new ByteArrayInputStream(concat(block1,
+				block2, block3)), codec, 0, 0);
+
+		assertEquals("a\nb\nc\nde\nf\n", readAll(stream));
+
+		assertEquals(0, stream.getCheckpoint(1)[0]);
+		assertEquals(block1.length, stream.getCheckpoint(2)[0]);
+		assertEquals(2, stream.getCheckpoint(2)[1]);
+		assertEquals(block1.length, stream.getCheckpoint(5)[0]);
+		assertNull(stream.getCheckpoint(1));
+	}
+
+	@Test
+	public void testResumeAtOffset() throws Exception {
+		byte[] block1 = CompressionUtils.compress(codec, "a\n".getBytes());
+		byte[] block2 = CompressionUtils.compress(codec, "b\n".getBytes());
+		byte[] block3 = CompressionUtils.compress(codec, "c\n".getBytes());
+		byte[] input = concat(block1, block2, block3);
+		InputStream in = new ByteArrayInputStream(input, block1.length, input.length - block1.length);
+		CompressedBlockInputStream stream = new CompressedBlockInputStream(in, codec, block1.length, 1);
+
+		assertEquals("b\nc\n", readAll(stream));
+		assertEquals(block1.length + block2.length, stream.getCheckpoint(2)[0]);
+	}
+
+	private byte[] concat(byte[]... blocks) {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		for (byte[] block : blocks) {
+			result.write(block, 0, block.length);
+		}
+		return result.toByteArray();
+	}
+
+	private String readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		byte[] buffer = new byte[5];
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			result.write(buffer, 0, count);
+		}
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.springframework.batch.item.file.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link GzipCompressionCodec}.
+ */
+public class GzipCompressionCodecTests {
+
+	private GzipCompressionCodec codec = new GzipCompressionCodec();
+
+	@Test
+	public void testBlocksReadableAsGzip() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(CompressionUtils.compress(codec, "foo\n".getBytes()));
+		out.write(CompressionUtils.compress(codec, "bar\n".getBytes()));
+
+		assertEquals("foo\nbar\n", readAll(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+	}
+
+	@Test
+	public void testSingleBlockIsRead() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(CompressionUtils.compress(codec, "foo\n".getBytes()));
+		out.write(CompressionUtils.compress(codec, "bar\n".getBytes()));
+		InputStream in = new BufferedInputStream(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals("foo\n", readAll(codec.createInputStream(in)));
+		assertEquals("bar\n", readAll(codec.createInputStream(in)));
+		assertEquals(-1, in.read());
+	}
+
+	@Test
+	public void testHeaderWithFileName() throws Exception {
+		byte[] data = "foo\n".getBytes();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 8, 0, 0, 0, 0, 0, (byte) 255 });
+		out.write("foo.txt\0".getBytes());
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(data);
+		deflater.finish();
+		byte[] buffer = new byte[100];
+		out.write(buffer, 0, deflater.deflate(buffer));
+		deflater.end();
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		writeInt(out, crc.getValue());
+		writeInt(out, data.length);
+
+		InputStream in = new BufferedInputStream(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals("foo\n", readAll(codec.createInputStream(in)));
+		assertEquals(-1, in.read());
+	}
+
+	@Test
+	public void testCorruptTrailer() throws Exception {
+		byte[] block = CompressionUtils.compress(codec, "foo\n".getBytes());
+		block[block.length - 5]++;
+		try {
+			readAll(codec.createInputStream(new BufferedInputStream(new ByteArrayInputStream(block))));
+			fail("Expected ZipException");
+		}
+		catch (ZipException e) {
+			// expected
+		}
+	}
+
+	private void writeInt(ByteArrayOutputStream out, long value) {
+		for (int i = 0; i < 4; i++) {
+			out.write((int) (value >> (8 * i)) & 0xff);
+		}
+	}
+
+	private String readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		byte[] buffer = new byte[3];
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			result.write(buffer, 0, count);
+		}
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,182 @@
+package org.springframework.batch.item.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Tests for {@link CachingLookupItemProcessor}.
+ */
+public class CachingLookupItemProcessorTests {
+
+	private List<Collection<String>> loads = new ArrayList<Collection<String>>();
+
+	private CachingLookupItemProcessor<String, String, String, String> processor = new CachingLookupItemProcessor<String, String, String, String>() {
+		@Override
+		protected String getKey(String item) {
+			return item.length() > 1 ? item.substring(0, 1) : null;
+		}
+
+		@Override
+		protected String process(String item, String value) throws Exception {
+			return item + ":" + value;
+		}
+	};
+
+	@Before
+	public void setUp() throws Exception {
+		processor.setLookupLoader(new LookupLoader<String, String>() {
+			@Override
+			public Map<String, String> load(Collection<String> keys) throws Exception {
+				loads.add(new ArrayList<String>(keys));
+				Map<String, String> values = new HashMap<String, String>();
+				for (String key : keys) {
+					if (!key.equals("x")) {
+						values.put(key, key.toUpperCase());
+					}
+				}
+				return values;
+			}
+		});
+		processor.afterPropertiesSet();
+	}
+
+	@Test
+	public void testPrefetch() throws Exception {
+		processor.prefetch(Arrays.asList("a1", "b1", "a2", "x1", "c"));
+
+		assertEquals("a1:A", processor.process("a1"));
+		assertEquals("b1:B", processor.process("b1"));
+		assertEquals("a2:A", processor.process("a2"));
+		assertEquals("x1:null", processor.process("x1"));
+		assertEquals("c:null", processor.process("c"));
+		assertEquals(1, loads.size());
+		assertEquals(Arrays.asList("a", "b", "x"), loads.get(0));
+		assertEquals(4, processor.getHitCount());
+		assertEquals(0, processor.getMissCount());
+	}
+
+	@Test
+	public void testPrefetchOnlyMisses() throws Exception {
+		processor.prefetch(Arrays.asList("a1", "b1"));
+		processor.prefetch(Arrays.asList("a2", "c1"));
+
+		assertEquals(Arrays.asList("c"), loads.get(1));
+		assertEquals(2, processor.getLoadCount());
+	}
+
+	@Test
+	public void testMaxKeysPerLoad() throws Exception {
+		processor.setMaxKeysPerLoad(2);
+		processor.prefetch(Arrays.asList("a1", "b1", "c1"));
+
+		assertEquals(Arrays.asList("a", "b"), loads.get(0));
+		assertEquals(Arrays.asList("c"), loads.get(1));
+	}
+
+	@Test
+	public void testProcessWithoutPrefetch() throws Exception {
+		assertEquals("a1:A", processor.process("a1"));
+		assertEquals("a2:A", processor.process("a2"));
+
+		assertEquals(1, loads.size());
+		assertEquals(1, processor.getHitCount());
+		assertEquals(1, processor.getMissCount());
+	}
+
+	@Test
+	public void testCacheSize() throws Exception {
+		processor.setCacheSize(2);
+		processor.process("a1");
+		processor.process("b1");
+		processor.process("a2");
+		processor.process("c1");
+		processor.process("a3");
+		processor.process("b2");
+
+		// b is the least recently used when c is added
+		assertEquals(4, loads.size());
+		assertEquals(Arrays.asList("b"), loads.get(3));
+	}
+
+	@Test
+	public void testTimeToLive() throws Exception {
+		processor.setTimeToLive(1);
+		processor.process("a1");
+		Thread.sleep(10);
+		processor.process("a2");
+
+		assertEquals(2, loads.size());
+	}
+
+	@Test
+	public void testClearOnClose() throws Exception {
+		processor.process("a1");
+		processor.close();
+		processor.process("a2");
+
+		assertEquals(2, loads.size());
+	}
+
+	@Test
+	public void testKeepOnClose() throws Exception {
+		processor.setClearOnClose(false);
+		processor.process("a1");
+		processor.close();
+		processor.process("a2");
+
+		assertEquals(1, loads.size());
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		processor.process("a1");
+		processor.process("a2");
+		ExecutionContext executionContext = new ExecutionContext();
+		processor.update(executionContext);
+
+		assertEquals(1, executionContext.getLong("CachingLookupItemProcessor.hit.count"));
+		assertEquals(1, executionContext.getLong("CachingLookupItemProcessor.miss.count"));
+		assertEquals(1, executionContext.getLong("CachingLookupItemProcessor.load.count"));
+		assertNull(processor.getKey("c"));
+	}
+
+	@Test
+	public void testOpenResetsCounts() throws Exception {
+		processor.process("a1");
+		processor.process("a2");
+		processor.open(new ExecutionContext());
+		processor.process("a3");
+		ExecutionContext executionContext = new ExecutionContext();
+		processor.update(executionContext);
+
+		assertEquals(1, executionContext.getLong("CachingLookupItemProcessor.hit.count"));
+		assertEquals(0, executionContext.getLong("CachingLookupItemProcessor.miss.count"));
+		assertEquals(0, executionContext.getLong("CachingLookupItemProcessor.load.count"));
+	}
+
+	@Test
+	public void testOpenRestoresCounts() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		executionContext.putLong("CachingLookupItemProcessor.hit.count", 5);
+		executionContext.putLong("CachingLookupItemProcessor.miss.count", 2);
+		executionContext.putLong("CachingLookupItemProcessor.load.count", 3);
+		processor.open(executionContext);
+		processor.process("a1");
+
+		assertEquals(5, processor.getHitCount());
+		assertEquals(3, processor.getMissCount());
+		assertEquals(4, processor.getLoadCount());
+	}
+
+}
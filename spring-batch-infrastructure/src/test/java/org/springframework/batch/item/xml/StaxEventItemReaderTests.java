@@ -387,6 +387,102 @@ public class StaxEventItemReaderTests {
 		assertNull(source.read());
 	}
 
+	/**
+	 * Restart seeks to the stored offset: the content before it is never parsed.
+	 */
+	@Test
+	public void testSeekOnRestart() throws Exception {
+		String seekXml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><p:root xmlns:p=\"urn:org.test.foo\"><p:header>\u00e9\u00e8</p:header> "
+				+ "<fragment> <misc1/> </fragment> <fragment> \u00e0 </fragment> <fragment> last </fragment> </p:root>";
+		source.setResource(new ByteArrayResource(seekXml.getBytes("UTF-8")));
+		source.setSeekOnRestart(true);
+		source.afterPropertiesSet();
+		source.open(executionContext);
+		assertNotNull(source.read());
+		assertNotNull(source.read());
+		source.update(executionContext);
+		source.close();
+
+		String prefix = ClassUtils.getShortName(StaxEventItemReader.class);
+		long offset = executionContext.getLong(prefix + ".fragment.offset");
+		// two multi-byte characters precede the fragment
+		assertEquals(seekXml.indexOf("<fragment> \u00e0") + 2, offset);
+		assertEquals(2, executionContext.getInt(prefix + ".fragment.index"));
+		assertEquals("<p:root xmlns:p=\"urn:org.test.foo\">", executionContext.getString(prefix + ".fragment.ancestors"));
+
+		// overwrite everything before the stored offset with garbage
+		byte[] garbled = seekXml.getBytes("UTF-8");
+		for (int i = 0; i < offset; i++) {
+			garbled[i] = '#';
+		}
+		source = createNewInputSouce();
+		source.setResource(new ByteArrayResource(garbled));
+		source.setSeekOnRestart(true);
+		source.afterPropertiesSet();
+		source.open(executionContext);
+		List<XMLEvent> events = source.read();
+		assertEquals(" last ", events.get(0).asCharacters().getData());
+		assertNull(source.read());
+		source.update(executionContext);
+		source.close();
+
+		// the stored offset stays absolute after a restart from an offset
+		assertEquals(seekXml.indexOf("<fragment> last") + 3, executionContext.getLong(prefix + ".fragment.offset"));
+		assertEquals(4, executionContext.getInt(prefix + ".read.count"));
+		source = createNewInputSouce();
+		source.setResource(new ByteArrayResource(garbled));
+		source.setSeekOnRestart(true);
+		source.open(executionContext);
+		assertNull(source.read());
+		source.close();
+	}
+
+	/**
+	 * The byte order mark of a UTF-16 resource is counted only once in the stored offset.
+	 */
+	@Test
+	public void testSeekOnRestartWithUtf16() throws Exception {
+		// the fragments are decoded from a later buffer than the start of the stream
+		char[] padding = new char[5000];
+		Arrays.fill(padding, ' ');
+		String seekXml = "<?xml version=\"1.0\" encoding=\"UTF-16\"?><root>" + new String(padding)
+				+ "<fragment> <misc1/> </fragment> <fragment> \u00e0 </fragment> <fragment> last </fragment> </root>";
+		source.setResource(new ByteArrayResource(seekXml.getBytes("UTF-16")));
+		source.setEncoding("UTF-16");
+		source.setSeekOnRestart(true);
+		source.afterPropertiesSet();
+		source.open(executionContext);
+		assertNotNull(source.read());
+		assertNotNull(source.read());
+		source.update(executionContext);
+		source.close();
+
+		String prefix = ClassUtils.getShortName(StaxEventItemReader.class);
+		assertEquals(2 + 2 * seekXml.indexOf("<fragment> \u00e0"), executionContext.getLong(prefix + ".fragment.offset"));
+
+		source = createNewInputSouce();
+		source.setResource(new ByteArrayResource(seekXml.getBytes("UTF-16")));
+		source.setEncoding("UTF-16");
+		source.setSeekOnRestart(true);
+		source.afterPropertiesSet();
+		source.open(executionContext);
+		List<XMLEvent> events = source.read();
+		assertEquals(" last ", events.get(0).asCharacters().getData());
+		assertNull(source.read());
+		source.close();
+	}
+
+	/**
+	 * Without seekOnRestart the offset is not stored.
+	 */
+	@Test
+	public void testNoOffsetWithoutSeekOnRestart() throws Exception {
+		source.open(executionContext);
+		source.read();
+		source.update(executionContext);
+		assertFalse(executionContext.containsKey(ClassUtils.getShortName(StaxEventItemReader.class) + ".fragment.offset"));
+	}
+
 	@Test
 	public void testRestoreWorksFromClosedStream() throws Exception {
 		source.close();
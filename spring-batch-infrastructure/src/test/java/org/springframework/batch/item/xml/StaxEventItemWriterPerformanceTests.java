@@ -0,0 +1,162 @@
+package org.springframework.batch.item.xml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StopWatch;
+
+/**
+ * Compares the throughput of the {@link StaxEventItemWriter} writing through
+ * the event API, the cursor API and an item serializer.
+ */
+public class StaxEventItemWriterPerformanceTests {
+
+	private static final int CHUNK_COUNT = 100;
+
+	private static final int CHUNK_SIZE = 100;
+
+	private Log logger = LogFactory.getLog(getClass());
+
+	private List<Trade> items = new ArrayList<Trade>();
+
+	private Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+
+	private File file;
+
+	private static boolean warmedUp = false;
+
+	@Before
+	public void setUp() throws Exception {
+		for (int i = 0; i < CHUNK_SIZE; i++) {
+			items.add(new Trade("ISIN" + i, i * 10, "customer-" + i));
+		}
+		marshaller.setClassesToBeBound(Trade.class);
+		marshaller.afterPropertiesSet();
+		if (!warmedUp) {
+			doTest("warmup", createItemWriter());
+			warmedUp = true;
+		}
+	}
+
+	@Test
+	public void testEventWriter() throws Exception {
+		doTest("event writer", createItemWriter());
+	}
+
+	@Test
+	public void testStreamWriter() throws Exception {
+		StaxEventItemWriter<Trade> writer = createItemWriter();
+		writer.setUseXmlStreamWriter(true);
+		doTest("stream writer", writer);
+	}
+
+	@Test
+	public void testItemSerializer() throws Exception {
+		StaxEventItemWriter<Trade> writer = createItemWriter();
+		writer.setItemSerializer(new TradeSerializer());
+		doTest("item serializer", writer);
+	}
+
+	private void doTest(String name, final StaxEventItemWriter<Trade> writer) throws Exception {
+		final ExecutionContext executionContext = new ExecutionContext();
+		writer.afterPropertiesSet();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+		StopWatch stopWatch = new StopWatch(name);
+		stopWatch.start();
+		writer.open(executionContext);
+		for (int i = 0; i < CHUNK_COUNT; i++) {
+			transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+				@Override
+				protected void doInTransactionWithoutResult(TransactionStatus status) {
+					try {
+						writer.write(items);
+					}
+					catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+					writer.update(executionContext);
+				}
+			});
+		}
+		writer.close();
+		stopWatch.stop();
+		assertEquals(CHUNK_COUNT * CHUNK_SIZE, executionContext.getLong("StaxEventItemWriter.record.count"));
+		double megabytes = file.length() / (1024.0 * 1024.0);
+		logger.info(stopWatch.shortSummary() + String.format("; %.1f MB at %.1f MB/s", megabytes, megabytes
+				/ stopWatch.getTotalTimeSeconds()));
+		file.delete();
+	}
+
+	private StaxEventItemWriter<Trade> createItemWriter() throws Exception {
+		File directory = new File("target/data");
+		directory.mkdirs();
+		file = File.createTempFile("StaxEventItemWriterPerformanceTests", ".xml", directory);
+		StaxEventItemWriter<Trade> writer = new StaxEventItemWriter<Trade>();
+		writer.setResource(new FileSystemResource(file));
+		writer.setMarshaller(marshaller);
+		writer.setRootTagName("trades");
+		return writer;
+	}
+
+	private static class TradeSerializer implements StaxItemSerializer<Trade> {
+
+		@Override
+		public void serialize(Trade item, XMLStreamWriter writer) throws XMLStreamException {
+			writer.writeStartElement("trade");
+			writer.writeStartElement("isin");
+			writer.writeCharacters(item.isin);
+			writer.writeEndElement();
+			writer.writeStartElement("quantity");
+			writer.writeCharacters(String.valueOf(item.quantity));
+			writer.writeEndElement();
+			writer.writeStartElement("customer");
+			writer.writeCharacters(item.customer);
+			writer.writeEndElement();
+			writer.writeEndElement();
+		}
+
+	}
+
+	@XmlRootElement(name = "trade")
+	@XmlAccessorType(XmlAccessType.FIELD)
+	private static class Trade {
+
+		private String isin;
+
+		private long quantity;
+
+		private String customer;
+
+		@SuppressWarnings("unused")
+		public Trade() {
+		}
+
+		public Trade(String isin, long quantity, String customer) {
+			this.isin = isin;
+			this.quantity = quantity;
+			this.customer = customer;
+		}
+
+	}
+
+}
@@ -16,6 +16,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
 
 import org.apache.commons.io.FileUtils;
@@ -740,6 +741,115 @@ public class StaxEventItemWriterTests {
 				"<foo:root xmlns:foo=\"urn:org.test.foo\" xmlns:ns=\"http://www.springframework.org/test\"><ns:item/><ns:item/></foo:root>", content);
 	}
 	
+	/**
+	 * Marshaller writes through the cursor API, namespace prefixes are properly initialized on restart.
+	 */
+	@Test
+	public void testXmlStreamWriterWithNamespaceAndPrefixRestart() throws Exception {
+		writer.setMarshaller(jaxbMarshaller);
+		writer.setUseXmlStreamWriter(true);
+		writer.setRootTagName("{http://www.springframework.org/test}ns:root");
+		writer.afterPropertiesSet();
+		writer.open(executionContext);
+		writer.write(jaxbItems);
+		writer.update(executionContext);
+		writer.close();
+
+		writer = createItemWriter();
+		writer.setMarshaller(jaxbMarshaller);
+		writer.setUseXmlStreamWriter(true);
+		writer.setRootTagName("{http://www.springframework.org/test}ns:root");
+		writer.afterPropertiesSet();
+		writer.open(executionContext);
+		writer.write(jaxbItems);
+		writer.update(executionContext);
+		writer.close();
+
+		String content = getOutputFileContent();
+		assertEquals("Wrong content: " + content,
+				"<ns:root xmlns:ns=\"http://www.springframework.org/test\"><ns:item/><ns:item/></ns:root>", content);
+	}
+
+	/**
+	 * Items are written by the serializer, after the header written through the event API.
+	 */
+	@Test
+	public void testWriteWithItemSerializer() throws Exception {
+		writer.setMarshaller(null);
+		writer.setItemSerializer(new SimpleItemSerializer());
+		writer.setHeaderCallback(new StaxWriterCallback() {
+
+			@Override
+			public void write(XMLEventWriter writer) throws IOException {
+				XMLEventFactory factory = XMLEventFactory.newInstance();
+				try {
+					writer.add(factory.createStartElement("", "", "header"));
+					writer.add(factory.createEndElement("", "", "header"));
+				}
+				catch (XMLStreamException e) {
+					throw new RuntimeException(e);
+				}
+
+			}
+
+		});
+		writer.afterPropertiesSet();
+		writer.open(executionContext);
+		writer.write(items);
+		writer.write(itemsMultiByte);
+		writer.close();
+
+		String content = getOutputFileContent();
+		assertEquals("Wrong content: " + content, "<root><header/><item name=\"" + item + "\"/><item name=\""
+				+ itemMultiByte + "\"/></root>", content);
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void testTransactionalRestartWithItemSerializer() throws Exception {
+		writer.setItemSerializer(new SimpleItemSerializer());
+		writer.open(executionContext);
+
+		PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+
+		new TransactionTemplate(transactionManager).execute(new TransactionCallback() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				try {
+					writer.write(itemsMultiByte);
+				}
+				catch (Exception e) {
+					throw new UnexpectedInputException("Could not write data", e);
+				}
+				writer.update(executionContext);
+				return null;
+			}
+		});
+		writer.close();
+
+		writer = createItemWriter();
+		writer.setItemSerializer(new SimpleItemSerializer());
+		writer.open(executionContext);
+		new TransactionTemplate(transactionManager).execute(new TransactionCallback() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				try {
+					writer.write(items);
+				}
+				catch (Exception e) {
+					throw new UnexpectedInputException("Could not write data", e);
+				}
+				writer.update(executionContext);
+				return null;
+			}
+		});
+		writer.close();
+
+		String content = getOutputFileContent();
+		assertEquals("Wrong content: " + content, "<root><item name=\"" + itemMultiByte + "\"/><item name=\"" + item
+				+ "\"/></root>", content);
+	}
+
 	/**
 	 * Test with OXM Marshaller that closes the XMLEventWriter. 
 	 */
@@ -802,6 +912,19 @@ public class StaxEventItemWriterTests {
 		}
 	}
 
+	/**
+	 * Writes object's toString representation as attribute of an item element.
+	 */
+	private static class SimpleItemSerializer implements StaxItemSerializer<Object> {
+
+		@Override
+		public void serialize(Object item, XMLStreamWriter writer) throws XMLStreamException {
+			writer.writeEmptyElement("item");
+			writer.writeAttribute("name", item.toString());
+		}
+
+	}
+
 	/**
 	 * @return output file content as String
 	 */
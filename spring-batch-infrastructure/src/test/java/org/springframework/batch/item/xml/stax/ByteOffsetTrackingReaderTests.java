@@ -0,0 +1,90 @@
+package org.springframework.batch.item.xml.stax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ByteOffsetTrackingReader}.
+ */
+public class ByteOffsetTrackingReaderTests {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Test
+	public void testByteOffsetOfMultiByteContent() throws Exception {
+		String text = "\u00e9<a>\u20ac<b>";
+		ByteOffsetTrackingReader reader = new ByteOffsetTrackingReader(new ByteArrayInputStream(text.getBytes(UTF_8)),
+				UTF_8, 100, "");
+		assertEquals(text, readAll(reader, 1024));
+		assertEquals(100, reader.getByteOffset(0));
+		assertEquals(102, reader.getByteOffset(1));
+		assertEquals(105, reader.getByteOffset(4));
+		assertEquals(108, reader.getByteOffset(5));
+		assertTrue(reader.matches(5, "<b>"));
+		assertFalse(reader.matches(5, "<b>c"));
+		assertEquals(-1, reader.getByteOffset(text.length()));
+	}
+
+	@Test
+	public void testByteOrderMarkIsNotCounted() throws Exception {
+		Charset utf16 = Charset.forName("UTF-16");
+		String text = "<a>\u00e9<b>";
+		ByteOffsetTrackingReader reader = new ByteOffsetTrackingReader(new ByteArrayInputStream(text.getBytes(utf16)),
+				utf16, 0, "");
+		assertEquals(text, readAll(reader, 3));
+		assertEquals(2, reader.getByteOffset(0));
+		assertEquals(6, reader.getByteOffset(2));
+		assertEquals(10, reader.getByteOffset(4));
+		assertEquals(12, reader.getByteOffset(5));
+	}
+
+	@Test
+	public void testPrefixHasNoByteOffset() throws Exception {
+		ByteOffsetTrackingReader reader = new ByteOffsetTrackingReader(new ByteArrayInputStream("<b/>".getBytes(UTF_8)),
+				UTF_8, 10, "<a>");
+		assertEquals("<a><b/>", readAll(reader, 2));
+		assertEquals(-1, reader.getByteOffset(0));
+		assertEquals(10, reader.getByteOffset(3));
+		assertTrue(reader.matches(3, "<b"));
+	}
+
+	@Test
+	public void testSurrogatePairWithSingleCharacterReads() throws Exception {
+		String text = "x\ud83d\ude00<a>";
+		ByteOffsetTrackingReader reader = new ByteOffsetTrackingReader(new ByteArrayInputStream(text.getBytes(UTF_8)),
+				UTF_8, 0, "");
+		assertEquals(text, readAll(reader, 1));
+		assertEquals(5, reader.getByteOffset(3));
+	}
+
+	@Test
+	public void testOldCharactersAreDiscarded() throws Exception {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			text.append("0123456789");
+		}
+		ByteOffsetTrackingReader reader = new ByteOffsetTrackingReader(new ByteArrayInputStream(text.toString()
+				.getBytes(UTF_8)), UTF_8, 0, "");
+		reader.setRetainedCharacters(100);
+		readAll(reader, 10);
+		assertEquals(-1, reader.getByteOffset(0));
+		assertEquals(990, reader.getByteOffset(990));
+	}
+
+	private String readAll(ByteOffsetTrackingReader reader, int bufferSize) throws Exception {
+		StringBuilder result = new StringBuilder();
+		char[] buffer = new char[bufferSize];
+		int count;
+		while ((count = reader.read(buffer, 0, bufferSize)) >= 0) {
+			result.append(buffer, 0, count);
+		}
+		return result.toString();
+	}
+
+}
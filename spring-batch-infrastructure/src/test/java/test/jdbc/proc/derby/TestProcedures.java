@@ -31,4 +31,12 @@ public class TestProcedures {
         ps2.setInt(2, toId);
         rs[0] = ps2.executeQuery();
     }
+
+    public static void readFoosAfter(Long lastId, ResultSet[] rs) throws SQLException {
+        String SQL = "SELECT id, name, value FROM T_FOOS WHERE id > ? ORDER BY id";
+        Connection conn = DriverManager.getConnection("jdbc:default:connection");
+        PreparedStatement ps3 = conn.prepareStatement(SQL);
+        ps3.setLong(1, lastId == null ? Long.MIN_VALUE : lastId);
+        rs[0] = ps3.executeQuery();
+    }
 }
@@ -1,3 +1,4 @@
 DROP PROCEDURE read_foos;
 DROP PROCEDURE read_some_foos;
+DROP PROCEDURE read_foos_after;
 DROP TABLE T_FOOS;
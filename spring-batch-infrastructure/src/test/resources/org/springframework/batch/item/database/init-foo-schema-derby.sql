@@ -25,3 +25,10 @@ CREATE PROCEDURE read_some_foos (from_id INTEGER, to_id INTEGER)
     READS SQL DATA
     DYNAMIC RESULT SETS 1
     EXTERNAL NAME 'test.jdbc.proc.derby.TestProcedures.readSomeFoos';
+
+CREATE PROCEDURE read_foos_after (last_id BIGINT) 
+    PARAMETER STYLE JAVA 
+    LANGUAGE JAVA
+    READS SQL DATA
+    DYNAMIC RESULT SETS 1
+    EXTERNAL NAME 'test.jdbc.proc.derby.TestProcedures.readFoosAfter';